@@ -27,6 +27,10 @@ import com.yahoo.imapnio.async.client.ImapAsyncSession.DebugMode;
 import com.yahoo.imapnio.async.exception.ImapAsyncClientException;
 import com.yahoo.imapnio.async.exception.ImapAsyncClientException.FailureType;
 import com.yahoo.imapnio.async.internal.ImapAsyncSessionImpl;
+import com.yahoo.imapnio.async.internal.ImapEventLoopLagMonitor;
+import com.yahoo.imapnio.async.internal.ImapMemoryBudget;
+import com.yahoo.imapnio.async.jfr.ImapFlightRecorder;
+import com.yahoo.imapnio.async.metrics.ImapClientMetrics;
 import com.yahoo.imapnio.async.netty.ImapClientConnectHandler;
 import com.yahoo.imapnio.client.ImapClientRespReader;
 import com.yahoo.imapnio.command.ImapClientRespDecoder;
@@ -38,7 +42,9 @@ import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.ChannelPipeline;
 import io.netty.channel.ConnectTimeoutException;
+import io.netty.channel.EventLoop;
 import io.netty.channel.EventLoopGroup;
+import io.netty.channel.WriteBufferWaterMark;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioSocketChannel;
@@ -50,6 +56,7 @@ import io.netty.handler.ssl.SslContext;
 import io.netty.handler.ssl.SslContextBuilder;
 import io.netty.handler.ssl.SslHandler;
 import io.netty.handler.timeout.IdleStateHandler;
+import io.netty.util.concurrent.EventExecutor;
 import io.netty.util.concurrent.GenericFutureListener;
 
 /**
@@ -101,6 +108,18 @@ public class ImapAsyncClient {
     /** Event loop group that will serve all channels for IMAP client. */
     private final EventLoopGroup group;
 
+    /** Configuration shared by all sessions created by this client. */
+    @Nonnull
+    private final ImapAsyncClientConfig clientConfig;
+
+    /** Monitor measuring the event loop lag, null if not enabled. */
+    @Nullable
+    private final ImapEventLoopLagMonitor lagMonitor;
+
+    /** Memory budget shared by all sessions for buffering responses, null if unlimited. */
+    @Nullable
+    private final ImapMemoryBudget memoryBudget;
+
     /**
      * This class initialized the pipeline with the right handlers.
      */
@@ -111,15 +130,26 @@ public class ImapAsyncClient {
         /** Unit for IdleStateHandler parameters. */
         private TimeUnit timeUnit;
 
+        /** Maximum length of a response line. */
+        private int maxResponseLineLength;
+
+        /** Maximum size of a response literal. */
+        private int maxLiteralSize;
+
         /**
          * Initializes {@link ImapClientChannelInitializer} with the read time out value.
          *
          * @param imapReadTimeoutValue timeout value for server not responding after write command is sent
          * @param unit unit of time
+         * @param maxResponseLineLength maximum length of a response line
+         * @param maxLiteralSize maximum size of a response literal
          */
-        private ImapClientChannelInitializer(final int imapReadTimeoutValue, final TimeUnit unit) {
+        private ImapClientChannelInitializer(final int imapReadTimeoutValue, final TimeUnit unit, final int maxResponseLineLength,
+                final int maxLiteralSize) {
             this.imapReadTimeoutValue = imapReadTimeoutValue;
             this.timeUnit = unit;
+            this.maxResponseLineLength = maxResponseLineLength;
+            this.maxLiteralSize = maxLiteralSize;
         }
 
         @Override
@@ -128,8 +158,10 @@ public class ImapAsyncClient {
 
             // setting all idle timeout to ensure event will only be triggered when both read and write not happened for the given time
             pipeline.addLast(IDLE_STATE_HANDLER_NAME, new IdleStateHandler(0, 0, imapReadTimeoutValue, timeUnit)); // duplex
-            pipeline.addLast(IMAP_LINE_DECODER_HANDLER_NAME, new ImapClientRespReader(Integer.MAX_VALUE)); // inbound
-            pipeline.addLast(STRING_DECODER_HANDLER_NAME, new StringDecoder(StandardCharsets.US_ASCII)); // inbound
+            pipeline.addLast(IMAP_LINE_DECODER_HANDLER_NAME, new ImapClientRespReader(maxResponseLineLength, maxLiteralSize,
+                    clientConfig.isFlightRecorderEventsEnabled(), memoryBudget)); // inbound
+            // ISO-8859-1 maps every byte to one char and back, keeping 8-bit and binary literals intact
+            pipeline.addLast(STRING_DECODER_HANDLER_NAME, new StringDecoder(StandardCharsets.ISO_8859_1)); // inbound
             pipeline.addLast(STRING_ENCODER_HANDLER_NAME, new StringEncoder(StandardCharsets.US_ASCII)); // outbound
             pipeline.addLast(STRING_IMAP_MSG_RESPONSE_NAME, new ImapClientRespDecoder()); // inbound to convert to IMAPResponse
         }
@@ -142,7 +174,18 @@ public class ImapAsyncClient {
      * @throws SSLException when encountering an error to create a SslContext for this client
      */
     public ImapAsyncClient(final int numOfThreads) throws SSLException {
-        this(Clock.systemUTC(), new Bootstrap(), new NioEventLoopGroup(numOfThreads), LoggerFactory.getLogger(ImapAsyncClient.class));
+        this(numOfThreads, new ImapAsyncClientConfig());
+    }
+
+    /**
+     * Constructs a NIO based IMAP client.
+     *
+     * @param numOfThreads number of threads to be used by IMAP client
+     * @param config configuration shared by all sessions created by this client
+     * @throws SSLException when encountering an error to create a SslContext for this client
+     */
+    public ImapAsyncClient(final int numOfThreads, @Nonnull final ImapAsyncClientConfig config) throws SSLException {
+        this(Clock.systemUTC(), new Bootstrap(), new NioEventLoopGroup(numOfThreads), LoggerFactory.getLogger(ImapAsyncClient.class), config);
     }
 
     /**
@@ -155,12 +198,35 @@ public class ImapAsyncClient {
      */
     ImapAsyncClient(@Nonnull final Clock clock, @Nonnull final Bootstrap bootstrap, @Nonnull final EventLoopGroup group,
             @Nonnull final Logger logger) {
+        this(clock, bootstrap, group, logger, new ImapAsyncClientConfig());
+    }
+
+    /**
+     * Constructs a NIO based IMAP client.
+     *
+     * @param clock Clock instance
+     * @param bootstrap a {@link Bootstrap} instance that makes it easy to bootstrap a {@link Channel} to use for clients
+     * @param group an @{link EventLoopGroup} instance allowing registering {@link Channel}s for processing later selection during the event loop
+     * @param logger Logger instance
+     * @param config configuration shared by all sessions created by this client
+     */
+    ImapAsyncClient(@Nonnull final Clock clock, @Nonnull final Bootstrap bootstrap, @Nonnull final EventLoopGroup group,
+            @Nonnull final Logger logger, @Nonnull final ImapAsyncClientConfig config) {
         this.clock = clock;
         this.logger = logger;
         this.bootstrap = bootstrap;
         this.group = group;
+        this.clientConfig = config;
         bootstrap.channel(NioSocketChannel.class); // for client
         bootstrap.group(group);
+        if (config.getEventLoopLagProbeIntervalMillis() > 0) {
+            lagMonitor = new ImapEventLoopLagMonitor(clock, group, config.getEventLoopLagProbeIntervalMillis(),
+                    config.getMaxEventLoopLagMillis());
+            lagMonitor.start();
+        } else {
+            lagMonitor = null;
+        }
+        memoryBudget = (config.getMemoryBudgetBytes() > 0) ? new ImapMemoryBudget(config.getMemoryBudgetBytes()) : null;
     }
 
     /**
@@ -219,26 +285,51 @@ public class ImapAsyncClient {
 
         // ------------------------------------------------------------
         // setup ChannelInitializer, handlers here need to be session-less
-        bootstrap.handler(new ImapClientChannelInitializer(readTimeMillis, TimeUnit.MILLISECONDS));
+        bootstrap.handler(new ImapClientChannelInitializer(readTimeMillis, TimeUnit.MILLISECONDS, config.getMaxResponseLineLength(),
+                config.getMaxLiteralSize()));
 
         // ------------------------------------------------------------
         // connect to remote server now, setup connection timeout time before connection
         bootstrap.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectionTimeMillis);
-
-        final ImapFuture<ImapAsyncCreateSessionResponse> sessionFuture = new ImapFuture<ImapAsyncCreateSessionResponse>();
+        // outbound buffer marks deciding channel writability, session uses it to apply back pressure on writes
+        bootstrap.option(ChannelOption.WRITE_BUFFER_WATER_MARK,
+                new WriteBufferWaterMark(config.getWriteBufferLowWaterMark(), config.getWriteBufferHighWaterMark()));
+
+        final ImapFuture<ImapAsyncCreateSessionResponse> sessionFuture = new ImapFuture<ImapAsyncCreateSessionResponse>(
+                config.getCallbackExecutor());
+
+        // steer the connection away from overloaded event loops, fail fast when all are overloaded
+        Bootstrap connectBootstrap = bootstrap;
+        if (lagMonitor != null && clientConfig.getMaxEventLoopLagMillis() > 0) {
+            final EventExecutor eventLoop = lagMonitor.selectEventLoop();
+            if (eventLoop == null) {
+                sessionFuture.done(new ImapAsyncClientException(FailureType.EVENT_LOOP_OVERLOADED));
+                return sessionFuture;
+            }
+            connectBootstrap = bootstrap.clone((EventLoop) eventLoop);
+        }
+        final ImapClientMetrics metrics = clientConfig.getMetrics();
+        final long connectStartNanos = System.nanoTime();
+        final Object connectEvent = clientConfig.isFlightRecorderEventsEnabled() ? ImapFlightRecorder.beginConnect() : null;
         final ChannelFuture nettyConnectFuture;
         if (null != localAddress) {
             final InetSocketAddress remoteAddress = new InetSocketAddress(serverUri.getHost(), serverUri.getPort());
-            nettyConnectFuture = bootstrap.connect(remoteAddress, localAddress);
+            nettyConnectFuture = connectBootstrap.connect(remoteAddress, localAddress);
         } else {
-            nettyConnectFuture = bootstrap.connect(serverUri.getHost(), serverUri.getPort());
+            nettyConnectFuture = connectBootstrap.connect(serverUri.getHost(), serverUri.getPort());
         }
 
         // setup listener to handle connection done event
         nettyConnectFuture.addListener(new GenericFutureListener<io.netty.util.concurrent.Future<? super Void>>() {
             @Override
             public void operationComplete(final io.netty.util.concurrent.Future<? super Void> future) {
+                if (connectEvent != null) {
+                    ImapFlightRecorder.commitConnect(connectEvent, serverUri.toASCIIString(), future.isSuccess());
+                }
                 if (future.isSuccess()) {
+                    if (metrics != null) {
+                        metrics.onConnected(System.nanoTime() - connectStartNanos);
+                    }
 
                     // add the session specific handlers
                     final Channel ch = nettyConnectFuture.channel();
@@ -283,7 +374,8 @@ public class ImapAsyncClient {
                     final long sessionId = sessionCount.incrementAndGet();
                     sessionCount.compareAndSet(Long.MAX_VALUE - 1, 1); // roll back to 1 if reaching the max
                     pipeline.addLast(ImapClientConnectHandler.HANDLER_NAME, new ImapClientConnectHandler(clock, sessionFuture,
-                            LoggerFactory.getLogger(ImapAsyncSessionImpl.class), logOpt, sessionId, sessionCtx));
+                            LoggerFactory.getLogger(ImapAsyncSessionImpl.class), logOpt, sessionId, sessionCtx, config, clientConfig,
+                            lagMonitor));
 
                     if (logger.isTraceEnabled() || isSessionDebugOn) {
                         logger.debug(CONNECT_RESULT_REC, sessionId, sessionCtx.toString(), "success", serverUri.toASCIIString(), sniNames);
@@ -323,10 +415,42 @@ public class ImapAsyncClient {
         }
     }
 
+    /**
+     * @return lag in milliseconds of the event loops measured by the latest probe, 0 if probing is not enabled
+     */
+    public long getEventLoopLagMillis() {
+        return (lagMonitor == null) ? 0 : lagMonitor.getLagMillis();
+    }
+
+    /**
+     * @param eventLoop the event loop, for example, {@code channel.eventLoop()}
+     * @return lag in milliseconds of the given event loop measured by the latest probe, 0 if probing is not enabled
+     */
+    public long getEventLoopLagMillis(@Nonnull final EventExecutor eventLoop) {
+        return (lagMonitor == null) ? 0 : lagMonitor.getLagMillis(eventLoop);
+    }
+
+    /**
+     * @return maximum lag in milliseconds of the event loops measured since this client started, 0 if probing is not enabled
+     */
+    public long getMaxEventLoopLagMillis() {
+        return (lagMonitor == null) ? 0 : lagMonitor.getMaxLagMillis();
+    }
+
+    /**
+     * @return number of response bytes buffered by all sessions of this client, 0 if no memory budget is configured
+     */
+    public long getMemoryBudgetReservedBytes() {
+        return (memoryBudget == null) ? 0 : memoryBudget.getReservedBytes();
+    }
+
     /**
      * Closes all of the sessions within a client, and shutdown the event group.
      */
     public void shutdown() {
+        if (lagMonitor != null) {
+            lagMonitor.stop();
+        }
         this.group.shutdownGracefully();
     }
 }
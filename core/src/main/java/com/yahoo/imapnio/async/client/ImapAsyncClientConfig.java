@@ -0,0 +1,146 @@
+package com.yahoo.imapnio.async.client;
+
+import javax.annotation.Nullable;
+
+import com.yahoo.imapnio.async.metrics.ImapClientMetrics;
+import com.yahoo.imapnio.async.metrics.ImapCommandTraceListener;
+
+/**
+ * Class for IMAP Client settings shared by all sessions created by the same {@link ImapAsyncClient}.
+ */
+public final class ImapAsyncClientConfig {
+
+    /** Default interval in milliseconds for probing event loop lag, 0 means disabled. */
+    public static final long DEFAULT_EVENT_LOOP_LAG_PROBE_INTERVAL_MILLIS = 0;
+
+    /**
+     * Interval in milliseconds for probing how late the event loops run a scheduled task, aka, event loop lag. Probing is disabled when it is not
+     * positive.
+     */
+    private long eventLoopLagProbeIntervalMillis = DEFAULT_EVENT_LOOP_LAG_PROBE_INTERVAL_MILLIS;
+
+    /**
+     * Maximum event loop lag in milliseconds before an event loop is considered overloaded, new sessions and commands on it are then rejected. Load
+     * shedding is disabled when it is not positive or when event loop lag probing is disabled.
+     */
+    private long maxEventLoopLagMillis = 0;
+
+    /** Maximum number of response bytes buffered by all sessions together, not positive means unlimited. */
+    private long memoryBudgetBytes = 0;
+
+    /** Listener receiving connection and command events, null means not reporting any. */
+    @Nullable
+    private ImapClientMetrics metrics;
+
+    /** Listener receiving life cycle events of commands, null means not reporting any. */
+    @Nullable
+    private ImapCommandTraceListener commandTraceListener;
+
+    /** Flag whether Java Flight Recorder events are emitted. */
+    private boolean flightRecorderEventsEnabled = false;
+
+    /**
+     * @return interval in milliseconds for probing event loop lag, not positive means disabled
+     */
+    public long getEventLoopLagProbeIntervalMillis() {
+        return eventLoopLagProbeIntervalMillis;
+    }
+
+    /**
+     * Sets the interval in milliseconds for probing event loop lag.
+     *
+     * @param eventLoopLagProbeIntervalMillis time in milliseconds, not positive to disable probing
+     */
+    public void setEventLoopLagProbeIntervalMillis(final long eventLoopLagProbeIntervalMillis) {
+        this.eventLoopLagProbeIntervalMillis = eventLoopLagProbeIntervalMillis;
+    }
+
+    /**
+     * @return maximum event loop lag in milliseconds before an event loop is considered overloaded, not positive means no load shedding
+     */
+    public long getMaxEventLoopLagMillis() {
+        return maxEventLoopLagMillis;
+    }
+
+    /**
+     * Sets the maximum event loop lag in milliseconds before an event loop is considered overloaded. New sessions are then connected on another
+     * event loop that is not overloaded, or fail with {@code EVENT_LOOP_OVERLOADED} when all are; new commands on sessions served by an overloaded
+     * event loop fail with {@code EVENT_LOOP_OVERLOADED} as well. It requires {@link #setEventLoopLagProbeIntervalMillis(long)} to be positive, and
+     * the lag is only as fresh as the latest probe.
+     *
+     * @param maxEventLoopLagMillis time in milliseconds, not positive to disable load shedding
+     */
+    public void setMaxEventLoopLagMillis(final long maxEventLoopLagMillis) {
+        this.maxEventLoopLagMillis = maxEventLoopLagMillis;
+    }
+
+    /**
+     * @return maximum number of response bytes buffered by all sessions together, not positive means unlimited
+     */
+    public long getMemoryBudgetBytes() {
+        return memoryBudgetBytes;
+    }
+
+    /**
+     * Sets the maximum number of response bytes buffered by all sessions together, aka, literals being read and responses held for running commands
+     * until they are handed over to callers or drained from streaming queues. Sessions exceeding the budget pause reading from server until bytes
+     * are released; a session paused longer than its read timeout fails its command with {@code MEMORY_BUDGET_EXCEEDED}. The heap used may exceed
+     * the budget by at most one response per session, since data already sent by server has to be read.
+     *
+     * @param memoryBudgetBytes number of bytes, not positive for unlimited
+     */
+    public void setMemoryBudgetBytes(final long memoryBudgetBytes) {
+        this.memoryBudgetBytes = memoryBudgetBytes;
+    }
+
+    /**
+     * @return listener receiving connection and command events, null if not reporting any
+     */
+    @Nullable
+    public ImapClientMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Sets the listener receiving connection and command events from all sessions, for example, {@code ImapHistogramClientMetrics}.
+     *
+     * @param metrics the listener, null to not report any
+     */
+    public void setMetrics(@Nullable final ImapClientMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * @return listener receiving life cycle events of commands, null if not reporting any
+     */
+    @Nullable
+    public ImapCommandTraceListener getCommandTraceListener() {
+        return commandTraceListener;
+    }
+
+    /**
+     * Sets the listener receiving life cycle events of commands from all sessions, for example, to feed a tracing backend.
+     *
+     * @param commandTraceListener the listener, null to not report any
+     */
+    public void setCommandTraceListener(@Nullable final ImapCommandTraceListener commandTraceListener) {
+        this.commandTraceListener = commandTraceListener;
+    }
+
+    /**
+     * @return true if Java Flight Recorder events are emitted; false otherwise
+     */
+    public boolean isFlightRecorderEventsEnabled() {
+        return flightRecorderEventsEnabled;
+    }
+
+    /**
+     * Sets whether to emit Java Flight Recorder events for connect, greeting, session close, command execution and large literal reads. It is
+     * disabled by default, enabling it requires a JVM with Flight Recorder support, aka, Java 8u262 or later.
+     *
+     * @param flightRecorderEventsEnabled true to emit the events
+     */
+    public void setFlightRecorderEventsEnabled(final boolean flightRecorderEventsEnabled) {
+        this.flightRecorderEventsEnabled = flightRecorderEventsEnabled;
+    }
+}
@@ -1,9 +1,11 @@
 package com.yahoo.imapnio.async.client;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import com.yahoo.imapnio.async.exception.ImapAsyncClientException;
 import com.yahoo.imapnio.async.request.ImapRequest;
+import com.yahoo.imapnio.async.request.MailboxEventListener;
 import com.yahoo.imapnio.async.response.ImapAsyncResponse;
 
 /**
@@ -69,4 +71,54 @@ public interface ImapAsyncSession {
      */
     boolean isChannelClosed();
 
+    /**
+     * Returns whether the channel outbound buffer is below its high water mark, configured by
+     * {@link ImapAsyncSessionConfig#setWriteBufferHighWaterMark(int)}. Callers can use it to avoid piling up commands or data on a slow connection.
+     *
+     * @return true if channel is writable; false otherwise
+     */
+    default boolean isChannelWritable() {
+        return true;
+    }
+
+    /**
+     * Dumps the latest wire traffic of this session kept per {@link ImapAsyncSessionConfig#setWireCaptureBufferSize(int)}, with requests prefixed
+     * by "C: " and responses by "S: ". Sensitive request data is redacted.
+     *
+     * @return the captured bytes from the oldest to the newest, empty if capturing is disabled
+     */
+    default byte[] dumpWireCapture() {
+        return new byte[0];
+    }
+
+    /**
+     * Returns a snapshot of the counters of this session, for example, number of failures, bytes exchanged and memory held, allowing callers to
+     * evict unhealthy or memory-heavy sessions.
+     *
+     * @return the statistics of this session
+     * @throws UnsupportedOperationException when the implementation does not keep statistics
+     */
+    default ImapAsyncSessionStats getStats() {
+        throw new UnsupportedOperationException("statistics not supported");
+    }
+
+    /**
+     * Sets the listener to be notified of mailbox events that server sends while no command is running, for example, new messages reported after
+     * {@code NOTIFY SET} between two commands. Events arriving while a command runs are left to that command.
+     *
+     * @param listener the listener, null to drop such events
+     * @throws UnsupportedOperationException when the implementation does not deliver events between commands
+     */
+    default void setMailboxEventListener(@Nullable final MailboxEventListener listener) {
+        throw new UnsupportedOperationException("mailbox event listener not supported");
+    }
+
+    /**
+     * Resumes reading from server after the running command returned {@code UntaggedResponseDecision.STOP_READING} for an untagged response.
+     * Reading might stay paused for other reasons, such as a lagging streaming consumer or an exhausted memory budget.
+     */
+    default void resumeReading() {
+        // nothing to resume by default
+    }
+
 }
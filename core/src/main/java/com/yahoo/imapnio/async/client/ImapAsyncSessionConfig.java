@@ -1,16 +1,79 @@
 package com.yahoo.imapnio.async.client;
 
+import java.util.concurrent.Executor;
+import java.util.zip.Deflater;
+
+import javax.annotation.Nullable;
+
 /**
  * Class for IMAP Client connection and channel settings.
  */
 public final class ImapAsyncSessionConfig {
 
+    /**
+     * Policy on how a session handles writes when the channel outbound buffer is above its high water mark, aka, channel is not writable.
+     */
+    public enum WriteBackpressurePolicy {
+        /** Writes are always handed to the channel regardless of its writability. */
+        IGNORE,
+        /** Writes are held by the session and flushed once the channel becomes writable again. */
+        DEFER,
+        /** New commands are rejected while the channel is not writable, continuation data of a running command is deferred. */
+        REJECT
+    }
+
+    /**
+     * Policy on when the bytes compressed after COMPRESS=DEFLATE are flushed to the network.
+     */
+    public enum DeflateFlushPolicy {
+        /** Every write is sync flushed, so each command reaches server as soon as written. */
+        EACH_WRITE,
+        /** Writes are compressed together and sync flushed once the channel is flushed, giving better ratio to commands written in a batch. */
+        CHANNEL_FLUSH
+    }
+
+    /**
+     * Policy on whether a session starts COMPRESS=DEFLATE by itself right after a successful LOGIN or AUTHENTICATE command.
+     */
+    public enum AutoCompressPolicy {
+        /** Compression is started only when the caller asks for it. */
+        NEVER,
+        /** Compression is always started after authentication. */
+        ALWAYS,
+        /**
+         * Compression is started after authentication when server advertises COMPRESS=DEFLATE, and server is not on a loopback address where
+         * compression only costs CPU. CAPABILITY command is sent to find it out if the authentication responses carry no capability.
+         */
+        WHEN_SUPPORTED_AND_REMOTE
+    }
+
     /** Default connection timeout value in milliseconds. */
     public static final int DEFAULT_CONNECTION_TIMEOUT_MILLIS = 10000;
 
     /** Default IMAP command response read from server timeout value in milliseconds. */
     public static final int DEFAULT_READ_TIMEOUT_MILLIS = 10000;
 
+    /** Default outbound buffer high water mark in bytes, same as netty default. */
+    public static final int DEFAULT_WRITE_BUFFER_HIGH_WATER_MARK = 64 * 1024;
+
+    /** Default outbound buffer low water mark in bytes, same as netty default. */
+    public static final int DEFAULT_WRITE_BUFFER_LOW_WATER_MARK = 32 * 1024;
+
+    /** Default maximum number of response bytes buffered for the consumer, unlimited. */
+    public static final long DEFAULT_MAX_BUFFERED_RESPONSE_BYTES = Long.MAX_VALUE;
+
+    /** Default number of bytes of the latest wire traffic kept per session. */
+    public static final int DEFAULT_WIRE_CAPTURE_BUFFER_SIZE = 8 * 1024;
+
+    /** Default maximum length of a response line in bytes, unlimited. */
+    public static final int DEFAULT_MAX_RESPONSE_LINE_LENGTH = Integer.MAX_VALUE;
+
+    /** Default maximum size of a response literal in bytes, unlimited. */
+    public static final int DEFAULT_MAX_LITERAL_SIZE = Integer.MAX_VALUE;
+
+    /** Default compression level used after COMPRESS=DEFLATE. */
+    public static final int DEFAULT_COMPRESSION_LEVEL = 5;
+
     /**
      * Maximum time in milliseconds for opening a connection, this maps to CONNECT_TIMEOUT_MILLIS in {@code ChannelOption}, it will be used when
      * establishing a connection.
@@ -22,6 +85,52 @@ public final class ImapAsyncSessionConfig {
      */
     private int readTimeoutMillis = DEFAULT_READ_TIMEOUT_MILLIS;
 
+    /**
+     * Number of bytes pending in the outbound buffer above which the channel becomes not writable. This maps to WRITE_BUFFER_WATER_MARK in
+     * {@code ChannelOption}.
+     */
+    private int writeBufferHighWaterMark = DEFAULT_WRITE_BUFFER_HIGH_WATER_MARK;
+
+    /**
+     * Number of bytes pending in the outbound buffer below which the channel becomes writable again. This maps to WRITE_BUFFER_WATER_MARK in
+     * {@code ChannelOption}.
+     */
+    private int writeBufferLowWaterMark = DEFAULT_WRITE_BUFFER_LOW_WATER_MARK;
+
+    /** Policy on writes when the channel is not writable. */
+    private WriteBackpressurePolicy writeBackpressurePolicy = WriteBackpressurePolicy.IGNORE;
+
+    /**
+     * Maximum number of response bytes buffered in a streaming response queue not yet consumed by caller. Once reached, session stops reading from
+     * server till the consumer drains the queue to half of it.
+     */
+    private long maxBufferedResponseBytes = DEFAULT_MAX_BUFFERED_RESPONSE_BYTES;
+
+    /** Number of bytes of the latest wire traffic kept per session, 0 means not capturing. */
+    private int wireCaptureBufferSize = DEFAULT_WIRE_CAPTURE_BUFFER_SIZE;
+
+    /** Maximum length in bytes of a response line, excluding literals, read from server. */
+    private int maxResponseLineLength = DEFAULT_MAX_RESPONSE_LINE_LENGTH;
+
+    /** Maximum size in bytes of a literal read from server. */
+    private int maxLiteralSize = DEFAULT_MAX_LITERAL_SIZE;
+
+    /** Compression level used after COMPRESS=DEFLATE, from 0 (no compression) to 9 (best compression). */
+    private int compressionLevel = DEFAULT_COMPRESSION_LEVEL;
+
+    /** Compression strategy used after COMPRESS=DEFLATE, one of the strategies of {@link Deflater}. */
+    private int compressionStrategy = Deflater.DEFAULT_STRATEGY;
+
+    /** Policy on when the compressed bytes are flushed to the network. */
+    private DeflateFlushPolicy deflateFlushPolicy = DeflateFlushPolicy.EACH_WRITE;
+
+    /** Policy on whether compression is started by the session after authentication. */
+    private AutoCompressPolicy autoCompressPolicy = AutoCompressPolicy.NEVER;
+
+    /** Executor to run the callbacks of futures returned by the session, null means running them on the Netty event loop. */
+    @Nullable
+    private Executor callbackExecutor;
+
     /**
      * @return Maximum time for opening a connection
      */
@@ -53,4 +162,225 @@ public final class ImapAsyncSessionConfig {
     public void setReadTimeoutMillis(final int readTimeoutMillis) {
         this.readTimeoutMillis = readTimeoutMillis;
     }
+
+    /**
+     * @return number of bytes in the outbound buffer above which the channel is not writable
+     */
+    public int getWriteBufferHighWaterMark() {
+        return writeBufferHighWaterMark;
+    }
+
+    /**
+     * Sets the number of bytes in the outbound buffer above which the channel is not writable.
+     *
+     * @param writeBufferHighWaterMark number of bytes, cannot be less than the low water mark
+     * @throws IllegalArgumentException when it is less than the low water mark, lower the low water mark first in that case
+     */
+    public void setWriteBufferHighWaterMark(final int writeBufferHighWaterMark) {
+        if (writeBufferHighWaterMark < writeBufferLowWaterMark) {
+            throw new IllegalArgumentException("write buffer high water mark " + writeBufferHighWaterMark + " is less than the low water mark "
+                    + writeBufferLowWaterMark);
+        }
+        this.writeBufferHighWaterMark = writeBufferHighWaterMark;
+    }
+
+    /**
+     * @return number of bytes in the outbound buffer below which the channel is writable again
+     */
+    public int getWriteBufferLowWaterMark() {
+        return writeBufferLowWaterMark;
+    }
+
+    /**
+     * Sets the number of bytes in the outbound buffer below which the channel is writable again.
+     *
+     * @param writeBufferLowWaterMark number of bytes, cannot be negative or greater than the high water mark
+     * @throws IllegalArgumentException when it is negative or greater than the high water mark, raise the high water mark first in that case
+     */
+    public void setWriteBufferLowWaterMark(final int writeBufferLowWaterMark) {
+        if (writeBufferLowWaterMark < 0 || writeBufferLowWaterMark > writeBufferHighWaterMark) {
+            throw new IllegalArgumentException("write buffer low water mark " + writeBufferLowWaterMark + " is negative or greater than the high "
+                    + "water mark " + writeBufferHighWaterMark);
+        }
+        this.writeBufferLowWaterMark = writeBufferLowWaterMark;
+    }
+
+    /**
+     * @return the policy on writes when the channel is not writable
+     */
+    public WriteBackpressurePolicy getWriteBackpressurePolicy() {
+        return writeBackpressurePolicy;
+    }
+
+    /**
+     * Sets the policy on writes when the channel is not writable.
+     *
+     * @param writeBackpressurePolicy the policy
+     */
+    public void setWriteBackpressurePolicy(final WriteBackpressurePolicy writeBackpressurePolicy) {
+        this.writeBackpressurePolicy = writeBackpressurePolicy;
+    }
+
+    /**
+     * @return maximum number of response bytes buffered for the consumer before session stops reading from server
+     */
+    public long getMaxBufferedResponseBytes() {
+        return maxBufferedResponseBytes;
+    }
+
+    /**
+     * Sets the maximum number of response bytes buffered in a {@code ImapStreamingResponseQueue} not yet consumed by caller. Once reached, session
+     * turns off auto read on the channel, so TCP flow control pushes back on the server, and turns it back on when the consumer drains the queue to
+     * half of it.
+     *
+     * @param maxBufferedResponseBytes number of bytes
+     */
+    public void setMaxBufferedResponseBytes(final long maxBufferedResponseBytes) {
+        this.maxBufferedResponseBytes = maxBufferedResponseBytes;
+    }
+
+    /**
+     * @return executor to run the callbacks of futures returned by the session, null means running them on the Netty event loop
+     */
+    @Nullable
+    public Executor getCallbackExecutor() {
+        return callbackExecutor;
+    }
+
+    /**
+     * Sets the executor to run the callbacks and completion stage listeners of futures returned by the session. Callbacks doing heavy work, such as
+     * parsing MIME or writing to storage, should be moved off the Netty event loop since it stalls every other session served by the same loop.
+     *
+     * @param callbackExecutor the executor, null to run callbacks on the Netty event loop
+     */
+    public void setCallbackExecutor(@Nullable final Executor callbackExecutor) {
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    /**
+     * @return number of bytes of the latest wire traffic kept per session, 0 means not capturing
+     */
+    public int getWireCaptureBufferSize() {
+        return wireCaptureBufferSize;
+    }
+
+    /**
+     * Sets the number of bytes of the latest wire traffic kept per session. The captured traffic is logged when a command fails and can be dumped
+     * on demand via {@link ImapAsyncSession#dumpWireCapture()}. Sensitive request data such as credentials and literals in responses are redacted,
+     * yet response lines still reveal folder names, flags and envelope data, set it to 0 to opt out of capturing.
+     *
+     * @param wireCaptureBufferSize number of bytes, 0 to not capture
+     */
+    public void setWireCaptureBufferSize(final int wireCaptureBufferSize) {
+        this.wireCaptureBufferSize = wireCaptureBufferSize;
+    }
+
+    /**
+     * @return maximum length in bytes of a response line, excluding literals, read from server
+     */
+    public int getMaxResponseLineLength() {
+        return maxResponseLineLength;
+    }
+
+    /**
+     * Sets the maximum length in bytes of a response line, excluding literals, read from server. A longer line is discarded without being buffered
+     * and the running command fails with {@code RESPONSE_TOO_LARGE}.
+     *
+     * @param maxResponseLineLength number of bytes
+     */
+    public void setMaxResponseLineLength(final int maxResponseLineLength) {
+        this.maxResponseLineLength = maxResponseLineLength;
+    }
+
+    /**
+     * @return maximum size in bytes of a literal read from server
+     */
+    public int getMaxLiteralSize() {
+        return maxLiteralSize;
+    }
+
+    /**
+     * Sets the maximum size in bytes of a literal read from server. The response carrying a larger literal is discarded without allocating a buffer
+     * for it and the running command fails with {@code RESPONSE_TOO_LARGE}.
+     *
+     * @param maxLiteralSize number of bytes
+     */
+    public void setMaxLiteralSize(final int maxLiteralSize) {
+        this.maxLiteralSize = maxLiteralSize;
+    }
+
+    /**
+     * @return compression level used after COMPRESS=DEFLATE
+     */
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    /**
+     * Sets the compression level used after COMPRESS=DEFLATE. Lower levels cost less CPU, higher levels save more bytes on the network.
+     *
+     * @param compressionLevel level from 0 (no compression) to 9 (best compression), or {@link Deflater#DEFAULT_COMPRESSION}
+     * @throws IllegalArgumentException when it is not a valid compression level
+     */
+    public void setCompressionLevel(final int compressionLevel) {
+        if (compressionLevel != Deflater.DEFAULT_COMPRESSION
+                && (compressionLevel < Deflater.NO_COMPRESSION || compressionLevel > Deflater.BEST_COMPRESSION)) {
+            throw new IllegalArgumentException("compression level " + compressionLevel + " is not between 0 and 9, nor -1");
+        }
+        this.compressionLevel = compressionLevel;
+    }
+
+    /**
+     * @return compression strategy used after COMPRESS=DEFLATE
+     */
+    public int getCompressionStrategy() {
+        return compressionStrategy;
+    }
+
+    /**
+     * Sets the compression strategy used after COMPRESS=DEFLATE.
+     *
+     * @param compressionStrategy {@link Deflater#DEFAULT_STRATEGY}, {@link Deflater#FILTERED} or {@link Deflater#HUFFMAN_ONLY}
+     * @throws IllegalArgumentException when it is not one of the above strategies
+     */
+    public void setCompressionStrategy(final int compressionStrategy) {
+        if (compressionStrategy != Deflater.DEFAULT_STRATEGY && compressionStrategy != Deflater.FILTERED
+                && compressionStrategy != Deflater.HUFFMAN_ONLY) {
+            throw new IllegalArgumentException("compression strategy " + compressionStrategy + " is not supported");
+        }
+        this.compressionStrategy = compressionStrategy;
+    }
+
+    /**
+     * @return policy on when the compressed bytes are flushed to the network
+     */
+    public DeflateFlushPolicy getDeflateFlushPolicy() {
+        return deflateFlushPolicy;
+    }
+
+    /**
+     * Sets the policy on when the compressed bytes are flushed to the network.
+     *
+     * @param deflateFlushPolicy the policy
+     */
+    public void setDeflateFlushPolicy(final DeflateFlushPolicy deflateFlushPolicy) {
+        this.deflateFlushPolicy = deflateFlushPolicy;
+    }
+
+    /**
+     * @return policy on whether compression is started by the session after authentication
+     */
+    public AutoCompressPolicy getAutoCompressPolicy() {
+        return autoCompressPolicy;
+    }
+
+    /**
+     * Sets the policy on whether compression is started by the session after authentication. When compression is started, the future of the
+     * authentication command completes once server accepts or refuses COMPRESS, thus the next command of the caller is sent compressed.
+     *
+     * @param autoCompressPolicy the policy
+     */
+    public void setAutoCompressPolicy(final AutoCompressPolicy autoCompressPolicy) {
+        this.autoCompressPolicy = autoCompressPolicy;
+    }
 }
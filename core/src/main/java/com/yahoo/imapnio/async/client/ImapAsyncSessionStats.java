@@ -0,0 +1,208 @@
+package com.yahoo.imapnio.async.client;
+
+import java.util.Collections;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+
+import com.yahoo.imapnio.async.exception.ImapAsyncClientException.FailureType;
+
+/**
+ * Snapshot of the counters of an {@link ImapAsyncSession}, allowing pools and load balancers to evict sessions that are unhealthy or hold too much
+ * memory. Network bytes are counted on the socket, that is, after TLS encryption and compression, while IMAP bytes are the plain protocol bytes
+ * before them. Both are equal when neither TLS nor compression is in use. Counters start from the creation of the session, thus bytes exchanged
+ * before the greeting, for example, TLS handshake, are not counted. Compressed and uncompressed bytes are counted on both sides of COMPRESS=DEFLATE
+ * handlers once compression starts, telling how many bytes compression saves.
+ */
+public final class ImapAsyncSessionStats {
+
+    /** Number of commands completed with a tagged response, including NO and BAD responses. */
+    private final long commandsExecuted;
+
+    /** Number of commands failed without a tagged response, keyed by failure type. */
+    @Nonnull
+    private final Map<FailureType, Long> failures;
+
+    /** Number of bytes read from network. */
+    private final long networkBytesRead;
+
+    /** Number of bytes written to network. */
+    private final long networkBytesWritten;
+
+    /** Number of plain IMAP bytes read. */
+    private final long imapBytesRead;
+
+    /** Number of plain IMAP bytes written. */
+    private final long imapBytesWritten;
+
+    /** Number of compressed bytes read. */
+    private final long compressedBytesRead;
+
+    /** Number of compressed bytes written. */
+    private final long compressedBytesWritten;
+
+    /** Number of uncompressed bytes read. */
+    private final long uncompressedBytesRead;
+
+    /** Number of uncompressed bytes written. */
+    private final long uncompressedBytesWritten;
+
+    /** Number of bytes of the largest response. */
+    private final long largestResponseBytes;
+
+    /** Number of literal bytes read. */
+    private final long literalBytesRead;
+
+    /** Number of response bytes currently held for the running command. */
+    private final long bufferedResponseBytes;
+
+    /** Time in milliseconds since the last request sent or response received. */
+    private final long timeSinceLastActivityMillis;
+
+    /**
+     * Initializes a {@link ImapAsyncSessionStats}.
+     *
+     * @param commandsExecuted number of commands completed with a tagged response
+     * @param failures number of commands failed without a tagged response, keyed by failure type
+     * @param networkBytesRead number of bytes read from network
+     * @param networkBytesWritten number of bytes written to network
+     * @param imapBytesRead number of plain IMAP bytes read
+     * @param imapBytesWritten number of plain IMAP bytes written
+     * @param compressedBytesRead number of compressed bytes read
+     * @param compressedBytesWritten number of compressed bytes written
+     * @param uncompressedBytesRead number of uncompressed bytes read
+     * @param uncompressedBytesWritten number of uncompressed bytes written
+     * @param largestResponseBytes number of bytes of the largest response
+     * @param literalBytesRead number of literal bytes read
+     * @param bufferedResponseBytes number of response bytes currently held for the running command
+     * @param timeSinceLastActivityMillis time in milliseconds since the last request sent or response received
+     */
+    @SuppressWarnings("parameternumber")
+    public ImapAsyncSessionStats(final long commandsExecuted, @Nonnull final Map<FailureType, Long> failures, final long networkBytesRead,
+            final long networkBytesWritten, final long imapBytesRead, final long imapBytesWritten, final long compressedBytesRead,
+            final long compressedBytesWritten, final long uncompressedBytesRead, final long uncompressedBytesWritten, final long largestResponseBytes,
+            final long literalBytesRead, final long bufferedResponseBytes, final long timeSinceLastActivityMillis) {
+        this.commandsExecuted = commandsExecuted;
+        this.failures = Collections.unmodifiableMap(failures);
+        this.networkBytesRead = networkBytesRead;
+        this.networkBytesWritten = networkBytesWritten;
+        this.imapBytesRead = imapBytesRead;
+        this.imapBytesWritten = imapBytesWritten;
+        this.compressedBytesRead = compressedBytesRead;
+        this.compressedBytesWritten = compressedBytesWritten;
+        this.uncompressedBytesRead = uncompressedBytesRead;
+        this.uncompressedBytesWritten = uncompressedBytesWritten;
+        this.largestResponseBytes = largestResponseBytes;
+        this.literalBytesRead = literalBytesRead;
+        this.bufferedResponseBytes = bufferedResponseBytes;
+        this.timeSinceLastActivityMillis = timeSinceLastActivityMillis;
+    }
+
+    /**
+     * @return number of commands completed with a tagged response, including NO and BAD responses
+     */
+    public long getCommandsExecuted() {
+        return commandsExecuted;
+    }
+
+    /**
+     * @return number of commands failed without a tagged response, keyed by failure type, failure types never happened are absent
+     */
+    @Nonnull
+    public Map<FailureType, Long> getFailures() {
+        return failures;
+    }
+
+    /**
+     * @param failureType the failure type
+     * @return number of commands failed with the given failure type
+     */
+    public long getFailures(@Nonnull final FailureType failureType) {
+        final Long count = failures.get(failureType);
+        return (count == null) ? 0 : count;
+    }
+
+    /**
+     * @return number of bytes read from network, after TLS and compression
+     */
+    public long getNetworkBytesRead() {
+        return networkBytesRead;
+    }
+
+    /**
+     * @return number of bytes written to network, after TLS and compression
+     */
+    public long getNetworkBytesWritten() {
+        return networkBytesWritten;
+    }
+
+    /**
+     * @return number of plain IMAP bytes read, before TLS and compression
+     */
+    public long getImapBytesRead() {
+        return imapBytesRead;
+    }
+
+    /**
+     * @return number of plain IMAP bytes written, before TLS and compression
+     */
+    public long getImapBytesWritten() {
+        return imapBytesWritten;
+    }
+
+    /**
+     * @return number of compressed bytes read since compression started, 0 if compression is not in use
+     */
+    public long getCompressedBytesRead() {
+        return compressedBytesRead;
+    }
+
+    /**
+     * @return number of compressed bytes written since compression started, 0 if compression is not in use
+     */
+    public long getCompressedBytesWritten() {
+        return compressedBytesWritten;
+    }
+
+    /**
+     * @return number of uncompressed bytes read since compression started, 0 if compression is not in use
+     */
+    public long getUncompressedBytesRead() {
+        return uncompressedBytesRead;
+    }
+
+    /**
+     * @return number of uncompressed bytes written since compression started, 0 if compression is not in use
+     */
+    public long getUncompressedBytesWritten() {
+        return uncompressedBytesWritten;
+    }
+
+    /**
+     * @return number of bytes of the largest response, including its literals
+     */
+    public long getLargestResponseBytes() {
+        return largestResponseBytes;
+    }
+
+    /**
+     * @return number of literal bytes read
+     */
+    public long getLiteralBytesRead() {
+        return literalBytesRead;
+    }
+
+    /**
+     * @return number of response bytes currently held for the running command, 0 if no command is running
+     */
+    public long getBufferedResponseBytes() {
+        return bufferedResponseBytes;
+    }
+
+    /**
+     * @return time in milliseconds since the last request sent or response received
+     */
+    public long getTimeSinceLastActivityMillis() {
+        return timeSinceLastActivityMillis;
+    }
+}
@@ -1,107 +1,164 @@
 package com.yahoo.imapnio.async.client;
 
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
-import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
- * Future object for async operations.
+ * Future object for async operations. It is backed by a lock-free {@link CompletableFuture}, waiters are woken up as soon as it is done, and
+ * callbacks are run without holding any lock.
  *
  * @param <V> CommandResponse
  */
 
 public class ImapFuture<V> implements Future<V> {
 
-    /** Is this future task done? */
-    private final AtomicBoolean isDone = new AtomicBoolean(false);
-    /** Is this future task done? */
-    private final AtomicBoolean isCancelled = new AtomicBoolean(false);
-    /** Holds the failure cause. */
-    private final AtomicReference<Exception> causeRef = new AtomicReference<Exception>();
-    /** Used to synchronize threads. */
-    private final Object lock = new Object();
-    /** holds the result object. */
-    private final AtomicReference<V> resultRef = new AtomicReference<V>();
-    /** Wait interval when the user calls get(). */
-    private static final int GET_WAIT_INTERVAL_MILLIS = 1000;
-    /** Callback called when the future completes. */
-    private Consumer<V> doneCallback = new Consumer<V>() {
-        @Override
-        public void accept(final V v) {
+    /** Logger for failures thrown by callbacks, which cannot be propagated to the thread completing this future. */
+    private static final Logger LOGGER = LoggerFactory.getLogger(ImapFuture.class);
 
-        }
-    };
-    /** Callback called when the future fails. */
-    private Consumer<Exception> exceptionCallback = new Consumer<Exception>() {
-        @Override
-        public void accept(final Exception e) {
+    /** Completion primitive holding either the result or the failure cause. */
+    private final CompletableFuture<V> completion = new CompletableFuture<V>();
+
+    /** Token of the latest registered done callback, callbacks registered earlier are not called. */
+    private final AtomicReference<Object> doneCallbackToken = new AtomicReference<Object>();
+
+    /** Token of the latest registered exception callback, callbacks registered earlier are not called. */
+    private final AtomicReference<Object> exceptionCallbackToken = new AtomicReference<Object>();
+
+    /** Token of the latest registered canceled callback, callbacks registered earlier are not called. */
+    private final AtomicReference<Object> canceledCallbackToken = new AtomicReference<Object>();
+
+    /** Executor to run callbacks and completion stage listeners, null means running them on the thread completing this future. */
+    @Nullable
+    private final Executor callbackExecutor;
+
+    /**
+     * Initializes a {@link ImapFuture} running callbacks on the thread completing it, which is usually the Netty event loop.
+     */
+    public ImapFuture() {
+        this(null);
+    }
+
+    /**
+     * Initializes a {@link ImapFuture} running callbacks and completion stage listeners on the given executor, keeping heavy callbacks off the
+     * Netty event loop.
+     *
+     * @param callbackExecutor executor to run callbacks, null to run them on the thread completing this future
+     */
+    public ImapFuture(@Nullable final Executor callbackExecutor) {
+        this.callbackExecutor = callbackExecutor;
+    }
 
+    /**
+     * Registers the given action to be run when this future completes, on the callback executor if there is one.
+     *
+     * @param action the action
+     */
+    private void whenComplete(@Nonnull final BiConsumer<V, Throwable> action) {
+        if (callbackExecutor == null) {
+            completion.whenComplete(action);
+        } else {
+            completion.whenCompleteAsync(action, callbackExecutor);
         }
-    };
-    /** Callback called when the future is cancelled. */
-    private Runnable canceledCallback = new Runnable() {
-        @Override
-        public void run() {
+    }
 
+    /**
+     * Runs the given callback, logging any exception it throws instead of letting it escape to the thread completing this future, where it would
+     * be silently swallowed.
+     *
+     * @param callback the callback to run
+     */
+    private static void runCallback(@Nonnull final Runnable callback) {
+        try {
+            callback.run();
+        } catch (final RuntimeException e) {
+            LOGGER.error("Exception thrown by ImapFuture callback.", e);
         }
-    };
+    }
 
     /**
      * Registers a callback to be called when the future completes. If the future is already done, the callback
      * is run straight away.
      *
-     * Be aware that this callback might run on the Netty event loop thus avoid blocking calls.
+     * Be aware that this callback might run on the Netty event loop, unless a callback executor is given, thus avoid blocking calls.
      *
      * @param doneCallback the callback to register
      */
     public void setDoneCallback(final Consumer<V> doneCallback) {
-        synchronized (lock) {
-            this.doneCallback = doneCallback;
-            if (resultRef.get() != null) {
-                doneCallback.accept(resultRef.get());
+        final Object token = new Object();
+        doneCallbackToken.set(token);
+        whenComplete((result, cause) -> {
+            if (cause == null && doneCallbackToken.get() == token) {
+                runCallback(() -> doneCallback.accept(result));
             }
-        }
+        });
     }
 
     /**
      * Registers a callback to be called when the future fails. If the future did already failed, the callback
      * is run straight away.
      *
-     * Be aware that this callback might run on the Netty event loop thus avoid blocking calls.
+     * Be aware that this callback might run on the Netty event loop, unless a callback executor is given, thus avoid blocking calls.
      *
      * @param exceptionCallback the callback to register
      */
     public void setExceptionCallback(final Consumer<Exception> exceptionCallback) {
-        synchronized (lock) {
-            this.exceptionCallback = exceptionCallback;
-            if (causeRef.get() != null && !isCancelled()) {
-                exceptionCallback.accept(causeRef.get());
+        final Object token = new Object();
+        exceptionCallbackToken.set(token);
+        whenComplete((result, cause) -> {
+            if (cause != null && !(cause instanceof CancellationException) && exceptionCallbackToken.get() == token) {
+                final Exception ex = (cause instanceof Exception) ? (Exception) cause : new ExecutionException(cause);
+                runCallback(() -> exceptionCallback.accept(ex));
             }
-        }
+        });
     }
 
     /**
      * Registers a callback to be called when the future is cancelled. If the future is already canceled, the callback
      * is run straight away.
      *
-     * Be aware that this callback might run on the Netty event loop thus avoid blocking calls.
+     * Be aware that this callback might run on the Netty event loop, unless a callback executor is given, thus avoid blocking calls.
      *
      * @param canceledCallback the callback to register
      */
     public void setCanceledCallback(final Runnable canceledCallback) {
-        synchronized (lock) {
-            this.canceledCallback = canceledCallback;
-            if (isCancelled()) {
-                canceledCallback.run();
+        final Object token = new Object();
+        canceledCallbackToken.set(token);
+        whenComplete((result, cause) -> {
+            if (cause instanceof CancellationException && canceledCallbackToken.get() == token) {
+                runCallback(canceledCallback);
             }
-        }
+        });
+    }
+
+    /**
+     * Returns a {@link CompletionStage} that completes when this future completes, allowing callers to chain commands, for example AUTHENTICATE
+     * then SELECT then FETCH, and to register any number of listeners without blocking a thread. Use the *Async methods with an {@code Executor} to
+     * run heavy continuations off the Netty event loop.
+     *
+     * When this future fails or is cancelled, the stage completes exceptionally with a {@code CompletionException} wrapping the cause. Completing
+     * or cancelling the returned stage does not affect this future. When a callback executor is given, the stage is completed on it.
+     *
+     * @return a stage that completes with the same result as this future
+     */
+    public CompletionStage<V> toCompletionStage() {
+        return (callbackExecutor == null) ? completion.thenApply(Function.identity())
+                : completion.thenApplyAsync(Function.identity(), callbackExecutor);
     }
 
     /**
@@ -111,7 +168,7 @@ public class ImapFuture<V> implements Future<V> {
      */
     @Override
     public boolean isCancelled() {
-        return isCancelled.get();
+        return completion.isCancelled();
     }
 
     /**
@@ -121,93 +178,49 @@ public class ImapFuture<V> implements Future<V> {
      */
     @Override
     public boolean isDone() {
-        return isDone.get();
+        return completion.isDone();
     }
 
     @Override
     public boolean cancel(final boolean mayInterruptIfRunning) {
-        done(new CancellationException(), true);
-        canceledCallback.run();
-        return true; // returned flag means success in setting cancel state.
+        return completion.cancel(mayInterruptIfRunning); // false if this future is already done
     }
 
     /**
-     * Invoked when the worker has completed its processing.
+     * Invoked when the worker has completed its processing. Only the first result or exception takes effect.
      *
      * @param result the result to be set
      */
     public void done(@Nonnull final V result) {
-        synchronized (lock) {
-            if (!isDone.get()) {
-                resultRef.set(result);
-                isDone.set(true);
-            }
-            lock.notify();
-            doneCallback.accept(result);
-        }
+        completion.complete(result);
     }
 
     /**
-     * Invoked when the service throws an exception.
+     * Invoked when the service throws an exception. Only the first result or exception takes effect.
      *
      * @param cause the exception that caused execution to fail
      */
     public void done(final Exception cause) {
-        done(cause, false);
-    }
-
-    /**
-     * Invoked when the service throws an exception.
-     *
-     * @param cause the exception that caused execution to fail
-     * @param cancelled true if the call was the result of a cancellation
-     */
-    private void done(final Exception cause, final boolean cancelled) {
-        synchronized (lock) {
-            if (!isDone.get()) {
-                causeRef.set(cause);
-                isDone.set(true);
-                isCancelled.set(cancelled);
-                if (!cancelled) {
-                    exceptionCallback.accept(cause);
-                }
-            }
-            lock.notify();
-        }
+        completion.completeExceptionally(cause);
     }
 
     @Override
     public V get() throws InterruptedException, ExecutionException {
-        synchronized (lock) {
-            while (!isDone.get()) {
-                lock.wait(GET_WAIT_INTERVAL_MILLIS);
-            }
-            lock.notify();
-        }
-        if (causeRef.get() != null) {
-            throw new ExecutionException(causeRef.get());
-        } else {
-            return resultRef.get();
+        try {
+            return completion.get();
+        } catch (final CancellationException e) {
+            throw new ExecutionException(e);
         }
     }
 
     @Override
     public V get(final long timeout, @Nonnull final TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
-        synchronized (lock) {
-            if (!isDone.get()) {
-                lock.wait(unit.toMillis(timeout));
-            }
-            lock.notify();
-        }
-        if (isDone.get()) {
-            if (causeRef.get() != null) {
-                throw new ExecutionException(causeRef.get());
-            } else {
-                return resultRef.get();
-            }
-        } else {
+        try {
+            return completion.get(timeout, unit);
+        } catch (final CancellationException e) {
+            throw new ExecutionException(e);
+        } catch (final TimeoutException e) {
             throw new TimeoutException("Timeout reached.");
         }
     }
 }
-
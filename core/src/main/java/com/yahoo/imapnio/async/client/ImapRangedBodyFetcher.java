@@ -0,0 +1,352 @@
+package com.yahoo.imapnio.async.client;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.sun.mail.iap.ByteArray;
+import com.sun.mail.iap.CommandFailedException;
+import com.sun.mail.iap.ProtocolException;
+import com.sun.mail.imap.protocol.BODY;
+import com.sun.mail.imap.protocol.FetchResponse;
+import com.sun.mail.imap.protocol.IMAPResponse;
+import com.yahoo.imapnio.async.exception.ImapAsyncClientException;
+import com.yahoo.imapnio.async.exception.ImapAsyncClientException.FailureType;
+import com.yahoo.imapnio.async.request.UidFetchCommand;
+import com.yahoo.imapnio.async.response.ImapAsyncResponse;
+
+/**
+ * This class downloads one large message, or one of its body sections, in fixed-size chunks with BODY.PEEK[section]&lt;offset.length&gt; partial
+ * fetches. Chunks are spread over the given sessions, one chunk in flight per session, and written to the sink in order. The sessions must have the
+ * folder of the message selected, and must not be used for other commands during the download. Chunks arrive on the Netty event loop, thus a sink
+ * that might block, for example, a file or a socket, should be given an executor to be written on.
+ *
+ * <p>
+ * The end of the content is detected by a chunk shorter than the chunk size, thus the size need not be known. Chunks fetched ahead of the sink are
+ * held in memory, up to {@value #CHUNKS_AHEAD_PER_SESSION} chunks per session. If the download fails, for example, because a connection is dropped,
+ * {@link #getCommittedOffset()} tells how many bytes are written to the sink, and a new fetcher can resume from there.
+ * </p>
+ */
+public final class ImapRangedBodyFetcher {
+
+    /** Maximum number of chunks fetched ahead of the sink per session. */
+    private static final int CHUNKS_AHEAD_PER_SESSION = 2;
+
+    /** FETCH keyword. */
+    private static final String FETCH = "FETCH";
+
+    /** Partial body fetch data item prefix. */
+    private static final String BODY_PEEK = "BODY.PEEK[";
+
+    /** Sessions to fetch chunks with. */
+    private final List<ImapAsyncSession> sessions;
+
+    /** UID of the message. */
+    private final String uid;
+
+    /** Body section to download, empty for the whole message. */
+    private final String section;
+
+    /** Number of bytes per chunk. */
+    private final int chunkSize;
+
+    /** Sink to write the content to, in order. */
+    private final OutputStream sink;
+
+    /** Executor to write to the sink on. */
+    private final Executor sinkExecutor;
+
+    /** Future completed with the end offset once all chunks are written to the sink. */
+    private final ImapFuture<Long> future;
+
+    /** Chunks fetched but not written yet since a preceding chunk is still in flight, keyed by offset. */
+    private final TreeMap<Long, ByteArray> pendingChunks;
+
+    /** Sessions waiting for the sink to catch up before fetching further ahead. */
+    private final ArrayDeque<ImapAsyncSession> idleSessions;
+
+    /** Number of bytes written to the sink, aka, offset of the next byte to be written. */
+    private long committedOffset;
+
+    /** Offset of the next chunk to fetch. */
+    private long nextOffset;
+
+    /** Offset of the end of the content, Long.MAX_VALUE until a short chunk is fetched. */
+    private long endOffset;
+
+    /** Number of chunks in flight. */
+    private int inFlight;
+
+    /** Flag whether a task writing to the sink is scheduled or running. */
+    private boolean isWriting;
+
+    /** Flag whether the download is done, successfully or not. */
+    private boolean isDone;
+
+    /**
+     * Initializes a {@link ImapRangedBodyFetcher} writing to the sink on the thread the chunk arrives on, usually the Netty event loop, thus the sink
+     * must not block, for example, an in-memory stream.
+     *
+     * @param sessions sessions to fetch chunks with, having the folder of the message selected
+     * @param uid UID of the message
+     * @param section body section to download, for example, 2 for the second part, empty for the whole message
+     * @param chunkSize number of bytes per chunk
+     * @param sink non-blocking sink to write the content to, in order
+     */
+    public ImapRangedBodyFetcher(@Nonnull final List<ImapAsyncSession> sessions, final long uid, @Nonnull final String section, final int chunkSize,
+            @Nonnull final OutputStream sink) {
+        this(sessions, uid, section, chunkSize, sink, Runnable::run);
+    }
+
+    /**
+     * Initializes a {@link ImapRangedBodyFetcher} writing to the sink on the given executor, keeping blocking writes off the Netty event loop.
+     *
+     * @param sessions sessions to fetch chunks with, having the folder of the message selected
+     * @param uid UID of the message
+     * @param section body section to download, for example, 2 for the second part, empty for the whole message
+     * @param chunkSize number of bytes per chunk
+     * @param sink sink to write the content to, in order
+     * @param sinkExecutor executor to write to the sink on, one write at a time
+     */
+    public ImapRangedBodyFetcher(@Nonnull final List<ImapAsyncSession> sessions, final long uid, @Nonnull final String section, final int chunkSize,
+            @Nonnull final OutputStream sink, @Nonnull final Executor sinkExecutor) {
+        this.sessions = sessions;
+        this.uid = Long.toString(uid);
+        this.section = section;
+        this.chunkSize = chunkSize;
+        this.sink = sink;
+        this.sinkExecutor = sinkExecutor;
+        this.future = new ImapFuture<Long>();
+        this.pendingChunks = new TreeMap<Long, ByteArray>();
+        this.idleSessions = new ArrayDeque<ImapAsyncSession>();
+        this.endOffset = Long.MAX_VALUE;
+    }
+
+    /**
+     * Starts downloading from the given offset, for example, the committed offset of a previous download that failed.
+     *
+     * @param startOffset offset to start from, 0 for the beginning
+     * @return future completed with the end offset, aka, the content size, once all chunks are written to the sink, or with the failure
+     */
+    @Nonnull
+    public synchronized ImapFuture<Long> fetch(final long startOffset) {
+        committedOffset = startOffset;
+        nextOffset = startOffset;
+        if (sessions.isEmpty()) {
+            fail(new ImapAsyncClientException(FailureType.INVALID_INPUT));
+        }
+        for (final ImapAsyncSession session : sessions) {
+            fetchNext(session);
+        }
+        return future;
+    }
+
+    /**
+     * @return number of bytes written to the sink, aka, the offset to resume from
+     */
+    public synchronized long getCommittedOffset() {
+        return committedOffset;
+    }
+
+    /**
+     * Fetches the next chunk with the given session, or parks the session if it would fetch too far ahead of the sink.
+     *
+     * @param session the session
+     */
+    private void fetchNext(@Nonnull final ImapAsyncSession session) {
+        if (isDone || nextOffset >= endOffset) {
+            return;
+        }
+        if (nextOffset - committedOffset >= (long) CHUNKS_AHEAD_PER_SESSION * sessions.size() * chunkSize) {
+            idleSessions.add(session);
+            return;
+        }
+        final long offset = nextOffset;
+        nextOffset += chunkSize;
+        inFlight++;
+        final ImapFuture<ImapAsyncResponse> chunkFuture;
+        try {
+            chunkFuture = session.execute(new UidFetchCommand(uid, BODY_PEEK + section + "]<" + offset + "." + chunkSize + ">"));
+        } catch (final ImapAsyncClientException e) {
+            fail(e);
+            return;
+        }
+        chunkFuture.setDoneCallback(resp -> onChunkFetched(session, offset, resp));
+        chunkFuture.setExceptionCallback(this::onChunkFailed);
+    }
+
+    /**
+     * Handles a fetched chunk, fetches more, and starts writing the chunks in order to the sink once the lock is released.
+     *
+     * @param session the session fetching the chunk
+     * @param offset offset of the chunk
+     * @param resp the fetch response
+     */
+    private void onChunkFetched(@Nonnull final ImapAsyncSession session, final long offset, @Nonnull final ImapAsyncResponse resp) {
+        final boolean isWriteDue;
+        synchronized (this) {
+            inFlight--;
+            if (isDone) {
+                return;
+            }
+            try {
+                final ByteArray data = parseChunk(resp);
+                final int count = (data == null) ? 0 : data.getCount();
+                if (count < chunkSize) { // reaching the end
+                    endOffset = Math.min(endOffset, offset + count);
+                }
+                if (count > 0) {
+                    pendingChunks.put(offset, data);
+                }
+            } catch (final ImapAsyncClientException e) {
+                fail(e);
+                return;
+            }
+            idleSessions.add(session);
+            isWriteDue = claimWrite();
+            fetchMore();
+        }
+        if (isWriteDue) {
+            startWriting();
+        }
+    }
+
+    /**
+     * Fails the download when fetching a chunk fails.
+     *
+     * @param cause the failure cause
+     */
+    private synchronized void onChunkFailed(@Nonnull final Exception cause) {
+        inFlight--;
+        fail(cause);
+    }
+
+    /**
+     * Claims writing to the sink if the chunk following the committed offset is fetched and no write is ongoing.
+     *
+     * @return true if the caller has to start writing once it releases the lock; false otherwise
+     */
+    private boolean claimWrite() {
+        if (isDone || isWriting || !pendingChunks.containsKey(committedOffset)) {
+            return false;
+        }
+        isWriting = true;
+        return true;
+    }
+
+    /**
+     * Starts writing to the sink on the sink executor, must be called without holding the lock since the executor may run the write straight away.
+     */
+    private void startWriting() {
+        try {
+            sinkExecutor.execute(this::writePendingChunks);
+        } catch (final RejectedExecutionException e) {
+            synchronized (this) {
+                isWriting = false;
+                fail(e);
+            }
+        }
+    }
+
+    /**
+     * Writes the chunks following the committed offset to the sink, without holding the lock while writing, and fetches more as the sink catches up.
+     */
+    private void writePendingChunks() {
+        while (true) {
+            final ByteArray data;
+            synchronized (this) {
+                data = isDone ? null : pendingChunks.remove(committedOffset);
+                if (data == null) {
+                    isWriting = false;
+                    return;
+                }
+            }
+            try {
+                sink.write(data.getBytes(), data.getStart(), data.getCount());
+            } catch (final IOException e) {
+                synchronized (this) {
+                    isWriting = false;
+                    fail(e);
+                }
+                return;
+            }
+            synchronized (this) {
+                committedOffset += data.getCount();
+                fetchMore();
+            }
+        }
+    }
+
+    /**
+     * Wakes up the sessions waiting for the sink to catch up, and completes the download once all chunks are written.
+     */
+    private void fetchMore() {
+        final List<ImapAsyncSession> waking = new ArrayList<ImapAsyncSession>(idleSessions);
+        idleSessions.clear();
+        for (final ImapAsyncSession s : waking) {
+            fetchNext(s);
+        }
+        if (!isDone && inFlight == 0 && committedOffset >= endOffset) {
+            isDone = true;
+            future.done(Long.valueOf(committedOffset));
+        }
+    }
+
+    /**
+     * Parses the content of the chunk from the fetch response.
+     *
+     * @param resp the fetch response
+     * @return content of the chunk, null if server returns NIL
+     * @throws ImapAsyncClientException when server rejects the fetch, the message is not found, or the response cannot be parsed
+     */
+    @Nullable
+    private ByteArray parseChunk(@Nonnull final ImapAsyncResponse resp) throws ImapAsyncClientException {
+        IMAPResponse tagged = null;
+        for (final IMAPResponse r : resp.getResponseLines()) {
+            tagged = r;
+        }
+        if (tagged == null) {
+            throw new ImapAsyncClientException(FailureType.INVALID_INPUT);
+        }
+        if (!tagged.isOK()) {
+            throw new ImapAsyncClientException(FailureType.COMMAND_REJECTED_BY_SERVER, new CommandFailedException(tagged));
+        }
+        for (final IMAPResponse r : resp.getResponseLines()) {
+            if (!r.keyEquals(FETCH)) {
+                continue;
+            }
+            try {
+                final BODY body = new FetchResponse(r).getItem(BODY.class);
+                if (body != null) {
+                    return body.getByteArray();
+                }
+            } catch (final IOException | ProtocolException e) {
+                throw new ImapAsyncClientException(FailureType.INVALID_INPUT, e);
+            }
+        }
+        throw new ImapAsyncClientException(FailureType.MESSAGE_NOT_FOUND); // message is gone
+    }
+
+    /**
+     * Fails the download, chunks still in flight are ignored once done.
+     *
+     * @param cause the failure cause
+     */
+    private void fail(@Nonnull final Exception cause) {
+        if (isDone) {
+            return;
+        }
+        isDone = true;
+        pendingChunks.clear();
+        idleSessions.clear();
+        future.done(cause);
+    }
+}
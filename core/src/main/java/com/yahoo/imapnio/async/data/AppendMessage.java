@@ -0,0 +1,60 @@
+package com.yahoo.imapnio.async.data;
+
+import java.util.Date;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.mail.Flags;
+
+/**
+ * This class models one message of an APPEND command, which may carry many messages if server supports MULTIAPPEND, defined in
+ * https://tools.ietf.org/html/rfc3502.
+ */
+public final class AppendMessage {
+
+    /** The flags for the message. */
+    private final Flags flags;
+
+    /** The internal date associated with the message. */
+    private final Date date;
+
+    /** The message data. */
+    private final byte[] data;
+
+    /**
+     * Initializes a {@link AppendMessage}.
+     *
+     * @param flags the flags for the message
+     * @param date the internal date associated with the message
+     * @param data the message data
+     */
+    public AppendMessage(@Nullable final Flags flags, @Nullable final Date date, @Nonnull final byte[] data) {
+        this.flags = flags;
+        this.date = date;
+        this.data = data;
+    }
+
+    /**
+     * @return the flags for the message, null if not given
+     */
+    @Nullable
+    public Flags getFlags() {
+        return flags;
+    }
+
+    /**
+     * @return the internal date associated with the message, null if not given
+     */
+    @Nullable
+    public Date getDate() {
+        return date;
+    }
+
+    /**
+     * @return the message data
+     */
+    @Nonnull
+    public byte[] getData() {
+        return data;
+    }
+}
@@ -0,0 +1,73 @@
+package com.yahoo.imapnio.async.data;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.sun.mail.iap.ByteArray;
+
+/**
+ * This class models a BINARY or BINARY.SIZE fetch data item, defined in https://tools.ietf.org/html/rfc3516, aka, a body section decoded by server
+ * from its content transfer encoding.
+ */
+public final class BinarySection {
+
+    /** Origin not given in the response. */
+    public static final long NO_ORIGIN = -1;
+
+    /** Section specifier, for example, 1.2, empty for the whole message. */
+    private final String section;
+
+    /** Origin octet of the partial content, NO_ORIGIN if the whole section is returned. */
+    private final long origin;
+
+    /** Decoded content, null for BINARY.SIZE or NIL content. */
+    private final ByteArray data;
+
+    /** Size of the decoded content. */
+    private final long size;
+
+    /**
+     * Initializes a {@link BinarySection}.
+     *
+     * @param section section specifier
+     * @param origin origin octet of the partial content, NO_ORIGIN if the whole section is returned
+     * @param data decoded content, null for BINARY.SIZE or NIL content
+     * @param size size of the decoded content
+     */
+    public BinarySection(@Nonnull final String section, final long origin, @Nullable final ByteArray data, final long size) {
+        this.section = section;
+        this.origin = origin;
+        this.data = data;
+        this.size = size;
+    }
+
+    /**
+     * @return section specifier, for example, 1.2, empty for the whole message
+     */
+    @Nonnull
+    public String getSection() {
+        return section;
+    }
+
+    /**
+     * @return origin octet of the partial content, NO_ORIGIN if the whole section is returned
+     */
+    public long getOrigin() {
+        return origin;
+    }
+
+    /**
+     * @return decoded content referring to the response bytes without copying, null for BINARY.SIZE or NIL content
+     */
+    @Nullable
+    public ByteArray getData() {
+        return data;
+    }
+
+    /**
+     * @return size of the decoded content
+     */
+    public long getSize() {
+        return size;
+    }
+}
@@ -32,6 +32,13 @@ public final class Capability {
         return capas.containsKey(capaName.toUpperCase());
     }
 
+    /**
+     * @return true if no capability is given, for example, when the responses parsed carry no CAPABILITY; false otherwise
+     */
+    public boolean isEmpty() {
+        return capas.isEmpty();
+    }
+
     /**
      * Returns the various values for a specific capability, such as AUTH mechanisms that Imap server supports. For example, passing "AUTH" can return
      * a list of PLAIN, XOAUTH2, XBLURDYBLOOP.
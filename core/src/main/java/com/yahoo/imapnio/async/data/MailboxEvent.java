@@ -0,0 +1,130 @@
+package com.yahoo.imapnio.async.data;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.mail.Flags;
+
+import com.sun.mail.imap.protocol.ListInfo;
+import com.sun.mail.imap.protocol.Status;
+
+/**
+ * This class models one change reported by server, either for the selected mailbox, like a new message, or for another mailbox watched with NOTIFY
+ * defined in RFC 5465, like a STATUS response or a renamed mailbox.
+ */
+public final class MailboxEvent {
+
+    /**
+     * Types of events, each mapped from one kind of untagged response.
+     */
+    public enum EventType {
+        /** Number of messages in the selected mailbox, from EXISTS response. */
+        EXISTS,
+        /** Message removed from the selected mailbox, from EXPUNGE response. */
+        EXPUNGE,
+        /** Flags of a message in the selected mailbox changed, from FETCH response with FLAGS. */
+        FLAGS,
+        /** Counters of another mailbox changed, from STATUS response. */
+        STATUS,
+        /** Mailbox created, deleted or renamed, from LIST response. */
+        MAILBOX_NAME
+    }
+
+    /** Type of the event. */
+    @Nonnull
+    private final EventType type;
+
+    /** Message sequence number for EXISTS, EXPUNGE and FLAGS events, -1 otherwise. */
+    private final long msgNumber;
+
+    /** UID of the message for FLAGS event if server sends it, -1 otherwise. */
+    private final long uid;
+
+    /** Flags of the message for FLAGS event. */
+    @Nullable
+    private final Flags flags;
+
+    /** Status of the mailbox for STATUS event. */
+    @Nullable
+    private final Status status;
+
+    /** List info of the mailbox for MAILBOX_NAME event. */
+    @Nullable
+    private final ListInfo listInfo;
+
+    /**
+     * Initializes a {@link MailboxEvent} object.
+     *
+     * @param type type of the event
+     * @param msgNumber message sequence number for EXISTS, EXPUNGE and FLAGS events, -1 otherwise
+     * @param uid UID of the message for FLAGS event if server sends it, -1 otherwise
+     * @param flags flags of the message for FLAGS event
+     * @param status status of the mailbox for STATUS event
+     * @param listInfo list info of the mailbox for MAILBOX_NAME event
+     */
+    public MailboxEvent(@Nonnull final EventType type, final long msgNumber, final long uid, @Nullable final Flags flags,
+            @Nullable final Status status, @Nullable final ListInfo listInfo) {
+        this.type = type;
+        this.msgNumber = msgNumber;
+        this.uid = uid;
+        this.flags = flags;
+        this.status = status;
+        this.listInfo = listInfo;
+    }
+
+    /**
+     * @return type of the event
+     */
+    @Nonnull
+    public EventType getType() {
+        return type;
+    }
+
+    /**
+     * @return message sequence number for EXISTS, EXPUNGE and FLAGS events, -1 otherwise
+     */
+    public long getMessageNumber() {
+        return msgNumber;
+    }
+
+    /**
+     * @return UID of the message for FLAGS event if server sends it, -1 otherwise
+     */
+    public long getUid() {
+        return uid;
+    }
+
+    /**
+     * @return flags of the message for FLAGS event, null otherwise
+     */
+    @Nullable
+    public Flags getFlags() {
+        return flags;
+    }
+
+    /**
+     * @return status of the mailbox for STATUS event, null otherwise
+     */
+    @Nullable
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * @return list info of the mailbox for MAILBOX_NAME event, null otherwise
+     */
+    @Nullable
+    public ListInfo getListInfo() {
+        return listInfo;
+    }
+
+    /**
+     * @return name of the mailbox for STATUS and MAILBOX_NAME events, null for events of the selected mailbox
+     */
+    @Nullable
+    public String getMailboxName() {
+        if (status != null) {
+            return status.mbox;
+        }
+        return (listInfo != null) ? listInfo.name : null;
+    }
+}
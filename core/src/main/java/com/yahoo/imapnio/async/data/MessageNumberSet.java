@@ -90,9 +90,15 @@ public final class MessageNumberSet {
         LAST_MESSAGE_END,
 
         /** Only need the last message, aka: * . */
-        LAST_MESSAGE_ONLY
+        LAST_MESSAGE_ONLY,
+
+        /** The result saved by the last search command, aka: $ . */
+        SAVED_RESULT
     }
 
+    /** The result saved by the last search command, aka: $ . */
+    private static final MessageNumberSet SAVED_RESULT_SET = new MessageNumberSet(-1, -1, SequenceType.SAVED_RESULT);
+
     /** Sequence type. */
     private final SequenceType seqType;
 
@@ -150,6 +156,17 @@ public final class MessageNumberSet {
         this.seqType = seqType;
     }
 
+    /**
+     * Returns the sequence that refers to the result saved by the last search command with RETURN (SAVE), aka, $ defined in RFC 5182. Server must
+     * support SEARCHRES, and $ cannot be combined with other message numbers.
+     *
+     * @return the saved search result sequence
+     */
+    @Nonnull
+    public static MessageNumberSet savedResult() {
+        return SAVED_RESULT_SET;
+    }
+
     @Override
     public int hashCode() {
         final int prime = 31;
@@ -220,6 +237,7 @@ public final class MessageNumberSet {
      *
      * @param msgsets array of MessageNumberSet
      * @return the string generated that conforms to IMAP RFC3501 sequence-set syntax
+     * @throws IllegalArgumentException when the saved search result is combined with other message numbers
      */
     public static String buildString(@Nullable final MessageNumberSet[] msgsets) {
         if (msgsets == null || msgsets.length == 0) {
@@ -228,6 +246,9 @@ public final class MessageNumberSet {
 
         // remove duplicates
         final Set<MessageNumberSet> elems = new LinkedHashSet<>(Arrays.asList(msgsets));
+        if (elems.size() > 1 && elems.contains(SAVED_RESULT_SET)) { // RFC 5182: $ cannot be part of a sequence-set
+            throw new IllegalArgumentException("Saved search result cannot be combined with other message numbers.");
+        }
 
         int i = 0; // msgset index
         final StringBuilder s = new StringBuilder();
@@ -240,6 +261,8 @@ public final class MessageNumberSet {
 
             if (elem.seqType == SequenceType.LAST_MESSAGE_ONLY) {
                 s.append('*');
+            } else if (elem.seqType == SequenceType.SAVED_RESULT) {
+                s.append('$');
             } else if (elem.seqType == SequenceType.LAST_MESSAGE_END) {
                 s.append(start).append(':').append('*');
             } else if (end > start) {
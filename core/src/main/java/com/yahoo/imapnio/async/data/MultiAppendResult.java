@@ -0,0 +1,91 @@
+package com.yahoo.imapnio.async.data;
+
+import javax.annotation.Nonnull;
+
+/**
+ * This class models the APPENDUID response code of a MULTIAPPEND command, defined in https://tools.ietf.org/html/rfc4315. UIDs are kept as the
+ * ranges given by server, so that a large batch of consecutive UIDs takes a few longs only. UIDs are in the same order as the appended messages.
+ */
+public final class MultiAppendResult {
+
+    /** UIDVALIDITY of the destination mailbox. */
+    private final long uidValidity;
+
+    /** Ranges of UIDs, start and end of each range in turn, end is inclusive and may be smaller than start. */
+    private final long[] ranges;
+
+    /** Number of UIDs in all ranges. */
+    private final int messageCount;
+
+    /**
+     * Initializes a {@link MultiAppendResult}.
+     *
+     * @param uidValidity UIDVALIDITY of the destination mailbox
+     * @param ranges ranges of UIDs, start and end of each range in turn
+     * @throws IllegalArgumentException when the ranges hold more than {@code Integer.MAX_VALUE} UIDs
+     */
+    public MultiAppendResult(final long uidValidity, @Nonnull final long[] ranges) {
+        this.uidValidity = uidValidity;
+        this.ranges = ranges;
+        long count = 0;
+        for (int i = 0; i < ranges.length; i += 2) {
+            count += Math.abs(ranges[i + 1] - ranges[i]) + 1;
+        }
+        if (count > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many UIDs: " + count);
+        }
+        this.messageCount = (int) count;
+    }
+
+    /**
+     * @return UIDVALIDITY of the destination mailbox
+     */
+    public long getUidValidity() {
+        return uidValidity;
+    }
+
+    /**
+     * @return number of messages appended, aka, number of UIDs
+     */
+    public int getMessageCount() {
+        return messageCount;
+    }
+
+    /**
+     * Returns the UID of the message at the given position in the appended messages.
+     *
+     * @param index position of the message, starting from 0
+     * @return the UID of the message
+     * @throws IndexOutOfBoundsException when index is negative or not smaller than the message count
+     */
+    public long getUid(final int index) {
+        if (index < 0 || index >= messageCount) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", count: " + messageCount);
+        }
+        long remaining = index;
+        int i = 0;
+        long size = Math.abs(ranges[i + 1] - ranges[i]) + 1;
+        while (remaining >= size) {
+            remaining -= size;
+            i += 2;
+            size = Math.abs(ranges[i + 1] - ranges[i]) + 1;
+        }
+        return (ranges[i + 1] >= ranges[i]) ? ranges[i] + remaining : ranges[i] - remaining;
+    }
+
+    /**
+     * @return UIDs of all appended messages, in the same order as the messages
+     */
+    @Nonnull
+    public long[] getUids() {
+        final long[] uids = new long[messageCount];
+        int n = 0;
+        for (int i = 0; i < ranges.length; i += 2) {
+            final long step = (ranges[i + 1] >= ranges[i]) ? 1 : -1;
+            for (long uid = ranges[i]; uid != ranges[i + 1] + step; uid += step) {
+                uids[n++] = uid;
+            }
+        }
+        return uids;
+    }
+}
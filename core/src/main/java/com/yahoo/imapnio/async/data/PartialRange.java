@@ -0,0 +1,51 @@
+package com.yahoo.imapnio.async.data;
+
+/**
+ * This class models the range of positions in the sorted or searched result to return, defined in RFC 5267 as partial-range. For example, 1:50 asks
+ * for the first 50 messages of the sorted result.
+ *
+ * <pre>
+ * {@code
+ * partial-range   = nz-number ":" nz-number
+ *        ;; A range 500:400 is the same as 400:500.
+ * }
+ * </pre>
+ */
+public final class PartialRange {
+
+    /** Position of the first message in the result, starting from 1. */
+    private final long first;
+
+    /** Position of the last message in the result. */
+    private final long last;
+
+    /**
+     * Initializes a {@link PartialRange} object with the first and last positions.
+     *
+     * @param first position of the first message in the result, starting from 1
+     * @param last position of the last message in the result
+     */
+    public PartialRange(final long first, final long last) {
+        this.first = first;
+        this.last = last;
+    }
+
+    /**
+     * @return position of the first message in the result
+     */
+    public long getFirst() {
+        return first;
+    }
+
+    /**
+     * @return position of the last message in the result
+     */
+    public long getLast() {
+        return last;
+    }
+
+    @Override
+    public String toString() {
+        return first + ":" + last;
+    }
+}
@@ -0,0 +1,46 @@
+package com.yahoo.imapnio.async.data;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * This class provides the message numbers in sorted order from sort command response, either SORT response defined in RFC 5256 or ESEARCH response
+ * to the sort command with return options defined in RFC 5267.
+ */
+public class SortResult {
+
+    /** Message sequence numbers or UIDs in sorted order. */
+    @Nonnull
+    private final long[] msgNumbers;
+
+    /** Range of positions of the returned messages in the whole sorted result, null if all are returned. */
+    @Nullable
+    private final PartialRange partialRange;
+
+    /**
+     * Initializes a {@link SortResult} object with message numbers in sorted order.
+     *
+     * @param msgNumbers message sequence numbers or UIDs in sorted order
+     * @param partialRange range of positions of the returned messages in the whole sorted result, null if all are returned
+     */
+    public SortResult(@Nonnull final long[] msgNumbers, @Nullable final PartialRange partialRange) {
+        this.msgNumbers = msgNumbers;
+        this.partialRange = partialRange;
+    }
+
+    /**
+     * @return message sequence numbers or UIDs in sorted order
+     */
+    @Nonnull
+    public long[] getMessageNumbers() {
+        return msgNumbers;
+    }
+
+    /**
+     * @return range of positions of the returned messages in the whole sorted result, null if all are returned
+     */
+    @Nullable
+    public PartialRange getPartialRange() {
+        return partialRange;
+    }
+}
@@ -0,0 +1,74 @@
+package com.yahoo.imapnio.async.data;
+
+import javax.annotation.Nonnull;
+
+/**
+ * This class provides the threads from thread command response defined in RFC 5256. The threads are kept as a tree in two parallel arrays, message
+ * numbers and parent indexes, listing the nodes in the order of the response, aka, every parent comes before its children and siblings are in order.
+ * A node with {@link #DUMMY_MESSAGE_NUMBER} is a placeholder parent for messages whose common parent is missing in the mailbox.
+ *
+ * <pre>
+ * {@code
+ * For example, * THREAD (2)(3 6 (4 23)(44 7 96)) gives:
+ * index:            0   1   2   3   4   5   6   7
+ * message numbers:  2   3   6   4  23  44   7  96
+ * parent indexes:  -1  -1   1   2   3   2   5   6
+ * }
+ * </pre>
+ */
+public class ThreadResult {
+
+    /** Parent index of the root of a thread. */
+    public static final int NO_PARENT = -1;
+
+    /** Message number of a placeholder parent whose message is missing. */
+    public static final long DUMMY_MESSAGE_NUMBER = 0;
+
+    /** Message sequence numbers or UIDs of the nodes. */
+    @Nonnull
+    private final long[] msgNumbers;
+
+    /** Index of the parent of every node, {@link #NO_PARENT} for the roots. */
+    @Nonnull
+    private final int[] parentIndexes;
+
+    /**
+     * Initializes a {@link ThreadResult} object with the nodes of the threads.
+     *
+     * @param msgNumbers message sequence numbers or UIDs of the nodes, {@link #DUMMY_MESSAGE_NUMBER} for placeholder parents
+     * @param parentIndexes index of the parent of every node, {@link #NO_PARENT} for the roots
+     */
+    public ThreadResult(@Nonnull final long[] msgNumbers, @Nonnull final int[] parentIndexes) {
+        this.msgNumbers = msgNumbers;
+        this.parentIndexes = parentIndexes;
+    }
+
+    /**
+     * @return message sequence numbers or UIDs of the nodes, {@link #DUMMY_MESSAGE_NUMBER} for placeholder parents
+     */
+    @Nonnull
+    public long[] getMessageNumbers() {
+        return msgNumbers;
+    }
+
+    /**
+     * @return index of the parent of every node, {@link #NO_PARENT} for the roots
+     */
+    @Nonnull
+    public int[] getParentIndexes() {
+        return parentIndexes;
+    }
+
+    /**
+     * @return number of threads, aka, the number of roots
+     */
+    public int getThreadCount() {
+        int count = 0;
+        for (final int parent : parentIndexes) {
+            if (parent == NO_PARENT) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
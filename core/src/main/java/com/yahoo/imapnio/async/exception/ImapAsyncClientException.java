@@ -64,7 +64,25 @@ public class ImapAsyncClientException extends Exception {
         UNKNOWN_PARSE_RESULT_TYPE("Given class type to parse to is unknown."),
 
         /** Invalid input. */
-        INVALID_INPUT("Input is invalid.");
+        INVALID_INPUT("Input is invalid."),
+
+        /** Channel outbound buffer is above its high water mark. */
+        CHANNEL_NOT_WRITABLE("Channel is not writable, outbound buffer exceeds its high water mark."),
+
+        /** Event loop serving the channel lags beyond the configured maximum. */
+        EVENT_LOOP_OVERLOADED("Event loop is overloaded, its lag exceeds the configured maximum."),
+
+        /** Responses could not be read since the memory budget shared by all sessions stays exceeded. */
+        MEMORY_BUDGET_EXCEEDED("Memory budget for buffered responses stays exceeded, reading from server was paused for too long."),
+
+        /** Response line or literal from server exceeds the configured maximum. */
+        RESPONSE_TOO_LARGE("Response line or literal from server exceeds the configured maximum, it is discarded."),
+
+        /** Server responded NO or BAD to the command. */
+        COMMAND_REJECTED_BY_SERVER("Server rejected the command."),
+
+        /** Message is not found, for example, it is expunged. */
+        MESSAGE_NOT_FOUND("Message is not found on server.");
 
         /** The error message associated with this failure type. */
         @Nonnull
@@ -1,45 +1,85 @@
 package com.yahoo.imapnio.async.internal;
 
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
 import java.nio.charset.StandardCharsets;
 import java.time.Clock;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.concurrent.atomic.AtomicReference;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import org.slf4j.Logger;
 
+import com.sun.mail.iap.ParsingException;
 import com.sun.mail.imap.protocol.IMAPResponse;
 import com.yahoo.imapnio.async.client.ImapAsyncClient;
+import com.yahoo.imapnio.async.client.ImapAsyncClientConfig;
 import com.yahoo.imapnio.async.client.ImapAsyncSession;
+import com.yahoo.imapnio.async.client.ImapAsyncSessionConfig;
+import com.yahoo.imapnio.async.client.ImapAsyncSessionConfig.AutoCompressPolicy;
+import com.yahoo.imapnio.async.client.ImapAsyncSessionConfig.DeflateFlushPolicy;
+import com.yahoo.imapnio.async.client.ImapAsyncSessionConfig.WriteBackpressurePolicy;
+import com.yahoo.imapnio.async.client.ImapAsyncSessionStats;
 import com.yahoo.imapnio.async.client.ImapFuture;
+import com.yahoo.imapnio.async.data.Capability;
 import com.yahoo.imapnio.async.exception.ImapAsyncClientException;
 import com.yahoo.imapnio.async.exception.ImapAsyncClientException.FailureType;
+import com.yahoo.imapnio.async.jfr.ImapFlightRecorder;
+import com.yahoo.imapnio.async.metrics.ImapClientMetrics;
+import com.yahoo.imapnio.async.metrics.ImapCommandTraceListener;
+import com.yahoo.imapnio.async.metrics.ImapCommandTraceListener.Stage;
+import com.yahoo.imapnio.async.netty.ImapByteCounterHandler;
 import com.yahoo.imapnio.async.netty.ImapClientCommandRespHandler;
 import com.yahoo.imapnio.async.netty.ImapCommandChannelEventProcessor;
+import com.yahoo.imapnio.async.netty.ImapDeflateEncoder;
+import com.yahoo.imapnio.async.request.CapaCommand;
 import com.yahoo.imapnio.async.request.CompressCommand;
 import com.yahoo.imapnio.async.request.IdleCommand;
+import com.yahoo.imapnio.async.request.ImapCommandType;
 import com.yahoo.imapnio.async.request.ImapRequest;
+import com.yahoo.imapnio.async.request.ImapLiteralSource;
+import com.yahoo.imapnio.async.request.ImapRFCSupportedCommandType;
+import com.yahoo.imapnio.async.request.ImapRequest.UntaggedResponseDecision;
+import com.yahoo.imapnio.async.request.MailboxEventDispatcher;
+import com.yahoo.imapnio.async.request.MailboxEventListener;
+import com.yahoo.imapnio.async.request.StreamingLiteralRequest;
 import com.yahoo.imapnio.async.response.ImapAsyncResponse;
+import com.yahoo.imapnio.async.response.ImapResponseMapper;
+import com.yahoo.imapnio.async.response.ImapStreamingResponseQueue;
+import com.yahoo.imapnio.client.ImapClientRespReader;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelPipeline;
 import io.netty.channel.ChannelPromise;
+import io.netty.handler.codec.TooLongFrameException;
 import io.netty.handler.codec.compression.JdkZlibDecoder;
-import io.netty.handler.codec.compression.JdkZlibEncoder;
 import io.netty.handler.codec.compression.ZlibWrapper;
+import io.netty.handler.stream.ChunkedInput;
+import io.netty.handler.stream.ChunkedWriteHandler;
 import io.netty.handler.timeout.IdleStateEvent;
+import io.netty.util.ReferenceCountUtil;
 
 /**
  * This class establishes a session between imap server and sends command to server with async future.
  */
-public class ImapAsyncSessionImpl implements ImapAsyncSession, ImapCommandChannelEventProcessor, ChannelFutureListener {
+public class ImapAsyncSessionImpl implements ImapAsyncSession, ImapCommandChannelEventProcessor, ChannelFutureListener,
+        ImapStreamingResponseQueue.ConsumptionListener {
 
     /** Label for command type, used in exception message. */
     private static final String CMD_TYPE = ",cmdType:";
@@ -62,6 +102,9 @@ public class ImapAsyncSessionImpl implements ImapAsyncSession, ImapCommandChanne
     /** Debug log record for client, first {} is sessionId, 2nd user information, 3rd for client message. */
     private static final String CLIENT_LOG_REC = "[{},{}] C:{}";
 
+    /** Warn log record for wire capture, first {} is sessionId, 2nd user information, 3rd failure type, 4th captured wire traffic. */
+    private static final String WIRE_CAPTURE_LOG_REC = "[{},{}] Command failed:{}, latest wire traffic:\r\n{}";
+
     /** Space character. */
     static final char SPACE = ' ';
 
@@ -77,6 +120,33 @@ public class ImapAsyncSessionImpl implements ImapAsyncSession, ImapCommandChanne
     /** Inflater handler name for enabling server compress. */
     private static final String ZLIB_ENCODER = "INFLATER";
 
+    /** Handler name for counting bytes on network. */
+    private static final String NETWORK_BYTE_COUNTER = "networkByteCounter";
+
+    /** Handler name for counting plain IMAP bytes. */
+    private static final String IMAP_BYTE_COUNTER = "imapByteCounter";
+
+    /** Handler name for counting compressed bytes, in front of compression handlers. */
+    private static final String COMPRESSED_BYTE_COUNTER = "compressedByteCounter";
+
+    /** Handler name for counting uncompressed bytes, after compression handlers. */
+    private static final String UNCOMPRESSED_BYTE_COUNTER = "uncompressedByteCounter";
+
+    /** Handler name for writing streamed literals in chunks. */
+    private static final String CHUNKED_WRITER = "chunkedWriter";
+
+    /** COMPRESS capability name. */
+    private static final String COMPRESS = "COMPRESS";
+
+    /** DEFLATE compression mechanism. */
+    private static final String DEFLATE = "DEFLATE";
+
+    /** Byte array for CR and LF ending a streamed literal. */
+    private static final byte[] CRLF_B = { '\r', '\n' };
+
+    /** Number of nanoseconds in a millisecond. */
+    private static final long NANOS_PER_MILLI = 1000000L;
+
     /** The Netty channel object. */
     private AtomicReference<Channel> channelRef = new AtomicReference<Channel>();
 
@@ -102,6 +172,102 @@ public class ImapAsyncSessionImpl implements ImapAsyncSession, ImapCommandChanne
     /** Sequence number for tag. */
     private AtomicLong tagSequence;
 
+    /** Policy on writes when channel is not writable. */
+    @Nonnull
+    private WriteBackpressurePolicy writeBackpressurePolicy;
+
+    /** Requests and streamed literals held back since channel was not writable, flushed in order once it becomes writable again. */
+    private ConcurrentLinkedQueue<Object> pendingWrites;
+
+    /** Maximum number of response bytes buffered for the consumer before reading from server is paused. */
+    private long maxBufferedResponseBytes;
+
+    /** Flag whether reading from server is paused since consumer lags behind. */
+    private AtomicBoolean readPaused;
+
+    /** Flag whether reading from server is paused since the running request decided to stop reading. */
+    private AtomicBoolean readPausedByRequest;
+
+    /** Executor to run the callbacks of futures returned by this session, null means running them on the Netty event loop. */
+    @Nullable
+    private Executor callbackExecutor;
+
+    /** Listener receiving command events, null means not reporting any. */
+    @Nullable
+    private ImapClientMetrics metrics;
+
+    /** Listener receiving life cycle events of commands, null means not reporting any. */
+    @Nullable
+    private ImapCommandTraceListener traceListener;
+
+    /** Flag whether Java Flight Recorder events are emitted. */
+    private boolean isFlightRecorderEventsEnabled;
+
+    /** Latest wire traffic of this session, null if not capturing. */
+    @Nullable
+    private ImapWireCaptureBuffer wireCapture;
+
+    /** Monitor of the event loop lag, null if not monitoring. */
+    @Nullable
+    private ImapEventLoopLagMonitor lagMonitor;
+
+    /** Counter of bytes on network, in front of SSL and compression handlers. */
+    @Nonnull
+    private ImapByteCounterHandler networkByteCounter;
+
+    /** Counter of plain IMAP bytes, after SSL and compression handlers. */
+    @Nonnull
+    private ImapByteCounterHandler imapByteCounter;
+
+    /** Counter of compressed bytes, counting nothing till compression starts. */
+    @Nonnull
+    private ImapByteCounterHandler compressedByteCounter;
+
+    /** Counter of uncompressed bytes, counting nothing till compression starts. */
+    @Nonnull
+    private ImapByteCounterHandler uncompressedByteCounter;
+
+    /** Compression level used after COMPRESS=DEFLATE. */
+    private int compressionLevel;
+
+    /** Compression strategy used after COMPRESS=DEFLATE. */
+    private int compressionStrategy;
+
+    /** Policy on when the compressed bytes are flushed to the network. */
+    @Nonnull
+    private DeflateFlushPolicy deflateFlushPolicy;
+
+    /** Policy on whether compression is started after authentication. */
+    @Nonnull
+    private AutoCompressPolicy autoCompressPolicy;
+
+    /** Response reader of the channel, used to get the literal bytes read, null if absent. */
+    @Nullable
+    private ImapClientRespReader respReader;
+
+    /** Memory budget shared by all sessions of the client to reserve buffered responses from, null if unlimited. */
+    @Nullable
+    private ImapMemoryBudget memoryBudget;
+
+    /** Flag whether this session is waiting for the memory budget to become available. */
+    private AtomicBoolean waitingForMemoryBudget;
+
+    /** Number of commands completed with a tagged response. */
+    private AtomicLong commandsExecuted;
+
+    /** Number of commands failed without a tagged response, indexed by failure type ordinal. */
+    private AtomicLongArray failureCounts;
+
+    /** Number of bytes of the largest response. */
+    private AtomicLong largestResponseBytes;
+
+    /** Time in nanoseconds of the last request sent or response received. */
+    private volatile long lastActivityNanos;
+
+    /** Dispatcher delivering mailbox events arriving while no command is running, null to drop them. */
+    @Nullable
+    private volatile MailboxEventDispatcher idleEventDispatcher;
+
     /**
      * This class handles and manages response from server and determines whether the job for this request is done. When the request is done, it sets
      * the future to done and returns the appropriate status to caller via handleResponse method.
@@ -150,6 +316,31 @@ public class ImapAsyncSessionImpl implements ImapAsyncSession, ImapCommandChanne
         /** Request start time. */
         private long requestStartTimeInMillis;
 
+        /** Request start time in nanoseconds, used for metrics. */
+        private final long requestStartTimeNanos;
+
+        /** Flag whether any response is received for this command. */
+        private boolean responseReceived;
+
+        /** Flag whether any untagged response is received for this command. */
+        private boolean untaggedResponseReceived;
+
+        /** Flight recorder event for this command, null if not enabled. */
+        @Nullable
+        private Object commandEvent;
+
+        /** Number of bytes reserved from the memory budget for the responses held. */
+        private final AtomicLong reservedBytes = new AtomicLong(0);
+
+        /** Flag whether untagged responses are only delivered to the streaming responses queue, if any, and not retained. */
+        private final boolean isDiscardingAfterDelivery;
+
+        /** Flag whether the command has a streaming responses queue. */
+        private final boolean isStreaming;
+
+        /** Number of untagged responses received. */
+        private int untaggedResponseCount;
+
         /**
          * Initializes a newly created {@link ImapCommandEntry} object so that it can handle the command responses and determine whether the request
          * is done.
@@ -164,13 +355,17 @@ public class ImapAsyncSessionImpl implements ImapAsyncSession, ImapCommandChanne
                 final int requestTotalBytes, final long requestStartTimeInMillis) {
             this.cmd = cmd;
             this.state = CommandState.REQUEST_IN_PREPARATION;
-            this.responses = (cmd.getStreamingResponsesQueue() != null) ? cmd.getStreamingResponsesQueue()
-                    : new ConcurrentLinkedQueue<IMAPResponse>();
+            this.isStreaming = (cmd.getStreamingResponsesQueue() != null);
+            this.isDiscardingAfterDelivery = cmd.isDiscardingResponsesAfterDelivery();
+            this.responses = isStreaming ? cmd.getStreamingResponsesQueue() : new ConcurrentLinkedQueue<IMAPResponse>();
             this.future = future;
             this.tag = tag;
             this.requestTotalBytes = requestTotalBytes;
             this.responseTotalBytes = 0;
             this.requestStartTimeInMillis = requestStartTimeInMillis;
+            this.requestStartTimeNanos = System.nanoTime();
+            this.responseReceived = false;
+            this.untaggedResponseReceived = false;
         }
 
         /**
@@ -196,6 +391,45 @@ public class ImapAsyncSessionImpl implements ImapAsyncSession, ImapCommandChanne
             return responses;
         }
 
+        /**
+         * Holds the given response for the command. When discarding after delivery, only untagged responses are held and only in the streaming
+         * responses queue, where the consumer takes them.
+         *
+         * @param response the response
+         * @param isKept false if the request has processed the untagged response and dropped it
+         * @param bytes number of bytes of the response
+         * @return true if the response is held; false if it is dropped
+         */
+        boolean addResponse(@Nonnull final IMAPResponse response, final boolean isKept, final int bytes) {
+            if (response.isUnTagged()) {
+                untaggedResponseCount++;
+            }
+            if (!isKept) {
+                return false;
+            }
+            if (isDiscardingAfterDelivery && (!response.isUnTagged() || !isStreaming)) {
+                return false;
+            }
+            if (responses instanceof ImapStreamingResponseQueue) { // size is already known, do not let the queue compute it again
+                return ((ImapStreamingResponseQueue) responses).offer(response, bytes);
+            }
+            return responses.add(response);
+        }
+
+        /**
+         * @return number of untagged responses received
+         */
+        int getUntaggedResponseCount() {
+            return untaggedResponseCount;
+        }
+
+        /**
+         * @return true if untagged responses are only delivered to the streaming responses queue, if any, and not retained
+         */
+        boolean isDiscardingAfterDelivery() {
+            return isDiscardingAfterDelivery;
+        }
+
         /**
          * @return the future for the imap command
          */
@@ -265,6 +499,66 @@ public class ImapAsyncSessionImpl implements ImapAsyncSession, ImapCommandChanne
         public int getResponseTotalBytes() {
             return responseTotalBytes;
         }
+
+        /**
+         * @return time elapsed in nanoseconds since the request started
+         */
+        public long getElapsedTimeNanos() {
+            return System.nanoTime() - requestStartTimeNanos;
+        }
+
+        /**
+         * Marks that a response is received.
+         *
+         * @return true if it is the first response of this command; false otherwise
+         */
+        public boolean markResponseReceived() {
+            final boolean isFirst = !responseReceived;
+            responseReceived = true;
+            return isFirst;
+        }
+
+        /**
+         * Sets the flight recorder event for this command.
+         *
+         * @param commandEvent the event returned by {@link ImapFlightRecorder#beginCommand()}
+         */
+        public void setCommandEvent(@Nonnull final Object commandEvent) {
+            this.commandEvent = commandEvent;
+        }
+
+        /**
+         * Commits the flight recorder event for this command if there is one.
+         *
+         * @param sessionId the session id
+         * @param failureType the failure type if the command failed, null if it is done with a tagged response
+         */
+        public void commitCommandEvent(final long sessionId, @Nullable final FailureType failureType) {
+            if (commandEvent == null) {
+                return;
+            }
+            ImapFlightRecorder.commitCommand(commandEvent, sessionId, tag, cmd.getCommandType().getType(), requestTotalBytes, responseTotalBytes,
+                    (failureType == null) ? null : failureType.name());
+            commandEvent = null;
+        }
+
+        /**
+         * @return number of bytes reserved from the memory budget for the responses held
+         */
+        public AtomicLong getReservedBytes() {
+            return reservedBytes;
+        }
+
+        /**
+         * Marks that an untagged response is received.
+         *
+         * @return true if it is the first untagged response of this command; false otherwise
+         */
+        public boolean markUntaggedResponseReceived() {
+            final boolean isFirst = !untaggedResponseReceived;
+            untaggedResponseReceived = true;
+            return isFirst;
+        }
     }
 
     /**
@@ -280,7 +574,69 @@ public class ImapAsyncSessionImpl implements ImapAsyncSession, ImapCommandChanne
      */
     public ImapAsyncSessionImpl(@Nonnull final Clock clock, @Nonnull final Channel channel, @Nonnull final Logger logger,
             @Nonnull final DebugMode debugMode, final long sessionId, final ChannelPipeline pipeline, @Nonnull final Object sessionCtx) {
+        this(clock, channel, logger, debugMode, sessionId, pipeline, sessionCtx, new ImapAsyncSessionConfig());
+    }
+
+    /**
+     * Initializes an imap session that supports async operations.
+     *
+     * @param clock Clock instance
+     * @param channel Channel object established for this session
+     * @param logger Logger object
+     * @param debugMode Flag for debugging
+     * @param sessionId the session id
+     * @param pipeline the ChannelPipeline object
+     * @param sessionCtx context for client to store information
+     * @param config configuration for this session
+     */
+    @SuppressWarnings("parameternumber")
+    public ImapAsyncSessionImpl(@Nonnull final Clock clock, @Nonnull final Channel channel, @Nonnull final Logger logger,
+            @Nonnull final DebugMode debugMode, final long sessionId, final ChannelPipeline pipeline, @Nonnull final Object sessionCtx,
+            @Nonnull final ImapAsyncSessionConfig config) {
+        this(clock, channel, logger, debugMode, sessionId, pipeline, sessionCtx, config, new ImapAsyncClientConfig());
+    }
+
+    /**
+     * Initializes an imap session that supports async operations.
+     *
+     * @param clock Clock instance
+     * @param channel Channel object established for this session
+     * @param logger Logger object
+     * @param debugMode Flag for debugging
+     * @param sessionId the session id
+     * @param pipeline the ChannelPipeline object
+     * @param sessionCtx context for client to store information
+     * @param config configuration for this session
+     * @param clientConfig configuration shared by all sessions created by the same client
+     */
+    @SuppressWarnings("parameternumber")
+    public ImapAsyncSessionImpl(@Nonnull final Clock clock, @Nonnull final Channel channel, @Nonnull final Logger logger,
+            @Nonnull final DebugMode debugMode, final long sessionId, final ChannelPipeline pipeline, @Nonnull final Object sessionCtx,
+            @Nonnull final ImapAsyncSessionConfig config, @Nonnull final ImapAsyncClientConfig clientConfig) {
+        this(clock, channel, logger, debugMode, sessionId, pipeline, sessionCtx, config, clientConfig, null);
+    }
+
+    /**
+     * Initializes an imap session that supports async operations.
+     *
+     * @param clock Clock instance
+     * @param channel Channel object established for this session
+     * @param logger Logger object
+     * @param debugMode Flag for debugging
+     * @param sessionId the session id
+     * @param pipeline the ChannelPipeline object
+     * @param sessionCtx context for client to store information
+     * @param config configuration for this session
+     * @param clientConfig configuration shared by all sessions created by the same client
+     * @param lagMonitor monitor of the event loop lag, commands are rejected when the event loop of this session is overloaded, null if none
+     */
+    @SuppressWarnings("parameternumber")
+    public ImapAsyncSessionImpl(@Nonnull final Clock clock, @Nonnull final Channel channel, @Nonnull final Logger logger,
+            @Nonnull final DebugMode debugMode, final long sessionId, final ChannelPipeline pipeline, @Nonnull final Object sessionCtx,
+            @Nonnull final ImapAsyncSessionConfig config, @Nonnull final ImapAsyncClientConfig clientConfig,
+            @Nullable final ImapEventLoopLagMonitor lagMonitor) {
         this.channelRef.set(channel);
+        this.lagMonitor = lagMonitor;
         this.clock = clock;
         this.logger = logger;
         this.debugModeRef.set(debugMode);
@@ -288,6 +644,39 @@ public class ImapAsyncSessionImpl implements ImapAsyncSession, ImapCommandChanne
         this.requestsQueue = new ConcurrentLinkedQueue<ImapCommandEntry>();
         this.tagSequence = new AtomicLong(0);
         this.sessionCtx = sessionCtx;
+        this.writeBackpressurePolicy = config.getWriteBackpressurePolicy();
+        this.pendingWrites = new ConcurrentLinkedQueue<Object>();
+        this.maxBufferedResponseBytes = config.getMaxBufferedResponseBytes();
+        this.readPaused = new AtomicBoolean(false);
+        this.readPausedByRequest = new AtomicBoolean(false);
+        this.callbackExecutor = config.getCallbackExecutor();
+        this.metrics = clientConfig.getMetrics();
+        this.traceListener = clientConfig.getCommandTraceListener();
+        this.isFlightRecorderEventsEnabled = clientConfig.isFlightRecorderEventsEnabled();
+        this.wireCapture = (config.getWireCaptureBufferSize() > 0) ? new ImapWireCaptureBuffer(config.getWireCaptureBufferSize()) : null;
+        this.commandsExecuted = new AtomicLong(0);
+        this.failureCounts = new AtomicLongArray(FailureType.values().length);
+        this.largestResponseBytes = new AtomicLong(0);
+        this.lastActivityNanos = System.nanoTime();
+        this.networkByteCounter = new ImapByteCounterHandler();
+        this.imapByteCounter = new ImapByteCounterHandler();
+        this.compressedByteCounter = new ImapByteCounterHandler();
+        this.uncompressedByteCounter = new ImapByteCounterHandler();
+        this.compressionLevel = config.getCompressionLevel();
+        this.compressionStrategy = config.getCompressionStrategy();
+        this.deflateFlushPolicy = config.getDeflateFlushPolicy();
+        this.autoCompressPolicy = config.getAutoCompressPolicy();
+        // compression handlers are inserted right after SSL handler or network counter later, thus in between these 2 counters
+        if (pipeline.get(ImapAsyncClient.SSL_HANDLER) == null) {
+            pipeline.addFirst(IMAP_BYTE_COUNTER, imapByteCounter);
+        } else {
+            pipeline.addAfter(ImapAsyncClient.SSL_HANDLER, IMAP_BYTE_COUNTER, imapByteCounter);
+        }
+        pipeline.addFirst(NETWORK_BYTE_COUNTER, networkByteCounter);
+        this.respReader = pipeline.get(ImapClientRespReader.class);
+        // same budget as the reader so that literal buffers and held responses are accounted together
+        this.memoryBudget = (respReader == null) ? null : respReader.getMemoryBudget();
+        this.waitingForMemoryBudget = new AtomicBoolean(false);
         pipeline.addLast(ImapClientCommandRespHandler.HANDLER_NAME, new ImapClientCommandRespHandler(this));
     }
 
@@ -329,11 +718,28 @@ public class ImapAsyncSessionImpl implements ImapAsyncSession, ImapCommandChanne
         if (!requestsQueue.isEmpty()) { // when prior command is in process, do not allow the new one
             throw new ImapAsyncClientException(FailureType.COMMAND_NOT_ALLOWED, sessionId, sessionCtx);
         }
+        if (writeBackpressurePolicy == WriteBackpressurePolicy.REJECT && !isChannelWritable()) { // outbound buffer is full, fail fast
+            throw new ImapAsyncClientException(FailureType.CHANNEL_NOT_WRITABLE, sessionId, sessionCtx);
+        }
+        if (lagMonitor != null && lagMonitor.isOverloaded(channelRef.get().eventLoop())) { // shed load instead of timing out later
+            throw new ImapAsyncClientException(FailureType.EVENT_LOOP_OVERLOADED, sessionId, sessionCtx);
+        }
 
-        final ImapFuture<ImapAsyncResponse> cmdFuture = new ImapFuture<ImapAsyncResponse>();
+        final ImapFuture<ImapAsyncResponse> cmdFuture = new ImapFuture<ImapAsyncResponse>(callbackExecutor);
         final String tag = getNextTag();
         final int requestTotalBytes = tag.getBytes(StandardCharsets.US_ASCII).length + SPACE_LENGTH + command.getCommandLineBytes().readableBytes();
-        requestsQueue.add(new ImapCommandEntry(command, cmdFuture, tag, requestTotalBytes, clock.millis()));
+        final ImapCommandEntry entry = new ImapCommandEntry(command, cmdFuture, tag, requestTotalBytes, clock.millis());
+        if (isFlightRecorderEventsEnabled) {
+            entry.setCommandEvent(ImapFlightRecorder.beginCommand());
+        }
+        if (entry.getResponses() instanceof ImapStreamingResponseQueue) { // consumer drains it while command is running
+            ((ImapStreamingResponseQueue) entry.getResponses()).setConsumptionListener(this);
+        }
+        requestsQueue.add(entry);
+        if (metrics != null) {
+            metrics.onCommandStarted(command.getCommandType());
+        }
+        traceStage(Stage.ENQUEUED, entry);
 
         final ByteBuf buf = Unpooled.buffer();
 
@@ -342,10 +748,24 @@ public class ImapAsyncSessionImpl implements ImapAsyncSession, ImapCommandChanne
         buf.writeBytes(command.getCommandLineBytes());
 
         sendRequest(buf, command);
+        sendStreamingLiteral(command, entry);
 
         return cmdFuture;
     }
 
+    /**
+     * Reports the given stage of the command to the trace listener if there is one.
+     *
+     * @param stage the stage reached
+     * @param entry the command entry
+     */
+    private void traceStage(@Nonnull final Stage stage, @Nonnull final ImapCommandEntry entry) {
+        if (traceListener != null) {
+            traceListener.onCommandStage(stage, sessionId, sessionCtx, entry.getTag(), entry.getRequest().getCommandType(),
+                    entry.getElapsedTimeNanos());
+        }
+    }
+
     @Override
     public <T> ImapFuture<ImapAsyncResponse> startCompression() throws ImapAsyncClientException {
         final ImapFuture<ImapAsyncResponse> future = execute(new CompressCommand());
@@ -360,6 +780,42 @@ public class ImapAsyncSessionImpl implements ImapAsyncSession, ImapCommandChanne
         return !channelRef.get().isActive();
     }
 
+    /**
+     * @return true if the channel outbound buffer is below its high water mark; false otherwise
+     */
+    @Override
+    public boolean isChannelWritable() {
+        return channelRef.get().isWritable();
+    }
+
+    @Override
+    public byte[] dumpWireCapture() {
+        return (wireCapture == null) ? new byte[0] : wireCapture.dump();
+    }
+
+    @Override
+    public ImapAsyncSessionStats getStats() {
+        final Map<FailureType, Long> failures = new EnumMap<FailureType, Long>(FailureType.class);
+        for (final FailureType type : FailureType.values()) {
+            final long count = failureCounts.get(type.ordinal());
+            if (count > 0) {
+                failures.put(type, count);
+            }
+        }
+        long bufferedResponseBytes = 0;
+        final ImapCommandEntry curEntry = getFirstEntry();
+        if (curEntry != null && curEntry.getResponses() instanceof ImapStreamingResponseQueue) {
+            bufferedResponseBytes = ((ImapStreamingResponseQueue) curEntry.getResponses()).getBufferedBytes();
+        } else if (curEntry != null && !curEntry.isDiscardingAfterDelivery()) {
+            bufferedResponseBytes = curEntry.getResponseTotalBytes();
+        }
+        final long literalBytesRead = (respReader == null) ? 0 : respReader.getLiteralBytesRead();
+        return new ImapAsyncSessionStats(commandsExecuted.get(), failures, networkByteCounter.getBytesRead(), networkByteCounter.getBytesWritten(),
+                imapByteCounter.getBytesRead(), imapByteCounter.getBytesWritten(), compressedByteCounter.getBytesRead(),
+                compressedByteCounter.getBytesWritten(), uncompressedByteCounter.getBytesRead(), uncompressedByteCounter.getBytesWritten(),
+                largestResponseBytes.get(), literalBytesRead, bufferedResponseBytes, (System.nanoTime() - lastActivityNanos) / NANOS_PER_MILLI);
+    }
+
     /**
      * Sends the given request to server when being called.
      *
@@ -373,16 +829,271 @@ public class ImapAsyncSessionImpl implements ImapAsyncSession, ImapCommandChanne
             logger.debug(CLIENT_LOG_REC, sessionId, getUserInfo(),
                     (!command.isCommandLineDataSensitive()) ? request.toString(StandardCharsets.UTF_8) : command.getDebugData());
         }
+        lastActivityNanos = System.nanoTime();
+        if (wireCapture != null) {
+            if (!command.isCommandLineDataSensitive()) {
+                wireCapture.recordRequest(request);
+            } else {
+                wireCapture.recordRedactedRequest(String.valueOf(command.getDebugData()));
+            }
+        }
         if (isChannelClosed()) {
             throw new ImapAsyncClientException(FailureType.OPERATION_PROHIBITED_ON_CLOSED_CHANNEL, sessionId, sessionCtx);
         }
+        writeOrHold(request);
+    }
+
+    /**
+     * Streams the literal of the given command due right after the command line just sent, if any, followed by CRLF.
+     *
+     * @param command the imap command
+     * @param entry the command entry
+     */
+    private void sendStreamingLiteral(@Nonnull final ImapRequest command, @Nonnull final ImapCommandEntry entry) {
+        if (!(command instanceof StreamingLiteralRequest)) {
+            return;
+        }
+        final ImapLiteralSource literal = ((StreamingLiteralRequest) command).nextStreamingLiteral();
+        if (literal == null) {
+            return;
+        }
+        final String literalInfo = "<literal of " + literal.getLength() + " bytes>";
+        if (isDebugEnabled()) {
+            logger.debug(CLIENT_LOG_REC, sessionId, getUserInfo(), literalInfo);
+        }
+        if (wireCapture != null) {
+            wireCapture.recordRedactedRequest(literalInfo);
+        }
+        entry.recordRequestBytes((int) Math.min(Integer.MAX_VALUE, literal.getLength() + CRLF_B.length));
+        writeOrHold(literal);
+        writeOrHold(Unpooled.wrappedBuffer(CRLF_B));
+    }
+
+    /**
+     * Writes the given request to the channel, or holds it back if the write back pressure policy asks for it and channel is not writable.
+     *
+     * @param request the message of the request or the literal source
+     */
+    private void writeOrHold(@Nonnull final Object request) {
+        if (writeBackpressurePolicy != WriteBackpressurePolicy.IGNORE && (!pendingWrites.isEmpty() || !isChannelWritable())) {
+            // hold it back till channel is writable, re-check after adding since writability might have changed in between
+            pendingWrites.add(request);
+            if (isChannelWritable()) {
+                flushPendingWrites();
+            }
+            return;
+        }
+        writeToChannel(request);
+    }
 
+    /**
+     * Writes the given request to the channel and flushes it.
+     *
+     * @param request the message of the request or the literal source
+     */
+    private void writeToChannel(@Nonnull final Object request) {
         // ChannelPromise is the suggested ChannelFuture that allows caller to setup listener before the action is made
         // this is useful for light-speed operation.
         final Channel channel = channelRef.get();
+        Object message = request;
+        if (request instanceof ImapLiteralSource) {
+            try {
+                message = toLiteralMessage(channel.pipeline(), (ImapLiteralSource) request);
+            } catch (final IOException e) {
+                handleChannelException(new ImapAsyncClientException(FailureType.WRITE_TO_SERVER_FAILED, e, sessionId, sessionCtx));
+                return;
+            }
+        }
         final ChannelPromise writeFuture = channel.newPromise();
         writeFuture.addListener(this); // "this" listens to write future done in operationComplete() to handle exception in writing.
-        channel.writeAndFlush(request, writeFuture);
+        channel.writeAndFlush(message, writeFuture);
+    }
+
+    /**
+     * Starts compression right after a successful authentication if the auto compress policy asks for it. COMPRESS is sent as soon as the tagged
+     * response of the authentication is read, and the authentication future completes once server accepts or refuses it, so that the next command
+     * of the caller is sent compressed. If the policy depends on server support and the authentication responses carry no capability, CAPABILITY
+     * is sent first to find it out.
+     *
+     * @param command the command completed
+     * @param taggedResponse the tagged response of the command
+     * @param responses all responses of the command
+     * @param authFuture the future of the command
+     * @param authResponse the result of the command
+     * @return true if compression is started, and the command future will be completed by it; false otherwise
+     */
+    private boolean startCompressionAfterAuth(@Nonnull final ImapRequest command, @Nonnull final IMAPResponse taggedResponse,
+            @Nonnull final Collection<IMAPResponse> responses, @Nonnull final ImapFuture<ImapAsyncResponse> authFuture,
+            @Nonnull final ImapAsyncResponse authResponse) {
+        final ImapCommandType type = command.getCommandType();
+        if (!taggedResponse.isOK() || (type != ImapRFCSupportedCommandType.LOGIN && type != ImapRFCSupportedCommandType.AUTHENTICATE)) {
+            return false;
+        }
+        if (autoCompressPolicy == AutoCompressPolicy.NEVER || (autoCompressPolicy == AutoCompressPolicy.WHEN_SUPPORTED_AND_REMOTE && isLoopback())) {
+            return false;
+        }
+        if (autoCompressPolicy == AutoCompressPolicy.WHEN_SUPPORTED_AND_REMOTE) {
+            final Capability capa = readCapability(responses);
+            if (capa == null) {
+                return startCompressionAfterCapability(authFuture, authResponse);
+            }
+            if (!isDeflateSupported(capa)) {
+                return false;
+            }
+        }
+        return startCompressionBeforeDone(authFuture, authResponse);
+    }
+
+    /**
+     * Starts compression and completes the authentication future once server accepts or refuses it.
+     *
+     * @param authFuture the future of the authentication command
+     * @param authResponse the result of the authentication command
+     * @return true if compression is started, and the authentication future will be completed by it; false otherwise
+     */
+    private boolean startCompressionBeforeDone(@Nonnull final ImapFuture<ImapAsyncResponse> authFuture,
+            @Nonnull final ImapAsyncResponse authResponse) {
+        final ImapFuture<ImapAsyncResponse> compressFuture;
+        try {
+            compressFuture = startCompression();
+        } catch (final ImapAsyncClientException e) { // authentication is done regardless, caller finds out the session state by the next command
+            return false;
+        }
+        compressFuture.setDoneCallback(r -> authFuture.done(authResponse));
+        compressFuture.setExceptionCallback(authFuture::done);
+        return true;
+    }
+
+    /**
+     * Sends CAPABILITY, then starts compression if server advertises COMPRESS=DEFLATE. The authentication future completes once compression is
+     * settled, or right after CAPABILITY if compression is not started.
+     *
+     * @param authFuture the future of the authentication command
+     * @param authResponse the result of the authentication command
+     * @return true if CAPABILITY is sent, and the authentication future will be completed by it; false otherwise
+     */
+    private boolean startCompressionAfterCapability(@Nonnull final ImapFuture<ImapAsyncResponse> authFuture,
+            @Nonnull final ImapAsyncResponse authResponse) {
+        final ImapFuture<ImapAsyncResponse> capaFuture;
+        try {
+            capaFuture = execute(new CapaCommand());
+        } catch (final ImapAsyncClientException e) { // authentication is done regardless, caller finds out the session state by the next command
+            return false;
+        }
+        capaFuture.setDoneCallback(r -> {
+            final Capability capa = readCapability(r.getResponseLines());
+            if (capa == null || !isDeflateSupported(capa) || !startCompressionBeforeDone(authFuture, authResponse)) {
+                authFuture.done(authResponse);
+            }
+        });
+        capaFuture.setExceptionCallback(authFuture::done);
+        return true;
+    }
+
+    /**
+     * @return true if server is on a loopback address; false otherwise
+     */
+    private boolean isLoopback() {
+        final SocketAddress remoteAddress = channelRef.get().remoteAddress();
+        return remoteAddress instanceof InetSocketAddress && ((InetSocketAddress) remoteAddress).getAddress() != null
+                && ((InetSocketAddress) remoteAddress).getAddress().isLoopbackAddress();
+    }
+
+    /**
+     * Reads the capability advertised in the given responses, either in an untagged CAPABILITY response or in a CAPABILITY response code.
+     *
+     * @param responses the responses
+     * @return the capability, null if the responses carry no capability or it cannot be parsed
+     */
+    @Nullable
+    private Capability readCapability(@Nonnull final Collection<IMAPResponse> responses) {
+        final IMAPResponse[] lines = responses.toArray(new IMAPResponse[0]);
+        try {
+            final Capability capa = new ImapResponseMapper().readValue(lines, Capability.class);
+            return capa.isEmpty() ? null : capa;
+        } catch (final ImapAsyncClientException | ParsingException e) {
+            return null;
+        } finally {
+            for (final IMAPResponse line : lines) {
+                line.reset(); // parsing moves the read position, resetting it for the caller
+            }
+        }
+    }
+
+    /**
+     * @param capa the capability advertised by server
+     * @return true if COMPRESS=DEFLATE is advertised; false otherwise
+     */
+    private boolean isDeflateSupported(@Nonnull final Capability capa) {
+        return capa.hasCapability(COMPRESS) && capa.getCapability(COMPRESS).contains(DEFLATE);
+    }
+
+    /**
+     * Adds the compression handlers, surrounded by the compressed and uncompressed byte counters, right after the SSL handler if present, otherwise
+     * right after the network byte counter, or first.
+     *
+     * @param pipeline the channel pipeline
+     */
+    private void addCompressionHandlers(@Nonnull final ChannelPipeline pipeline) {
+        final String anchor;
+        if (pipeline.get(ImapAsyncClient.SSL_HANDLER) != null) {
+            anchor = ImapAsyncClient.SSL_HANDLER;
+        } else if (pipeline.get(NETWORK_BYTE_COUNTER) != null) {
+            anchor = NETWORK_BYTE_COUNTER;
+        } else {
+            anchor = null;
+        }
+        final ImapDeflateEncoder encoder = new ImapDeflateEncoder(compressionLevel, compressionStrategy,
+                deflateFlushPolicy == DeflateFlushPolicy.EACH_WRITE);
+        // each handler is added right after the anchor, thus in reverse order of the resulting pipeline
+        final String[] names = { UNCOMPRESSED_BYTE_COUNTER, ZLIB_DECODER, ZLIB_ENCODER, COMPRESSED_BYTE_COUNTER };
+        final ChannelHandler[] handlers = { uncompressedByteCounter, new JdkZlibDecoder(ZlibWrapper.NONE), encoder, compressedByteCounter };
+        for (int i = 0; i < names.length; i++) {
+            if (anchor == null) {
+                pipeline.addFirst(names[i], handlers[i]);
+            } else {
+                pipeline.addAfter(anchor, names[i], handlers[i]);
+            }
+        }
+    }
+
+    /**
+     * Builds the message to write for the given literal source. Files are written as file regions, aka, zero-copy, when neither TLS nor compression
+     * transforms the bytes, otherwise in chunks pulled by a chunked write handler only while the channel is writable.
+     *
+     * @param pipeline the channel pipeline
+     * @param literal the literal source
+     * @return the message to write
+     * @throws IOException when failing to access the file
+     */
+    private Object toLiteralMessage(@Nonnull final ChannelPipeline pipeline, @Nonnull final ImapLiteralSource literal) throws IOException {
+        final boolean isZeroCopyAllowed = pipeline.get(ImapAsyncClient.SSL_HANDLER) == null && pipeline.get(ZLIB_ENCODER) == null;
+        final Object message = literal.toMessage(isZeroCopyAllowed);
+        if (message instanceof ChunkedInput && pipeline.get(CHUNKED_WRITER) == null) {
+            pipeline.addLast(CHUNKED_WRITER, new ChunkedWriteHandler());
+        }
+        return message;
+    }
+
+    /**
+     * Writes the requests that were held back in order, as long as the channel stays writable.
+     */
+    private void flushPendingWrites() {
+        synchronized (pendingWrites) {
+            while (!pendingWrites.isEmpty() && isChannelWritable()) {
+                writeToChannel(pendingWrites.poll());
+            }
+        }
+    }
+
+    /**
+     * Releases the requests that were held back and never written.
+     */
+    private void releasePendingWrites() {
+        Object request;
+        while ((request = pendingWrites.poll()) != null) {
+            ReferenceCountUtil.release(request); // literal sources are released when their commands are cleaned up
+        }
     }
 
     @Override
@@ -407,6 +1118,9 @@ public class ImapAsyncSessionImpl implements ImapAsyncSession, ImapCommandChanne
         if (entry != null) {
             // set the state to REQUEST_SENT regardless success or not
             entry.setState(ImapCommandEntry.CommandState.REQUEST_SENT);
+            if (future.isSuccess()) {
+                traceStage(Stage.WRITE_COMPLETED, entry);
+            }
         }
 
         if (!future.isSuccess()) { // failed to write to server
@@ -419,6 +1133,10 @@ public class ImapAsyncSessionImpl implements ImapAsyncSession, ImapCommandChanne
         if (isDebugEnabled()) {
             logger.debug(SESSION_LOG_REC, sessionId, getUserInfo(), "Session is confirmed closed.");
         }
+        releasePendingWrites();
+        if (isFlightRecorderEventsEnabled) {
+            ImapFlightRecorder.commitSessionClose(sessionId);
+        }
 
         final StringBuilder sb = new StringBuilder(getUserInfo());
         final ImapCommandEntry curEntry = getFirstEntry();
@@ -441,6 +1159,14 @@ public class ImapAsyncSessionImpl implements ImapAsyncSession, ImapCommandChanne
         }
 
         final ImapCommandEntry entry = requestsQueue.poll();
+        if (entry.getResponses() instanceof ImapStreamingResponseQueue) {
+            ((ImapStreamingResponseQueue) entry.getResponses()).setConsumptionListener(null);
+        }
+        if (memoryBudget != null) {
+            memoryBudget.release(entry.getReservedBytes().getAndSet(0)); // responses are handed over to caller or dropped
+        }
+        readPausedByRequest.set(false);
+        resumeAutoRead(); // nothing to wait for the consumer anymore
         // clean up the command since it is done regardless success or fail
         entry.getRequest().cleanup();
         return entry;
@@ -468,7 +1194,19 @@ public class ImapAsyncSessionImpl implements ImapAsyncSession, ImapCommandChanne
         if (isDebugEnabled()) {
             logger.debug(SESSION_LOG_WITH_EXCEPTION, sessionId, getUserInfo(), cause);
         }
+        // idle is usually ended by closing the session, not worth a dump
+        if (wireCapture != null && !(entry.getRequest() instanceof IdleCommand) && logger.isWarnEnabled()) {
+            logger.warn(WIRE_CAPTURE_LOG_REC, sessionId, getUserInfo(), cause.getFailureType(),
+                    new String(wireCapture.dump(), StandardCharsets.US_ASCII));
+        }
+        failureCounts.incrementAndGet(cause.getFailureType().ordinal());
+        if (metrics != null) {
+            metrics.onCommandFailed(entry.getRequest().getCommandType(), entry.getElapsedTimeNanos(), cause.getFailureType());
+        }
+        traceStage(Stage.FAILED, entry);
+        entry.commitCommandEvent(sessionId, cause.getFailureType());
         entry.getFuture().done(cause);
+        traceStage(Stage.CALLBACK_COMPLETED, entry);
 
         // close session when encountering channel exception since the health of session is frail/unknown.
         close();
@@ -481,7 +1219,134 @@ public class ImapAsyncSessionImpl implements ImapAsyncSession, ImapCommandChanne
         if (curEntry != null) {
             curEntry.debugInfo(sb);
         }
-        requestDoneWithException(new ImapAsyncClientException(FailureType.CHANNEL_EXCEPTION, cause, sessionId, sb.toString()));
+        // oversized responses are discarded by the reader, tell callers apart from other channel failures
+        final FailureType failureType = (cause instanceof TooLongFrameException) ? FailureType.RESPONSE_TOO_LARGE : FailureType.CHANNEL_EXCEPTION;
+        requestDoneWithException(new ImapAsyncClientException(failureType, cause, sessionId, sb.toString()));
+    }
+
+    /**
+     * Checks whether the consumer of the streaming responses of the given command lags behind, aka, holds more than half of the maximum buffered
+     * response bytes.
+     *
+     * @param entry the command entry, null if no command is running
+     * @param threshold number of buffered bytes above which the consumer lags behind
+     * @return true if the consumer lags behind; false otherwise
+     */
+    private boolean isConsumerLagging(@Nullable final ImapCommandEntry entry, final long threshold) {
+        return entry != null && entry.getResponses() instanceof ImapStreamingResponseQueue
+                && ((ImapStreamingResponseQueue) entry.getResponses()).getBufferedBytes() > threshold;
+    }
+
+    /**
+     * Stops reading from server if the consumer of the streaming responses lags behind, or the memory budget shared by all sessions is exceeded.
+     *
+     * @param entry the command entry
+     * @param isWithinBudget false if the memory budget is exceeded
+     */
+    private void pauseReadIfNeeded(@Nonnull final ImapCommandEntry entry, final boolean isWithinBudget) {
+        if ((isWithinBudget && !isConsumerLagging(entry, maxBufferedResponseBytes - 1)) || !readPaused.compareAndSet(false, true)) {
+            return;
+        }
+        if (isDebugEnabled()) {
+            final long bufferedBytes = (entry.getResponses() instanceof ImapStreamingResponseQueue)
+                    ? ((ImapStreamingResponseQueue) entry.getResponses()).getBufferedBytes()
+                    : entry.getResponseTotalBytes();
+            logger.debug(SESSION_LOG_REC, sessionId, getUserInfo(), "Pausing read, buffered response bytes:" + bufferedBytes
+                    + ((memoryBudget == null) ? "" : ", memory budget reserved bytes:" + memoryBudget.getReservedBytes()));
+        }
+        channelRef.get().config().setAutoRead(false);
+        // consumer or other sessions might have released before we paused, check again to avoid never resuming
+        resumeReadIfPossible();
+    }
+
+    /**
+     * Resumes reading from server if it was paused, the consumer has drained enough and the memory budget is available. Otherwise waits for the
+     * memory budget if it is exhausted.
+     */
+    private void resumeReadIfPossible() {
+        if (!readPaused.get() || readPausedByRequest.get() || isConsumerLagging(getFirstEntry(), maxBufferedResponseBytes / 2)) {
+            return; // consumer will call onConsumed() or resumeReading() later
+        }
+        if (memoryBudget != null && memoryBudget.isExhausted()) {
+            if (waitingForMemoryBudget.compareAndSet(false, true)) {
+                memoryBudget.runWhenAvailable(new Runnable() {
+                    @Override
+                    public void run() {
+                        waitingForMemoryBudget.set(false);
+                        resumeReadIfPossible();
+                    }
+                });
+            }
+            return;
+        }
+        resumeAutoRead();
+    }
+
+    /**
+     * Stops reading from server as the running request decided, until it resumes reading or the command is done.
+     */
+    private void pauseReadForRequest() {
+        readPausedByRequest.set(true);
+        if (readPaused.compareAndSet(false, true)) {
+            if (isDebugEnabled()) {
+                logger.debug(SESSION_LOG_REC, sessionId, getUserInfo(), "Pausing read as decided by request.");
+            }
+            channelRef.get().config().setAutoRead(false);
+        }
+    }
+
+    @Override
+    public void handleMemoryBudgetExceeded() {
+        // reader paused reading in the middle of a literal, keep it paused till the budget is available
+        if (readPaused.compareAndSet(false, true) && isDebugEnabled()) {
+            logger.debug(SESSION_LOG_REC, sessionId, getUserInfo(), "Pausing read, memory budget exceeded by a literal.");
+        }
+        resumeReadIfPossible();
+    }
+
+    @Override
+    public void setMailboxEventListener(@Nullable final MailboxEventListener listener) {
+        this.idleEventDispatcher = (listener == null) ? null : new MailboxEventDispatcher(listener);
+    }
+
+    @Override
+    public void resumeReading() {
+        if (readPausedByRequest.compareAndSet(true, false)) {
+            resumeReadIfPossible();
+        }
+    }
+
+    /**
+     * Resumes reading from server if it was paused.
+     */
+    private void resumeAutoRead() {
+        if (readPaused.compareAndSet(true, false)) {
+            channelRef.get().config().setAutoRead(true);
+        }
+    }
+
+    @Override
+    public void onConsumed(final long bufferedBytes) {
+        final ImapCommandEntry entry = getFirstEntry();
+        if (memoryBudget != null && entry != null && entry.getResponses() instanceof ImapStreamingResponseQueue) {
+            // release what consumer has taken, bytes buffered afterwards are reserved by event loop once added
+            final long buffered = ((ImapStreamingResponseQueue) entry.getResponses()).getBufferedBytes();
+            long reserved;
+            do {
+                reserved = entry.getReservedBytes().get();
+            } while (reserved > buffered && !entry.getReservedBytes().compareAndSet(reserved, buffered));
+            if (reserved > buffered) {
+                memoryBudget.release(reserved - buffered);
+            }
+        }
+        resumeReadIfPossible();
+    }
+
+    @Override
+    public void handleChannelWritabilityChanged() {
+        if (!isChannelClosed() && isChannelWritable()) {
+            flushPendingWrites();
+        }
     }
 
     @Override
@@ -491,25 +1356,65 @@ public class ImapAsyncSessionImpl implements ImapAsyncSession, ImapCommandChanne
         if (curEntry == null || curEntry.getState() != ImapCommandEntry.CommandState.REQUEST_SENT || curEntry.getRequest() instanceof IdleCommand) {
             return;
         }
+        final boolean isWaitingForBudget = readPaused.get() && !readPausedByRequest.get()
+                && !isConsumerLagging(curEntry, maxBufferedResponseBytes / 2);
+        if (readPaused.get() && !isWaitingForBudget) {
+            return; // we stopped reading on purpose, server is not the one to blame
+        }
 
-        // error out for any other commands sent but server is not responding
+        // error out for any other commands sent but server is not responding, or memory budget not available in time
         final StringBuilder sb = new StringBuilder(getUserInfo());
         curEntry.debugInfo(sb);
 
-        requestDoneWithException(new ImapAsyncClientException(FailureType.CHANNEL_TIMEOUT, sessionId, sb.toString()));
+        final FailureType failureType = isWaitingForBudget ? FailureType.MEMORY_BUDGET_EXCEEDED : FailureType.CHANNEL_TIMEOUT;
+        requestDoneWithException(new ImapAsyncClientException(failureType, sessionId, sb.toString()));
     }
 
     @Override
     public <T> void handleChannelResponse(@Nonnull final IMAPResponse serverResponse) {
+        final byte[] responseBytes = serverResponse.toString().getBytes(StandardCharsets.US_ASCII);
+        lastActivityNanos = System.nanoTime();
+        largestResponseBytes.accumulateAndGet(responseBytes.length, Math::max);
+        if (wireCapture != null) {
+            wireCapture.recordResponse(responseBytes);
+        }
         final ImapCommandEntry curEntry = getFirstEntry();
         if (curEntry == null) {
+            final MailboxEventDispatcher dispatcher = idleEventDispatcher;
+            if (dispatcher != null) {
+                dispatcher.dispatch(serverResponse);
+            }
             return;
         }
 
         final ImapRequest currentCmd = curEntry.getRequest();
-        final Collection<IMAPResponse> responses = curEntry.getResponses();
-        responses.add(serverResponse);
-        curEntry.recordResponseBytes(serverResponse.toString().getBytes(StandardCharsets.US_ASCII).length);
+        UntaggedResponseDecision decision = UntaggedResponseDecision.KEEP;
+        if (serverResponse.isUnTagged()) {
+            try {
+                decision = currentCmd.onUntaggedResponse(serverResponse);
+            } catch (final RuntimeException e) { // request failed to process the response
+                requestDoneWithException(new ImapAsyncClientException(FailureType.CHANNEL_EXCEPTION, e, sessionId, sessionCtx));
+                return;
+            }
+        }
+        final boolean isHeld = curEntry.addResponse(serverResponse,
+                decision != UntaggedResponseDecision.DROP && decision != UntaggedResponseDecision.STOP_READING, responseBytes.length);
+        if (decision == UntaggedResponseDecision.STOP_READING) {
+            pauseReadForRequest();
+        }
+        curEntry.recordResponseBytes(responseBytes.length);
+        boolean isWithinBudget = true;
+        if (memoryBudget != null && isHeld) {
+            curEntry.getReservedBytes().addAndGet(responseBytes.length);
+            isWithinBudget = memoryBudget.reserve(responseBytes.length);
+        }
+        pauseReadIfNeeded(curEntry, isWithinBudget);
+        if (metrics != null && curEntry.markResponseReceived()) {
+            metrics.onFirstResponse(currentCmd.getCommandType(), curEntry.getElapsedTimeNanos());
+        }
+        if (traceListener != null && serverResponse.isUnTagged() && curEntry.markUntaggedResponseReceived()) {
+            traceStage(Stage.FIRST_UNTAGGED_RESPONSE, curEntry);
+        }
 
         if (isDebugEnabled()) { // logging all server responses when enabled
             logger.debug(SERVER_LOG_REC, sessionId, getUserInfo(), serverResponse.toString());
@@ -526,6 +1431,7 @@ public class ImapAsyncSessionImpl implements ImapAsyncSession, ImapCommandChanne
                 curEntry.setState(ImapCommandEntry.CommandState.REQUEST_IN_PREPARATION); // preparing to send request
                 curEntry.recordRequestBytes(cmdAfterContinue.readableBytes());
                 sendRequest(cmdAfterContinue, currentCmd);
+                sendStreamingLiteral(currentCmd, curEntry);
 
             } catch (final ImapAsyncClientException | RuntimeException e) { // when encountering an error on building request from client
                 requestDoneWithException(
@@ -545,25 +1451,27 @@ public class ImapAsyncSessionImpl implements ImapAsyncSession, ImapCommandChanne
                         return;
                     }
 
-                    final Channel ch = channelRef.get();
-                    final ChannelPipeline pipeline = ch.pipeline();
-                    final JdkZlibDecoder decoder = new JdkZlibDecoder(ZlibWrapper.NONE);
-                    final JdkZlibEncoder encoder = new JdkZlibEncoder(ZlibWrapper.NONE, 5);
-                    if (pipeline.get(ImapAsyncClient.SSL_HANDLER) == null) {
-                        // no SSL handler, deflater/enflater has to be first
-                        pipeline.addFirst(ZLIB_DECODER, decoder);
-                        pipeline.addFirst(ZLIB_ENCODER, encoder);
-                    } else {
-                        pipeline.addAfter(ImapAsyncClient.SSL_HANDLER, ZLIB_DECODER, decoder);
-                        pipeline.addAfter(ImapAsyncClient.SSL_HANDLER, ZLIB_ENCODER, encoder);
-                    }
+                    addCompressionHandlers(channelRef.get().pipeline());
                 }
                 // see rfc3501, page 63 for details, since we always give a tagged command, response completion should be the first tagged response
                 final long totalTimeElapsedInMillis = clock.millis() - curEntry.getRequestStartTimeInMillis();
+                commandsExecuted.incrementAndGet();
+                // untagged responses were delivered to the consumer already when discarding, only the tagged one is kept
+                final Collection<IMAPResponse> responses = curEntry.isDiscardingAfterDelivery() ? Collections.singletonList(serverResponse)
+                        : curEntry.getResponses();
                 final ImapAsyncResponse doneResponse = new ImapAsyncResponse(curEntry.getRequest().getCommandType(), curEntry.getRequestTotalBytes(),
-                        curEntry.getResponseTotalBytes(), responses, totalTimeElapsedInMillis);
+                        curEntry.getResponseTotalBytes(), responses, totalTimeElapsedInMillis, curEntry.getUntaggedResponseCount());
                 removeFirstEntry();
-                curEntry.getFuture().done(doneResponse);
+                if (metrics != null) {
+                    metrics.onCommandCompleted(currentCmd.getCommandType(), curEntry.getElapsedTimeNanos(), curEntry.getRequestTotalBytes(),
+                            curEntry.getResponseTotalBytes());
+                }
+                traceStage(Stage.TAGGED_RESPONSE, curEntry);
+                curEntry.commitCommandEvent(sessionId, null);
+                if (!startCompressionAfterAuth(currentCmd, serverResponse, responses, curEntry.getFuture(), doneResponse)) {
+                    curEntry.getFuture().done(doneResponse);
+                }
+                traceStage(Stage.CALLBACK_COMPLETED, curEntry);
                 return;
             } catch (final RuntimeException e) {
                 requestDoneWithException(
@@ -576,7 +1484,7 @@ public class ImapAsyncSessionImpl implements ImapAsyncSession, ImapCommandChanne
 
     @Override
     public ImapFuture<Boolean> close() {
-        final ImapFuture<Boolean> closeFuture = new ImapFuture<Boolean>();
+        final ImapFuture<Boolean> closeFuture = new ImapFuture<Boolean>(callbackExecutor);
         if (isChannelClosed()) {
             closeFuture.done(Boolean.TRUE);
         } else {
@@ -0,0 +1,179 @@
+package com.yahoo.imapnio.async.internal;
+
+import java.time.Clock;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import io.netty.channel.EventLoopGroup;
+import io.netty.util.concurrent.EventExecutor;
+
+/**
+ * This class measures the event loop lag, aka, how late each event loop runs a task scheduled on it. A lagging event loop delays the responses and
+ * callbacks of every session it serves, for example when a callback does heavy work on it. When a maximum lag is given, event loops lagging beyond
+ * it are considered overloaded, so that new work can be rejected instead of piling up.
+ */
+public class ImapEventLoopLagMonitor {
+
+    /** Clock instance. */
+    @Nonnull
+    private final Clock clock;
+
+    /** The event loops to probe. */
+    @Nonnull
+    private final EventLoopGroup group;
+
+    /** Interval between probes in milliseconds. */
+    private final long probeIntervalMillis;
+
+    /** Maximum lag in milliseconds before an event loop is considered overloaded, not positive means never overloaded. */
+    private final long overloadLagMillis;
+
+    /** Lag in milliseconds measured by the latest probe, keyed by event loop. */
+    private final Map<EventExecutor, AtomicLong> lagByLoop = new ConcurrentHashMap<EventExecutor, AtomicLong>();
+
+    /** Flag whether this monitor is running. */
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    /** Lag in milliseconds measured by the latest probe among all event loops. */
+    private final AtomicLong lastLagMillis = new AtomicLong(0);
+
+    /** Maximum lag in milliseconds measured since started. */
+    private final AtomicLong maxLagMillis = new AtomicLong(0);
+
+    /**
+     * Initializes a {@link ImapEventLoopLagMonitor}.
+     *
+     * @param clock Clock instance
+     * @param group the event loops to probe
+     * @param probeIntervalMillis interval between probes in milliseconds
+     */
+    public ImapEventLoopLagMonitor(@Nonnull final Clock clock, @Nonnull final EventLoopGroup group, final long probeIntervalMillis) {
+        this(clock, group, probeIntervalMillis, 0);
+    }
+
+    /**
+     * Initializes a {@link ImapEventLoopLagMonitor}.
+     *
+     * @param clock Clock instance
+     * @param group the event loops to probe
+     * @param probeIntervalMillis interval between probes in milliseconds
+     * @param overloadLagMillis maximum lag in milliseconds before an event loop is considered overloaded, not positive means never overloaded
+     */
+    public ImapEventLoopLagMonitor(@Nonnull final Clock clock, @Nonnull final EventLoopGroup group, final long probeIntervalMillis,
+            final long overloadLagMillis) {
+        this.clock = clock;
+        this.group = group;
+        this.probeIntervalMillis = probeIntervalMillis;
+        this.overloadLagMillis = overloadLagMillis;
+    }
+
+    /**
+     * Starts probing every event loop in the group.
+     */
+    public void start() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        for (final EventExecutor executor : group) {
+            lagByLoop.putIfAbsent(executor, new AtomicLong(0));
+            scheduleProbe(executor);
+        }
+    }
+
+    /**
+     * Stops probing, probes already scheduled will not be rescheduled.
+     */
+    public void stop() {
+        running.set(false);
+    }
+
+    /**
+     * Schedules the next probe on the given event loop.
+     *
+     * @param executor the event loop
+     */
+    private void scheduleProbe(@Nonnull final EventExecutor executor) {
+        if (!running.get() || executor.isShuttingDown()) {
+            return;
+        }
+        final long expectedRunTimeMillis = clock.millis() + probeIntervalMillis;
+        executor.schedule(new Runnable() {
+            @Override
+            public void run() {
+                recordLag(executor, Math.max(0, clock.millis() - expectedRunTimeMillis));
+                scheduleProbe(executor);
+            }
+        }, probeIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Records the lag measured by a probe.
+     *
+     * @param executor the event loop probed
+     * @param lagMillis lag in milliseconds
+     */
+    private void recordLag(@Nonnull final EventExecutor executor, final long lagMillis) {
+        final AtomicLong loopLag = lagByLoop.get(executor);
+        if (loopLag != null) {
+            loopLag.set(lagMillis);
+        }
+        lastLagMillis.set(lagMillis);
+        maxLagMillis.accumulateAndGet(lagMillis, Math::max);
+    }
+
+    /**
+     * @return lag in milliseconds measured by the latest probe
+     */
+    public long getLagMillis() {
+        return lastLagMillis.get();
+    }
+
+    /**
+     * @return maximum lag in milliseconds measured since started
+     */
+    public long getMaxLagMillis() {
+        return maxLagMillis.get();
+    }
+
+    /**
+     * @param executor the event loop
+     * @return lag in milliseconds measured by the latest probe on the given event loop, 0 if it is not probed
+     */
+    public long getLagMillis(@Nullable final EventExecutor executor) {
+        final AtomicLong loopLag = (executor == null) ? null : lagByLoop.get(executor);
+        return (loopLag == null) ? 0 : loopLag.get();
+    }
+
+    /**
+     * @param executor the event loop
+     * @return true if the lag of the given event loop exceeds the overload threshold; false otherwise
+     */
+    public boolean isOverloaded(@Nullable final EventExecutor executor) {
+        return overloadLagMillis > 0 && getLagMillis(executor) > overloadLagMillis;
+    }
+
+    /**
+     * Selects the event loop for a new connection, the next one in the group unless it is overloaded, in which case any event loop not overloaded.
+     *
+     * @return the event loop selected, null if all event loops are overloaded
+     */
+    @Nullable
+    public EventExecutor selectEventLoop() {
+        final EventExecutor next = group.next();
+        if (!isOverloaded(next)) {
+            return next;
+        }
+        for (final EventExecutor executor : lagByLoop.keySet()) {
+            if (!isOverloaded(executor)) {
+                return executor;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,100 @@
+package com.yahoo.imapnio.async.internal;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Byte budget shared by all sessions of a client for buffering responses, aka, literal buffers being read and responses held for commands. Bytes
+ * are always reserved since data already sent by server has to be read, but a reservation exceeding the budget tells the caller to stop reading
+ * until bytes are released. Accounting is lock-free.
+ */
+public class ImapMemoryBudget {
+
+    /** Maximum number of bytes in the budget. */
+    private final long maxBytes;
+
+    /** Number of bytes reserved. */
+    private final AtomicLong reservedBytes = new AtomicLong(0);
+
+    /** Actions waiting for the budget to become available, each is run once. */
+    private final ConcurrentLinkedQueue<Runnable> waiters = new ConcurrentLinkedQueue<Runnable>();
+
+    /**
+     * Initializes a {@link ImapMemoryBudget}.
+     *
+     * @param maxBytes maximum number of bytes in the budget, must be positive
+     */
+    public ImapMemoryBudget(final long maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes should be positive");
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Reserves the given number of bytes.
+     *
+     * @param bytes number of bytes to reserve
+     * @return true if the reserved bytes are still within the budget; false if it is exceeded
+     */
+    public boolean reserve(final long bytes) {
+        return reservedBytes.addAndGet(bytes) <= maxBytes;
+    }
+
+    /**
+     * Releases the given number of bytes, and runs the waiting actions if the budget becomes available.
+     *
+     * @param bytes number of bytes to release
+     */
+    public void release(final long bytes) {
+        if (bytes <= 0) {
+            return;
+        }
+        reservedBytes.addAndGet(-bytes);
+        runWaitersIfAvailable();
+    }
+
+    /**
+     * Registers an action to be run once the budget becomes available, it is run straight away if the budget is available already.
+     *
+     * @param waiter the action, for example, resuming reads of a channel
+     */
+    public void runWhenAvailable(@Nonnull final Runnable waiter) {
+        waiters.add(waiter);
+        // budget might have been released before adding, check again to avoid waiting forever
+        runWaitersIfAvailable();
+    }
+
+    /**
+     * Runs the waiting actions if the budget is available.
+     */
+    private void runWaitersIfAvailable() {
+        Runnable waiter;
+        while (!isExhausted() && (waiter = waiters.poll()) != null) {
+            waiter.run();
+        }
+    }
+
+    /**
+     * @return true if the reserved bytes exceed the budget; false otherwise
+     */
+    public boolean isExhausted() {
+        return reservedBytes.get() > maxBytes;
+    }
+
+    /**
+     * @return number of bytes reserved
+     */
+    public long getReservedBytes() {
+        return reservedBytes.get();
+    }
+
+    /**
+     * @return maximum number of bytes in the budget
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+}
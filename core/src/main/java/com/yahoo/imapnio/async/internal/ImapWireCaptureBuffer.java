@@ -0,0 +1,196 @@
+package com.yahoo.imapnio.async.internal;
+
+import java.nio.charset.StandardCharsets;
+
+import javax.annotation.Nonnull;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Bounded ring buffer keeping the last bytes of the wire traffic of a session, so that it can be dumped when an error happens without turning on
+ * debug logging beforehand. Requests are prefixed with "C: " and responses with "S: ", oldest bytes are overwritten once it is full. Literals in
+ * responses, which carry message contents, are not kept, only their length is.
+ */
+public class ImapWireCaptureBuffer {
+
+    /** Prefix of request lines. */
+    private static final byte[] CLIENT_PREFIX = "C: ".getBytes(StandardCharsets.US_ASCII);
+
+    /** Prefix of response lines. */
+    private static final byte[] SERVER_PREFIX = "S: ".getBytes(StandardCharsets.US_ASCII);
+
+    /** Line terminator. */
+    private static final byte[] CRLF = "\r\n".getBytes(StandardCharsets.US_ASCII);
+
+    /** Maximum number of digits of a literal length, more than what an int can hold, thus no valid literal is missed. */
+    private static final int MAX_LITERAL_LENGTH_DIGITS = 10;
+
+    /** The ring. */
+    private final byte[] ring;
+
+    /** Position to write the next byte. */
+    private int position;
+
+    /** Flag whether the ring is full and older bytes have been overwritten. */
+    private boolean isWrapped;
+
+    /**
+     * Initializes a {@link ImapWireCaptureBuffer}.
+     *
+     * @param capacity maximum number of bytes kept, must be positive
+     */
+    public ImapWireCaptureBuffer(final int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity should be positive");
+        }
+        this.ring = new byte[capacity];
+        this.position = 0;
+        this.isWrapped = false;
+    }
+
+    /**
+     * Records a request sent to server, the given buffer is not consumed.
+     *
+     * @param request the request, which ends with CRLF
+     */
+    public synchronized void recordRequest(@Nonnull final ByteBuf request) {
+        write(CLIENT_PREFIX, 0, CLIENT_PREFIX.length);
+        int index = request.readerIndex();
+        int length = request.readableBytes();
+        if (length > ring.length) { // only the tail could be kept
+            index += length - ring.length;
+            length = ring.length;
+        }
+        while (length > 0) {
+            final int chunk = Math.min(length, ring.length - position);
+            request.getBytes(index, ring, position, chunk);
+            advance(chunk);
+            index += chunk;
+            length -= chunk;
+        }
+    }
+
+    /**
+     * Records a redacted request sent to server, used when the request carries sensitive data.
+     *
+     * @param redacted the redacted request, without CRLF
+     */
+    public synchronized void recordRedactedRequest(@Nonnull final String redacted) {
+        final byte[] bytes = redacted.getBytes(StandardCharsets.US_ASCII);
+        write(CLIENT_PREFIX, 0, CLIENT_PREFIX.length);
+        write(bytes, 0, bytes.length);
+        write(CRLF, 0, CRLF.length);
+    }
+
+    /**
+     * Records a response received from server, literal data is replaced by its length.
+     *
+     * @param response the response, without CRLF
+     */
+    public synchronized void recordResponse(@Nonnull final byte[] response) {
+        write(SERVER_PREFIX, 0, SERVER_PREFIX.length);
+        int start = 0;
+        int i = 0;
+        while (i < response.length) {
+            final int literalEnd = (response[i] == '{') ? findLiteralEnd(response, i) : -1;
+            if (literalEnd < 0) {
+                i++;
+                continue;
+            }
+            // replace "{n}" CRLF followed by the literal data with its length only
+            write(response, start, i - start);
+            final byte[] literalInfo = ("<literal of " + parseLiteralLength(response, i) + " bytes>").getBytes(StandardCharsets.US_ASCII);
+            write(literalInfo, 0, literalInfo.length);
+            start = literalEnd;
+            i = literalEnd;
+        }
+        write(response, start, response.length - start);
+        write(CRLF, 0, CRLF.length);
+    }
+
+    /**
+     * Finds the end of the literal whose "{n}" CRLF prefix starts at the given index.
+     *
+     * @param response the response
+     * @param open index of the opening brace
+     * @return index right after the literal data, or -1 if there is no literal starting at the given index
+     */
+    private static int findLiteralEnd(@Nonnull final byte[] response, final int open) {
+        int i = open + 1;
+        while (i < response.length && i - open <= MAX_LITERAL_LENGTH_DIGITS && response[i] >= '0' && response[i] <= '9') {
+            i++;
+        }
+        if (i == open + 1 || i + 2 >= response.length || response[i] != '}' || response[i + 1] != '\r' || response[i + 2] != '\n') {
+            return -1;
+        }
+        final long dataStart = i + 3L;
+        return (int) Math.min(response.length, dataStart + parseLiteralLength(response, open));
+    }
+
+    /**
+     * Parses the length of the literal whose "{n}" prefix starts at the given index, which is known to be valid.
+     *
+     * @param response the response
+     * @param open index of the opening brace
+     * @return the literal length
+     */
+    private static long parseLiteralLength(@Nonnull final byte[] response, final int open) {
+        long length = 0;
+        for (int i = open + 1; response[i] != '}'; i++) {
+            length = length * 10 + (response[i] - '0');
+        }
+        return length;
+    }
+
+    /**
+     * Writes the given bytes to the ring.
+     *
+     * @param src the source bytes
+     * @param offset the offset in source
+     * @param len number of bytes to write
+     */
+    private void write(@Nonnull final byte[] src, final int offset, final int len) {
+        int off = offset;
+        int length = len;
+        if (length > ring.length) { // only the tail could be kept
+            off += length - ring.length;
+            length = ring.length;
+        }
+        while (length > 0) {
+            final int chunk = Math.min(length, ring.length - position);
+            System.arraycopy(src, off, ring, position, chunk);
+            advance(chunk);
+            off += chunk;
+            length -= chunk;
+        }
+    }
+
+    /**
+     * Moves the write position forward, wrapping around at the end of the ring.
+     *
+     * @param length number of bytes written
+     */
+    private void advance(final int length) {
+        position += length;
+        if (position == ring.length) {
+            position = 0;
+            isWrapped = true;
+        }
+    }
+
+    /**
+     * @return a copy of the captured bytes, from the oldest to the newest
+     */
+    public synchronized byte[] dump() {
+        if (!isWrapped) {
+            final byte[] result = new byte[position];
+            System.arraycopy(ring, 0, result, 0, position);
+            return result;
+        }
+        final byte[] result = new byte[ring.length];
+        final int tailLength = ring.length - position;
+        System.arraycopy(ring, position, result, 0, tailLength);
+        System.arraycopy(ring, 0, result, tailLength, position);
+        return result;
+    }
+}
@@ -0,0 +1,140 @@
+package com.yahoo.imapnio.async.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for a command execution, its duration is from the command being enqueued till it is done.
+ */
+@Name("com.yahoo.imapnio.Command")
+@Label("IMAP Command")
+@Category("IMAP")
+@Description("IMAP command execution")
+public class ImapCommandEvent extends Event {
+
+    /** Session id. */
+    @Label("Session Id")
+    private long sessionId;
+
+    /** Command tag. */
+    @Label("Tag")
+    private String tag;
+
+    /** Command type. */
+    @Label("Command Type")
+    private String commandType;
+
+    /** Number of bytes in request. */
+    @Label("Request Bytes")
+    @DataAmount
+    private long requestBytes;
+
+    /** Number of bytes in response. */
+    @Label("Response Bytes")
+    @DataAmount
+    private long responseBytes;
+
+    /** Failure type if the command failed without a tagged response, null otherwise. */
+    @Label("Failure Type")
+    private String failureType;
+
+    /**
+     * Sets the session id.
+     *
+     * @param sessionId the session id
+     */
+    public void setSessionId(final long sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    /**
+     * @return the session id
+     */
+    public long getSessionId() {
+        return sessionId;
+    }
+
+    /**
+     * Sets the command tag.
+     *
+     * @param tag the command tag
+     */
+    public void setTag(final String tag) {
+        this.tag = tag;
+    }
+
+    /**
+     * @return the command tag
+     */
+    public String getTag() {
+        return tag;
+    }
+
+    /**
+     * Sets the command type.
+     *
+     * @param commandType the command type
+     */
+    public void setCommandType(final String commandType) {
+        this.commandType = commandType;
+    }
+
+    /**
+     * @return the command type
+     */
+    public String getCommandType() {
+        return commandType;
+    }
+
+    /**
+     * Sets the number of bytes in request.
+     *
+     * @param requestBytes number of bytes in request
+     */
+    public void setRequestBytes(final long requestBytes) {
+        this.requestBytes = requestBytes;
+    }
+
+    /**
+     * @return number of bytes in request
+     */
+    public long getRequestBytes() {
+        return requestBytes;
+    }
+
+    /**
+     * Sets the number of bytes in response.
+     *
+     * @param responseBytes number of bytes in response
+     */
+    public void setResponseBytes(final long responseBytes) {
+        this.responseBytes = responseBytes;
+    }
+
+    /**
+     * @return number of bytes in response
+     */
+    public long getResponseBytes() {
+        return responseBytes;
+    }
+
+    /**
+     * Sets the failure type.
+     *
+     * @param failureType failure type if the command failed without a tagged response
+     */
+    public void setFailureType(final String failureType) {
+        this.failureType = failureType;
+    }
+
+    /**
+     * @return failure type if the command failed without a tagged response, null otherwise
+     */
+    public String getFailureType() {
+        return failureType;
+    }
+}
@@ -0,0 +1,57 @@
+package com.yahoo.imapnio.async.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for establishing the connection to server, its duration is the TCP connect time.
+ */
+@Name("com.yahoo.imapnio.Connect")
+@Label("IMAP Connect")
+@Category("IMAP")
+@Description("Connection to IMAP server")
+public class ImapConnectEvent extends Event {
+
+    /** Server URI. */
+    @Label("Server URI")
+    private String serverUri;
+
+    /** Whether the connection is established. */
+    @Label("Success")
+    private boolean success;
+
+    /**
+     * Sets the server URI.
+     *
+     * @param serverUri server URI
+     */
+    public void setServerUri(final String serverUri) {
+        this.serverUri = serverUri;
+    }
+
+    /**
+     * @return server URI
+     */
+    public String getServerUri() {
+        return serverUri;
+    }
+
+    /**
+     * Sets whether the connection is established.
+     *
+     * @param success true if the connection is established
+     */
+    public void setSuccess(final boolean success) {
+        this.success = success;
+    }
+
+    /**
+     * @return true if the connection is established
+     */
+    public boolean isSuccess() {
+        return success;
+    }
+}
@@ -0,0 +1,139 @@
+package com.yahoo.imapnio.async.jfr;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * This class creates and commits the flight recorder events of this library. Events are handed out typed as {@link Object}, so that the classes
+ * holding them do not refer to any jdk.jfr type and link on runtimes without jdk.jfr. This class must only be referenced when flight recorder
+ * events are enabled.
+ */
+public final class ImapFlightRecorder {
+
+    /**
+     * Private constructor to avoid constructing instance of this class.
+     */
+    private ImapFlightRecorder() {
+    }
+
+    /**
+     * Begins a connect event.
+     *
+     * @return the event, which has begun
+     */
+    @Nonnull
+    public static Object beginConnect() {
+        final ImapConnectEvent event = new ImapConnectEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Commits a connect event.
+     *
+     * @param event the event returned by {@link #beginConnect()}
+     * @param serverUri server URI
+     * @param isSuccess whether the connection is established
+     */
+    public static void commitConnect(@Nonnull final Object event, @Nonnull final String serverUri, final boolean isSuccess) {
+        final ImapConnectEvent connectEvent = (ImapConnectEvent) event;
+        connectEvent.setServerUri(serverUri);
+        connectEvent.setSuccess(isSuccess);
+        connectEvent.commit();
+    }
+
+    /**
+     * Begins a greeting event.
+     *
+     * @return the event, which has begun
+     */
+    @Nonnull
+    public static Object beginGreeting() {
+        final ImapGreetingEvent event = new ImapGreetingEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Commits a greeting event.
+     *
+     * @param event the event returned by {@link #beginGreeting()}
+     * @param sessionId the session id
+     * @param isOk whether the greeting is OK
+     */
+    public static void commitGreeting(@Nonnull final Object event, final long sessionId, final boolean isOk) {
+        final ImapGreetingEvent greetingEvent = (ImapGreetingEvent) event;
+        greetingEvent.setSessionId(sessionId);
+        greetingEvent.setOk(isOk);
+        greetingEvent.commit();
+    }
+
+    /**
+     * Begins a command event.
+     *
+     * @return the event, which has begun
+     */
+    @Nonnull
+    public static Object beginCommand() {
+        final ImapCommandEvent event = new ImapCommandEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Commits a command event.
+     *
+     * @param event the event returned by {@link #beginCommand()}
+     * @param sessionId the session id
+     * @param tag the command tag
+     * @param commandType the command type
+     * @param requestBytes number of bytes in request
+     * @param responseBytes number of bytes in response
+     * @param failureType failure type if the command failed without a tagged response, null otherwise
+     */
+    public static void commitCommand(@Nonnull final Object event, final long sessionId, @Nonnull final String tag, @Nonnull final String commandType,
+            final long requestBytes, final long responseBytes, @Nullable final String failureType) {
+        final ImapCommandEvent commandEvent = (ImapCommandEvent) event;
+        commandEvent.setSessionId(sessionId);
+        commandEvent.setTag(tag);
+        commandEvent.setCommandType(commandType);
+        commandEvent.setRequestBytes(requestBytes);
+        commandEvent.setResponseBytes(responseBytes);
+        commandEvent.setFailureType(failureType);
+        commandEvent.commit();
+    }
+
+    /**
+     * Begins a large literal read event.
+     *
+     * @param literalSize literal size in bytes
+     * @return the event, which has begun
+     */
+    @Nonnull
+    public static Object beginLiteralRead(final long literalSize) {
+        final ImapLiteralReadEvent event = new ImapLiteralReadEvent();
+        event.begin();
+        event.setLiteralSize(literalSize);
+        return event;
+    }
+
+    /**
+     * Commits a large literal read event.
+     *
+     * @param event the event returned by {@link #beginLiteralRead(long)}
+     */
+    public static void commitLiteralRead(@Nonnull final Object event) {
+        ((ImapLiteralReadEvent) event).commit();
+    }
+
+    /**
+     * Commits a session close event.
+     *
+     * @param sessionId the session id
+     */
+    public static void commitSessionClose(final long sessionId) {
+        final ImapSessionCloseEvent event = new ImapSessionCloseEvent();
+        event.setSessionId(sessionId);
+        event.commit();
+    }
+}
@@ -0,0 +1,58 @@
+package com.yahoo.imapnio.async.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for the server greeting, its duration is from the connection being established till the greeting, including TLS handshake
+ * if any.
+ */
+@Name("com.yahoo.imapnio.Greeting")
+@Label("IMAP Greeting")
+@Category("IMAP")
+@Description("Greeting from IMAP server after connection is established")
+public class ImapGreetingEvent extends Event {
+
+    /** Session id. */
+    @Label("Session Id")
+    private long sessionId;
+
+    /** Whether server greeted with OK. */
+    @Label("OK")
+    private boolean ok;
+
+    /**
+     * Sets the session id.
+     *
+     * @param sessionId the session id
+     */
+    public void setSessionId(final long sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    /**
+     * @return the session id
+     */
+    public long getSessionId() {
+        return sessionId;
+    }
+
+    /**
+     * Sets whether server greeted with OK.
+     *
+     * @param ok true if server greeted with OK
+     */
+    public void setOk(final boolean ok) {
+        this.ok = ok;
+    }
+
+    /**
+     * @return true if server greeted with OK
+     */
+    public boolean isOk() {
+        return ok;
+    }
+}
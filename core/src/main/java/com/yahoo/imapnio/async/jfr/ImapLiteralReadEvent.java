@@ -0,0 +1,39 @@
+package com.yahoo.imapnio.async.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for reading a large literal from server, its duration is from the literal header till the last literal byte being read.
+ */
+@Name("com.yahoo.imapnio.LiteralRead")
+@Label("IMAP Large Literal Read")
+@Category("IMAP")
+@Description("Large literal read from IMAP server")
+public class ImapLiteralReadEvent extends Event {
+
+    /** Literal size in bytes. */
+    @Label("Literal Size")
+    @DataAmount
+    private long literalSize;
+
+    /**
+     * Sets the literal size.
+     *
+     * @param literalSize literal size in bytes
+     */
+    public void setLiteralSize(final long literalSize) {
+        this.literalSize = literalSize;
+    }
+
+    /**
+     * @return literal size in bytes
+     */
+    public long getLiteralSize() {
+        return literalSize;
+    }
+}
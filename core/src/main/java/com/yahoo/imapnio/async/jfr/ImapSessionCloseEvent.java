@@ -0,0 +1,37 @@
+package com.yahoo.imapnio.async.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for a session being closed.
+ */
+@Name("com.yahoo.imapnio.SessionClose")
+@Label("IMAP Session Close")
+@Category("IMAP")
+@Description("IMAP session is confirmed closed")
+public class ImapSessionCloseEvent extends Event {
+
+    /** Session id. */
+    @Label("Session Id")
+    private long sessionId;
+
+    /**
+     * Sets the session id.
+     *
+     * @param sessionId the session id
+     */
+    public void setSessionId(final long sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    /**
+     * @return the session id
+     */
+    public long getSessionId() {
+        return sessionId;
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * This class defines the package for the Java Flight Recorder events emitted by the imap client library when enabled.
+ */
+package com.yahoo.imapnio.async.jfr;
@@ -0,0 +1,63 @@
+package com.yahoo.imapnio.async.metrics;
+
+import javax.annotation.Nonnull;
+
+import com.yahoo.imapnio.async.exception.ImapAsyncClientException.FailureType;
+import com.yahoo.imapnio.async.request.ImapCommandType;
+
+/**
+ * Listener receiving connection and command events from all sessions created by an {@code ImapAsyncClient}. All durations are measured with
+ * {@link System#nanoTime()}.
+ *
+ * Methods are called on the Netty event loop, implementations should be thread safe, and should neither block nor throw.
+ */
+public interface ImapClientMetrics {
+
+    /**
+     * Called when the TCP connection to server is established.
+     *
+     * @param connectTimeNanos time in nanoseconds from starting to connect until the connection is established
+     */
+    void onConnected(long connectTimeNanos);
+
+    /**
+     * Called when the session is created, aka, server responded the OK greeting.
+     *
+     * @param handshakeTimeNanos time in nanoseconds from the connection being established until the OK greeting, including TLS handshake if any
+     */
+    void onSessionCreated(long handshakeTimeNanos);
+
+    /**
+     * Called when a command is accepted by a session and about to be sent to server.
+     *
+     * @param type the command type
+     */
+    void onCommandStarted(@Nonnull ImapCommandType type);
+
+    /**
+     * Called when the first response of a command is received from server.
+     *
+     * @param type the command type
+     * @param timeToFirstResponseNanos time in nanoseconds from the command being started until its first response is received
+     */
+    void onFirstResponse(@Nonnull ImapCommandType type, long timeToFirstResponseNanos);
+
+    /**
+     * Called when the tagged response of a command is received from server.
+     *
+     * @param type the command type
+     * @param latencyNanos time in nanoseconds from the command being started until its tagged response is received
+     * @param requestTotalBytes number of bytes in request
+     * @param responseTotalBytes number of bytes in response
+     */
+    void onCommandCompleted(@Nonnull ImapCommandType type, long latencyNanos, int requestTotalBytes, int responseTotalBytes);
+
+    /**
+     * Called when a command fails without a tagged response, for example, when the channel is disconnected.
+     *
+     * @param type the command type
+     * @param latencyNanos time in nanoseconds from the command being started until it fails
+     * @param failureType the failure type
+     */
+    void onCommandFailed(@Nonnull ImapCommandType type, long latencyNanos, @Nonnull FailureType failureType);
+}
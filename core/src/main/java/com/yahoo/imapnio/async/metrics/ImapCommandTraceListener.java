@@ -0,0 +1,45 @@
+package com.yahoo.imapnio.async.metrics;
+
+import javax.annotation.Nonnull;
+
+import com.yahoo.imapnio.async.request.ImapCommandType;
+
+/**
+ * Listener receiving the life cycle events of every command executed by the sessions created by an {@code ImapAsyncClient}, allowing to tell
+ * whether a slow command waited for the socket write, for the server, or for the callbacks.
+ *
+ * It is called on the Netty event loop, implementations should be thread safe, and should neither block nor throw.
+ */
+public interface ImapCommandTraceListener {
+
+    /**
+     * Stage in the life cycle of a command.
+     */
+    enum Stage {
+        /** Command is accepted by the session and queued to be written. */
+        ENQUEUED,
+        /** Command line is written to the socket, reported for every write including the ones after continuation. */
+        WRITE_COMPLETED,
+        /** First untagged response of the command is received. */
+        FIRST_UNTAGGED_RESPONSE,
+        /** Tagged response of the command is received. */
+        TAGGED_RESPONSE,
+        /** Future is completed and its callbacks returned, or handed over to the callback executor if the session is given one. */
+        CALLBACK_COMPLETED,
+        /** Command failed without a tagged response, for example, when the channel is disconnected. */
+        FAILED
+    }
+
+    /**
+     * Called when a command reaches a stage of its life cycle.
+     *
+     * @param stage the stage reached
+     * @param sessionId the session id
+     * @param sessionCtx context of the session given when creating it
+     * @param tag the tag of the command
+     * @param type the command type
+     * @param elapsedTimeNanos time in nanoseconds elapsed since the command was enqueued
+     */
+    void onCommandStage(@Nonnull Stage stage, long sessionId, @Nonnull Object sessionCtx, @Nonnull String tag, @Nonnull ImapCommandType type,
+            long elapsedTimeNanos);
+}
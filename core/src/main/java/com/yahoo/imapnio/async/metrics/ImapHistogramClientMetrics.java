@@ -0,0 +1,142 @@
+package com.yahoo.imapnio.async.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.yahoo.imapnio.async.exception.ImapAsyncClientException.FailureType;
+import com.yahoo.imapnio.async.request.ImapCommandType;
+
+/**
+ * Default {@link ImapClientMetrics} implementation that records every event into {@link ImapLatencyHistogram}s, keyed by command type for command
+ * events. Recording is lock-free.
+ */
+public class ImapHistogramClientMetrics implements ImapClientMetrics {
+
+    /** Histogram of time in nanoseconds to establish connections. */
+    private final ImapLatencyHistogram connectTime = new ImapLatencyHistogram();
+
+    /** Histogram of time in nanoseconds from connection established to the OK greeting. */
+    private final ImapLatencyHistogram handshakeTime = new ImapLatencyHistogram();
+
+    /** Histograms of time in nanoseconds to the first response, keyed by command type. */
+    private final Map<ImapCommandType, ImapLatencyHistogram> timeToFirstResponse = new ConcurrentHashMap<ImapCommandType, ImapLatencyHistogram>();
+
+    /** Histograms of time in nanoseconds to the tagged response, keyed by command type. */
+    private final Map<ImapCommandType, ImapLatencyHistogram> latency = new ConcurrentHashMap<ImapCommandType, ImapLatencyHistogram>();
+
+    /** Histograms of the number of commands in flight client-wide when a command starts, keyed by command type. */
+    private final Map<ImapCommandType, ImapLatencyHistogram> inFlightDepth = new ConcurrentHashMap<ImapCommandType, ImapLatencyHistogram>();
+
+    /** Histograms of time in nanoseconds until commands fail without a tagged response, keyed by failure type. */
+    private final Map<FailureType, ImapLatencyHistogram> failures = new ConcurrentHashMap<FailureType, ImapLatencyHistogram>();
+
+    /** Number of commands in flight client-wide. */
+    private final AtomicInteger inFlight = new AtomicInteger(0);
+
+    /**
+     * Finds the histogram for the given key, creates one if absent.
+     *
+     * @param histograms the histograms
+     * @param key the key
+     * @param <K> the key type
+     * @return the histogram
+     */
+    private static <K> ImapLatencyHistogram histogramOf(@Nonnull final Map<K, ImapLatencyHistogram> histograms, @Nonnull final K key) {
+        final ImapLatencyHistogram histogram = histograms.get(key); // avoid locking of computeIfAbsent when present
+        return (histogram != null) ? histogram : histograms.computeIfAbsent(key, k -> new ImapLatencyHistogram());
+    }
+
+    @Override
+    public void onConnected(final long connectTimeNanos) {
+        connectTime.record(connectTimeNanos);
+    }
+
+    @Override
+    public void onSessionCreated(final long handshakeTimeNanos) {
+        handshakeTime.record(handshakeTimeNanos);
+    }
+
+    @Override
+    public void onCommandStarted(@Nonnull final ImapCommandType type) {
+        histogramOf(inFlightDepth, type).record(inFlight.incrementAndGet());
+    }
+
+    @Override
+    public void onFirstResponse(@Nonnull final ImapCommandType type, final long timeToFirstResponseNanos) {
+        histogramOf(timeToFirstResponse, type).record(timeToFirstResponseNanos);
+    }
+
+    @Override
+    public void onCommandCompleted(@Nonnull final ImapCommandType type, final long latencyNanos, final int requestTotalBytes,
+            final int responseTotalBytes) {
+        inFlight.decrementAndGet();
+        histogramOf(latency, type).record(latencyNanos);
+    }
+
+    @Override
+    public void onCommandFailed(@Nonnull final ImapCommandType type, final long latencyNanos, @Nonnull final FailureType failureType) {
+        inFlight.decrementAndGet();
+        histogramOf(failures, failureType).record(latencyNanos);
+    }
+
+    /**
+     * @return histogram of time in nanoseconds to establish connections
+     */
+    public ImapLatencyHistogram getConnectTime() {
+        return connectTime;
+    }
+
+    /**
+     * @return histogram of time in nanoseconds from connection established to the OK greeting, including TLS handshake if any
+     */
+    public ImapLatencyHistogram getHandshakeTime() {
+        return handshakeTime;
+    }
+
+    /**
+     * @param type the command type
+     * @return histogram of time in nanoseconds to the first response for the given command type, null if no such command has a response
+     */
+    @Nullable
+    public ImapLatencyHistogram getTimeToFirstResponse(@Nonnull final ImapCommandType type) {
+        return timeToFirstResponse.get(type);
+    }
+
+    /**
+     * @param type the command type
+     * @return histogram of time in nanoseconds to the tagged response for the given command type, null if no such command is completed
+     */
+    @Nullable
+    public ImapLatencyHistogram getLatency(@Nonnull final ImapCommandType type) {
+        return latency.get(type);
+    }
+
+    /**
+     * @param type the command type
+     * @return histogram of the number of commands in flight when the given command type starts, null if no such command is started
+     */
+    @Nullable
+    public ImapLatencyHistogram getInFlightDepth(@Nonnull final ImapCommandType type) {
+        return inFlightDepth.get(type);
+    }
+
+    /**
+     * @param failureType the failure type
+     * @return histogram of time in nanoseconds until commands fail with the given failure type, null if no command fails with it
+     */
+    @Nullable
+    public ImapLatencyHistogram getFailures(@Nonnull final FailureType failureType) {
+        return failures.get(failureType);
+    }
+
+    /**
+     * @return number of commands in flight client-wide
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
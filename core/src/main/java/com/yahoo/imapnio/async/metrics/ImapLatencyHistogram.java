@@ -0,0 +1,160 @@
+package com.yahoo.imapnio.async.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram with log-linear buckets in the spirit of HdrHistogram. Values below {@code 2^significantBits} are counted exactly, larger
+ * values are counted in buckets whose width is at most {@code 1/2^significantBits} of their value, thus any reported value is within that relative
+ * error. Recording is a few atomic increments and never allocates, so it is safe to call on the Netty event loop.
+ */
+public final class ImapLatencyHistogram {
+
+    /** Default number of significant bits for each bucket, giving a relative error within about 3%. */
+    public static final int DEFAULT_SIGNIFICANT_BITS = 5;
+
+    /** Maximum number of significant bits allowed. */
+    private static final int MAX_SIGNIFICANT_BITS = 16;
+
+    /** Number of bits in a long value. */
+    private static final int LONG_BITS = 64;
+
+    /** Percentage of all values. */
+    private static final double HUNDRED_PERCENT = 100.0;
+
+    /** Number of significant bits for each bucket. */
+    private final int significantBits;
+
+    /** Number of sub buckets between two consecutive powers of 2. */
+    private final int subBucketCount;
+
+    /** Count of values recorded for each bucket. */
+    private final AtomicLongArray counts;
+
+    /** Total count of values recorded. */
+    private final AtomicLong totalCount = new AtomicLong(0);
+
+    /** Sum of values recorded. */
+    private final AtomicLong sum = new AtomicLong(0);
+
+    /** Maximum value recorded. */
+    private final AtomicLong max = new AtomicLong(0);
+
+    /**
+     * Initializes a {@link ImapLatencyHistogram} with {@link #DEFAULT_SIGNIFICANT_BITS}.
+     */
+    public ImapLatencyHistogram() {
+        this(DEFAULT_SIGNIFICANT_BITS);
+    }
+
+    /**
+     * Initializes a {@link ImapLatencyHistogram}.
+     *
+     * @param significantBits number of significant bits for each bucket, between 1 and 16, higher means more precise and more memory
+     */
+    public ImapLatencyHistogram(final int significantBits) {
+        if (significantBits < 1 || significantBits > MAX_SIGNIFICANT_BITS) {
+            throw new IllegalArgumentException("significantBits should be between 1 and " + MAX_SIGNIFICANT_BITS);
+        }
+        this.significantBits = significantBits;
+        this.subBucketCount = 1 << significantBits;
+        this.counts = new AtomicLongArray((LONG_BITS - significantBits) * subBucketCount);
+    }
+
+    /**
+     * Records a value, negative values are recorded as 0.
+     *
+     * @param value the value to record, for example, a latency in nanoseconds
+     */
+    public void record(final long value) {
+        final long v = Math.max(0, value);
+        counts.incrementAndGet(indexOf(v));
+        totalCount.incrementAndGet();
+        sum.addAndGet(v);
+        max.accumulateAndGet(v, Math::max);
+    }
+
+    /**
+     * Finds the bucket of the given value.
+     *
+     * @param value a non-negative value
+     * @return the index of the bucket
+     */
+    private int indexOf(final long value) {
+        if (value < subBucketCount) {
+            return (int) value;
+        }
+        final int shift = (LONG_BITS - 1 - Long.numberOfLeadingZeros(value)) - significantBits;
+        return subBucketCount + shift * subBucketCount + (int) ((value >>> shift) - subBucketCount);
+    }
+
+    /**
+     * Finds the highest value counted in the given bucket.
+     *
+     * @param index the index of the bucket
+     * @return the highest value counted in the bucket
+     */
+    private long highestValueOf(final int index) {
+        if (index < 2 * subBucketCount) {
+            return index;
+        }
+        final int shift = index / subBucketCount - 1;
+        final long lowest = ((long) (index % subBucketCount + subBucketCount)) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    /**
+     * @return total count of values recorded
+     */
+    public long getCount() {
+        return totalCount.get();
+    }
+
+    /**
+     * @return maximum value recorded, 0 if nothing is recorded
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * @return mean of values recorded, 0 if nothing is recorded
+     */
+    public double getMean() {
+        final long count = totalCount.get();
+        return (count == 0) ? 0 : (double) sum.get() / count;
+    }
+
+    /**
+     * Finds the value that the given percentage of recorded values are less than or equal to, within the relative error of the buckets.
+     *
+     * @param percentile the percentile between 0 and 100, for example, 99.9
+     * @return the value at the percentile, 0 if nothing is recorded
+     */
+    public long getValueAtPercentile(final double percentile) {
+        // counts might be updated while reading, rely on the snapshot of buckets only
+        long count = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            count += counts.get(i);
+        }
+        if (count == 0) {
+            return 0;
+        }
+        final double ratio = Math.min(Math.max(percentile, 0), HUNDRED_PERCENT) / HUNDRED_PERCENT;
+        final long target = Math.max(1, (long) Math.ceil(ratio * count));
+        long seen = 0;
+        int lastIndex = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            final long c = counts.get(i);
+            if (c == 0) {
+                continue;
+            }
+            seen += c;
+            lastIndex = i;
+            if (seen >= target) {
+                break;
+            }
+        }
+        return Math.min(highestValueOf(lastIndex), getMax());
+    }
+}
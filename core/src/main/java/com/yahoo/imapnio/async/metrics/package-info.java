@@ -0,0 +1,4 @@
+/**
+ * This class defines the package for the metrics SPI that the imap client library reports connection and command events to.
+ */
+package com.yahoo.imapnio.async.metrics;
@@ -0,0 +1,54 @@
+package com.yahoo.imapnio.async.netty;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.FileRegion;
+
+/**
+ * This class counts the bytes passing through its position in the pipeline in both directions without altering them. Placed in front of the SSL
+ * handler, it counts the bytes on the network; placed after SSL and compression handlers, it counts the plain IMAP bytes.
+ */
+public class ImapByteCounterHandler extends ChannelDuplexHandler {
+
+    /** Number of bytes read. */
+    private final AtomicLong bytesRead = new AtomicLong(0);
+
+    /** Number of bytes written. */
+    private final AtomicLong bytesWritten = new AtomicLong(0);
+
+    @Override
+    public void channelRead(final ChannelHandlerContext ctx, final Object msg) throws Exception {
+        if (msg instanceof ByteBuf) {
+            bytesRead.addAndGet(((ByteBuf) msg).readableBytes());
+        }
+        ctx.fireChannelRead(msg);
+    }
+
+    @Override
+    public void write(final ChannelHandlerContext ctx, final Object msg, final ChannelPromise promise) throws Exception {
+        if (msg instanceof ByteBuf) {
+            bytesWritten.addAndGet(((ByteBuf) msg).readableBytes());
+        } else if (msg instanceof FileRegion) {
+            bytesWritten.addAndGet(((FileRegion) msg).count());
+        }
+        ctx.write(msg, promise);
+    }
+
+    /**
+     * @return number of bytes read
+     */
+    public long getBytesRead() {
+        return bytesRead.get();
+    }
+
+    /**
+     * @return number of bytes written
+     */
+    public long getBytesWritten() {
+        return bytesWritten.get();
+    }
+}
@@ -5,6 +5,7 @@ import java.util.List;
 import javax.annotation.Nonnull;
 
 import com.sun.mail.imap.protocol.IMAPResponse;
+import com.yahoo.imapnio.client.ImapClientRespReader.MemoryBudgetEvent;
 
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToMessageDecoder;
@@ -42,10 +43,11 @@ public class ImapClientCommandRespHandler extends MessageToMessageDecoder<IMAPRe
     }
 
     /**
-     * Receives an idle state event when READER_IDLE (no data was received for a while) or WRITER_IDLE (no data was sent for a while).
+     * Receives an idle state event when READER_IDLE (no data was received for a while) or WRITER_IDLE (no data was sent for a while), or a memory
+     * budget event when reading a literal exceeds the budget.
      *
      * @param ctx channel handler ctx
-     * @param msg idle state event generated on idle connections by IdleStateHandler
+     * @param msg idle state event generated on idle connections by IdleStateHandler, or memory budget event generated by ImapClientRespReader
      */
     @Override
     public void userEventTriggered(final ChannelHandlerContext ctx, final Object msg) {
@@ -55,9 +57,24 @@ public class ImapClientCommandRespHandler extends MessageToMessageDecoder<IMAPRe
                 // handle idle event in processor itself: when during idleCommand, we allow server not to send, but disallow during other commands
                 processor.handleIdleEvent(event);
             }
+        } else if (msg == MemoryBudgetEvent.EXCEEDED && processor != null) {
+            processor.handleMemoryBudgetExceeded();
         }
     }
 
+    /**
+     * Handles the event when the outbound buffer of a channel crosses the high or low water mark.
+     *
+     * @param ctx channel handler ctx
+     */
+    @Override
+    public void channelWritabilityChanged(final ChannelHandlerContext ctx) {
+        if (processor != null) {
+            processor.handleChannelWritabilityChanged();
+        }
+        ctx.fireChannelWritabilityChanged();
+    }
+
     /**
      * Handles the event when a channel is closed(disconnected) either by server or client.
      * 
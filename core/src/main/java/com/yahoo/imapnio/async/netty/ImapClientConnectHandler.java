@@ -5,16 +5,21 @@ import java.time.Clock;
 import java.util.List;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import org.slf4j.Logger;
 
 import com.sun.mail.imap.protocol.IMAPResponse;
+import com.yahoo.imapnio.async.client.ImapAsyncClientConfig;
 import com.yahoo.imapnio.async.client.ImapAsyncCreateSessionResponse;
 import com.yahoo.imapnio.async.client.ImapAsyncSession.DebugMode;
+import com.yahoo.imapnio.async.client.ImapAsyncSessionConfig;
 import com.yahoo.imapnio.async.client.ImapFuture;
 import com.yahoo.imapnio.async.exception.ImapAsyncClientException;
 import com.yahoo.imapnio.async.exception.ImapAsyncClientException.FailureType;
 import com.yahoo.imapnio.async.internal.ImapAsyncSessionImpl;
+import com.yahoo.imapnio.async.internal.ImapEventLoopLagMonitor;
+import com.yahoo.imapnio.async.jfr.ImapFlightRecorder;
 
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPipeline;
@@ -49,6 +54,21 @@ public class ImapClientConnectHandler extends MessageToMessageDecoder<IMAPRespon
     /** Context for session information, its toString() method will be called to be used for logging and exception getMessage(). */
     private Object sessionCtx;
 
+    /** Configuration for the session to be created. */
+    private ImapAsyncSessionConfig config;
+
+    /** Configuration shared by all sessions created by the same client. */
+    private ImapAsyncClientConfig clientConfig;
+
+    /** Monitor of the event loop lag, used by the session to reject commands on an overloaded event loop, null if not monitoring. */
+    private ImapEventLoopLagMonitor lagMonitor;
+
+    /** Time in nanoseconds when this handler is initialized, aka, connection is established. */
+    private long connectedTimeNanos;
+
+    /** Flight recorder event for the greeting, null if not enabled. */
+    private Object greetingEvent;
+
     /**
      * Initializes {@link ImapClientConnectHandler} to process ok greeting after connection.
      *
@@ -61,6 +81,70 @@ public class ImapClientConnectHandler extends MessageToMessageDecoder<IMAPRespon
      */
     public ImapClientConnectHandler(@Nonnull final Clock clock, @Nonnull final ImapFuture<ImapAsyncCreateSessionResponse> sessionFuture,
             @Nonnull final Logger logger, @Nonnull final DebugMode logOpt, final long sessionId, @Nonnull final Object sessionCtx) {
+        this(clock, sessionFuture, logger, logOpt, sessionId, sessionCtx, new ImapAsyncSessionConfig());
+    }
+
+    /**
+     * Initializes {@link ImapClientConnectHandler} to process ok greeting after connection.
+     *
+     * @param clock The Clock instance
+     * @param sessionFuture imap session future, should be set to done once ok is received
+     * @param logger the {@link Logger} instance for @{ImapAsyncSessionImpl}
+     * @param logOpt logging option for the session to be created
+     * @param sessionId the session id
+     * @param sessionCtx context for the session information, its toString() method will be called to be used for logging and exception getMessage()
+     * @param config configuration for the session to be created
+     */
+    public ImapClientConnectHandler(@Nonnull final Clock clock, @Nonnull final ImapFuture<ImapAsyncCreateSessionResponse> sessionFuture,
+            @Nonnull final Logger logger, @Nonnull final DebugMode logOpt, final long sessionId, @Nonnull final Object sessionCtx,
+            @Nonnull final ImapAsyncSessionConfig config) {
+        this(clock, sessionFuture, logger, logOpt, sessionId, sessionCtx, config, new ImapAsyncClientConfig());
+    }
+
+    /**
+     * Initializes {@link ImapClientConnectHandler} to process ok greeting after connection.
+     *
+     * @param clock The Clock instance
+     * @param sessionFuture imap session future, should be set to done once ok is received
+     * @param logger the {@link Logger} instance for @{ImapAsyncSessionImpl}
+     * @param logOpt logging option for the session to be created
+     * @param sessionId the session id
+     * @param sessionCtx context for the session information, its toString() method will be called to be used for logging and exception getMessage()
+     * @param config configuration for the session to be created
+     * @param clientConfig configuration shared by all sessions created by the same client
+     */
+    @SuppressWarnings("parameternumber")
+    public ImapClientConnectHandler(@Nonnull final Clock clock, @Nonnull final ImapFuture<ImapAsyncCreateSessionResponse> sessionFuture,
+            @Nonnull final Logger logger, @Nonnull final DebugMode logOpt, final long sessionId, @Nonnull final Object sessionCtx,
+            @Nonnull final ImapAsyncSessionConfig config, @Nonnull final ImapAsyncClientConfig clientConfig) {
+        this(clock, sessionFuture, logger, logOpt, sessionId, sessionCtx, config, clientConfig, null);
+    }
+
+    /**
+     * Initializes {@link ImapClientConnectHandler} to process ok greeting after connection.
+     *
+     * @param clock The Clock instance
+     * @param sessionFuture imap session future, should be set to done once ok is received
+     * @param logger the {@link Logger} instance for @{ImapAsyncSessionImpl}
+     * @param logOpt logging option for the session to be created
+     * @param sessionId the session id
+     * @param sessionCtx context for the session information, its toString() method will be called to be used for logging and exception getMessage()
+     * @param config configuration for the session to be created
+     * @param clientConfig configuration shared by all sessions created by the same client
+     * @param lagMonitor monitor of the event loop lag, null if not monitoring
+     */
+    @SuppressWarnings("parameternumber")
+    public ImapClientConnectHandler(@Nonnull final Clock clock, @Nonnull final ImapFuture<ImapAsyncCreateSessionResponse> sessionFuture,
+            @Nonnull final Logger logger, @Nonnull final DebugMode logOpt, final long sessionId, @Nonnull final Object sessionCtx,
+            @Nonnull final ImapAsyncSessionConfig config, @Nonnull final ImapAsyncClientConfig clientConfig,
+            @Nullable final ImapEventLoopLagMonitor lagMonitor) {
+        this.config = config;
+        this.clientConfig = clientConfig;
+        this.lagMonitor = lagMonitor;
+        this.connectedTimeNanos = System.nanoTime();
+        if (clientConfig.isFlightRecorderEventsEnabled()) {
+            this.greetingEvent = ImapFlightRecorder.beginGreeting();
+        }
         this.sessionCreatedFuture = sessionFuture;
         this.logger = logger;
         this.logOpt = logOpt;
@@ -86,10 +170,17 @@ public class ImapClientConnectHandler extends MessageToMessageDecoder<IMAPRespon
         final ChannelPipeline pipeline = ctx.pipeline();
         // this handler is solely used to detect connect greeting from server, job done, removing it
         pipeline.remove(HANDLER_NAME);
+        if (greetingEvent != null) {
+            ImapFlightRecorder.commitGreeting(greetingEvent, sessionId, serverResponse.isOK());
+        }
 
         if (serverResponse.isOK()) { // we can call it successful only when response is ok
             // add the command response handler
-            final ImapAsyncSessionImpl session = new ImapAsyncSessionImpl(clock, ctx.channel(), logger, logOpt, sessionId, pipeline, sessionCtx);
+            if (clientConfig.getMetrics() != null) {
+                clientConfig.getMetrics().onSessionCreated(System.nanoTime() - connectedTimeNanos);
+            }
+            final ImapAsyncSessionImpl session = new ImapAsyncSessionImpl(clock, ctx.channel(), logger, logOpt, sessionId, pipeline, sessionCtx,
+                    config, clientConfig, lagMonitor);
             final ImapAsyncCreateSessionResponse response = new ImapAsyncCreateSessionResponse(session, serverResponse);
             sessionCreatedFuture.done(response);
 
@@ -153,5 +244,9 @@ public class ImapClientConnectHandler extends MessageToMessageDecoder<IMAPRespon
         logOpt = null;
         clock = null;
         sessionCtx = null;
+        config = null;
+        clientConfig = null;
+        lagMonitor = null;
+        greetingEvent = null;
     }
 }
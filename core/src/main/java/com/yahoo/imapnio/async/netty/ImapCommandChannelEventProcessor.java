@@ -35,4 +35,16 @@ public interface ImapCommandChannelEventProcessor {
      */
     void handleChannelClosed();
 
+    /**
+     * Handles the event when the writability of a channel changes, aka, its outbound buffer crosses the high or low water mark.
+     */
+    void handleChannelWritabilityChanged();
+
+    /**
+     * Handles the event when reading a literal exceeds the memory budget shared by all sessions, reading from the channel is paused already and has
+     * to be resumed once the budget is available.
+     */
+    default void handleMemoryBudgetExceeded() {
+    }
+
 }
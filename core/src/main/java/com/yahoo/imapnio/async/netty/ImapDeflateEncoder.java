@@ -0,0 +1,114 @@
+package com.yahoo.imapnio.async.netty;
+
+import java.util.zip.Deflater;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+
+/**
+ * This class compresses outbound bytes in raw DEFLATE format, aka, without zlib header, as required by COMPRESS=DEFLATE defined in
+ * https://tools.ietf.org/html/rfc4978. Compressed bytes are deflated directly into heap buffers from the channel allocator, and bytes of buffers
+ * without backing array are copied through one scratch array reused across writes. Each write is sync flushed, or all writes since the last channel
+ * flush are sync flushed together, so that server can decompress every command sent.
+ */
+public class ImapDeflateEncoder extends ChannelOutboundHandlerAdapter {
+
+    /** Minimum number of writable bytes of the output buffer before deflating into it. */
+    private static final int MIN_OUTPUT_SIZE = 64;
+
+    /** Size of the scratch array for copying the bytes of buffers without backing array. */
+    private static final int SCRATCH_SIZE = 8192;
+
+    /** The deflater keeping the compression state of the session. */
+    private final Deflater deflater;
+
+    /** Flag whether every write is sync flushed, otherwise writes are sync flushed upon channel flush. */
+    private final boolean isSyncFlushPerWrite;
+
+    /** Scratch array for copying the bytes of buffers without backing array, created upon first use. */
+    private byte[] scratch;
+
+    /** Flag whether bytes are deflated but not sync flushed yet. */
+    private boolean hasUnflushedBytes;
+
+    /**
+     * Initializes a {@link ImapDeflateEncoder}.
+     *
+     * @param level compression level from 0 (no compression) to 9 (best compression)
+     * @param strategy compression strategy, one of the strategies of {@link Deflater}
+     * @param isSyncFlushPerWrite true to sync flush every write, false to sync flush only upon channel flush
+     */
+    public ImapDeflateEncoder(final int level, final int strategy, final boolean isSyncFlushPerWrite) {
+        this.deflater = new Deflater(level, true);
+        this.deflater.setStrategy(strategy);
+        this.isSyncFlushPerWrite = isSyncFlushPerWrite;
+    }
+
+    @Override
+    public void write(final ChannelHandlerContext ctx, final Object msg, final ChannelPromise promise) throws Exception {
+        if (!(msg instanceof ByteBuf) || !((ByteBuf) msg).isReadable()) {
+            ctx.write(msg, promise);
+            return;
+        }
+        final ByteBuf in = (ByteBuf) msg;
+        final ByteBuf out = ctx.alloc().heapBuffer(Math.max(MIN_OUTPUT_SIZE, in.readableBytes() / 2));
+        try {
+            if (in.hasArray()) {
+                deflater.setInput(in.array(), in.arrayOffset() + in.readerIndex(), in.readableBytes());
+                deflate(out, Deflater.NO_FLUSH);
+            } else {
+                if (scratch == null) {
+                    scratch = new byte[SCRATCH_SIZE];
+                }
+                for (int i = in.readerIndex(); i < in.writerIndex(); i += SCRATCH_SIZE) {
+                    final int len = Math.min(SCRATCH_SIZE, in.writerIndex() - i);
+                    in.getBytes(i, scratch, 0, len);
+                    deflater.setInput(scratch, 0, len);
+                    deflate(out, Deflater.NO_FLUSH);
+                }
+            }
+        } finally {
+            in.release();
+        }
+        if (isSyncFlushPerWrite) {
+            deflate(out, Deflater.SYNC_FLUSH);
+        } else {
+            hasUnflushedBytes = true;
+        }
+        ctx.write(out, promise);
+    }
+
+    @Override
+    public void flush(final ChannelHandlerContext ctx) throws Exception {
+        if (hasUnflushedBytes) {
+            hasUnflushedBytes = false;
+            final ByteBuf out = ctx.alloc().heapBuffer(MIN_OUTPUT_SIZE);
+            deflate(out, Deflater.SYNC_FLUSH);
+            ctx.write(out);
+        }
+        ctx.flush();
+    }
+
+    @Override
+    public void handlerRemoved(final ChannelHandlerContext ctx) throws Exception {
+        deflater.end();
+        super.handlerRemoved(ctx);
+    }
+
+    /**
+     * Deflates the pending input into the given buffer, growing it till the deflater leaves room in it, aka, the deflater has nothing more to output.
+     * Without flush, it also continues till the input is consumed, since the first call after changing the level or strategy only applies them.
+     *
+     * @param out the heap buffer to deflate into
+     * @param flushMode flush mode of {@link Deflater}
+     */
+    private void deflate(final ByteBuf out, final int flushMode) {
+        do {
+            out.ensureWritable(MIN_OUTPUT_SIZE);
+            final int count = deflater.deflate(out.array(), out.arrayOffset() + out.writerIndex(), out.writableBytes(), flushMode);
+            out.writerIndex(out.writerIndex() + count);
+        } while (!out.isWritable() || (flushMode == Deflater.NO_FLUSH && !deflater.needsInput()));
+    }
+}
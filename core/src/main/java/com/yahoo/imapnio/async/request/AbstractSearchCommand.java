@@ -24,7 +24,8 @@ import io.netty.buffer.Unpooled;
  * This class defines IMAP search command request from client.
  *
  * <pre>
- * search         = "SEARCH" [SP "CHARSET" SP astring] 1*(SP search-key)
+ * search         = "SEARCH" [search-return-opts] [SP "CHARSET" SP astring] 1*(SP search-key)
+ *                   ; search-return-opts defined in RFC 4466, RETURN (SAVE) defined in RFC 5182
  *                   ; CHARSET argument to MUST be registered with IANA
  *
  * search-key     = "ALL" / "ANSWERED" / "BCC" SP astring /
@@ -69,6 +70,9 @@ public abstract class AbstractSearchCommand extends ImapRequestAdapter {
     /** UID SEARCH in byte array. */
     private static final byte[] UID_SEARCH_B = UID_SEARCH.getBytes(StandardCharsets.US_ASCII);
 
+    /** RETURN (SAVE) option in byte array, asking server to save the result as $ defined in RFC 5182. */
+    private static final byte[] RETURN_SAVE_B = "RETURN (SAVE)".getBytes(StandardCharsets.US_ASCII);
+
     /** Flag whether adding UID before search. */
     private boolean isUid;
 
@@ -84,6 +88,9 @@ public abstract class AbstractSearchCommand extends ImapRequestAdapter {
     /** flag whether server allows LITERAL+. */
     private boolean isLiteralPlusEnabled;
 
+    /** Flag whether asking server to save the result for later commands to refer as $, instead of returning it. */
+    private boolean isSaveResult;
+
     /**
      * Initializes the object with the MessageNumberSet array, search string and character set name.
      *
@@ -113,6 +120,23 @@ public abstract class AbstractSearchCommand extends ImapRequestAdapter {
      */
     protected AbstractSearchCommand(final boolean isUid, @Nullable final String msgNumbers, @Nullable final SearchTerm term,
             @Nullable final Capability capa) throws ImapAsyncClientException, SearchException, IOException {
+        this(isUid, msgNumbers, term, capa, false);
+    }
+
+    /**
+     * Initializes the object with the string form of message sequence, search string, and whether to save the result on server.
+     *
+     * @param isUid whether it is UID Search command
+     * @param msgNumbers the set of MessageNumberSet
+     * @param term the search term
+     * @param capa the capability instance to find if it has literal
+     * @param isSaveResult true to ask server to save the result as $ instead of returning it, server must support SEARCHRES
+     * @throws ImapAsyncClientException when both msgsets and searchString are null
+     * @throws IOException when parsing error for generate sequence
+     * @throws SearchException when search term cannot be found
+     */
+    protected AbstractSearchCommand(final boolean isUid, @Nullable final String msgNumbers, @Nullable final SearchTerm term,
+            @Nullable final Capability capa, final boolean isSaveResult) throws ImapAsyncClientException, SearchException, IOException {
         // based on [ABNF] above, 1*(SP search-key), cannot have both null
         if (msgNumbers == null && term == null) {
             throw new ImapAsyncClientException(FailureType.INVALID_INPUT);
@@ -128,6 +152,7 @@ public abstract class AbstractSearchCommand extends ImapRequestAdapter {
             this.searchExpr = searchSeq.generateSequence(term, charset == null ? null : MimeUtility.javaCharset(charset));
         }
         this.isLiteralPlusEnabled = (capa != null) ? capa.hasCapability(ImapClientConstants.LITERAL_PLUS) : false;
+        this.isSaveResult = isSaveResult;
     }
 
     /**
@@ -142,6 +167,23 @@ public abstract class AbstractSearchCommand extends ImapRequestAdapter {
      */
     protected AbstractSearchCommand(final boolean isUid, @Nullable final String msgNumbers, @Nullable final String charset,
             @Nonnull final Argument args, @Nullable final Capability capa) throws ImapAsyncClientException {
+        this(isUid, msgNumbers, charset, args, capa, false);
+    }
+
+    /**
+     * Initializes the object with the string form of message sequence, search string, character set name, and whether to save the result on
+     * server.
+     *
+     * @param isUid whether it is UID Search command
+     * @param msgNumbers the set of MessageNumberSet
+     * @param charset the character set
+     * @param args the argument containing the search term
+     * @param capa the capability instance to find if it has literal
+     * @param isSaveResult true to ask server to save the result as $ instead of returning it, server must support SEARCHRES
+     * @throws ImapAsyncClientException when both msgsets and searchString are null
+     */
+    protected AbstractSearchCommand(final boolean isUid, @Nullable final String msgNumbers, @Nullable final String charset,
+            @Nonnull final Argument args, @Nullable final Capability capa, final boolean isSaveResult) throws ImapAsyncClientException {
         // based on [ABNF] above, 1*(SP search-key), cannot have both null
         if (msgNumbers == null && args == null) {
             throw new ImapAsyncClientException(FailureType.INVALID_INPUT);
@@ -152,6 +194,7 @@ public abstract class AbstractSearchCommand extends ImapRequestAdapter {
         this.charset = charset;
         this.searchExpr = args;
         this.isLiteralPlusEnabled = (capa != null) ? capa.hasCapability(ImapClientConstants.LITERAL_PLUS) : false;
+        this.isSaveResult = isSaveResult;
     }
 
     @Override
@@ -161,17 +204,32 @@ public abstract class AbstractSearchCommand extends ImapRequestAdapter {
         this.charset = null;
     }
 
-    @Override
-    public ByteBuf getCommandLineBytes() throws ImapAsyncClientException {
-        final ByteBuf sb = Unpooled.buffer();
+    /**
+     * Writes the command name and the arguments preceding the message numbers and the search keys. Commands sharing the search arguments, like
+     * SORT and THREAD, override it to write their own name and arguments.
+     *
+     * @param sb the buffer to write to
+     * @param isUid whether it is UID command
+     * @param charset the character set, null if search keys are in US-ASCII
+     */
+    protected void writeCommandPrefix(@Nonnull final ByteBuf sb, final boolean isUid, @Nullable final String charset) {
         sb.writeBytes(isUid ? UID_SEARCH_B : SEARCH_B);
-
+        if (isSaveResult) {
+            sb.writeByte(ImapClientConstants.SPACE);
+            sb.writeBytes(RETURN_SAVE_B);
+        }
         if (charset != null) {
             sb.writeByte(ImapClientConstants.SPACE);
             sb.writeBytes(CHARSET_B);
             sb.writeByte(ImapClientConstants.SPACE);
             sb.writeBytes(charset.getBytes(StandardCharsets.US_ASCII));
         }
+    }
+
+    @Override
+    public ByteBuf getCommandLineBytes() throws ImapAsyncClientException {
+        final ByteBuf sb = Unpooled.buffer();
+        writeCommandPrefix(sb, isUid, charset);
 
         if (msgNumbers != null) {
             sb.writeByte(ImapClientConstants.SPACE);
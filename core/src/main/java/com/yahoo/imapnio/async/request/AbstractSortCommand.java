@@ -0,0 +1,157 @@
+package com.yahoo.imapnio.async.request;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.mail.search.SearchException;
+import javax.mail.search.SearchTerm;
+
+import com.sun.mail.iap.Argument;
+import com.yahoo.imapnio.async.data.Capability;
+import com.yahoo.imapnio.async.data.MessageNumberSet;
+import com.yahoo.imapnio.async.data.PartialRange;
+import com.yahoo.imapnio.async.exception.ImapAsyncClientException;
+import com.yahoo.imapnio.async.exception.ImapAsyncClientException.FailureType;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * This class defines IMAP sort command request from client, defined in RFC 5256, with the PARTIAL return option of ESORT defined in RFC 5267.
+ * Message numbers and search keys are written the same way as the search command.
+ *
+ * <pre>
+ * sort            = ["UID" SP] "SORT" [SP sort-return-opts] SP sort-criteria SP search-criteria
+ *
+ * sort-return-opts = "RETURN" SP "(" [sort-return-opt *(SP sort-return-opt)] ")"
+ *
+ * sort-criteria   = "(" sort-criterion *(SP sort-criterion) ")"
+ *
+ * search-criteria = charset 1*(SP search-key)
+ * </pre>
+ */
+public abstract class AbstractSortCommand extends AbstractSearchCommand {
+
+    /** SORT and space in byte array. */
+    private static final byte[] SORT_SP_B = "SORT ".getBytes(StandardCharsets.US_ASCII);
+
+    /** UID SORT and space in byte array. */
+    private static final byte[] UID_SORT_SP_B = "UID SORT ".getBytes(StandardCharsets.US_ASCII);
+
+    /** RETURN (PARTIAL in byte array. */
+    private static final byte[] RETURN_PARTIAL_B = "RETURN (PARTIAL ".getBytes(StandardCharsets.US_ASCII);
+
+    /** US-ASCII charset, SORT requires the charset even if search keys are in US-ASCII. */
+    private static final byte[] US_ASCII_B = StandardCharsets.US_ASCII.name().getBytes(StandardCharsets.US_ASCII);
+
+    /** The sort criteria. */
+    private SortCriterion[] criteria;
+
+    /** Range of positions in the sorted result to return, null to return all. */
+    private PartialRange partial;
+
+    /**
+     * Initializes the object with the sort criteria, MessageNumberSet array, search term and partial range.
+     *
+     * @param isUid whether it is UID sort command
+     * @param criteria the sort criteria
+     * @param msgsets the set of MessageNumberSet
+     * @param term the search term
+     * @param capa the capability instance to find if it has literal
+     * @param partial range of positions in the sorted result to return, null to return all
+     * @throws ImapAsyncClientException when criteria is empty or both msgsets and term are null
+     * @throws IOException when parsing error for generate sequence
+     * @throws SearchException when search term cannot be found
+     */
+    protected AbstractSortCommand(final boolean isUid, @Nonnull final SortCriterion[] criteria, @Nullable final MessageNumberSet[] msgsets,
+            @Nullable final SearchTerm term, @Nullable final Capability capa, @Nullable final PartialRange partial)
+            throws ImapAsyncClientException, SearchException, IOException {
+        this(isUid, criteria, MessageNumberSet.buildString(msgsets), term, capa, partial);
+    }
+
+    /**
+     * Initializes the object with the sort criteria, string form of message sequence, search term and partial range.
+     *
+     * @param isUid whether it is UID sort command
+     * @param criteria the sort criteria
+     * @param msgNumbers the string form message numbers in sequence-set syntax
+     * @param term the search term
+     * @param capa the capability instance to find if it has literal
+     * @param partial range of positions in the sorted result to return, null to return all
+     * @throws ImapAsyncClientException when criteria is empty or both msgNumbers and term are null
+     * @throws IOException when parsing error for generate sequence
+     * @throws SearchException when search term cannot be found
+     */
+    protected AbstractSortCommand(final boolean isUid, @Nonnull final SortCriterion[] criteria, @Nullable final String msgNumbers,
+            @Nullable final SearchTerm term, @Nullable final Capability capa, @Nullable final PartialRange partial)
+            throws ImapAsyncClientException, SearchException, IOException {
+        super(isUid, msgNumbers, term, capa);
+        this.criteria = validate(criteria);
+        this.partial = partial;
+    }
+
+    /**
+     * Initializes the object with the sort criteria, string form of message sequence, character set, Argument that expresses the search term, and
+     * partial range.
+     *
+     * @param isUid whether it is UID sort command
+     * @param criteria the sort criteria
+     * @param msgNumbers the string form message numbers in sequence-set syntax
+     * @param charset the character set, null for US-ASCII
+     * @param args the search term in argument format
+     * @param capa the capability instance to find if it has literal
+     * @param partial range of positions in the sorted result to return, null to return all
+     * @throws ImapAsyncClientException when criteria is empty or both msgNumbers and args are null
+     */
+    @SuppressWarnings("parameternumber")
+    protected AbstractSortCommand(final boolean isUid, @Nonnull final SortCriterion[] criteria, @Nullable final String msgNumbers,
+            @Nullable final String charset, @Nonnull final Argument args, @Nullable final Capability capa, @Nullable final PartialRange partial)
+            throws ImapAsyncClientException {
+        super(isUid, msgNumbers, charset, args, capa);
+        this.criteria = validate(criteria);
+        this.partial = partial;
+    }
+
+    /**
+     * Validates the sort criteria, at least one criterion is required.
+     *
+     * @param criteria the sort criteria
+     * @return the sort criteria
+     * @throws ImapAsyncClientException when criteria is empty
+     */
+    private static SortCriterion[] validate(@Nonnull final SortCriterion[] criteria) throws ImapAsyncClientException {
+        if (criteria.length == 0) {
+            throw new ImapAsyncClientException(FailureType.INVALID_INPUT);
+        }
+        return criteria;
+    }
+
+    @Override
+    public void cleanup() {
+        super.cleanup();
+        this.criteria = null;
+        this.partial = null;
+    }
+
+    @Override
+    protected void writeCommandPrefix(@Nonnull final ByteBuf sb, final boolean isUid, @Nullable final String charset) {
+        sb.writeBytes(isUid ? UID_SORT_SP_B : SORT_SP_B);
+        if (partial != null) {
+            sb.writeBytes(RETURN_PARTIAL_B);
+            sb.writeBytes(partial.toString().getBytes(StandardCharsets.US_ASCII));
+            sb.writeByte(ImapClientConstants.R_PAREN);
+            sb.writeByte(ImapClientConstants.SPACE);
+        }
+        sb.writeByte(ImapClientConstants.L_PAREN);
+        for (int i = 0; i < criteria.length; i++) {
+            if (i > 0) {
+                sb.writeByte(ImapClientConstants.SPACE);
+            }
+            sb.writeBytes(criteria[i].toString().getBytes(StandardCharsets.US_ASCII));
+        }
+        sb.writeByte(ImapClientConstants.R_PAREN);
+        sb.writeByte(ImapClientConstants.SPACE);
+        sb.writeBytes(charset != null ? charset.getBytes(StandardCharsets.US_ASCII) : US_ASCII_B);
+    }
+}
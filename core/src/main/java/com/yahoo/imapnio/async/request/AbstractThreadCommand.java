@@ -0,0 +1,121 @@
+package com.yahoo.imapnio.async.request;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.mail.search.SearchException;
+import javax.mail.search.SearchTerm;
+
+import com.sun.mail.iap.Argument;
+import com.yahoo.imapnio.async.data.Capability;
+import com.yahoo.imapnio.async.data.MessageNumberSet;
+import com.yahoo.imapnio.async.exception.ImapAsyncClientException;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * This class defines IMAP thread command request from client, defined in RFC 5256. Message numbers and search keys are written the same way as the
+ * search command.
+ *
+ * <pre>
+ * thread          = ["UID" SP] "THREAD" SP thread-alg SP search-criteria
+ *
+ * thread-alg      = "ORDEREDSUBJECT" / "REFERENCES" / thread-alg-ext
+ *
+ * search-criteria = charset 1*(SP search-key)
+ * </pre>
+ */
+public abstract class AbstractThreadCommand extends AbstractSearchCommand {
+
+    /**
+     * Threading algorithms, server advertises the supported ones as THREAD=algorithm capabilities.
+     */
+    public enum ThreadAlgorithm {
+        /** Threads by base subject, defined in RFC 5256. */
+        ORDEREDSUBJECT,
+        /** Threads by References and In-Reply-To headers, defined in RFC 5256. */
+        REFERENCES
+    }
+
+    /** THREAD and space in byte array. */
+    private static final byte[] THREAD_SP_B = "THREAD ".getBytes(StandardCharsets.US_ASCII);
+
+    /** UID THREAD and space in byte array. */
+    private static final byte[] UID_THREAD_SP_B = "UID THREAD ".getBytes(StandardCharsets.US_ASCII);
+
+    /** US-ASCII charset, THREAD requires the charset even if search keys are in US-ASCII. */
+    private static final byte[] US_ASCII_B = StandardCharsets.US_ASCII.name().getBytes(StandardCharsets.US_ASCII);
+
+    /** The threading algorithm. */
+    private ThreadAlgorithm algorithm;
+
+    /**
+     * Initializes the object with the threading algorithm, MessageNumberSet array and search term.
+     *
+     * @param isUid whether it is UID thread command
+     * @param algorithm the threading algorithm
+     * @param msgsets the set of MessageNumberSet
+     * @param term the search term
+     * @param capa the capability instance to find if it has literal
+     * @throws ImapAsyncClientException when both msgsets and term are null
+     * @throws IOException when parsing error for generate sequence
+     * @throws SearchException when search term cannot be found
+     */
+    protected AbstractThreadCommand(final boolean isUid, @Nonnull final ThreadAlgorithm algorithm, @Nullable final MessageNumberSet[] msgsets,
+            @Nullable final SearchTerm term, @Nullable final Capability capa) throws ImapAsyncClientException, SearchException, IOException {
+        super(isUid, msgsets, term, capa);
+        this.algorithm = algorithm;
+    }
+
+    /**
+     * Initializes the object with the threading algorithm, string form of message sequence and search term.
+     *
+     * @param isUid whether it is UID thread command
+     * @param algorithm the threading algorithm
+     * @param msgNumbers the string form message numbers in sequence-set syntax
+     * @param term the search term
+     * @param capa the capability instance to find if it has literal
+     * @throws ImapAsyncClientException when both msgNumbers and term are null
+     * @throws IOException when parsing error for generate sequence
+     * @throws SearchException when search term cannot be found
+     */
+    protected AbstractThreadCommand(final boolean isUid, @Nonnull final ThreadAlgorithm algorithm, @Nullable final String msgNumbers,
+            @Nullable final SearchTerm term, @Nullable final Capability capa) throws ImapAsyncClientException, SearchException, IOException {
+        super(isUid, msgNumbers, term, capa);
+        this.algorithm = algorithm;
+    }
+
+    /**
+     * Initializes the object with the threading algorithm, string form of message sequence, character set and Argument that expresses the search
+     * term.
+     *
+     * @param isUid whether it is UID thread command
+     * @param algorithm the threading algorithm
+     * @param msgNumbers the string form message numbers in sequence-set syntax
+     * @param charset the character set, null for US-ASCII
+     * @param args the search term in argument format
+     * @param capa the capability instance to find if it has literal
+     * @throws ImapAsyncClientException when both msgNumbers and args are null
+     */
+    protected AbstractThreadCommand(final boolean isUid, @Nonnull final ThreadAlgorithm algorithm, @Nullable final String msgNumbers,
+            @Nullable final String charset, @Nonnull final Argument args, @Nullable final Capability capa) throws ImapAsyncClientException {
+        super(isUid, msgNumbers, charset, args, capa);
+        this.algorithm = algorithm;
+    }
+
+    @Override
+    public void cleanup() {
+        super.cleanup();
+        this.algorithm = null;
+    }
+
+    @Override
+    protected void writeCommandPrefix(@Nonnull final ByteBuf sb, final boolean isUid, @Nullable final String charset) {
+        sb.writeBytes(isUid ? UID_THREAD_SP_B : THREAD_SP_B);
+        sb.writeBytes(algorithm.name().getBytes(StandardCharsets.US_ASCII));
+        sb.writeByte(ImapClientConstants.SPACE);
+        sb.writeBytes(charset != null ? charset.getBytes(StandardCharsets.US_ASCII) : US_ASCII_B);
+    }
+}
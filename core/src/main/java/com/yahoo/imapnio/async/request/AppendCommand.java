@@ -20,14 +20,11 @@ import io.netty.buffer.Unpooled;
 /**
  * This class defines IMAP append command request from client.
  */
-public class AppendCommand implements ImapRequest {
+public class AppendCommand implements StreamingLiteralRequest {
 
     /** Byte array for CR and LF, keeping the array local so it cannot be modified by others. */
     private static final byte[] CRLF_B = { '\r', '\n' };
 
-    /** Maximum length of data that can be sent in alternate literal form when LITERAL- is supported. */
-    private static final int MAX_LITERAL_MINUS_DATA_LEN = 4096;
-
     /** Literal for append. */
     private static final String APPEND_SP = "APPEND ";
 
@@ -40,12 +37,24 @@ public class AppendCommand implements ImapRequest {
     /** The internal date associated with the message. */
     private Date date;
 
-    /** The message data. */
+    /** The message data, null if streamed from literalSource. */
     private byte[] data;
 
+    /** Source of the message data streamed to server, null if data is given in byte array. */
+    private ImapLiteralSource literalSource;
+
+    /** Flag whether the streamed message data is due right after the command line bytes last built. */
+    private boolean isLiteralDue;
+
     /** Whether to enable Literal support option. */
     private LiteralSupport literalOpt;
 
+    /** Maximum length of data sent as LITERAL- literal without waiting for server continuation. */
+    private int maxLiteralMinusDataLen;
+
+    /** Flag whether the message data is sent as literal8, aka, may contain NUL and is not content transfer encoded, requiring BINARY capability. */
+    private boolean isBinary;
+
     /**
      * Initializes an append command for client.
      *
@@ -70,11 +79,98 @@ public class AppendCommand implements ImapRequest {
      */
     public AppendCommand(@Nonnull final String folderName, @Nullable final Flags imapFlags, @Nullable final Date internalDate,
             @Nonnull final byte[] data, @Nonnull final LiteralSupport literalOpt) {
+        this(folderName, imapFlags, internalDate, data, literalOpt, false);
+    }
+
+    /**
+     * Initializes an append command for client, sending the message data as literal8 defined in https://tools.ietf.org/html/rfc3516 if asked.
+     *
+     * @param folderName the folder to which the message must be appended
+     * @param imapFlags the flags for the message
+     * @param internalDate the internal date associated with the message
+     * @param data the message data
+     * @param literalOpt literal support option
+     * @param isBinary true to send the message data as literal8, aka, binary content without content transfer encoding, if server supports BINARY
+     */
+    public AppendCommand(@Nonnull final String folderName, @Nullable final Flags imapFlags, @Nullable final Date internalDate,
+            @Nonnull final byte[] data, @Nonnull final LiteralSupport literalOpt, final boolean isBinary) {
+        this(folderName, imapFlags, internalDate, data, literalOpt, isBinary, ImapArgumentFormatter.DEFAULT_MAX_LITERAL_MINUS_DATA_LEN);
+    }
+
+    /**
+     * Initializes an append command for client, with the maximum length of data sent as LITERAL- literal without waiting for server continuation.
+     *
+     * @param folderName the folder to which the message must be appended
+     * @param imapFlags the flags for the message
+     * @param internalDate the internal date associated with the message
+     * @param data the message data
+     * @param literalOpt literal support option
+     * @param isBinary true to send the message data as literal8, aka, binary content without content transfer encoding, if server supports BINARY
+     * @param maxLiteralMinusDataLen maximum length of data sent as LITERAL- literal without waiting for server continuation
+     */
+    public AppendCommand(@Nonnull final String folderName, @Nullable final Flags imapFlags, @Nullable final Date internalDate,
+            @Nonnull final byte[] data, @Nonnull final LiteralSupport literalOpt, final boolean isBinary, final int maxLiteralMinusDataLen) {
         this.folderName = folderName;
         this.flags = imapFlags;
         this.date = internalDate;
         this.data = data;
         this.literalOpt = literalOpt;
+        this.isBinary = isBinary;
+        this.maxLiteralMinusDataLen = maxLiteralMinusDataLen;
+    }
+
+    /**
+     * Initializes an append command for client streaming the message data from its source, such as a file, without copying it in memory.
+     *
+     * @param folderName the folder to which the message must be appended
+     * @param imapFlags the flags for the message
+     * @param internalDate the internal date associated with the message
+     * @param literalSource source of the message data, it is closed or released once sent or when this command is cleaned up
+     * @param literalOpt literal support option
+     */
+    public AppendCommand(@Nonnull final String folderName, @Nullable final Flags imapFlags, @Nullable final Date internalDate,
+            @Nonnull final ImapLiteralSource literalSource, @Nonnull final LiteralSupport literalOpt) {
+        this(folderName, imapFlags, internalDate, literalSource, literalOpt, false);
+    }
+
+    /**
+     * Initializes an append command for client streaming the message data from its source, sending it as literal8 defined in
+     * https://tools.ietf.org/html/rfc3516 if asked.
+     *
+     * @param folderName the folder to which the message must be appended
+     * @param imapFlags the flags for the message
+     * @param internalDate the internal date associated with the message
+     * @param literalSource source of the message data, it is closed or released once sent or when this command is cleaned up
+     * @param literalOpt literal support option
+     * @param isBinary true to send the message data as literal8, aka, binary content without content transfer encoding, if server supports BINARY
+     */
+    public AppendCommand(@Nonnull final String folderName, @Nullable final Flags imapFlags, @Nullable final Date internalDate,
+            @Nonnull final ImapLiteralSource literalSource, @Nonnull final LiteralSupport literalOpt, final boolean isBinary) {
+        this(folderName, imapFlags, internalDate, literalSource, literalOpt, isBinary, ImapArgumentFormatter.DEFAULT_MAX_LITERAL_MINUS_DATA_LEN);
+    }
+
+    /**
+     * Initializes an append command for client streaming the message data from its source, with the maximum length of data sent as LITERAL-
+     * literal without waiting for server continuation.
+     *
+     * @param folderName the folder to which the message must be appended
+     * @param imapFlags the flags for the message
+     * @param internalDate the internal date associated with the message
+     * @param literalSource source of the message data, it is closed or released once sent or when this command is cleaned up
+     * @param literalOpt literal support option
+     * @param isBinary true to send the message data as literal8, aka, binary content without content transfer encoding, if server supports BINARY
+     * @param maxLiteralMinusDataLen maximum length of data sent as LITERAL- literal without waiting for server continuation
+     */
+    public AppendCommand(@Nonnull final String folderName, @Nullable final Flags imapFlags, @Nullable final Date internalDate,
+            @Nonnull final ImapLiteralSource literalSource, @Nonnull final LiteralSupport literalOpt, final boolean isBinary,
+            final int maxLiteralMinusDataLen) {
+        this.folderName = folderName;
+        this.flags = imapFlags;
+        this.date = internalDate;
+        this.literalSource = literalSource;
+        this.literalOpt = literalOpt;
+        this.isBinary = isBinary;
+        this.maxLiteralMinusDataLen = maxLiteralMinusDataLen;
     }
 
     @Override
@@ -84,6 +180,10 @@ public class AppendCommand implements ImapRequest {
         this.date = null;
         this.data = null;
         this.literalOpt = null;
+        if (literalSource != null) { // not sent if command failed before server asked for it
+            literalSource.release();
+            this.literalSource = null;
+        }
     }
 
     @Override
@@ -102,7 +202,7 @@ public class AppendCommand implements ImapRequest {
         buf.writeBytes(APPEND_SP.getBytes(StandardCharsets.US_ASCII));
 
         // folder
-        final ImapArgumentFormatter argWriter = new ImapArgumentFormatter();
+        final ImapArgumentFormatter argWriter = new ImapArgumentFormatter(literalOpt, maxLiteralMinusDataLen);
         argWriter.formatArgument(base64Folder, buf, false); // already base64 encoded so can be formatted and write to buf
         buf.writeByte(ImapClientConstants.SPACE);
 
@@ -119,21 +219,15 @@ public class AppendCommand implements ImapRequest {
         }
 
         // length of the literal
-        final boolean isLiteralPlus = (literalOpt == LiteralSupport.ENABLE_LITERAL_PLUS);
-        final boolean isLiteralMinus = (literalOpt == LiteralSupport.ENABLE_LITERAL_MINUS && data.length < MAX_LITERAL_MINUS_DATA_LEN);
-
-        buf.writeByte('{');
-        buf.writeBytes(Integer.toString(data.length).getBytes(StandardCharsets.US_ASCII));
-        if (isLiteralPlus) {
-            buf.writeByte('+');
-        } else if (isLiteralMinus) {
-            buf.writeByte('-');
+        if (isBinary) { // literal8
+            buf.writeByte('~');
         }
-        buf.writeByte('}');
-        buf.writeBytes(CRLF_B);
+        final boolean isNonSyncLiteral = argWriter.writeLiteralLength(getDataLength(), buf);
 
-        // decide to send literal
-        if (isLiteralPlus || isLiteralMinus) {
+        // decide to send literal, streamed one is written by session right after the command line
+        if (isNonSyncLiteral && literalSource != null) {
+            isLiteralDue = true;
+        } else if (isNonSyncLiteral) {
             buf.writeBytes(buildDataByteBuf());
         }
         return buf;
@@ -155,6 +249,22 @@ public class AppendCommand implements ImapRequest {
         return null;
     }
 
+    /**
+     * @return number of bytes of the message data
+     */
+    private long getDataLength() {
+        return (data != null) ? data.length : literalSource.getLength();
+    }
+
+    @Override
+    public ImapLiteralSource nextStreamingLiteral() {
+        if (!isLiteralDue) {
+            return null;
+        }
+        isLiteralDue = false;
+        return literalSource;
+    }
+
     /**
      * @return the byte buffer for the literal data
      */
@@ -170,11 +280,14 @@ public class AppendCommand implements ImapRequest {
 
     @Override
     public ByteBuf getNextCommandLineAfterContinuation(@Nonnull final IMAPResponse serverResponse) throws ImapAsyncClientException {
-        if (literalOpt == LiteralSupport.ENABLE_LITERAL_PLUS
-                || (literalOpt == LiteralSupport.ENABLE_LITERAL_MINUS && data.length < MAX_LITERAL_MINUS_DATA_LEN)) {
+        if (new ImapArgumentFormatter(literalOpt, maxLiteralMinusDataLen).isNonSyncLiteral(getDataLength())) {
             // should not reach here, since if LITERAL+ or LITERAL- is requested, server should not ask for next line
             throw new ImapAsyncClientException(FailureType.OPERATION_NOT_SUPPORTED_FOR_COMMAND);
         }
+        if (literalSource != null) { // nothing to copy, session streams the literal right after this empty line
+            isLiteralDue = true;
+            return Unpooled.EMPTY_BUFFER;
+        }
         return buildDataByteBuf();
     }
 
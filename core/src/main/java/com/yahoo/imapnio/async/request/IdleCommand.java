@@ -36,8 +36,12 @@ public class IdleCommand extends ImapRequestAdapter {
     /** ConcurrentLinkedQueue shared from caller and {@code ImapAsyncSession}. */
     private ConcurrentLinkedQueue<IMAPResponse> serverStreamingResponses;
 
+    /** Dispatcher delivering mailbox events to the listener, null when responses are placed in the queue. */
+    private MailboxEventDispatcher dispatcher;
+
     /**
-     * Initializes a {@link IdleCommand}.
+     * Initializes a {@link IdleCommand}. Passing a {@code ImapStreamingResponseQueue} allows session to stop reading from server when the caller
+     * does not drain it fast enough.
      *
      * @param serverStreamingResponses server streaming responses will be placed in this parameter
      */
@@ -45,9 +49,29 @@ public class IdleCommand extends ImapRequestAdapter {
         this.serverStreamingResponses = serverStreamingResponses;
     }
 
+    /**
+     * Initializes a {@link IdleCommand} that pushes mailbox events to the given listener as they arrive, for example, after {@link NotifyCommand}
+     * asks server to watch several mailboxes. Other untagged responses are dropped.
+     *
+     * @param listener the listener to be notified of mailbox events
+     */
+    public IdleCommand(@Nonnull final MailboxEventListener listener) {
+        this.dispatcher = new MailboxEventDispatcher(listener);
+    }
+
     @Override
     public void cleanup() {
         this.serverStreamingResponses = null;
+        this.dispatcher = null;
+    }
+
+    @Override
+    public UntaggedResponseDecision onUntaggedResponse(@Nonnull final IMAPResponse serverResponse) {
+        if (dispatcher == null) {
+            return UntaggedResponseDecision.KEEP;
+        }
+        dispatcher.dispatch(serverResponse);
+        return UntaggedResponseDecision.DROP;
     }
 
     @Override
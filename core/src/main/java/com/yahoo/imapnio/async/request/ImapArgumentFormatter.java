@@ -3,18 +3,28 @@ package com.yahoo.imapnio.async.request;
 import java.nio.charset.StandardCharsets;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.mail.Flags;
 
+import com.yahoo.imapnio.async.data.Capability;
 import com.yahoo.imapnio.async.exception.ImapAsyncClientException;
 import com.yahoo.imapnio.async.exception.ImapAsyncClientException.FailureType;
 
 import io.netty.buffer.ByteBuf;
 
 /**
- * This class encodes/formats imap command arguments properly based on the data value. The input data should be within ASCII chars.
+ * This class encodes/formats imap command arguments properly based on the data value. The input data should be within ASCII chars, unless server
+ * accepts non-synchronizing literals, aka, LITERAL+ or LITERAL- defined in https://tools.ietf.org/html/rfc7888, in which case arguments that cannot
+ * be quoted are sent as literals without waiting for server continuation.
  */
 public class ImapArgumentFormatter {
 
+    /** Default maximum length of data sent as LITERAL- literal without waiting for server continuation, RFC7888 allows up to 4096 bytes. */
+    public static final int DEFAULT_MAX_LITERAL_MINUS_DATA_LEN = 4096;
+
+    /** Byte array for CR and LF, keeping the array local so it cannot be modified by others. */
+    private static final byte[] CRLF_B = { '\r', '\n' };
+
     /** Primitive int 3. */
     private static final int THREE = 3;
 
@@ -42,13 +52,100 @@ public class ImapArgumentFormatter {
     /** Literal. */
     private static final String ANSWERED = "\\Answered";
 
+    /** Literal support option. */
+    private final LiteralSupport literalOpt;
+
+    /** Maximum length of data sent as LITERAL- literal without waiting for server continuation. */
+    private final int maxLiteralMinusDataLen;
+
+    /**
+     * Initializes a {@link ImapArgumentFormatter} not using non-synchronizing literals.
+     */
+    public ImapArgumentFormatter() {
+        this(LiteralSupport.DISABLE, DEFAULT_MAX_LITERAL_MINUS_DATA_LEN);
+    }
+
+    /**
+     * Initializes a {@link ImapArgumentFormatter} with the given literal support option.
+     *
+     * @param literalOpt literal support option
+     * @param maxLiteralMinusDataLen maximum length of data sent as LITERAL- literal without waiting for server continuation
+     */
+    ImapArgumentFormatter(@Nonnull final LiteralSupport literalOpt, final int maxLiteralMinusDataLen) {
+        this.literalOpt = literalOpt;
+        this.maxLiteralMinusDataLen = maxLiteralMinusDataLen;
+    }
+
+    /**
+     * Finds the non-synchronizing literal support advertised by server, LITERAL+ being preferred over LITERAL-.
+     *
+     * @param capa server capability, null if unknown
+     * @return the literal support option
+     */
+    static LiteralSupport getLiteralSupport(@Nullable final Capability capa) {
+        if (capa == null) {
+            return LiteralSupport.DISABLE;
+        }
+        if (capa.hasCapability(ImapClientConstants.LITERAL_PLUS)) {
+            return LiteralSupport.ENABLE_LITERAL_PLUS;
+        }
+        return capa.hasCapability(ImapClientConstants.LITERAL_MINUS) ? LiteralSupport.ENABLE_LITERAL_MINUS : LiteralSupport.DISABLE;
+    }
+
+    /**
+     * @param len length of the literal data
+     * @return true if the literal of given length can be sent without waiting for server continuation; false otherwise
+     */
+    boolean isNonSyncLiteral(final long len) {
+        if (literalOpt == LiteralSupport.ENABLE_LITERAL_PLUS) {
+            return true;
+        }
+        return literalOpt == LiteralSupport.ENABLE_LITERAL_MINUS && len <= maxLiteralMinusDataLen;
+    }
+
+    /**
+     * Writes out the literal length, followed by "+" or "-" when it can be sent without waiting for server continuation, and CRLF.
+     *
+     * @param len length of the literal data
+     * @param out the ByteBuf to write to
+     * @return true if the literal data can be sent right after; false if it has to wait for server continuation
+     */
+    boolean writeLiteralLength(final long len, @Nonnull final ByteBuf out) {
+        final boolean isNonSync = isNonSyncLiteral(len);
+        out.writeByte('{');
+        out.writeBytes(Long.toString(len).getBytes(StandardCharsets.US_ASCII));
+        if (isNonSync) {
+            out.writeByte(literalOpt == LiteralSupport.ENABLE_LITERAL_PLUS ? '+' : '-');
+        }
+        out.writeByte('}');
+        out.writeBytes(CRLF_B);
+        return isNonSync;
+    }
+
+    /**
+     * Writes out the given String as non-synchronizing literal in UTF-8 if it is allowed for its length.
+     *
+     * @param src the source string
+     * @param out the ByteBuf to write to
+     * @return true if written; false if it has to wait for server continuation, hence nothing is written
+     */
+    private boolean writeNonSyncLiteral(@Nonnull final String src, @Nonnull final ByteBuf out) {
+        final byte[] bytes = src.getBytes(StandardCharsets.UTF_8);
+        if (!isNonSyncLiteral(bytes.length)) {
+            return false;
+        }
+        writeLiteralLength(bytes.length, out);
+        out.writeBytes(bytes);
+        return true;
+    }
+
     /**
      * Writes out given imap (UTF-7) String. An imap String is defined in RFC 3501, page 16.
      *
      * @param src the source string, assuming it is from ascii code 0000 - 0177 already!
      * @param out the ButeBuf to write to
      * @param doQuote whether to quote or not
-     * @throws ImapAsyncClientException when src String that is > 0177
+     * @throws ImapAsyncClientException when src String that is > 0177 and cannot be sent as non-synchronizing literal
      */
     void formatArgument(@Nonnull final String src, @Nonnull final ByteBuf out, final boolean doQuote) throws ImapAsyncClientException {
         int len = src.length();
@@ -60,6 +157,10 @@ public class ImapArgumentFormatter {
         char b;
         for (int i = 0; i < len; i++) {
             b = src.charAt(i);
+            if ((b == '\r' || b == '\n' || (b & MASK) > ASCII_CODE_127) && writeNonSyncLiteral(src, out)) {
+                // CR, LF or 8-bit chars cannot be quoted, literal is sent right away if server allows it
+                return;
+            }
             if (b == '\0' || b == '\r' || b == '\n') {
                 // NUL, CR or LF means the bytes need to be sent as literals
                 out.writeBytes(src.getBytes(StandardCharsets.US_ASCII));
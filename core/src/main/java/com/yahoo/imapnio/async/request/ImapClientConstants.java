@@ -41,6 +41,9 @@ final class ImapClientConstants {
     /** LITERAL+ capability. */
     static final String LITERAL_PLUS = "LITERAL+";
 
+    /** LITERAL- capability. */
+    static final String LITERAL_MINUS = "LITERAL-";
+
     /** Extra buffer length for command line builder to add. */
     static final int PAD_LEN = 100;
 
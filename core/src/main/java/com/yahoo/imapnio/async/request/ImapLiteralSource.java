@@ -0,0 +1,244 @@
+package com.yahoo.imapnio.async.request;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.DefaultFileRegion;
+import io.netty.channel.FileRegion;
+import io.netty.handler.stream.ChunkedInput;
+import io.netty.handler.stream.ChunkedNioFile;
+import io.netty.util.ReferenceCountUtil;
+
+/**
+ * This class defines the source of a literal streamed to server without being copied into the command line buffer, aka, a file, a
+ * {@link ByteBuf} or an {@link InputStream} of known length. A file is sent with a {@link FileRegion}, aka, zero-copy, when the bytes are not
+ * transformed by TLS or compression on the way, otherwise it is sent in chunks, same as an input stream. Chunks are only read while the channel is
+ * writable. This object owns the source: the file channel and input stream are closed, and the buffer is released, once sent or released.
+ */
+public final class ImapLiteralSource {
+
+    /** Number of bytes read from a file or an input stream per chunk. */
+    private static final int CHUNK_SIZE = 8192;
+
+    /** Number of bytes in the literal. */
+    private final long length;
+
+    /** File to read the literal from, null if not a file. */
+    @Nullable
+    private FileChannel fileChannel;
+
+    /** Position in the file where the literal starts. */
+    private final long position;
+
+    /** Buffer holding the literal, null if not a buffer. */
+    @Nullable
+    private ByteBuf buf;
+
+    /** Stream to read the literal from, null if not a stream. */
+    @Nullable
+    private InputStream inputStream;
+
+    /**
+     * Initializes a {@link ImapLiteralSource}, only one of the sources is given.
+     *
+     * @param length number of bytes in the literal
+     * @param fileChannel file to read the literal from
+     * @param position position in the file where the literal starts
+     * @param buf buffer holding the literal
+     * @param inputStream stream to read the literal from
+     */
+    private ImapLiteralSource(final long length, @Nullable final FileChannel fileChannel, final long position, @Nullable final ByteBuf buf,
+            @Nullable final InputStream inputStream) {
+        this.length = length;
+        this.fileChannel = fileChannel;
+        this.position = position;
+        this.buf = buf;
+        this.inputStream = inputStream;
+    }
+
+    /**
+     * Creates a literal source from a region of a file, the file channel is closed once sent.
+     *
+     * @param fileChannel the file channel
+     * @param position position in the file where the literal starts
+     * @param length number of bytes in the literal
+     * @return the literal source
+     */
+    public static ImapLiteralSource fromFile(@Nonnull final FileChannel fileChannel, final long position, final long length) {
+        return new ImapLiteralSource(length, fileChannel, position, null, null);
+    }
+
+    /**
+     * Creates a literal source from the whole content of a file.
+     *
+     * @param path path of the file
+     * @return the literal source
+     * @throws IOException when failing to open the file
+     */
+    public static ImapLiteralSource fromPath(@Nonnull final Path path) throws IOException {
+        final FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ);
+        return fromFile(fileChannel, 0, fileChannel.size());
+    }
+
+    /**
+     * Creates a literal source from the readable bytes of a buffer, the buffer is released once sent, callers should retain it if they still
+     * need it.
+     *
+     * @param buf the buffer
+     * @return the literal source
+     */
+    public static ImapLiteralSource fromByteBuf(@Nonnull final ByteBuf buf) {
+        return new ImapLiteralSource(buf.readableBytes(), null, 0, buf, null);
+    }
+
+    /**
+     * Creates a literal source from the given number of bytes of an input stream, the stream is closed once sent. Sending fails if the stream ends
+     * before the given length.
+     *
+     * @param inputStream the input stream
+     * @param length number of bytes in the literal
+     * @return the literal source
+     */
+    public static ImapLiteralSource fromInputStream(@Nonnull final InputStream inputStream, final long length) {
+        return new ImapLiteralSource(length, null, 0, null, inputStream);
+    }
+
+    /**
+     * @return number of bytes in the literal
+     */
+    public long getLength() {
+        return length;
+    }
+
+    /**
+     * Builds the message to be written to the channel, the source is owned by the message afterwards.
+     *
+     * @param isZeroCopyAllowed true if the bytes written to the channel are not transformed, aka, neither TLS nor compression is in use
+     * @return a {@link FileRegion}, a {@link ChunkedInput} or a {@link ByteBuf}
+     * @throws IOException when failing to access the file
+     */
+    @Nonnull
+    public Object toMessage(final boolean isZeroCopyAllowed) throws IOException {
+        final Object message;
+        if (fileChannel != null) {
+            message = isZeroCopyAllowed ? new DefaultFileRegion(fileChannel, position, length)
+                    : new ChunkedNioFile(fileChannel, position, length, CHUNK_SIZE);
+        } else if (buf != null) {
+            message = buf;
+        } else {
+            message = new LengthBoundedChunkedStream(inputStream, length);
+        }
+        fileChannel = null;
+        buf = null;
+        inputStream = null;
+        return message;
+    }
+
+    /**
+     * Releases the source if it was never turned into a message.
+     */
+    public void release() {
+        if (buf != null) {
+            ReferenceCountUtil.release(buf);
+            buf = null;
+        }
+        try {
+            if (fileChannel != null) {
+                fileChannel.close();
+            }
+            if (inputStream != null) {
+                inputStream.close();
+            }
+        } catch (final IOException e) {
+            // nothing else to be done with the source
+        } finally {
+            fileChannel = null;
+            inputStream = null;
+        }
+    }
+
+    /**
+     * Chunked input reading exactly the given number of bytes from an input stream.
+     */
+    private static final class LengthBoundedChunkedStream implements ChunkedInput<ByteBuf> {
+
+        /** The input stream. */
+        private final InputStream in;
+
+        /** Number of bytes to read. */
+        private final long length;
+
+        /** Number of bytes read so far. */
+        private long offset;
+
+        /**
+         * Initializes a {@link LengthBoundedChunkedStream}.
+         *
+         * @param in the input stream
+         * @param length number of bytes to read
+         */
+        LengthBoundedChunkedStream(@Nonnull final InputStream in, final long length) {
+            this.in = in;
+            this.length = length;
+        }
+
+        @Override
+        public boolean isEndOfInput() {
+            return offset >= length;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+
+        @Deprecated
+        @Override
+        public ByteBuf readChunk(final ChannelHandlerContext ctx) throws IOException {
+            return readChunk(ctx.alloc());
+        }
+
+        @Override
+        public ByteBuf readChunk(final ByteBufAllocator allocator) throws IOException {
+            if (isEndOfInput()) {
+                return null;
+            }
+            final int chunkSize = (int) Math.min(CHUNK_SIZE, length - offset);
+            final ByteBuf chunk = allocator.buffer(chunkSize);
+            boolean isRead = false;
+            try {
+                final int read = chunk.writeBytes(in, chunkSize);
+                if (read < 0) {
+                    throw new EOFException("Input stream ended " + (length - offset) + " bytes before the end of the literal");
+                }
+                offset += read;
+                isRead = true;
+                return chunk;
+            } finally {
+                if (!isRead) {
+                    chunk.release();
+                }
+            }
+        }
+
+        @Override
+        public long length() {
+            return length;
+        }
+
+        @Override
+        public long progress() {
+            return offset;
+        }
+    }
+}
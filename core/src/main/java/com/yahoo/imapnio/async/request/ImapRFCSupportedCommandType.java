@@ -50,18 +50,24 @@ public enum ImapRFCSupportedCommandType implements ImapCommandType {
     NAMESPACE,
     /** Noop command. */
     NOOP,
+    /** Notify command. */
+    NOTIFY,
     /** Rename folder command. */
     RENAME_FOLDER,
     /** Search command. */
     SEARCH,
     /** Select folder command. */
     SELECT_FOLDER,
+    /** Sort command. */
+    SORT,
     /** Status command. */
     STATUS,
     /** Store flags command. */
     STORE_FLAGS,
     /** Subscribe command. */
     SUBSCRIBE,
+    /** Thread command. */
+    THREAD,
     /** UID copy command. */
     UID_COPY_MESSAGE,
     /** UID expunge command. */
@@ -72,8 +78,12 @@ public enum ImapRFCSupportedCommandType implements ImapCommandType {
     UID_MOVE_MESSAGE,
     /** UID search command. */
     UID_SEARCH,
+    /** UID sort command. */
+    UID_SORT,
     /** UID store command. */
     UID_STORE_FLAGS,
+    /** UID thread command. */
+    UID_THREAD,
     /** Unselect command. */
     UNSELECT,
     /** Unsubscribe command. */
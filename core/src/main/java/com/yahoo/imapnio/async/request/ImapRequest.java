@@ -14,6 +14,24 @@ import io.netty.buffer.ByteBuf;
  * This class defines an Imap command sent from client.
  */
 public interface ImapRequest {
+
+    /**
+     * Decision made by the request on an untagged response pushed to it.
+     */
+    enum UntaggedResponseDecision {
+        /** Keeps the response, it is placed in the streaming responses queue or the {@code ImapAsyncResponse} as usual. */
+        KEEP,
+
+        /** Drops the response since the request has processed it. */
+        DROP,
+
+        /**
+         * Drops the response since the request has processed it, and stops reading from server until {@code ImapAsyncSession.resumeReading()} is
+         * called or the command is done. Responses already read from server are still pushed.
+         */
+        STOP_READING
+    }
+
     /**
      * @return true if the command line data is sensitive; false otherwise
      */
@@ -55,6 +73,29 @@ public interface ImapRequest {
     @Nullable
     ConcurrentLinkedQueue<IMAPResponse> getStreamingResponsesQueue();
 
+    /**
+     * Decides whether untagged responses are only delivered to the consumer and never retained. When true, untagged responses are placed in the
+     * streaming responses queue if given, otherwise dropped, and the {@code ImapAsyncResponse} of the command only carries the tagged response and
+     * counters. This keeps memory constant for commands with a huge number of responses, for example, fetching flags of a large folder.
+     *
+     * @return true to discard untagged responses once delivered; false to keep them for the {@code ImapAsyncResponse}
+     */
+    default boolean isDiscardingResponsesAfterDelivery() {
+        return false;
+    }
+
+    /**
+     * Called by the session on the event loop for each untagged response as it arrives, allowing the request to process and release responses
+     * right away instead of polling them from a queue. It should not block.
+     *
+     * @param serverResponse the untagged response
+     * @return decision on the response
+     */
+    @Nonnull
+    default UntaggedResponseDecision onUntaggedResponse(@Nonnull final IMAPResponse serverResponse) {
+        return UntaggedResponseDecision.KEEP;
+    }
+
     /**
      * Builds the next command line after server challenge.
      *
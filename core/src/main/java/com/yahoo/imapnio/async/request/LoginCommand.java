@@ -3,7 +3,9 @@ package com.yahoo.imapnio.async.request;
 import java.nio.charset.StandardCharsets;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
+import com.yahoo.imapnio.async.data.Capability;
 import com.yahoo.imapnio.async.exception.ImapAsyncClientException;
 
 import io.netty.buffer.ByteBuf;
@@ -32,6 +34,9 @@ public class LoginCommand extends ImapRequestAdapter {
     /** User pass word. */
     private String dwp;
 
+    /** Non-synchronizing literal support of server, for user name or pass word that cannot be quoted. */
+    private LiteralSupport literalOpt;
+
     /**
      * Initializes an {@link LoginCommand}. User name and pass given have to be ASCII.
      *
@@ -39,14 +44,30 @@ public class LoginCommand extends ImapRequestAdapter {
      * @param dwp the secret
      */
     public LoginCommand(@Nonnull final String username, @Nonnull final String dwp) {
+        this(username, dwp, null);
+    }
+
+    /**
+     * Initializes an {@link LoginCommand}. User name or pass word that cannot be quoted, for ex. containing non-ASCII chars, is sent in UTF-8 as
+     * non-synchronizing literal if server supports LITERAL+ or LITERAL-. The LITERAL- limit is fixed at
+     * {@link ImapArgumentFormatter#DEFAULT_MAX_LITERAL_MINUS_DATA_LEN}, the RFC 7888 maximum, since user names and pass words are far shorter;
+     * longer ones are sent as synchronizing literals.
+     *
+     * @param username the user name
+     * @param dwp the secret
+     * @param capa server capability, null if unknown
+     */
+    public LoginCommand(@Nonnull final String username, @Nonnull final String dwp, @Nullable final Capability capa) {
         this.username = username;
         this.dwp = dwp;
+        this.literalOpt = ImapArgumentFormatter.getLiteralSupport(capa);
     }
 
     @Override
     public void cleanup() {
         this.username = null;
         this.dwp = null;
+        this.literalOpt = null;
     }
 
     @Override
@@ -55,7 +76,7 @@ public class LoginCommand extends ImapRequestAdapter {
         final ByteBuf sb = Unpooled.buffer(username.length() + dwp.length() + ImapClientConstants.PAD_LEN);
         sb.writeBytes(LOGIN_SP_B);
 
-        final ImapArgumentFormatter formatter = new ImapArgumentFormatter();
+        final ImapArgumentFormatter formatter = new ImapArgumentFormatter(literalOpt, ImapArgumentFormatter.DEFAULT_MAX_LITERAL_MINUS_DATA_LEN);
         formatter.formatArgument(username, sb, false);
         sb.writeByte(ImapClientConstants.SPACE);
 
@@ -0,0 +1,93 @@
+package com.yahoo.imapnio.async.request;
+
+import java.io.IOException;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.sun.mail.iap.ProtocolException;
+import com.sun.mail.imap.protocol.FLAGS;
+import com.sun.mail.imap.protocol.FetchResponse;
+import com.sun.mail.imap.protocol.IMAPResponse;
+import com.sun.mail.imap.protocol.ListInfo;
+import com.sun.mail.imap.protocol.Status;
+import com.sun.mail.imap.protocol.UID;
+import com.yahoo.imapnio.async.data.MailboxEvent;
+import com.yahoo.imapnio.async.data.MailboxEvent.EventType;
+
+/**
+ * This class maps the untagged responses reporting mailbox changes to {@link MailboxEvent} objects and delivers them to the listener. Other
+ * responses, and responses that cannot be parsed, are left to the command, or to the session when no command is running.
+ */
+public final class MailboxEventDispatcher {
+
+    /** Value of message number or UID when not applicable. */
+    private static final long NONE = -1;
+
+    /** The listener to deliver the events to. */
+    private final MailboxEventListener listener;
+
+    /**
+     * Initializes a {@link MailboxEventDispatcher}.
+     *
+     * @param listener the listener to deliver the events to
+     */
+    public MailboxEventDispatcher(@Nonnull final MailboxEventListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Delivers the given response to the listener if it reports a mailbox change.
+     *
+     * @param serverResponse the untagged response
+     * @return true if the response is delivered as an event; false if it is not a mailbox event
+     */
+    public boolean dispatch(@Nonnull final IMAPResponse serverResponse) {
+        final MailboxEvent event;
+        try {
+            event = toEvent(serverResponse);
+        } catch (final IOException | ProtocolException e) {
+            serverResponse.reset(); // leave it intact to the command
+            return false;
+        }
+        if (event == null) {
+            return false;
+        }
+        listener.onMailboxEvent(event);
+        return true;
+    }
+
+    /**
+     * Maps the given response to a mailbox event.
+     *
+     * @param r the untagged response
+     * @return the mailbox event, null if the response does not report a mailbox change
+     * @throws IOException when the FETCH response cannot be read
+     * @throws ProtocolException when the response is malformed
+     */
+    @Nullable
+    private MailboxEvent toEvent(@Nonnull final IMAPResponse r) throws IOException, ProtocolException {
+        if (r.keyEquals("EXISTS")) {
+            return new MailboxEvent(EventType.EXISTS, r.getNumber(), NONE, null, null, null);
+        }
+        if (r.keyEquals("EXPUNGE")) {
+            return new MailboxEvent(EventType.EXPUNGE, r.getNumber(), NONE, null, null, null);
+        }
+        if (r.keyEquals("FETCH")) {
+            final FetchResponse fr = new FetchResponse(r);
+            final FLAGS flags = fr.getItem(FLAGS.class);
+            if (flags == null) {
+                return null;
+            }
+            final UID uid = fr.getItem(UID.class);
+            return new MailboxEvent(EventType.FLAGS, fr.getNumber(), (uid != null) ? uid.uid : NONE, flags, null, null);
+        }
+        if (r.keyEquals("STATUS")) {
+            return new MailboxEvent(EventType.STATUS, NONE, NONE, null, new Status(r), null);
+        }
+        if (r.keyEquals("LIST")) {
+            return new MailboxEvent(EventType.MAILBOX_NAME, NONE, NONE, null, null, new ListInfo(r));
+        }
+        return null;
+    }
+}
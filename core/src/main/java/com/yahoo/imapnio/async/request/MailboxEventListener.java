@@ -0,0 +1,19 @@
+package com.yahoo.imapnio.async.request;
+
+import javax.annotation.Nonnull;
+
+import com.yahoo.imapnio.async.data.MailboxEvent;
+
+/**
+ * Listener to be notified of mailbox events pushed by server, for example, while running {@link NotifyCommand} or {@link IdleCommand}, or between
+ * commands when registered to the session. It is called on the event loop of the session, thus it should not block.
+ */
+public interface MailboxEventListener {
+
+    /**
+     * Called for each mailbox event as the response arrives.
+     *
+     * @param event the mailbox event
+     */
+    void onMailboxEvent(@Nonnull MailboxEvent event);
+}
@@ -0,0 +1,199 @@
+package com.yahoo.imapnio.async.request;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import javax.annotation.Nonnull;
+
+import com.sun.mail.imap.protocol.BASE64MailboxEncoder;
+import com.sun.mail.imap.protocol.IMAPResponse;
+import com.sun.mail.imap.protocol.INTERNALDATE;
+import com.yahoo.imapnio.async.data.AppendMessage;
+import com.yahoo.imapnio.async.exception.ImapAsyncClientException;
+import com.yahoo.imapnio.async.exception.ImapAsyncClientException.FailureType;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+/**
+ * This class defines IMAP append command appending many messages at once, aka, MULTIAPPEND defined in https://tools.ietf.org/html/rfc3502. Messages
+ * are sent in one command line if LITERAL+ is supported, otherwise each message waits for server continuation unless it is small enough for LITERAL-.
+ * Server appends all messages or none of them.
+ */
+public class MultiAppendCommand implements ImapRequest {
+
+    /** Byte array for CR and LF, keeping the array local so it cannot be modified by others. */
+    private static final byte[] CRLF_B = { '\r', '\n' };
+
+    /** Literal for append. */
+    private static final String APPEND_SP = "APPEND ";
+
+    /** Index of message sent after continuation when no message waits for it. */
+    private static final int NONE = -1;
+
+    /** The folder for the messages to be appended to. */
+    private String folderName;
+
+    /** The messages to be appended. */
+    private List<AppendMessage> messages;
+
+    /** Whether to enable Literal support option. */
+    private LiteralSupport literalOpt;
+
+    /** Maximum length of data sent as LITERAL- literal without waiting for server continuation. */
+    private int maxLiteralMinusDataLen;
+
+    /** Index of the message whose data is sent after server continuation, NONE if no message waits for it. */
+    private int nextMessageIndex;
+
+    /**
+     * Initializes a multi-append command for client.
+     *
+     * @param folderName the folder to which the messages must be appended
+     * @param messages the messages to be appended, in order
+     * @param literalOpt literal support option
+     */
+    public MultiAppendCommand(@Nonnull final String folderName, @Nonnull final List<AppendMessage> messages,
+            @Nonnull final LiteralSupport literalOpt) {
+        this(folderName, messages, literalOpt, ImapArgumentFormatter.DEFAULT_MAX_LITERAL_MINUS_DATA_LEN);
+    }
+
+    /**
+     * Initializes a multi-append command for client, with the maximum length of data sent as LITERAL- literal without waiting for server
+     * continuation.
+     *
+     * @param folderName the folder to which the messages must be appended
+     * @param messages the messages to be appended, in order
+     * @param literalOpt literal support option
+     * @param maxLiteralMinusDataLen maximum length of data sent as LITERAL- literal without waiting for server continuation
+     */
+    public MultiAppendCommand(@Nonnull final String folderName, @Nonnull final List<AppendMessage> messages,
+            @Nonnull final LiteralSupport literalOpt, final int maxLiteralMinusDataLen) {
+        this.folderName = folderName;
+        this.messages = messages;
+        this.literalOpt = literalOpt;
+        this.maxLiteralMinusDataLen = maxLiteralMinusDataLen;
+        this.nextMessageIndex = NONE;
+    }
+
+    @Override
+    public void cleanup() {
+        this.folderName = null;
+        this.messages = null;
+        this.literalOpt = null;
+    }
+
+    @Override
+    public ConcurrentLinkedQueue<IMAPResponse> getStreamingResponsesQueue() {
+        return null;
+    }
+
+    @Override
+    public ByteBuf getCommandLineBytes() throws ImapAsyncClientException {
+        final ByteBuf buf = Unpooled.buffer(2 * folderName.length() + ImapClientConstants.PAD_LEN);
+        nextMessageIndex = writeCommandLine(buf);
+        return buf;
+    }
+
+    /**
+     * Writes the command line, till a message has to wait for server continuation, or all messages are written.
+     *
+     * @param buf the buffer to write to
+     * @return index of the message waiting for server continuation, NONE if all messages are written
+     * @throws ImapAsyncClientException when there is no message, or a date cannot be formatted as IMAP argument
+     */
+    private int writeCommandLine(@Nonnull final ByteBuf buf) throws ImapAsyncClientException {
+        if (messages.isEmpty()) {
+            throw new ImapAsyncClientException(FailureType.INVALID_INPUT);
+        }
+        // Ex: APPEND saved-messages (\Seen) {310+}
+        // <data> (\Seen) {120+}
+        // <data>
+        final String base64Folder = BASE64MailboxEncoder.encode(folderName);
+        buf.writeBytes(APPEND_SP.getBytes(StandardCharsets.US_ASCII));
+
+        final ImapArgumentFormatter argWriter = new ImapArgumentFormatter(literalOpt, maxLiteralMinusDataLen);
+        argWriter.formatArgument(base64Folder, buf, false); // already base64 encoded so can be formatted and write to buf
+        return writeMessages(buf, 0, argWriter);
+    }
+
+    /**
+     * Writes the messages starting from the given index, till a message has to wait for server continuation, or all messages are written.
+     *
+     * @param buf the buffer to write to
+     * @param from index of the first message to write
+     * @param argWriter the argument formatter
+     * @return index of the message waiting for server continuation, NONE if all messages are written
+     * @throws ImapAsyncClientException when a date cannot be formatted as IMAP argument
+     */
+    private int writeMessages(@Nonnull final ByteBuf buf, final int from, @Nonnull final ImapArgumentFormatter argWriter)
+            throws ImapAsyncClientException {
+        for (int i = from; i < messages.size(); i++) {
+            final AppendMessage msg = messages.get(i);
+            buf.writeByte(ImapClientConstants.SPACE);
+
+            // flags
+            if (msg.getFlags() != null) {
+                buf.writeBytes(argWriter.buildFlagString(msg.getFlags()).getBytes(StandardCharsets.US_ASCII));
+                buf.writeByte(ImapClientConstants.SPACE);
+            }
+
+            // date
+            if (msg.getDate() != null) {
+                argWriter.formatArgument(INTERNALDATE.format(msg.getDate()), buf, false);
+                buf.writeByte(ImapClientConstants.SPACE);
+            }
+
+            // length of the literal
+            if (!argWriter.writeLiteralLength(msg.getData().length, buf)) { // wait for server to ask for it
+                return i;
+            }
+            // Note: we obtain only binary from client, therefore need to write binary directly to retain the correct charset encoding
+            buf.writeBytes(msg.getData());
+        }
+        buf.writeBytes(CRLF_B); // end of command
+        return NONE;
+    }
+
+    @Override
+    public String getCommandLine() throws ImapAsyncClientException {
+        // builds the command line again without changing which message waits for server continuation, so it can be called for logging
+        final ByteBuf buf = Unpooled.buffer(2 * folderName.length() + ImapClientConstants.PAD_LEN);
+        writeCommandLine(buf);
+        return buf.toString(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public boolean isCommandLineDataSensitive() {
+        return false;
+    }
+
+    @Override
+    public String getDebugData() {
+        return null;
+    }
+
+    @Override
+    public ByteBuf getNextCommandLineAfterContinuation(@Nonnull final IMAPResponse serverResponse) throws ImapAsyncClientException {
+        if (nextMessageIndex == NONE) {
+            // should not reach here, since all messages are sent already
+            throw new ImapAsyncClientException(FailureType.OPERATION_NOT_SUPPORTED_FOR_COMMAND);
+        }
+        final byte[] data = messages.get(nextMessageIndex).getData();
+        final ByteBuf buf = Unpooled.buffer(data.length + ImapClientConstants.PAD_LEN);
+        buf.writeBytes(data);
+        nextMessageIndex = writeMessages(buf, nextMessageIndex + 1, new ImapArgumentFormatter(literalOpt, maxLiteralMinusDataLen));
+        return buf;
+    }
+
+    @Override
+    public ByteBuf getTerminateCommandLine() throws ImapAsyncClientException {
+        throw new ImapAsyncClientException(FailureType.OPERATION_NOT_SUPPORTED_FOR_COMMAND);
+    }
+
+    @Override
+    public ImapRFCSupportedCommandType getCommandType() {
+        return ImapRFCSupportedCommandType.APPEND_MESSAGE;
+    }
+}
@@ -0,0 +1,116 @@
+package com.yahoo.imapnio.async.request;
+
+import java.nio.charset.StandardCharsets;
+
+import javax.annotation.Nonnull;
+
+import com.sun.mail.imap.protocol.IMAPResponse;
+import com.yahoo.imapnio.async.exception.ImapAsyncClientException;
+import com.yahoo.imapnio.async.exception.ImapAsyncClientException.FailureType;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+/**
+ * This class defines IMAP NOTIFY command request from client, defined in RFC 5465. It asks server to report changes of several mailboxes on one
+ * connection. Mailbox events sent while this command runs, like the STATUS responses asked by the status indicator, are delivered to the listener.
+ * Events sent afterwards are delivered to the command running at the time, for example, an {@link IdleCommand} created with a listener, or to the
+ * listener set on the session when no command is running.
+ *
+ * <pre>
+ * notify          = "NOTIFY" SP (notify-set / notify-none)
+ *
+ * notify-set      = "SET" [status-indicator] SP event-groups
+ *
+ * status-indicator = SP "STATUS"
+ *
+ * event-groups    = event-group *(SP event-group)
+ *
+ * notify-none     = "NONE"
+ * </pre>
+ */
+public class NotifyCommand extends ImapRequestAdapter {
+
+    /** Byte array for CR and LF, keeping the array local so it cannot be modified by others. */
+    private static final byte[] CRLF_B = { '\r', '\n' };
+
+    /** NOTIFY NONE in byte array. */
+    private static final byte[] NOTIFY_NONE_B = "NOTIFY NONE".getBytes(StandardCharsets.US_ASCII);
+
+    /** NOTIFY SET in byte array. */
+    private static final byte[] NOTIFY_SET_B = "NOTIFY SET".getBytes(StandardCharsets.US_ASCII);
+
+    /** STATUS indicator in byte array. */
+    private static final byte[] STATUS_B = "STATUS".getBytes(StandardCharsets.US_ASCII);
+
+    /** The event groups, null for NOTIFY NONE. */
+    private NotifyFilter[] filters;
+
+    /** Flag whether asking server to send STATUS of the watched mailboxes right away. */
+    private boolean isStatusRequested;
+
+    /** Dispatcher delivering mailbox events to the listener, null for NOTIFY NONE. */
+    private MailboxEventDispatcher dispatcher;
+
+    /**
+     * Initializes a {@link NotifyCommand} that asks server to stop sending notifications, aka, NOTIFY NONE.
+     */
+    public NotifyCommand() {
+        // no event group, no listener
+    }
+
+    /**
+     * Initializes a {@link NotifyCommand} that asks server to send notifications of the given event groups, aka, NOTIFY SET.
+     *
+     * @param filters the event groups
+     * @param isStatusRequested true to ask server to send STATUS of the watched mailboxes right away
+     * @param listener the listener to be notified of mailbox events sent while this command runs
+     * @throws ImapAsyncClientException when filters is empty
+     */
+    public NotifyCommand(@Nonnull final NotifyFilter[] filters, final boolean isStatusRequested, @Nonnull final MailboxEventListener listener)
+            throws ImapAsyncClientException {
+        if (filters.length == 0) {
+            throw new ImapAsyncClientException(FailureType.INVALID_INPUT);
+        }
+        this.filters = filters;
+        this.isStatusRequested = isStatusRequested;
+        this.dispatcher = new MailboxEventDispatcher(listener);
+    }
+
+    @Override
+    public void cleanup() {
+        this.filters = null;
+        this.dispatcher = null;
+    }
+
+    @Override
+    public UntaggedResponseDecision onUntaggedResponse(@Nonnull final IMAPResponse serverResponse) {
+        return (dispatcher != null && dispatcher.dispatch(serverResponse)) ? UntaggedResponseDecision.DROP : UntaggedResponseDecision.KEEP;
+    }
+
+    @Override
+    public ByteBuf getCommandLineBytes() throws ImapAsyncClientException {
+        final ByteBuf sb = Unpooled.buffer();
+        if (filters == null) {
+            sb.writeBytes(NOTIFY_NONE_B);
+            sb.writeBytes(CRLF_B);
+            return sb;
+        }
+        sb.writeBytes(NOTIFY_SET_B);
+        if (isStatusRequested) {
+            sb.writeByte(ImapClientConstants.SPACE);
+            sb.writeBytes(STATUS_B);
+        }
+        for (final NotifyFilter filter : filters) {
+            sb.writeByte(ImapClientConstants.SPACE);
+            filter.write(sb);
+        }
+        sb.writeBytes(CRLF_B);
+        return sb;
+    }
+
+    @Override
+    public ImapRFCSupportedCommandType getCommandType() {
+        return ImapRFCSupportedCommandType.NOTIFY;
+    }
+}
@@ -0,0 +1,177 @@
+package com.yahoo.imapnio.async.request;
+
+import java.nio.charset.StandardCharsets;
+import java.util.EnumSet;
+import java.util.Set;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.sun.mail.imap.protocol.BASE64MailboxEncoder;
+import com.yahoo.imapnio.async.exception.ImapAsyncClientException;
+import com.yahoo.imapnio.async.exception.ImapAsyncClientException.FailureType;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * This class models one event group of the NOTIFY command defined in RFC 5465, aka, the mailboxes to watch and the events to be notified of.
+ *
+ * <pre>
+ * event-group      = "(" filter-mailboxes SP events ")"
+ *
+ * filter-mailboxes = "selected" / "selected-delayed" / "inboxes" / "personal" / "subscribed" /
+ *                    ("subtree" SP one-or-more-mailbox) / ("mailboxes" SP one-or-more-mailbox)
+ *
+ * events           = ( "(" event *(SP event) ")" ) / "NONE"
+ *                    ;; As in [RFC5465], MessageNew and MessageExpunge go together, and FlagChange requires both.
+ * </pre>
+ */
+public final class NotifyFilter {
+
+    /**
+     * Mailboxes to watch.
+     */
+    public enum MailboxFilter {
+        /** The selected mailbox. */
+        SELECTED("selected"),
+        /** The selected mailbox, expunges delayed till a command allowing them. */
+        SELECTED_DELAYED("selected-delayed"),
+        /** All mailboxes delivered to. */
+        INBOXES("inboxes"),
+        /** All mailboxes in the personal namespace. */
+        PERSONAL("personal"),
+        /** All subscribed mailboxes. */
+        SUBSCRIBED("subscribed"),
+        /** The given mailboxes and all their children. */
+        SUBTREE("subtree"),
+        /** The given mailboxes. */
+        MAILBOXES("mailboxes");
+
+        /** Name on the wire. */
+        private final String wireName;
+
+        /**
+         * Initializes a {@link MailboxFilter}.
+         *
+         * @param wireName name on the wire
+         */
+        MailboxFilter(@Nonnull final String wireName) {
+            this.wireName = wireName;
+        }
+    }
+
+    /**
+     * Events to be notified of.
+     */
+    public enum NotifyEvent {
+        /** New message, reported as EXISTS and FETCH in selected mailbox, or STATUS in others. */
+        MESSAGE_NEW("MessageNew"),
+        /** Message expunged, reported as EXPUNGE in selected mailbox, or STATUS in others. */
+        MESSAGE_EXPUNGE("MessageExpunge"),
+        /** Flags changed, reported as FETCH in selected mailbox, or STATUS in others. */
+        FLAG_CHANGE("FlagChange"),
+        /** Annotation changed. */
+        ANNOTATION_CHANGE("AnnotationChange"),
+        /** Mailbox created, deleted or renamed, reported as LIST. */
+        MAILBOX_NAME("MailboxName"),
+        /** Subscription changed, reported as LIST. */
+        SUBSCRIPTION_CHANGE("SubscriptionChange");
+
+        /** Name on the wire. */
+        private final String wireName;
+
+        /**
+         * Initializes a {@link NotifyEvent}.
+         *
+         * @param wireName name on the wire
+         */
+        NotifyEvent(@Nonnull final String wireName) {
+            this.wireName = wireName;
+        }
+    }
+
+    /** NONE literal, meaning no event for the mailboxes. */
+    private static final byte[] NONE_B = "NONE".getBytes(StandardCharsets.US_ASCII);
+
+    /** The mailboxes to watch. */
+    private final MailboxFilter mailboxFilter;
+
+    /** Names of the mailboxes for SUBTREE and MAILBOXES filters. */
+    private final String[] mailboxNames;
+
+    /** The events to be notified of, empty for none. */
+    private final Set<NotifyEvent> events;
+
+    /** Fetch attributes server sends along a new message in the selected mailbox, for example, "UID FLAGS". */
+    private final String messageNewFetchItems;
+
+    /**
+     * Initializes a {@link NotifyFilter} object.
+     *
+     * @param mailboxFilter the mailboxes to watch
+     * @param mailboxNames names of the mailboxes, required for SUBTREE and MAILBOXES filters, ignored otherwise
+     * @param events the events to be notified of, empty for none
+     * @param messageNewFetchItems fetch attributes separated by space server sends along a new message in the selected mailbox, null for none
+     * @throws ImapAsyncClientException when mailbox names are missing, or MessageNew, MessageExpunge and FlagChange are not combined as required
+     */
+    public NotifyFilter(@Nonnull final MailboxFilter mailboxFilter, @Nullable final String[] mailboxNames, @Nonnull final Set<NotifyEvent> events,
+            @Nullable final String messageNewFetchItems) throws ImapAsyncClientException {
+        final boolean isNamed = mailboxFilter == MailboxFilter.SUBTREE || mailboxFilter == MailboxFilter.MAILBOXES;
+        if (isNamed && (mailboxNames == null || mailboxNames.length == 0)) {
+            throw new ImapAsyncClientException(FailureType.INVALID_INPUT);
+        }
+        final boolean hasNew = events.contains(NotifyEvent.MESSAGE_NEW);
+        if (hasNew != events.contains(NotifyEvent.MESSAGE_EXPUNGE) || (events.contains(NotifyEvent.FLAG_CHANGE) && !hasNew)) {
+            throw new ImapAsyncClientException(FailureType.INVALID_INPUT);
+        }
+        this.mailboxFilter = mailboxFilter;
+        this.mailboxNames = isNamed ? mailboxNames : null;
+        this.events = events.isEmpty() ? EnumSet.noneOf(NotifyEvent.class) : EnumSet.copyOf(events);
+        this.messageNewFetchItems = messageNewFetchItems;
+    }
+
+    /**
+     * Writes this event group to the given buffer.
+     *
+     * @param sb the buffer to write to
+     * @throws ImapAsyncClientException when a mailbox name cannot be formatted
+     */
+    void write(@Nonnull final ByteBuf sb) throws ImapAsyncClientException {
+        sb.writeByte(ImapClientConstants.L_PAREN);
+        sb.writeBytes(mailboxFilter.wireName.getBytes(StandardCharsets.US_ASCII));
+        if (mailboxNames != null) {
+            sb.writeByte(ImapClientConstants.SPACE);
+            sb.writeByte(ImapClientConstants.L_PAREN);
+            final ImapArgumentFormatter formatter = new ImapArgumentFormatter();
+            for (int i = 0; i < mailboxNames.length; i++) {
+                if (i > 0) {
+                    sb.writeByte(ImapClientConstants.SPACE);
+                }
+                formatter.formatArgument(BASE64MailboxEncoder.encode(mailboxNames[i]), sb, false);
+            }
+            sb.writeByte(ImapClientConstants.R_PAREN);
+        }
+        sb.writeByte(ImapClientConstants.SPACE);
+        if (events.isEmpty()) {
+            sb.writeBytes(NONE_B);
+        } else {
+            sb.writeByte(ImapClientConstants.L_PAREN);
+            boolean isFirst = true;
+            for (final NotifyEvent event : events) {
+                if (!isFirst) {
+                    sb.writeByte(ImapClientConstants.SPACE);
+                }
+                isFirst = false;
+                sb.writeBytes(event.wireName.getBytes(StandardCharsets.US_ASCII));
+                if (event == NotifyEvent.MESSAGE_NEW && messageNewFetchItems != null) {
+                    sb.writeByte(ImapClientConstants.SPACE);
+                    sb.writeByte(ImapClientConstants.L_PAREN);
+                    sb.writeBytes(messageNewFetchItems.getBytes(StandardCharsets.US_ASCII));
+                    sb.writeByte(ImapClientConstants.R_PAREN);
+                }
+            }
+            sb.writeByte(ImapClientConstants.R_PAREN);
+        }
+        sb.writeByte(ImapClientConstants.R_PAREN);
+    }
+}
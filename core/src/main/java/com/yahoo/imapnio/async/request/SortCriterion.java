@@ -0,0 +1,91 @@
+package com.yahoo.imapnio.async.request;
+
+import javax.annotation.Nonnull;
+
+/**
+ * This class models one sort criterion of the SORT command defined in RFC 5256, and the DISPLAYFROM and DISPLAYTO keys defined in RFC 5957.
+ *
+ * <pre>
+ * {@code
+ * sort-criterion  = ["REVERSE" SP] sort-key
+ *
+ * sort-key        = "ARRIVAL" / "CC" / "DATE" / "FROM" / "SIZE" /
+ *                   "SUBJECT" / "TO"
+ * }
+ * </pre>
+ */
+public final class SortCriterion {
+
+    /**
+     * Keys to sort messages by.
+     */
+    public enum SortKey {
+        /** Internal date and time of the message. */
+        ARRIVAL,
+        /** Addr-mailbox of the first Cc address. */
+        CC,
+        /** Sent date and time from the Date header, or internal date if missing. */
+        DATE,
+        /** Addr-mailbox of the first From address. */
+        FROM,
+        /** Size of the message in octets. */
+        SIZE,
+        /** Base subject text. */
+        SUBJECT,
+        /** Addr-mailbox of the first To address. */
+        TO,
+        /** Display name of the first From address, defined in RFC 5957. */
+        DISPLAYFROM,
+        /** Display name of the first To address, defined in RFC 5957. */
+        DISPLAYTO
+    }
+
+    /** REVERSE literal followed by a space. */
+    private static final String REVERSE_SP = "REVERSE ";
+
+    /** The key to sort by. */
+    private final SortKey key;
+
+    /** Flag whether the order is reversed. */
+    private final boolean isReverse;
+
+    /**
+     * Initializes a {@link SortCriterion} object in ascending order.
+     *
+     * @param key the key to sort by
+     */
+    public SortCriterion(@Nonnull final SortKey key) {
+        this(key, false);
+    }
+
+    /**
+     * Initializes a {@link SortCriterion} object.
+     *
+     * @param key the key to sort by
+     * @param isReverse true to sort in descending order
+     */
+    public SortCriterion(@Nonnull final SortKey key, final boolean isReverse) {
+        this.key = key;
+        this.isReverse = isReverse;
+    }
+
+    /**
+     * @return the key to sort by
+     */
+    @Nonnull
+    public SortKey getKey() {
+        return key;
+    }
+
+    /**
+     * @return true if the order is reversed
+     */
+    public boolean isReverse() {
+        return isReverse;
+    }
+
+    @Override
+    public String toString() {
+        return isReverse ? REVERSE_SP + key.name() : key.name();
+    }
+}
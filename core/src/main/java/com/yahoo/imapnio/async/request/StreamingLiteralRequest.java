@@ -0,0 +1,18 @@
+package com.yahoo.imapnio.async.request;
+
+import javax.annotation.Nullable;
+
+/**
+ * This class defines an Imap command sending a literal streamed from its source, instead of copying it into the command line bytes.
+ */
+public interface StreamingLiteralRequest extends ImapRequest {
+
+    /**
+     * Returns the literal to be streamed right after the command line bytes last built by {@link #getCommandLineBytes()} or
+     * {@link #getNextCommandLineAfterContinuation(com.sun.mail.imap.protocol.IMAPResponse)}. Session writes the literal followed by CRLF.
+     *
+     * @return the literal source, null if no literal follows the command line bytes last built
+     */
+    @Nullable
+    ImapLiteralSource nextStreamingLiteral();
+}
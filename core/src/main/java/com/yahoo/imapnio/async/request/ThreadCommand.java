@@ -0,0 +1,72 @@
+package com.yahoo.imapnio.async.request;
+
+import java.io.IOException;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.mail.search.SearchException;
+import javax.mail.search.SearchTerm;
+
+import com.sun.mail.iap.Argument;
+import com.yahoo.imapnio.async.data.Capability;
+import com.yahoo.imapnio.async.data.MessageNumberSet;
+import com.yahoo.imapnio.async.exception.ImapAsyncClientException;
+
+/**
+ * This class defines IMAP thread command request from client.
+ */
+public class ThreadCommand extends AbstractThreadCommand {
+
+    /**
+     * Initializes this object with the threading algorithm, MessageNumberSet array and search term.
+     *
+     * @param algorithm the threading algorithm
+     * @param msgsets the set of MessageNumberSet
+     * @param term the search term
+     * @param capa the capability instance to check if it has literal
+     * @throws ImapAsyncClientException when both msgsets and term are null
+     * @throws IOException when parsing error for generate sequence
+     * @throws SearchException when search term cannot be found
+     */
+    public ThreadCommand(@Nonnull final ThreadAlgorithm algorithm, @Nullable final MessageNumberSet[] msgsets, @Nullable final SearchTerm term,
+            @Nullable final Capability capa) throws ImapAsyncClientException, SearchException, IOException {
+        super(false, algorithm, msgsets, term, capa);
+    }
+
+    /**
+     * Initializes this object with the threading algorithm, string form of message sequence and search term.
+     *
+     * @param algorithm the threading algorithm
+     * @param msgNumbers the string form message numbers in sequence-set syntax
+     * @param term the search term
+     * @param capa the capability instance to find if it has literal
+     * @throws ImapAsyncClientException when both msgNumbers and term are null
+     * @throws IOException when parsing error for generate sequence
+     * @throws SearchException when search term cannot be found
+     */
+    public ThreadCommand(@Nonnull final ThreadAlgorithm algorithm, @Nullable final String msgNumbers, @Nullable final SearchTerm term,
+            @Nullable final Capability capa) throws ImapAsyncClientException, SearchException, IOException {
+        super(false, algorithm, msgNumbers, term, capa);
+    }
+
+    /**
+     * Initializes this object with the threading algorithm, string form of message sequence, character set name, and Argument that expresses the
+     * search term.
+     *
+     * @param algorithm the threading algorithm
+     * @param msgNumbers the string form message numbers in sequence-set syntax
+     * @param charset the character set, null for US-ASCII
+     * @param args the search term in argument format
+     * @param capa the capability instance to find if it has literal
+     * @throws ImapAsyncClientException when both msgNumbers and args are null
+     */
+    public ThreadCommand(@Nonnull final ThreadAlgorithm algorithm, @Nullable final String msgNumbers, @Nullable final String charset,
+            @Nonnull final Argument args, @Nullable final Capability capa) throws ImapAsyncClientException {
+        super(false, algorithm, msgNumbers, charset, args, capa);
+    }
+
+    @Override
+    public ImapRFCSupportedCommandType getCommandType() {
+        return ImapRFCSupportedCommandType.THREAD;
+    }
+}
@@ -61,6 +61,42 @@ public class UidSearchCommand extends AbstractSearchCommand {
         super(true, msgNumbers, charset, args, capa);
     }
 
+    /**
+     * Initializes this object with the MessageNumberSet array, search term, and whether to save the result on server.
+     *
+     * @param msgsets the set of MessageNumberSet
+     * @param term the search term
+     * @param capa the capability instance to check if it has literal
+     * @param isSaveResult true to ask server to save the result, for later commands to refer with {@link MessageNumberSet#savedResult()},
+     *            instead of returning it, server must support SEARCHRES
+     *
+     * @throws ImapAsyncClientException when both msgsets and term are null
+     * @throws IOException when parsing error for generate sequence
+     * @throws SearchException when search term cannot be found
+     */
+    public UidSearchCommand(@Nullable final MessageNumberSet[] msgsets, @Nullable final SearchTerm term, @Nullable final Capability capa,
+            final boolean isSaveResult) throws ImapAsyncClientException, SearchException, IOException {
+        super(true, MessageNumberSet.buildString(msgsets), term, capa, isSaveResult);
+    }
+
+    /**
+     * Initializes this object with the string form of message sequence, character set name, Argument that expresses the search term, and whether
+     * to save the result on server.
+     *
+     * @param msgNumbers the string form message numbers in sequence-set syntax
+     * @param charset the character set
+     * @param args the search term in argument format
+     * @param capa the capability instance to find if it has literal
+     * @param isSaveResult true to ask server to save the result, for later commands to refer with {@link MessageNumberSet#savedResult()},
+     *            instead of returning it, server must support SEARCHRES
+     *
+     * @throws ImapAsyncClientException when both msgNumbers and args are null
+     */
+    public UidSearchCommand(@Nullable final String msgNumbers, @Nullable final String charset, @Nonnull final Argument args,
+            @Nullable final Capability capa, final boolean isSaveResult) throws ImapAsyncClientException {
+        super(true, msgNumbers, charset, args, capa, isSaveResult);
+    }
+
     @Override
     public ImapRFCSupportedCommandType getCommandType() {
         return ImapRFCSupportedCommandType.UID_SEARCH;
@@ -0,0 +1,76 @@
+package com.yahoo.imapnio.async.request;
+
+import java.io.IOException;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.mail.search.SearchException;
+import javax.mail.search.SearchTerm;
+
+import com.sun.mail.iap.Argument;
+import com.yahoo.imapnio.async.data.Capability;
+import com.yahoo.imapnio.async.data.MessageNumberSet;
+import com.yahoo.imapnio.async.data.PartialRange;
+import com.yahoo.imapnio.async.exception.ImapAsyncClientException;
+
+/**
+ * This class defines IMAP UID sort command request from client.
+ */
+public class UidSortCommand extends AbstractSortCommand {
+
+    /**
+     * Initializes this object with the sort criteria, MessageNumberSet array, search term and partial range.
+     *
+     * @param criteria the sort criteria
+     * @param msgsets the set of MessageNumberSet
+     * @param term the search term
+     * @param capa the capability instance to check if it has literal
+     * @param partial range of positions in the sorted result to return, null to return all, server must support CONTEXT=SORT if not null
+     * @throws ImapAsyncClientException when criteria is empty or both msgsets and term are null
+     * @throws IOException when parsing error for generate sequence
+     * @throws SearchException when search term cannot be found
+     */
+    public UidSortCommand(@Nonnull final SortCriterion[] criteria, @Nullable final MessageNumberSet[] msgsets, @Nullable final SearchTerm term,
+            @Nullable final Capability capa, @Nullable final PartialRange partial) throws ImapAsyncClientException, SearchException, IOException {
+        super(true, criteria, msgsets, term, capa, partial);
+    }
+
+    /**
+     * Initializes this object with the sort criteria, string form of message sequence, search term and partial range.
+     *
+     * @param criteria the sort criteria
+     * @param msgNumbers the string form message numbers in sequence-set syntax
+     * @param term the search term
+     * @param capa the capability instance to find if it has literal
+     * @param partial range of positions in the sorted result to return, null to return all, server must support CONTEXT=SORT if not null
+     * @throws ImapAsyncClientException when criteria is empty or both msgNumbers and term are null
+     * @throws IOException when parsing error for generate sequence
+     * @throws SearchException when search term cannot be found
+     */
+    public UidSortCommand(@Nonnull final SortCriterion[] criteria, @Nullable final String msgNumbers, @Nullable final SearchTerm term,
+            @Nullable final Capability capa, @Nullable final PartialRange partial) throws ImapAsyncClientException, SearchException, IOException {
+        super(true, criteria, msgNumbers, term, capa, partial);
+    }
+
+    /**
+     * Initializes this object with the sort criteria, string form of message sequence, character set name, Argument that expresses the search term,
+     * and partial range.
+     *
+     * @param criteria the sort criteria
+     * @param msgNumbers the string form message numbers in sequence-set syntax
+     * @param charset the character set, null for US-ASCII
+     * @param args the search term in argument format
+     * @param capa the capability instance to find if it has literal
+     * @param partial range of positions in the sorted result to return, null to return all, server must support CONTEXT=SORT if not null
+     * @throws ImapAsyncClientException when criteria is empty or both msgNumbers and args are null
+     */
+    public UidSortCommand(@Nonnull final SortCriterion[] criteria, @Nullable final String msgNumbers, @Nullable final String charset,
+            @Nonnull final Argument args, @Nullable final Capability capa, @Nullable final PartialRange partial) throws ImapAsyncClientException {
+        super(true, criteria, msgNumbers, charset, args, capa, partial);
+    }
+
+    @Override
+    public ImapRFCSupportedCommandType getCommandType() {
+        return ImapRFCSupportedCommandType.UID_SORT;
+    }
+}
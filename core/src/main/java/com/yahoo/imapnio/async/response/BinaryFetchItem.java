@@ -0,0 +1,70 @@
+package com.yahoo.imapnio.async.response;
+
+import javax.annotation.Nonnull;
+
+import com.sun.mail.iap.ByteArray;
+import com.sun.mail.iap.ParsingException;
+import com.sun.mail.imap.protocol.FetchItem;
+import com.sun.mail.imap.protocol.FetchResponse;
+import com.yahoo.imapnio.async.data.BinarySection;
+
+/**
+ * This class parses the BINARY and BINARY.SIZE fetch data items defined in https://tools.ietf.org/html/rfc3516 to {@link BinarySection}, given
+ * to {@link FetchResponse#FetchResponse(com.sun.mail.imap.protocol.IMAPResponse, FetchItem[])}. The content is sent by server in literal8 form,
+ * for example, BINARY[1]&lt;0&gt; ~{1024}. Parsed items are keyed by item name in {@link FetchResponse#getExtensionItems()}, thus one BINARY and one
+ * BINARY.SIZE item per FETCH response.
+ */
+public final class BinaryFetchItem extends FetchItem {
+
+    /** Parser of the BINARY item. */
+    public static final BinaryFetchItem BINARY = new BinaryFetchItem("BINARY[", false);
+
+    /** Parser of the BINARY.SIZE item. */
+    public static final BinaryFetchItem BINARY_SIZE = new BinaryFetchItem("BINARY.SIZE[", true);
+
+    /** Flag whether this item is BINARY.SIZE. */
+    private final boolean isSize;
+
+    /**
+     * Initializes a {@link BinaryFetchItem}.
+     *
+     * @param name item name up to the section
+     * @param isSize true if this item is BINARY.SIZE
+     */
+    private BinaryFetchItem(@Nonnull final String name, final boolean isSize) {
+        super(name, null);
+        this.isSize = isSize;
+    }
+
+    /**
+     * @return parsers of BINARY and BINARY.SIZE items
+     */
+    @Nonnull
+    public static FetchItem[] getFetchItems() {
+        return new FetchItem[] { BINARY, BINARY_SIZE };
+    }
+
+    @Override
+    public Object parseItem(@Nonnull final FetchResponse r) throws ParsingException {
+        // Ex: BINARY[1]<0> ~{1024}, BINARY.SIZE[1] 1024, name is consumed already
+        final String section = r.readString(']');
+        if (section == null || r.readByte() != ']') {
+            throw new ParsingException("BINARY section is not terminated");
+        }
+        if (isSize) {
+            return new BinarySection(section, BinarySection.NO_ORIGIN, null, r.readLong());
+        }
+        long origin = BinarySection.NO_ORIGIN;
+        if (r.peekByte() == '<') {
+            r.readByte();
+            origin = r.readLong();
+            r.readByte(); // '>'
+        }
+        r.skipSpaces();
+        if (r.peekByte() == '~') { // literal8
+            r.readByte();
+        }
+        final ByteArray data = r.readByteArray();
+        return new BinarySection(section, origin, data, (data == null) ? 0 : data.getCount());
+    }
+}
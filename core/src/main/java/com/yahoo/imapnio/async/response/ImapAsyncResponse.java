@@ -20,6 +20,8 @@ public class ImapAsyncResponse {
     private Collection<IMAPResponse> responses;
     /** Total time elapsed by command in millis. */
     private long totalTimeElapsedInMillis;
+    /** Number of untagged responses received, including the ones not retained. */
+    private int untaggedResponseCount;
 
     /**
      * Initializes an {@link ImapAsyncResponse} object.
@@ -32,11 +34,43 @@ public class ImapAsyncResponse {
      */
     public ImapAsyncResponse(final ImapCommandType commandType, final int requestTotalBytes, final int responseTotalBytes,
             final Collection<IMAPResponse> responses, final long totalTimeElapsedInMillis) {
+        this(commandType, requestTotalBytes, responseTotalBytes, responses, totalTimeElapsedInMillis, countUntagged(responses));
+    }
+
+    /**
+     * Initializes an {@link ImapAsyncResponse} object.
+     *
+     * @param commandType imap command type
+     * @param requestTotalBytes number of bytes in request
+     * @param responseTotalBytes number of bytes in response
+     * @param responses list of response lines retained
+     * @param totalTimeElapsedInMillis total time elapsed in millis
+     * @param untaggedResponseCount number of untagged responses received, including the ones not retained
+     */
+    public ImapAsyncResponse(final ImapCommandType commandType, final int requestTotalBytes, final int responseTotalBytes,
+            final Collection<IMAPResponse> responses, final long totalTimeElapsedInMillis, final int untaggedResponseCount) {
         this.responses = responses;
         this.commandType = commandType;
         this.requestTotalBytes = requestTotalBytes;
         this.responseTotalBytes = responseTotalBytes;
         this.totalTimeElapsedInMillis = totalTimeElapsedInMillis;
+        this.untaggedResponseCount = untaggedResponseCount;
+    }
+
+    /**
+     * @param responses list of response lines
+     * @return number of untagged responses in the list
+     */
+    private static int countUntagged(final Collection<IMAPResponse> responses) {
+        int count = 0;
+        if (responses != null) {
+            for (final IMAPResponse response : responses) {
+                if (response.isUnTagged()) {
+                    count++;
+                }
+            }
+        }
+        return count;
     }
 
     /**
@@ -67,6 +101,13 @@ public class ImapAsyncResponse {
         return responses;
     }
 
+    /**
+     * @return number of untagged responses received, including the ones only delivered to the consumer and not in {@link #getResponseLines()}
+     */
+    public int getUntaggedResponseCount() {
+        return untaggedResponseCount;
+    }
+
     /**
      * @return total time elapsed in milli seconds.
      */
@@ -1,6 +1,7 @@
 package com.yahoo.imapnio.async.response;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -29,7 +30,11 @@ import com.yahoo.imapnio.async.data.ExtensionMailboxInfo;
 import com.yahoo.imapnio.async.data.IdResult;
 import com.yahoo.imapnio.async.data.ListInfoList;
 import com.yahoo.imapnio.async.data.ListStatusResult;
+import com.yahoo.imapnio.async.data.MultiAppendResult;
+import com.yahoo.imapnio.async.data.PartialRange;
 import com.yahoo.imapnio.async.data.SearchResult;
+import com.yahoo.imapnio.async.data.SortResult;
+import com.yahoo.imapnio.async.data.ThreadResult;
 import com.yahoo.imapnio.async.exception.ImapAsyncClientException;
 import com.yahoo.imapnio.async.exception.ImapAsyncClientException.FailureType;
 
@@ -50,6 +55,12 @@ public class ImapResponseMapper {
     /** ] char. */
     private static final char R_BRACKET = ']';
 
+    /** Initial capacity of the arrays growing while parsing message numbers. */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** Maximum number of message numbers a sequence-set of an ALL result is expanded to, guarding against a bogus range from server. */
+    private static final long MAX_ALL_RESULT_SIZE = 10_000_000L;
+
     /** Inner class instance parser. */
     private ImapResponseParser parser;
 
@@ -101,6 +112,12 @@ public class ImapResponseMapper {
         if (valueType == SearchResult.class) {
             return (T) parser.parseToSearchResult(content);
         }
+        if (valueType == SortResult.class) {
+            return (T) parser.parseToSortResult(content);
+        }
+        if (valueType == ThreadResult.class) {
+            return (T) parser.parseToThreadResult(content);
+        }
         if (valueType == ListStatusResult.class) {
             return (T) parser.parseToListStatusResult(content);
         }
@@ -110,6 +127,20 @@ public class ImapResponseMapper {
         throw new ImapAsyncClientException(FailureType.UNKNOWN_PARSE_RESULT_TYPE);
     }
 
+    /**
+     * Method to deserialize the IMAPResponse content of a MULTIAPPEND command to a {@link MultiAppendResult}. The number of UIDs given by server must
+     * be the number of messages sent, since it is not known from the responses alone.
+     *
+     * @param content list of IMAPResponse obtained from server
+     * @param messageCount number of messages sent in the MULTIAPPEND command
+     * @return the MultiAppendResult object
+     * @throws ImapAsyncClientException when the responses are not valid, or have a number of UIDs different from the number of messages sent
+     */
+    @Nonnull
+    public MultiAppendResult readMultiAppendResult(@Nonnull final IMAPResponse[] content, final int messageCount) throws ImapAsyncClientException {
+        return parser.parseToMultiAppendResult(content, messageCount);
+    }
+
     /**
      * Inner class to perform the parsing of IMAPResponse to various objects.
      */
@@ -228,6 +259,62 @@ public class ImapResponseMapper {
             return new AppendUID(uidvalidity, uid);
         }
 
+        /**
+         * Parses MULTIAPPEND response to a MultiAppendResult instance, keeping the UID ranges given by server.
+         *
+         * @param rs the APPEND responses
+         * @param messageCount number of messages sent, which the number of UIDs must match
+         * @return MultiAppendResult instance
+         * @throws ImapAsyncClientException when input value is not valid
+         */
+        @Nonnull
+        private MultiAppendResult parseToMultiAppendResult(@Nonnull final IMAPResponse[] rs, final int messageCount)
+                throws ImapAsyncClientException {
+            if (rs.length < 1) {
+                throw new ImapAsyncClientException(FailureType.INVALID_INPUT);
+            }
+            final IMAPResponse r = rs[rs.length - 1];
+            if (!r.isOK()) {
+                throw new ImapAsyncClientException(FailureType.INVALID_INPUT);
+            }
+            byte b;
+            while ((b = r.readByte()) > 0 && b != (byte) L_BRACKET) {
+                // eat chars till [
+            }
+            if (b == 0 || !APPENDUID.equalsIgnoreCase(r.readAtom())) {
+                throw new ImapAsyncClientException(FailureType.INVALID_INPUT);
+            }
+            final long uidvalidity = r.readLong();
+            final String uidSet = r.readAtom();
+            if (uidSet == null || uidSet.isEmpty()) {
+                throw new ImapAsyncClientException(FailureType.INVALID_INPUT);
+            }
+            // Ex: 101:103,105 => {101, 103, 105, 105}
+            final String[] parts = uidSet.split(",");
+            if (parts.length > messageCount) {
+                throw new ImapAsyncClientException(FailureType.INVALID_INPUT);
+            }
+            final long[] ranges = new long[parts.length * 2];
+            long count = 0;
+            try {
+                for (int i = 0; i < parts.length; i++) {
+                    final int colon = parts[i].indexOf(':');
+                    ranges[2 * i] = Long.parseLong((colon < 0) ? parts[i] : parts[i].substring(0, colon));
+                    ranges[2 * i + 1] = (colon < 0) ? ranges[2 * i] : Long.parseLong(parts[i].substring(colon + 1));
+                    if (ranges[2 * i] < 1 || ranges[2 * i + 1] < 1) {
+                        throw new ImapAsyncClientException(FailureType.INVALID_INPUT);
+                    }
+                    count += Math.abs(ranges[2 * i + 1] - ranges[2 * i]) + 1;
+                }
+            } catch (final NumberFormatException e) {
+                throw new ImapAsyncClientException(FailureType.INVALID_INPUT, e);
+            }
+            if (count != messageCount) { // guards against a bogus range from server, ex: 1:4294967295
+                throw new ImapAsyncClientException(FailureType.INVALID_INPUT);
+            }
+            return new MultiAppendResult(uidvalidity, ranges);
+        }
+
         /**
          * Parses COPY or MOVE command responses to a CopyUID instance.
          *
@@ -537,5 +624,272 @@ public class ImapResponseMapper {
 
             return new SearchResult(v);
         }
+
+        /**
+         * Parses the responses from sort command to a {@link SortResult} object, from either SORT response, or ESEARCH response when return options
+         * are given.
+         *
+         * @param ir the list of responses from sort command, the input responses array should contain the tagged/final one
+         * @return SortResult object constructed based on the given IMAPResponse array
+         * @throws ImapAsyncClientException when tagged response is not OK or given response length is 0
+         * @throws ParsingException when ESEARCH response is malformed
+         */
+        @Nonnull
+        private SortResult parseToSortResult(@Nonnull final IMAPResponse[] ir) throws ImapAsyncClientException, ParsingException {
+            if (ir.length < 1) {
+                throw new ImapAsyncClientException(FailureType.INVALID_INPUT);
+            }
+            final Response taggedResponse = ir[ir.length - 1];
+            if (!taggedResponse.isOK()) {
+                throw new ImapAsyncClientException(FailureType.INVALID_INPUT);
+            }
+            final LongArray v = new LongArray();
+            PartialRange partialRange = null;
+            long num;
+            for (final IMAPResponse sr : ir) {
+                if (sr.keyEquals("SORT")) {
+                    while ((num = sr.readLong()) != -1) {
+                        v.add(num);
+                    }
+                } else if (sr.keyEquals("ESEARCH")) {
+                    partialRange = parseEsearch(sr, v);
+                }
+            }
+            return new SortResult(v.toArray(), partialRange);
+        }
+
+        /**
+         * Parses the ESEARCH response defined in RFC 4731 and RFC 5267, adding the message numbers of ALL or PARTIAL result in order.
+         *
+         * <pre>
+         * esearch-response  = "ESEARCH" [search-correlator] [SP "UID"] *(SP search-return-data)
+         * search-return-data = "MIN" SP nz-number / "MAX" SP nz-number / "ALL" SP sequence-set / "COUNT" SP number /
+         *                      "PARTIAL" SP "(" partial-range SP (sequence-set / "NIL") ")"
+         * </pre>
+         *
+         * @param sr the ESEARCH response
+         * @param v the message numbers to add to
+         * @return the partial range returned, null if no PARTIAL result
+         * @throws ParsingException when the response is malformed
+         */
+        @Nullable
+        private PartialRange parseEsearch(@Nonnull final IMAPResponse sr, @Nonnull final LongArray v) throws ParsingException {
+            sr.skipSpaces();
+            if (sr.peekByte() == '(') {
+                sr.readStringList(); // search correlator
+            }
+            PartialRange partialRange = null;
+            String name;
+            while ((name = sr.readAtom()) != null && name.length() != 0) {
+                if (name.equalsIgnoreCase("UID")) {
+                    continue;
+                }
+                if (name.equalsIgnoreCase("PARTIAL")) {
+                    sr.skipSpaces();
+                    if (sr.readByte() != '(') {
+                        throw new ParsingException("Invalid PARTIAL result");
+                    }
+                    partialRange = parsePartialRange(sr.readAtom());
+                    final String set = sr.readAtom();
+                    if (!"NIL".equalsIgnoreCase(set)) {
+                        v.addAll(parseSequenceSet(set, Math.abs(partialRange.getLast() - partialRange.getFirst()) + 1));
+                    }
+                    if (sr.readByte() != ')') {
+                        throw new ParsingException("Invalid PARTIAL result");
+                    }
+                } else if (name.equalsIgnoreCase("ALL")) {
+                    v.addAll(parseSequenceSet(sr.readAtom(), MAX_ALL_RESULT_SIZE));
+                } else {
+                    sr.readAtom(); // MIN, MAX, COUNT and others not requested
+                }
+            }
+            return partialRange;
+        }
+
+        /**
+         * Parses the partial-range of a PARTIAL result.
+         *
+         * @param range the partial-range, for example, 1:50
+         * @return the partial range
+         * @throws ParsingException when the partial-range is malformed
+         */
+        @Nonnull
+        private PartialRange parsePartialRange(@Nullable final String range) throws ParsingException {
+            final int colon = (range == null) ? -1 : range.indexOf(':');
+            if (colon < 0) {
+                throw new ParsingException("Invalid partial-range: " + range);
+            }
+            try {
+                return new PartialRange(Long.parseLong(range.substring(0, colon)), Long.parseLong(range.substring(colon + 1)));
+            } catch (final NumberFormatException e) {
+                throw new ParsingException("Invalid partial-range: " + range);
+            }
+        }
+
+        /**
+         * Parses the sequence-set of an ESEARCH response to the message numbers in order, a range x:y is expanded from x to y.
+         *
+         * @param set the sequence-set
+         * @param maxCount maximum number of message numbers expected, for example, the width of the requested partial range
+         * @return the message numbers
+         * @throws ParsingException when the sequence-set is malformed or holds more message numbers than expected
+         */
+        @Nonnull
+        private long[] parseSequenceSet(@Nullable final String set, final long maxCount) throws ParsingException {
+            if (set == null || set.isEmpty()) {
+                throw new ParsingException("Missing sequence-set");
+            }
+            final LongArray v = new LongArray();
+            long count = 0;
+            try {
+                for (final String seqRange : set.split(",")) {
+                    final int colon = seqRange.indexOf(':');
+                    final long from = Long.parseLong((colon < 0) ? seqRange : seqRange.substring(0, colon));
+                    final long to = (colon < 0) ? from : Long.parseLong(seqRange.substring(colon + 1));
+                    if (from < 1 || to < 1) {
+                        throw new ParsingException("Invalid sequence-set: " + set);
+                    }
+                    // checked before expanding, thus a bogus range such as 1:4294967295 does not exhaust memory
+                    count += Math.abs(to - from) + 1;
+                    if (count > maxCount) {
+                        throw new ParsingException("Sequence-set exceeds " + maxCount + " message numbers: " + set);
+                    }
+                    final long step = (from <= to) ? 1 : -1;
+                    for (long n = from; n != to + step; n += step) {
+                        v.add(n);
+                    }
+                }
+            } catch (final NumberFormatException e) {
+                throw new ParsingException("Invalid sequence-set: " + set);
+            }
+            return v.toArray();
+        }
+
+        /**
+         * Parses the responses from thread command to a {@link ThreadResult} object.
+         *
+         * <pre>
+         * thread-data     = "THREAD" [SP 1*thread-list]
+         * thread-list     = "(" (thread-members / thread-nested) ")"
+         * thread-members  = nz-number *(SP nz-number) [SP thread-nested]
+         * thread-nested   = 2*thread-list
+         * </pre>
+         *
+         * @param ir the list of responses from thread command, the input responses array should contain the tagged/final one
+         * @return ThreadResult object constructed based on the given IMAPResponse array
+         * @throws ImapAsyncClientException when tagged response is not OK or given response length is 0
+         * @throws ParsingException when THREAD response is malformed
+         */
+        @Nonnull
+        private ThreadResult parseToThreadResult(@Nonnull final IMAPResponse[] ir) throws ImapAsyncClientException, ParsingException {
+            if (ir.length < 1) {
+                throw new ImapAsyncClientException(FailureType.INVALID_INPUT);
+            }
+            final Response taggedResponse = ir[ir.length - 1];
+            if (!taggedResponse.isOK()) {
+                throw new ImapAsyncClientException(FailureType.INVALID_INPUT);
+            }
+            final LongArray msgNumbers = new LongArray();
+            final LongArray parentIndexes = new LongArray();
+            for (final IMAPResponse tr : ir) {
+                if (tr.keyEquals("THREAD")) {
+                    tr.skipSpaces();
+                    while (tr.peekByte() == '(') {
+                        parseThreadList(tr, ThreadResult.NO_PARENT, msgNumbers, parentIndexes);
+                        tr.skipSpaces();
+                    }
+                }
+            }
+            final int[] parents = new int[parentIndexes.size];
+            for (int i = 0; i < parents.length; i++) {
+                parents[i] = (int) parentIndexes.values[i];
+            }
+            return new ThreadResult(msgNumbers.toArray(), parents);
+        }
+
+        /**
+         * Parses one thread-list, adding its nodes under the given parent. Message numbers are chained, each one is the child of the previous one,
+         * and nested thread-lists are children of the last message number, or of a placeholder parent when the thread-list has no message number.
+         *
+         * @param tr the THREAD response positioned at the open parenthesis
+         * @param parent index of the parent node
+         * @param msgNumbers the message numbers of the nodes to add to
+         * @param parentIndexes the parent indexes of the nodes to add to
+         * @throws ParsingException when the thread-list is malformed
+         */
+        private void parseThreadList(@Nonnull final IMAPResponse tr, final int parent, @Nonnull final LongArray msgNumbers,
+                @Nonnull final LongArray parentIndexes) throws ParsingException {
+            tr.readByte(); // (
+            int last = parent;
+            if (tr.peekByte() == '(') {
+                last = msgNumbers.size;
+                msgNumbers.add(ThreadResult.DUMMY_MESSAGE_NUMBER);
+                parentIndexes.add(parent);
+            }
+            while (true) {
+                tr.skipSpaces();
+                final byte b = tr.peekByte();
+                if (b == ')') {
+                    tr.readByte();
+                    return;
+                }
+                if (b == '(') {
+                    parseThreadList(tr, last, msgNumbers, parentIndexes);
+                    continue;
+                }
+                final long num = tr.readLong();
+                if (num == -1) {
+                    throw new ParsingException("Invalid thread-list");
+                }
+                final int index = msgNumbers.size;
+                msgNumbers.add(num);
+                parentIndexes.add(last);
+                last = index;
+            }
+        }
+    }
+
+    /**
+     * Growable array of primitive long values, avoiding boxing of every message number.
+     */
+    private static final class LongArray {
+
+        /** The values, with room to grow. */
+        private long[] values = new long[INITIAL_CAPACITY];
+
+        /** Number of values added. */
+        private int size;
+
+        /**
+         * Adds a value.
+         *
+         * @param value the value
+         */
+        void add(final long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        /**
+         * Adds all given values.
+         *
+         * @param more the values
+         */
+        void addAll(@Nonnull final long[] more) {
+            if (size + more.length > values.length) {
+                values = Arrays.copyOf(values, Math.max(size * 2, size + more.length));
+            }
+            System.arraycopy(more, 0, values, size, more.length);
+            size += more.length;
+        }
+
+        /**
+         * @return the values added, in a new array of the exact size
+         */
+        long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
     }
 }
@@ -0,0 +1,209 @@
+package com.yahoo.imapnio.async.response;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.sun.mail.imap.protocol.IMAPResponse;
+
+/**
+ * This class is a queue for server streaming responses, such as the ones from {@code IdleCommand}, that keeps track of number of bytes buffered in
+ * it. Session uses the number to stop reading from server when the consumer of this queue lags behind, and resumes reading as the consumer drains
+ * it.
+ */
+public class ImapStreamingResponseQueue extends ConcurrentLinkedQueue<IMAPResponse> {
+
+    /**
+     * Listener to be notified when responses are consumed, aka, removed from the queue.
+     */
+    public interface ConsumptionListener {
+        /**
+         * Called after one or more responses are removed from the queue.
+         *
+         * @param bufferedBytes number of bytes still buffered in the queue
+         */
+        void onConsumed(long bufferedBytes);
+    }
+
+    /** Required. */
+    private static final long serialVersionUID = 1L;
+
+    /** Number of bytes buffered in this queue. */
+    private final AtomicLong bufferedBytes = new AtomicLong(0);
+
+    /** Number of bytes of each response in this queue, given when offered, so that it is not computed again from the response. */
+    private final transient Map<IMAPResponse, Integer> sizes = Collections.synchronizedMap(new IdentityHashMap<IMAPResponse, Integer>());
+
+    /** Listener to be notified when responses are consumed. */
+    @Nullable
+    private transient volatile ConsumptionListener listener;
+
+    /**
+     * Computes the number of bytes of the given response.
+     *
+     * @param response the response
+     * @return number of bytes of the given response
+     */
+    private static int sizeOf(@Nonnull final Object response) {
+        // response line is ASCII, one char is one byte
+        return response.toString().length();
+    }
+
+    /**
+     * Takes the number of bytes of the given response recorded when it was offered, computing it if it was not recorded.
+     *
+     * @param response the response removed from the queue
+     * @return number of bytes of the given response
+     */
+    private int takeSizeOf(@Nonnull final Object response) {
+        final Integer size = sizes.remove(response);
+        return (size != null) ? size : sizeOf(response);
+    }
+
+    /**
+     * @return number of bytes buffered in this queue
+     */
+    public long getBufferedBytes() {
+        return bufferedBytes.get();
+    }
+
+    /**
+     * Sets the listener to be notified when responses are consumed.
+     *
+     * @param listener the listener, null to remove the current one
+     */
+    public void setConsumptionListener(@Nullable final ConsumptionListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Records the removal of the given number of bytes and notifies the listener.
+     *
+     * @param bytes number of bytes removed
+     */
+    private void consumed(final long bytes) {
+        final long remaining = bufferedBytes.addAndGet(-bytes);
+        final ConsumptionListener curListener = listener;
+        if (curListener != null) {
+            curListener.onConsumed(remaining);
+        }
+    }
+
+    @Override
+    public boolean offer(@Nonnull final IMAPResponse response) {
+        return offer(response, sizeOf(response));
+    }
+
+    /**
+     * Inserts the given response whose number of bytes is already known, avoiding computing it from the response, which copies the whole response.
+     *
+     * @param response the response
+     * @param bytes number of bytes of the response
+     * @return true as specified by {@link java.util.Queue#offer}
+     */
+    public boolean offer(@Nonnull final IMAPResponse response, final int bytes) {
+        sizes.put(response, bytes);
+        final boolean added = super.offer(response);
+        if (added) {
+            bufferedBytes.addAndGet(bytes);
+        }
+        return added;
+    }
+
+    @Override
+    public boolean addAll(@Nonnull final Collection<? extends IMAPResponse> c) {
+        if (c == this) { // same as ConcurrentLinkedQueue, adding itself is not allowed
+            throw new IllegalArgumentException();
+        }
+        boolean added = false;
+        for (final IMAPResponse response : c) {
+            added |= offer(response);
+        }
+        return added;
+    }
+
+    @Override
+    public IMAPResponse poll() {
+        final IMAPResponse response = super.poll();
+        if (response != null) {
+            consumed(takeSizeOf(response));
+        }
+        return response;
+    }
+
+    @Override
+    public boolean remove(@Nullable final Object o) {
+        final boolean removed = super.remove(o);
+        if (removed) {
+            consumed(takeSizeOf(o));
+        }
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        long bytes = 0;
+        IMAPResponse response;
+        while ((response = super.poll()) != null) {
+            bytes += takeSizeOf(response);
+        }
+        consumed(bytes);
+    }
+
+    @Override
+    public boolean removeIf(@Nonnull final Predicate<? super IMAPResponse> filter) {
+        boolean removed = false;
+        final Iterator<IMAPResponse> it = iterator();
+        while (it.hasNext()) {
+            if (filter.test(it.next())) {
+                it.remove();
+                removed = true;
+            }
+        }
+        return removed;
+    }
+
+    @Override
+    public boolean removeAll(@Nonnull final Collection<?> c) {
+        return removeIf(r -> c.contains(r));
+    }
+
+    @Override
+    public boolean retainAll(@Nonnull final Collection<?> c) {
+        return removeIf(r -> !c.contains(r));
+    }
+
+    @Override
+    public Iterator<IMAPResponse> iterator() {
+        final Iterator<IMAPResponse> it = super.iterator();
+        return new Iterator<IMAPResponse>() {
+            /** Last element returned by next(). */
+            private IMAPResponse last;
+
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public IMAPResponse next() {
+                last = it.next();
+                return last;
+            }
+
+            @Override
+            public void remove() {
+                it.remove();
+                consumed(takeSizeOf(last));
+            }
+        };
+    }
+}
@@ -1,13 +1,17 @@
 package com.yahoo.imapnio.client;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import com.sun.mail.util.ASCIIUtility;
+import com.yahoo.imapnio.async.internal.ImapMemoryBudget;
+import com.yahoo.imapnio.async.jfr.ImapFlightRecorder;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.LineBasedFrameDecoder;
+import io.netty.handler.codec.TooLongFrameException;
 import io.netty.util.ReferenceCountUtil;
 
 /**
@@ -18,6 +22,15 @@ import io.netty.util.ReferenceCountUtil;
  */
 public class ImapClientRespReader extends LineBasedFrameDecoder {
 
+    /**
+     * User event fired down the pipeline when reading a literal exceeds the memory budget. Reading from the channel is paused already, the handler
+     * processing responses is expected to resume it once the budget is available.
+     */
+    public enum MemoryBudgetEvent {
+        /** Memory budget is exceeded. */
+        EXCEEDED
+    }
+
     /** Constant for 4. */
     private static final int FOUR = 4;
 
@@ -30,20 +43,84 @@ public class ImapClientRespReader extends LineBasedFrameDecoder {
     /** Extra length to accommodate CRLF. */
     private static final int EXTRA_PADDING_LEN = 16;
 
+    /** Minimum literal size in bytes to emit a flight recorder event for reading it. */
+    private static final int LARGE_LITERAL_SIZE = 64 * 1024;
+
     /** Literal response remaining bytes size. */
     private int literalCount;
 
     /** Literal response buffer. */
     private ByteBuf literalBuf;
 
+    /** Flag whether to emit flight recorder events for reading large literals. */
+    private final boolean isFlightRecorderEventsEnabled;
+
+    /** Flight recorder event for the large literal being read, null if none. */
+    private Object literalEvent;
+
+    /** Total number of literal bytes read, only updated by the event loop thread. */
+    private volatile long literalBytesRead;
+
+    /** Memory budget shared by all sessions of the client, literal buffers are reserved from it, null if unlimited. */
+    @Nullable
+    private final ImapMemoryBudget memoryBudget;
+
+    /** Number of bytes reserved from the memory budget for the literal buffer. */
+    private long reservedBytes;
+
+    /** Maximum literal size in bytes, a response with a larger literal is discarded, never larger than the memory budget. */
+    private final int maxLiteralSize;
+
+    /** Flag whether the rest of a response with an oversized literal is being discarded. */
+    private boolean isDiscarding;
+
     /**
      * Constructor of IMAP client response reader.
      *
      * @param maxLineLength maximum response line length
      */
     public ImapClientRespReader(final int maxLineLength) {
+        this(maxLineLength, false);
+    }
+
+    /**
+     * Constructor of IMAP client response reader.
+     *
+     * @param maxLineLength maximum response line length
+     * @param isFlightRecorderEventsEnabled true to emit flight recorder events for reading large literals
+     */
+    public ImapClientRespReader(final int maxLineLength, final boolean isFlightRecorderEventsEnabled) {
+        this(maxLineLength, isFlightRecorderEventsEnabled, null);
+    }
+
+    /**
+     * Constructor of IMAP client response reader.
+     *
+     * @param maxLineLength maximum response line length
+     * @param isFlightRecorderEventsEnabled true to emit flight recorder events for reading large literals
+     * @param memoryBudget memory budget shared by all sessions of the client to reserve literal buffers from, null if unlimited
+     */
+    public ImapClientRespReader(final int maxLineLength, final boolean isFlightRecorderEventsEnabled,
+            @Nullable final ImapMemoryBudget memoryBudget) {
+        this(maxLineLength, Integer.MAX_VALUE, isFlightRecorderEventsEnabled, memoryBudget);
+    }
+
+    /**
+     * Constructor of IMAP client response reader. A line longer than maxLineLength or a response with a literal larger than maxLiteralSize is
+     * discarded without being buffered and a {@link TooLongFrameException} is fired down the pipeline.
+     *
+     * @param maxLineLength maximum response line length
+     * @param maxLiteralSize maximum response literal size, capped to the memory budget if given
+     * @param isFlightRecorderEventsEnabled true to emit flight recorder events for reading large literals
+     * @param memoryBudget memory budget shared by all sessions of the client to reserve literal buffers from, null if unlimited
+     */
+    public ImapClientRespReader(final int maxLineLength, final int maxLiteralSize, final boolean isFlightRecorderEventsEnabled,
+            @Nullable final ImapMemoryBudget memoryBudget) {
         super(maxLineLength, false, true);
         literalCount = -1;
+        this.maxLiteralSize = (memoryBudget == null) ? maxLiteralSize : (int) Math.min(maxLiteralSize, memoryBudget.getMaxBytes());
+        this.isFlightRecorderEventsEnabled = isFlightRecorderEventsEnabled;
+        this.memoryBudget = memoryBudget;
     }
 
     /**
@@ -75,6 +152,13 @@ public class ImapClientRespReader extends LineBasedFrameDecoder {
                 final int lineLen = lineBuf.readableBytes();
                 final boolean noLiterals = (lineLen < FIVE || lineBuf.getByte(lineLen - THREE) != '}'); // getByte() is peek operation
 
+                if (isDiscarding) { // rest of an oversized response, skip it along with its following literals
+                    this.literalCount = noLiterals ? -1 : getLiteralCount(lineBuf, lineLen);
+                    ReferenceCountUtil.release(lineBuf);
+                    isDiscarding = (this.literalCount >= 0);
+                    continue;
+                }
+
                 if (noLiterals) { // enough for a complete IMAP response, return the data
                     return getFinalResponse(lineBuf);
                 }
@@ -85,24 +169,70 @@ public class ImapClientRespReader extends LineBasedFrameDecoder {
                     return getFinalResponse(lineBuf);
                 }
 
+                if (this.literalCount > maxLiteralSize) {
+                    discardResponse(lineBuf);
+                    throw new TooLongFrameException("Literal size " + literalCount + " exceeds " + maxLiteralSize);
+                }
+
                 // literals follows if reaching here
+                boolean isWithinBudget = true;
+                if (memoryBudget != null) {
+                    isWithinBudget = memoryBudget.reserve(lineLen + literalCount);
+                    reservedBytes += lineLen + literalCount;
+                }
                 if (literalBuf == null) {
-                    literalBuf = Unpooled.buffer(lineLen + literalCount + EXTRA_PADDING_LEN);
+                    // only pre-size the buffer within the budget, otherwise it grows as bytes arrive while reading is paused
+                    final long capacity = (long) lineLen + literalCount + EXTRA_PADDING_LEN;
+                    final boolean isPresized = isWithinBudget && capacity <= Integer.MAX_VALUE;
+                    literalBuf = Unpooled.buffer(isPresized ? (int) capacity : lineLen + EXTRA_PADDING_LEN);
+                }
+                if (!isWithinBudget) {
+                    pauseRead(ctx);
                 }
                 writeLiteralBufFromLineBuf(lineBuf); // add current line (ex: "* 1 FETCH (FLAGS (\Seen $NotJunk) BODY[] {4495}\r\n")
+                if (isFlightRecorderEventsEnabled && literalCount >= LARGE_LITERAL_SIZE) {
+                    literalEvent = ImapFlightRecorder.beginLiteralRead(literalCount);
+                }
                 // back to top of loop to enter literal mode block
 
             } else { // LITERAL mode - read till reaching the count or end of inputBuf
                 final int avail = inputBuf.readableBytes(); // available bytes unread in inputBuf
                 final int actual = (literalCount <= avail) ? literalCount : avail; // actual length to copy
-                literalBuf.writeBytes(inputBuf, actual);
                 literalCount -= actual;
+                if (isDiscarding) {
+                    inputBuf.skipBytes(actual);
+                    continue;
+                }
+                literalBuf.writeBytes(inputBuf, actual);
+                literalBytesRead = literalBytesRead + actual;
+                if (literalCount == 0 && literalEvent != null) {
+                    ImapFlightRecorder.commitLiteralRead(literalEvent);
+                    literalEvent = null;
+                }
             }
         }
 
         return null;
     }
 
+    /**
+     * Stops reading from the channel since the memory budget is exceeded, and tells the handlers down the pipeline to resume it once the budget is
+     * available.
+     *
+     * @param ctx the {@link ChannelHandlerContext} which this decoder belongs to
+     */
+    private void pauseRead(@Nonnull final ChannelHandlerContext ctx) {
+        ctx.channel().config().setAutoRead(false);
+        ctx.fireUserEventTriggered(MemoryBudgetEvent.EXCEEDED);
+    }
+
+    /**
+     * @return total number of literal bytes read by this reader
+     */
+    public long getLiteralBytesRead() {
+        return literalBytesRead;
+    }
+
     /**
      * Writes the given lineBuf to literalBuf. When writing is finished, we need to release the given lineBuf since this lineBuf will not be given to
      * StringDecoder to release.
@@ -129,9 +259,57 @@ public class ImapClientRespReader extends LineBasedFrameDecoder {
         // reset existing
         literalBuf = null;
         literalCount = -1;
+        releaseReservedBytes(); // session takes over the accounting of the response
         return result;
     }
 
+    /**
+     * Starts discarding the response with an oversized literal, releasing what has been buffered for it so far.
+     *
+     * @param lineBuf the current line ending with the oversized literal count
+     */
+    private void discardResponse(@Nonnull final ByteBuf lineBuf) {
+        ReferenceCountUtil.release(lineBuf);
+        if (literalBuf != null) {
+            ReferenceCountUtil.release(literalBuf);
+            literalBuf = null;
+        }
+        releaseReservedBytes();
+        isDiscarding = true;
+    }
+
+    /**
+     * Releases the bytes reserved from the memory budget for the literal buffer.
+     */
+    private void releaseReservedBytes() {
+        if (memoryBudget != null) {
+            memoryBudget.release(reservedBytes);
+            reservedBytes = 0;
+        }
+    }
+
+    /**
+     * Releases the literal buffer being read and its reserved bytes when this reader is removed, for example, when channel is closed.
+     *
+     * @param ctx the {@link ChannelHandlerContext} which this decoder belongs to
+     */
+    @Override
+    protected void handlerRemoved0(final ChannelHandlerContext ctx) {
+        if (literalBuf != null) {
+            ReferenceCountUtil.release(literalBuf);
+            literalBuf = null;
+        }
+        releaseReservedBytes();
+    }
+
+    /**
+     * @return memory budget shared by all sessions of the client, null if unlimited
+     */
+    @Nullable
+    public ImapMemoryBudget getMemoryBudget() {
+        return memoryBudget;
+    }
+
     /**
      * @param lineBuf buffer for the line ended with CRLF
      * @param lineLen line length of the above lineBuf
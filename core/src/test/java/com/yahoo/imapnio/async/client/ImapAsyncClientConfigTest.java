@@ -0,0 +1,48 @@
+package com.yahoo.imapnio.async.client;
+
+import org.mockito.Mockito;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.yahoo.imapnio.async.metrics.ImapClientMetrics;
+import com.yahoo.imapnio.async.metrics.ImapCommandTraceListener;
+
+/**
+ * Unit test for {@link ImapAsyncClientConfig}.
+ */
+public class ImapAsyncClientConfigTest {
+
+    /**
+     * Tests ImapAsyncClientConfig constructor and getters.
+     */
+    @Test
+    public void testGettersSetters() {
+        final ImapAsyncClientConfig config = new ImapAsyncClientConfig();
+        Assert.assertEquals(config.getEventLoopLagProbeIntervalMillis(), ImapAsyncClientConfig.DEFAULT_EVENT_LOOP_LAG_PROBE_INTERVAL_MILLIS,
+                "Result mismatched.");
+        config.setEventLoopLagProbeIntervalMillis(100);
+        Assert.assertEquals(config.getEventLoopLagProbeIntervalMillis(), 100, "Result mismatched.");
+
+        Assert.assertEquals(config.getMaxEventLoopLagMillis(), 0, "Result mismatched.");
+        config.setMaxEventLoopLagMillis(500);
+        Assert.assertEquals(config.getMaxEventLoopLagMillis(), 500, "Result mismatched.");
+
+        Assert.assertEquals(config.getMemoryBudgetBytes(), 0, "Result mismatched.");
+        config.setMemoryBudgetBytes(1024);
+        Assert.assertEquals(config.getMemoryBudgetBytes(), 1024, "Result mismatched.");
+
+        Assert.assertNull(config.getMetrics(), "Result mismatched.");
+        final ImapClientMetrics metrics = Mockito.mock(ImapClientMetrics.class);
+        config.setMetrics(metrics);
+        Assert.assertSame(config.getMetrics(), metrics, "Result mismatched.");
+
+        Assert.assertNull(config.getCommandTraceListener(), "Result mismatched.");
+        final ImapCommandTraceListener listener = Mockito.mock(ImapCommandTraceListener.class);
+        config.setCommandTraceListener(listener);
+        Assert.assertSame(config.getCommandTraceListener(), listener, "Result mismatched.");
+
+        Assert.assertFalse(config.isFlightRecorderEventsEnabled(), "Result mismatched.");
+        config.setFlightRecorderEventsEnabled(true);
+        Assert.assertTrue(config.isFlightRecorderEventsEnabled(), "Result mismatched.");
+    }
+}
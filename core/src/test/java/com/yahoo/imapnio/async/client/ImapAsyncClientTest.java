@@ -11,6 +11,7 @@ import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
 import java.time.Clock;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
@@ -29,26 +30,34 @@ import org.testng.Assert;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import com.sun.mail.imap.protocol.IMAPResponse;
 import com.yahoo.imapnio.async.client.ImapAsyncClient.ImapClientChannelInitializer;
 import com.yahoo.imapnio.async.client.ImapAsyncSession.DebugMode;
 import com.yahoo.imapnio.async.exception.ImapAsyncClientException;
 import com.yahoo.imapnio.async.exception.ImapAsyncClientException.FailureType;
+import com.yahoo.imapnio.async.metrics.ImapClientMetrics;
 import com.yahoo.imapnio.async.netty.ImapClientConnectHandler;
 import com.yahoo.imapnio.client.ImapClientRespReader;
 import com.yahoo.imapnio.command.ImapClientRespDecoder;
 
 import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelOption;
 import io.netty.channel.ChannelPipeline;
 import io.netty.channel.ConnectTimeoutException;
+import io.netty.channel.EventLoop;
 import io.netty.channel.EventLoopGroup;
+import io.netty.channel.WriteBufferWaterMark;
+import io.netty.channel.embedded.EmbeddedChannel;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.handler.codec.string.StringDecoder;
 import io.netty.handler.codec.string.StringEncoder;
 import io.netty.handler.ssl.SslHandler;
 import io.netty.handler.timeout.IdleStateHandler;
+import io.netty.util.concurrent.EventExecutor;
 import io.netty.util.concurrent.GenericFutureListener;
 
 /**
@@ -125,6 +134,13 @@ public class ImapAsyncClientTest {
         Assert.assertEquals(initializerCaptor.getAllValues().size(), 1, "Unexpected count of ImapClientChannelInitializer.");
         final ImapClientChannelInitializer initializer = initializerCaptor.getAllValues().get(0);
 
+        // verify channel options
+        Mockito.verify(bootstrap, Mockito.times(1)).option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 5000);
+        final ArgumentCaptor<WriteBufferWaterMark> waterMarkCaptor = ArgumentCaptor.forClass(WriteBufferWaterMark.class);
+        Mockito.verify(bootstrap, Mockito.times(1)).option(Mockito.eq(ChannelOption.WRITE_BUFFER_WATER_MARK), waterMarkCaptor.capture());
+        Assert.assertEquals(waterMarkCaptor.getValue().high(), ImapAsyncSessionConfig.DEFAULT_WRITE_BUFFER_HIGH_WATER_MARK, "Result mismatched.");
+        Assert.assertEquals(waterMarkCaptor.getValue().low(), ImapAsyncSessionConfig.DEFAULT_WRITE_BUFFER_LOW_WATER_MARK, "Result mismatched.");
+
         // should not call this connect
         Mockito.verify(bootstrap, Mockito.times(0)).connect(Mockito.any(SocketAddress.class), Mockito.any(SocketAddress.class));
         // should call following connect
@@ -150,6 +166,17 @@ public class ImapAsyncClientTest {
         Assert.assertEquals(handlerCaptor.getAllValues().get(3).getClass(), StringEncoder.class, "expected class mismatched.");
         Assert.assertEquals(handlerCaptor.getAllValues().get(4).getClass(), ImapClientRespDecoder.class, "expected class mismatched.");
 
+        // 8-bit bytes in a non-BINARY response, such as an unencoded folder name, should keep their values instead of becoming U+FFFD
+        final EmbeddedChannel inboundChannel = new EmbeddedChannel(handlerCaptor.getAllValues().get(1), handlerCaptor.getAllValues().get(2),
+                handlerCaptor.getAllValues().get(4));
+        final byte[] line = new byte[] { '*', ' ', 'L', 'I', 'S', 'T', ' ', '(', ')', ' ', '"', '/', '"', ' ', 'c', 'a', 'f', (byte) 0xE9, '\r',
+                '\n' };
+        inboundChannel.writeInbound(Unpooled.wrappedBuffer(line));
+        final IMAPResponse listResp = inboundChannel.readInbound();
+        Assert.assertNotNull(listResp, "Response should be decoded.");
+        Assert.assertEquals(listResp.toString(), "* LIST () \"/\" caf\u00e9\r\n", "8-bit byte should be preserved.");
+        inboundChannel.finishAndReleaseAll();
+
         // verify GenericFutureListener.operationComplete()
         final GenericFutureListener listener = listenerCaptor.getAllValues().get(0);
         listener.operationComplete(nettyConnectFuture);
@@ -201,6 +228,141 @@ public class ImapAsyncClientTest {
         aclient.shutdown();
     }
 
+    /**
+     * Tests the event loop lag getters when probing is disabled or enabled, and that probing stops on shutdown.
+     *
+     * @throws SSLException will not throw
+     */
+    @Test
+    public void testEventLoopLag() throws SSLException {
+        final Bootstrap bootstrap = Mockito.mock(Bootstrap.class);
+        final EventLoopGroup group = Mockito.mock(EventLoopGroup.class);
+        final Logger logger = Mockito.mock(Logger.class);
+        final Clock clock = Mockito.mock(Clock.class);
+
+        final ImapAsyncClient disabledClient = new ImapAsyncClient(clock, bootstrap, group, logger);
+        Assert.assertEquals(disabledClient.getEventLoopLagMillis(), 0, "Result mismatched.");
+        Assert.assertEquals(disabledClient.getMaxEventLoopLagMillis(), 0, "Result mismatched.");
+        Mockito.verify(group, Mockito.times(0)).iterator();
+
+        final EventExecutor executor = Mockito.mock(EventExecutor.class);
+        Mockito.when(group.iterator()).thenReturn(Collections.singletonList(executor).iterator());
+        Mockito.when(clock.millis()).thenReturn(1000L, 1300L);
+        final ImapAsyncClientConfig config = new ImapAsyncClientConfig();
+        config.setEventLoopLagProbeIntervalMillis(100);
+        final ImapAsyncClient aclient = new ImapAsyncClient(clock, bootstrap, group, logger, config);
+        final ArgumentCaptor<Runnable> probeCaptor = ArgumentCaptor.forClass(Runnable.class);
+        Mockito.verify(executor, Mockito.times(1)).schedule(probeCaptor.capture(), Mockito.eq(100L), Mockito.eq(TimeUnit.MILLISECONDS));
+
+        aclient.shutdown();
+        probeCaptor.getValue().run();
+        Assert.assertEquals(aclient.getEventLoopLagMillis(), 200, "Result mismatched.");
+        Assert.assertEquals(aclient.getMaxEventLoopLagMillis(), 200, "Result mismatched.");
+        Mockito.verify(executor, Mockito.times(1)).schedule(Mockito.any(Runnable.class), Mockito.anyLong(), Mockito.any(TimeUnit.class));
+        Mockito.verify(group, Mockito.times(1)).shutdownGracefully();
+    }
+
+    /**
+     * Tests createSession method steering the connection away from an overloaded event loop, and failing fast when all are overloaded.
+     *
+     * @throws Exception will not throw
+     */
+    @Test
+    public void testCreateSessionEventLoopOverloaded() throws Exception {
+        final Bootstrap bootstrap = Mockito.mock(Bootstrap.class);
+        final EventLoopGroup group = Mockito.mock(EventLoopGroup.class);
+        final EventLoop loop1 = Mockito.mock(EventLoop.class);
+        final EventLoop loop2 = Mockito.mock(EventLoop.class);
+        Mockito.when(group.iterator()).thenReturn(Arrays.<EventExecutor> asList(loop1, loop2).iterator());
+        Mockito.when(group.next()).thenReturn(loop1);
+        final Clock lagClock = Mockito.mock(Clock.class);
+        Mockito.when(lagClock.millis()).thenReturn(1000L);
+
+        final ImapAsyncClientConfig clientConfig = new ImapAsyncClientConfig();
+        clientConfig.setEventLoopLagProbeIntervalMillis(100);
+        clientConfig.setMaxEventLoopLagMillis(50);
+        final ImapAsyncClient aclient = new ImapAsyncClient(lagClock, bootstrap, group, Mockito.mock(Logger.class), clientConfig);
+        final ArgumentCaptor<Runnable> probe1Captor = ArgumentCaptor.forClass(Runnable.class);
+        Mockito.verify(loop1, Mockito.times(1)).schedule(probe1Captor.capture(), Mockito.eq(100L), Mockito.eq(TimeUnit.MILLISECONDS));
+        final ArgumentCaptor<Runnable> probe2Captor = ArgumentCaptor.forClass(Runnable.class);
+        Mockito.verify(loop2, Mockito.times(1)).schedule(probe2Captor.capture(), Mockito.eq(100L), Mockito.eq(TimeUnit.MILLISECONDS));
+
+        // loop1 lags 100ms, loop2 is on time
+        Mockito.when(lagClock.millis()).thenReturn(1200L);
+        probe1Captor.getValue().run();
+        Mockito.when(lagClock.millis()).thenReturn(1100L);
+        probe2Captor.getValue().run();
+        Assert.assertEquals(aclient.getEventLoopLagMillis(loop1), 100, "Result mismatched.");
+        Assert.assertEquals(aclient.getEventLoopLagMillis(loop2), 0, "Result mismatched.");
+
+        final Bootstrap loop2Bootstrap = Mockito.mock(Bootstrap.class);
+        Mockito.when(bootstrap.clone(loop2)).thenReturn(loop2Bootstrap);
+        final ChannelFuture nettyConnectFuture = Mockito.mock(ChannelFuture.class);
+        Mockito.when(loop2Bootstrap.connect(Mockito.anyString(), Mockito.anyInt())).thenReturn(nettyConnectFuture);
+        final URI serverUri = new URI("imap://one.two.three.com:143");
+        final Future<ImapAsyncCreateSessionResponse> future = aclient.createSession(serverUri, new ImapAsyncSessionConfig(), null, null,
+                DebugMode.DEBUG_OFF);
+        Assert.assertFalse(future.isDone(), "Future should not be done.");
+        Mockito.verify(loop2Bootstrap, Mockito.times(1)).connect("one.two.three.com", 143);
+        Mockito.verify(bootstrap, Mockito.times(0)).connect(Mockito.anyString(), Mockito.anyInt());
+
+        // loop2 lags 100ms as well
+        Mockito.when(lagClock.millis()).thenReturn(1300L);
+        probe2Captor.getValue().run();
+        final Future<ImapAsyncCreateSessionResponse> overloadedFuture = aclient.createSession(serverUri, new ImapAsyncSessionConfig(), null, null,
+                DebugMode.DEBUG_OFF);
+        Assert.assertTrue(overloadedFuture.isDone(), "Future should be done.");
+        ExecutionException ex = null;
+        try {
+            overloadedFuture.get();
+        } catch (final ExecutionException e) {
+            ex = e;
+        }
+        Assert.assertNotNull(ex, "Exception should occur.");
+        Assert.assertEquals(((ImapAsyncClientException) ex.getCause()).getFailureType(), FailureType.EVENT_LOOP_OVERLOADED, "Result mismatched.");
+        Mockito.verify(loop2Bootstrap, Mockito.times(1)).connect(Mockito.anyString(), Mockito.anyInt());
+        aclient.shutdown();
+
+        final ImapAsyncClient disabledClient = new ImapAsyncClient(clock, bootstrap, group, Mockito.mock(Logger.class));
+        Assert.assertEquals(disabledClient.getEventLoopLagMillis(loop1), 0, "Result mismatched.");
+    }
+
+    /**
+     * Tests createSession method reporting connect time to the metrics, with flight recorder events enabled.
+     *
+     * @throws URISyntaxException will not throw
+     * @throws Exception when calling operationComplete() at GenericFutureListener
+     */
+    @Test
+    public void testCreateSessionWithMetrics() throws URISyntaxException, Exception {
+        final Bootstrap bootstrap = Mockito.mock(Bootstrap.class);
+        final ChannelFuture nettyConnectFuture = Mockito.mock(ChannelFuture.class);
+        Mockito.when(nettyConnectFuture.isSuccess()).thenReturn(true);
+        final Channel nettyChannel = Mockito.mock(Channel.class);
+        final ChannelPipeline nettyPipeline = Mockito.mock(ChannelPipeline.class);
+        Mockito.when(nettyChannel.pipeline()).thenReturn(nettyPipeline);
+        Mockito.when(nettyConnectFuture.channel()).thenReturn(nettyChannel);
+        Mockito.when(bootstrap.connect(Mockito.anyString(), Mockito.anyInt())).thenReturn(nettyConnectFuture);
+        final EventLoopGroup group = Mockito.mock(EventLoopGroup.class);
+        final Logger logger = Mockito.mock(Logger.class);
+
+        final ImapClientMetrics metrics = Mockito.mock(ImapClientMetrics.class);
+        final ImapAsyncClientConfig clientConfig = new ImapAsyncClientConfig();
+        clientConfig.setMetrics(metrics);
+        clientConfig.setFlightRecorderEventsEnabled(true);
+        final ImapAsyncClient aclient = new ImapAsyncClient(clock, bootstrap, group, logger, clientConfig);
+
+        aclient.createSession(new URI("imap://one.two.three.com:143"), new ImapAsyncSessionConfig(), null, null, DebugMode.DEBUG_OFF);
+        final ArgumentCaptor<GenericFutureListener> listenerCaptor = ArgumentCaptor.forClass(GenericFutureListener.class);
+        Mockito.verify(nettyConnectFuture, Mockito.times(1)).addListener(listenerCaptor.capture());
+        Mockito.verify(metrics, Mockito.times(0)).onConnected(Mockito.anyLong());
+
+        listenerCaptor.getValue().operationComplete(nettyConnectFuture);
+        Mockito.verify(metrics, Mockito.times(1)).onConnected(Mockito.anyLong());
+        Mockito.verify(nettyPipeline, Mockito.times(1)).addLast(Mockito.eq(ImapClientConnectHandler.HANDLER_NAME),
+                Mockito.isA(ImapClientConnectHandler.class));
+    }
+
     /**
      * Tests createSession method when successful.
      *
@@ -1,5 +1,9 @@
 package com.yahoo.imapnio.async.client;
 
+import java.util.concurrent.Executor;
+import java.util.zip.Deflater;
+
+import org.mockito.Mockito;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
@@ -22,6 +26,105 @@ public class ImapAsyncSessionConfigTest {
         final int readTimeout = 2000;
         config.setReadTimeoutMillis(readTimeout);
         Assert.assertEquals(config.getReadTimeoutMillis(), readTimeout, "Result mismatched.");
+
+        Assert.assertEquals(config.getWriteBufferHighWaterMark(), ImapAsyncSessionConfig.DEFAULT_WRITE_BUFFER_HIGH_WATER_MARK, "Result mismatched.");
+        final int highWaterMark = 128 * 1024;
+        config.setWriteBufferHighWaterMark(highWaterMark);
+        Assert.assertEquals(config.getWriteBufferHighWaterMark(), highWaterMark, "Result mismatched.");
+
+        Assert.assertEquals(config.getWriteBufferLowWaterMark(), ImapAsyncSessionConfig.DEFAULT_WRITE_BUFFER_LOW_WATER_MARK, "Result mismatched.");
+        final int lowWaterMark = 16 * 1024;
+        config.setWriteBufferLowWaterMark(lowWaterMark);
+        Assert.assertEquals(config.getWriteBufferLowWaterMark(), lowWaterMark, "Result mismatched.");
+
+        // low above high, high below low
+        IllegalArgumentException ex = null;
+        try {
+            config.setWriteBufferLowWaterMark(highWaterMark + 1);
+        } catch (final IllegalArgumentException e) {
+            ex = e;
+        }
+        Assert.assertNotNull(ex, "Exception should occur.");
+        ex = null;
+        try {
+            config.setWriteBufferHighWaterMark(lowWaterMark - 1);
+        } catch (final IllegalArgumentException e) {
+            ex = e;
+        }
+        Assert.assertNotNull(ex, "Exception should occur.");
+        ex = null;
+        try {
+            config.setWriteBufferLowWaterMark(-1);
+        } catch (final IllegalArgumentException e) {
+            ex = e;
+        }
+        Assert.assertNotNull(ex, "Exception should occur.");
+        Assert.assertEquals(config.getWriteBufferHighWaterMark(), highWaterMark, "Result mismatched.");
+        Assert.assertEquals(config.getWriteBufferLowWaterMark(), lowWaterMark, "Result mismatched.");
+
+        Assert.assertEquals(config.getWriteBackpressurePolicy(), ImapAsyncSessionConfig.WriteBackpressurePolicy.IGNORE, "Result mismatched.");
+        config.setWriteBackpressurePolicy(ImapAsyncSessionConfig.WriteBackpressurePolicy.DEFER);
+        Assert.assertEquals(config.getWriteBackpressurePolicy(), ImapAsyncSessionConfig.WriteBackpressurePolicy.DEFER, "Result mismatched.");
+
+        Assert.assertEquals(config.getMaxBufferedResponseBytes(), ImapAsyncSessionConfig.DEFAULT_MAX_BUFFERED_RESPONSE_BYTES, "Result mismatched.");
+        final long maxBufferedResponseBytes = 1024 * 1024;
+        config.setMaxBufferedResponseBytes(maxBufferedResponseBytes);
+        Assert.assertEquals(config.getMaxBufferedResponseBytes(), maxBufferedResponseBytes, "Result mismatched.");
+
+        Assert.assertEquals(config.getWireCaptureBufferSize(), ImapAsyncSessionConfig.DEFAULT_WIRE_CAPTURE_BUFFER_SIZE, "Result mismatched.");
+        config.setWireCaptureBufferSize(0);
+        Assert.assertEquals(config.getWireCaptureBufferSize(), 0, "Result mismatched.");
+
+        Assert.assertEquals(config.getMaxResponseLineLength(), ImapAsyncSessionConfig.DEFAULT_MAX_RESPONSE_LINE_LENGTH, "Result mismatched.");
+        config.setMaxResponseLineLength(8192);
+        Assert.assertEquals(config.getMaxResponseLineLength(), 8192, "Result mismatched.");
+
+        Assert.assertEquals(config.getMaxLiteralSize(), ImapAsyncSessionConfig.DEFAULT_MAX_LITERAL_SIZE, "Result mismatched.");
+        config.setMaxLiteralSize(1024 * 1024);
+        Assert.assertEquals(config.getMaxLiteralSize(), 1024 * 1024, "Result mismatched.");
+
+        Assert.assertEquals(config.getCompressionLevel(), ImapAsyncSessionConfig.DEFAULT_COMPRESSION_LEVEL, "Result mismatched.");
+        config.setCompressionLevel(Deflater.BEST_SPEED);
+        Assert.assertEquals(config.getCompressionLevel(), Deflater.BEST_SPEED, "Result mismatched.");
+        config.setCompressionLevel(Deflater.DEFAULT_COMPRESSION);
+        Assert.assertEquals(config.getCompressionLevel(), Deflater.DEFAULT_COMPRESSION, "Result mismatched.");
+        final int[] invalidLevels = { -2, 10 };
+        for (final int level : invalidLevels) {
+            ex = null;
+            try {
+                config.setCompressionLevel(level);
+            } catch (final IllegalArgumentException e) {
+                ex = e;
+            }
+            Assert.assertNotNull(ex, "Exception should occur.");
+        }
+        Assert.assertEquals(config.getCompressionLevel(), Deflater.DEFAULT_COMPRESSION, "Result mismatched.");
+
+        Assert.assertEquals(config.getCompressionStrategy(), Deflater.DEFAULT_STRATEGY, "Result mismatched.");
+        config.setCompressionStrategy(Deflater.HUFFMAN_ONLY);
+        Assert.assertEquals(config.getCompressionStrategy(), Deflater.HUFFMAN_ONLY, "Result mismatched.");
+        ex = null;
+        try {
+            config.setCompressionStrategy(3);
+        } catch (final IllegalArgumentException e) {
+            ex = e;
+        }
+        Assert.assertNotNull(ex, "Exception should occur.");
+        Assert.assertEquals(config.getCompressionStrategy(), Deflater.HUFFMAN_ONLY, "Result mismatched.");
+
+        Assert.assertEquals(config.getDeflateFlushPolicy(), ImapAsyncSessionConfig.DeflateFlushPolicy.EACH_WRITE, "Result mismatched.");
+        config.setDeflateFlushPolicy(ImapAsyncSessionConfig.DeflateFlushPolicy.CHANNEL_FLUSH);
+        Assert.assertEquals(config.getDeflateFlushPolicy(), ImapAsyncSessionConfig.DeflateFlushPolicy.CHANNEL_FLUSH, "Result mismatched.");
+
+        Assert.assertEquals(config.getAutoCompressPolicy(), ImapAsyncSessionConfig.AutoCompressPolicy.NEVER, "Result mismatched.");
+        config.setAutoCompressPolicy(ImapAsyncSessionConfig.AutoCompressPolicy.WHEN_SUPPORTED_AND_REMOTE);
+        Assert.assertEquals(config.getAutoCompressPolicy(), ImapAsyncSessionConfig.AutoCompressPolicy.WHEN_SUPPORTED_AND_REMOTE,
+                "Result mismatched.");
+
+        Assert.assertNull(config.getCallbackExecutor(), "Result mismatched.");
+        final Executor executor = Mockito.mock(Executor.class);
+        config.setCallbackExecutor(executor);
+        Assert.assertSame(config.getCallbackExecutor(), executor, "Result mismatched.");
     }
 
 }
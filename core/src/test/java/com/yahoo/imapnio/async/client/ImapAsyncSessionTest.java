@@ -0,0 +1,74 @@
+package com.yahoo.imapnio.async.client;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.yahoo.imapnio.async.request.ImapRequest;
+import com.yahoo.imapnio.async.response.ImapAsyncResponse;
+
+/**
+ * Unit test for default methods of {@link ImapAsyncSession}, kept for implementations written before they were added.
+ */
+public class ImapAsyncSessionTest {
+
+    /**
+     * Session implementing only the methods without default.
+     */
+    private static final class MinimalSession implements ImapAsyncSession {
+
+        @Override
+        public <T> ImapFuture<ImapAsyncResponse> startCompression() {
+            return null;
+        }
+
+        @Override
+        public void setDebugMode(final DebugMode debugMode) {
+        }
+
+        @Override
+        public <T> ImapFuture<ImapAsyncResponse> execute(final ImapRequest command) {
+            return null;
+        }
+
+        @Override
+        public ImapFuture<ImapAsyncResponse> terminateCommand(final ImapRequest command) {
+            return null;
+        }
+
+        @Override
+        public ImapFuture<Boolean> close() {
+            return null;
+        }
+
+        @Override
+        public boolean isChannelClosed() {
+            return false;
+        }
+    }
+
+    /**
+     * Tests the default methods.
+     */
+    @Test
+    public void testDefaultMethods() {
+        final ImapAsyncSession session = new MinimalSession();
+        Assert.assertTrue(session.isChannelWritable(), "Result mismatched.");
+        Assert.assertEquals(session.dumpWireCapture().length, 0, "Result mismatched.");
+        session.resumeReading();
+        UnsupportedOperationException ex = null;
+        try {
+            session.getStats();
+        } catch (final UnsupportedOperationException e) {
+            ex = e;
+        }
+        Assert.assertNotNull(ex, "Exception should occur.");
+
+        ex = null;
+        try {
+            session.setMailboxEventListener(null);
+        } catch (final UnsupportedOperationException e) {
+            ex = e;
+        }
+        Assert.assertNotNull(ex, "Exception should occur.");
+    }
+}
@@ -13,11 +13,21 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
 import org.testng.Assert;
@@ -99,6 +109,55 @@ public class ImapFutureTest {
         assertTrue(imapFuture.isCancelled(), "isCancelled() should be true after cancel() operation.");
     }
 
+    /**
+     * Tests to verify cancel method returns false and does not change the state when the future is already done.
+     *
+     * @throws ExecutionException will not throw
+     * @throws InterruptedException will not throw
+     */
+    @Test
+    public void testCancelAfterDone() throws InterruptedException, ExecutionException {
+        final ImapFuture<ImapAsyncResponse> imapFuture = new ImapFuture<ImapAsyncResponse>();
+        imapFuture.done(imapAsyncResp);
+
+        assertFalse(imapFuture.cancel(true), "cancel operation should return false on a future already done");
+        assertFalse(imapFuture.isCancelled(), "isCancelled() should be false.");
+        Assert.assertSame(imapFuture.get(), imapAsyncResp, "Result mismatched.");
+        assertFalse(imapFuture.cancel(true), "cancel operation should return false on a future already cancelled");
+    }
+
+    /**
+     * Tests to verify an exception thrown by a callback does not escape to the thread completing the future, nor prevent other listeners from
+     * being notified.
+     *
+     * @throws ExecutionException will not throw
+     * @throws InterruptedException will not throw
+     * @throws TimeoutException will not throw
+     */
+    @Test
+    public void testCallbackThrowing() throws InterruptedException, ExecutionException, TimeoutException {
+        final ImapFuture<ImapAsyncResponse> imapFuture = new ImapFuture<ImapAsyncResponse>();
+        imapFuture.setDoneCallback(r -> {
+            throw new IllegalStateException("test");
+        });
+        final CompletableFuture<ImapAsyncResponse> stage = imapFuture.toCompletionStage().toCompletableFuture();
+        imapFuture.done(imapAsyncResp);
+        Assert.assertSame(stage.get(TIME_OUT_MILLIS, TimeUnit.MILLISECONDS), imapAsyncResp, "Result mismatched.");
+
+        final ImapFuture<ImapAsyncResponse> failedFuture = new ImapFuture<ImapAsyncResponse>();
+        failedFuture.setExceptionCallback(e -> {
+            throw new IllegalStateException("test");
+        });
+        failedFuture.done(new Exception("test"));
+        Assert.assertTrue(failedFuture.isDone(), "Future should be done");
+
+        final ImapFuture<ImapAsyncResponse> canceledFuture = new ImapFuture<ImapAsyncResponse>();
+        canceledFuture.setCanceledCallback(() -> {
+            throw new IllegalStateException("test");
+        });
+        Assert.assertTrue(canceledFuture.cancel(true), "cancel operation should return true");
+    }
+
     /**
      * Tests to verify get method when ImapResult is received and isDone is true.
      *
@@ -563,4 +622,214 @@ public class ImapFutureTest {
         Assert.assertEquals(result.getTotalTimeElapsed(), 1234L);
     }
 
-}
\ No newline at end of file
+    /**
+     * Tests to verify all waiters are woken up right away when the future is done.
+     *
+     * @throws ExecutionException will not throw
+     * @throws InterruptedException will not throw
+     * @throws TimeoutException will not throw
+     */
+    @Test
+    public void testGetMultipleWaitersWokenUp() throws InterruptedException, ExecutionException, TimeoutException {
+        final ImapFuture<ImapAsyncResponse> imapFuture = new ImapFuture<ImapAsyncResponse>();
+        final int numOfWaiters = 3;
+        final ExecutorService executor = Executors.newFixedThreadPool(numOfWaiters);
+        try {
+            final CountDownLatch started = new CountDownLatch(numOfWaiters);
+            final List<Future<ImapAsyncResponse>> waiters = new ArrayList<Future<ImapAsyncResponse>>();
+            for (int i = 0; i < numOfWaiters; i++) {
+                waiters.add(executor.submit(new Callable<ImapAsyncResponse>() {
+                    @Override
+                    public ImapAsyncResponse call() throws InterruptedException, ExecutionException {
+                        started.countDown();
+                        return imapFuture.get();
+                    }
+                }));
+            }
+            started.await();
+            imapFuture.done(imapAsyncResp);
+            for (final Future<ImapAsyncResponse> waiter : waiters) {
+                // well below the wait interval of a polling implementation
+                assertEquals(waiter.get(TIME_OUT_MILLIS / 2, TimeUnit.MILLISECONDS), imapAsyncResp, "result mismatched");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Tests to verify get with timeout method when future is cancelled.
+     *
+     * @throws InterruptedException if thread fails
+     * @throws TimeoutException will not throw
+     */
+    @Test
+    public void testGetWithTimeoutFutureCancelled() throws InterruptedException, TimeoutException {
+        final ImapFuture<ImapAsyncResponse> imapFuture = new ImapFuture<ImapAsyncResponse>();
+        imapFuture.cancel(true);
+
+        ExecutionException ex = null;
+        try {
+            imapFuture.get(TIME_OUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (final ExecutionException ee) {
+            ex = ee;
+        }
+        Assert.assertNotNull(ex, "Expect exception to be thrown.");
+        Assert.assertEquals(ex.getCause().getClass(), CancellationException.class, "Expected result mismatched.");
+    }
+
+    /**
+     * Tests to verify only the latest registered callback is called, and called only once even if done is called again.
+     */
+    @Test
+    public void testFutureDoneCallbackReplacedAndCalledOnce() {
+        final AtomicInteger firstCalled = new AtomicInteger(0);
+        final AtomicInteger secondCalled = new AtomicInteger(0);
+        final ImapFuture<Boolean> imapFuture = new ImapFuture<Boolean>();
+        imapFuture.setDoneCallback(new Consumer<Boolean>() {
+            @Override
+            public void accept(final Boolean r) {
+                firstCalled.incrementAndGet();
+            }
+        });
+        imapFuture.setDoneCallback(new Consumer<Boolean>() {
+            @Override
+            public void accept(final Boolean r) {
+                secondCalled.incrementAndGet();
+            }
+        });
+        imapFuture.done(true);
+        imapFuture.done(false);
+
+        Assert.assertEquals(firstCalled.get(), 0, "Replaced callback should not be run");
+        Assert.assertEquals(secondCalled.get(), 1, "Callback should be run once");
+    }
+
+    /**
+     * Tests to verify exception and cancel callbacks registered earlier are not called once replaced.
+     */
+    @Test
+    public void testFutureExceptionAndCancelCallbackReplaced() {
+        final AtomicInteger called = new AtomicInteger(0);
+        final ImapFuture<Boolean> failedFuture = new ImapFuture<Boolean>();
+        failedFuture.setExceptionCallback(new Consumer<Exception>() {
+            @Override
+            public void accept(final Exception e) {
+                Assert.fail("Replaced callback should not be run");
+            }
+        });
+        failedFuture.setExceptionCallback(new Consumer<Exception>() {
+            @Override
+            public void accept(final Exception e) {
+                called.incrementAndGet();
+            }
+        });
+        failedFuture.done(new RuntimeException());
+
+        final ImapFuture<Boolean> canceledFuture = new ImapFuture<Boolean>();
+        canceledFuture.setCanceledCallback(new Runnable() {
+            @Override
+            public void run() {
+                Assert.fail("Replaced callback should not be run");
+            }
+        });
+        canceledFuture.setCanceledCallback(new Runnable() {
+            @Override
+            public void run() {
+                called.incrementAndGet();
+            }
+        });
+        canceledFuture.cancel(true);
+
+        Assert.assertEquals(called.get(), 2, "Callbacks should be run once");
+    }
+
+    /**
+     * Tests to verify the completion stage notifies multiple listeners, including the ones running on a given executor.
+     *
+     * @throws ExecutionException will not throw
+     * @throws InterruptedException will not throw
+     * @throws TimeoutException will not throw
+     */
+    @Test
+    public void testToCompletionStageMultipleListeners() throws InterruptedException, ExecutionException, TimeoutException {
+        final ImapFuture<ImapAsyncResponse> imapFuture = new ImapFuture<ImapAsyncResponse>();
+        final CompletionStage<ImapAsyncResponse> stage = imapFuture.toCompletionStage();
+        final AtomicInteger called = new AtomicInteger(0);
+        stage.thenAccept(r -> called.incrementAndGet());
+        stage.thenAccept(r -> called.incrementAndGet());
+
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final CompletableFuture<String> threadName = stage.thenApplyAsync(r -> Thread.currentThread().getName(), executor)
+                    .toCompletableFuture();
+            final Thread executorThread = executor.submit(() -> Thread.currentThread()).get(TIME_OUT_MILLIS, TimeUnit.MILLISECONDS);
+
+            imapFuture.done(imapAsyncResp);
+            Assert.assertEquals(called.get(), 2, "Listeners should be called");
+            Assert.assertEquals(threadName.get(TIME_OUT_MILLIS, TimeUnit.MILLISECONDS), executorThread.getName(), "Thread mismatched");
+            Assert.assertSame(stage.toCompletableFuture().get(), imapAsyncResp, "result mismatched");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Tests to verify the completion stage fails when the future fails or is cancelled, and completing the stage does not affect the future.
+     */
+    @Test
+    public void testToCompletionStageExceptionAndCancel() {
+        final ImapFuture<ImapAsyncResponse> failedFuture = new ImapFuture<ImapAsyncResponse>();
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        failedFuture.toCompletionStage().exceptionally(t -> {
+            failure.set(t);
+            return null;
+        });
+        final Exception cause = new Exception("test");
+        failedFuture.done(cause);
+        Assert.assertEquals(failure.get().getClass(), CompletionException.class, "Exception class mismatched.");
+        Assert.assertSame(failure.get().getCause(), cause, "Cause mismatched.");
+
+        final ImapFuture<ImapAsyncResponse> canceledFuture = new ImapFuture<ImapAsyncResponse>();
+        final CompletionStage<ImapAsyncResponse> stage = canceledFuture.toCompletionStage();
+        canceledFuture.cancel(true);
+        Assert.assertTrue(stage.toCompletableFuture().isCompletedExceptionally(), "Stage should fail");
+
+        final ImapFuture<ImapAsyncResponse> imapFuture = new ImapFuture<ImapAsyncResponse>();
+        imapFuture.toCompletionStage().toCompletableFuture().cancel(true);
+        Assert.assertFalse(imapFuture.isDone(), "Future should not be affected");
+    }
+
+    /**
+     * Tests to verify callbacks and the completion stage run on the given callback executor.
+     *
+     * @throws ExecutionException will not throw
+     * @throws InterruptedException will not throw
+     * @throws TimeoutException will not throw
+     */
+    @Test
+    public void testCallbackExecutor() throws InterruptedException, ExecutionException, TimeoutException {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Thread executorThread = executor.submit(() -> Thread.currentThread()).get(TIME_OUT_MILLIS, TimeUnit.MILLISECONDS);
+            final ImapFuture<ImapAsyncResponse> imapFuture = new ImapFuture<ImapAsyncResponse>(executor);
+            final CompletableFuture<Thread> callbackThread = new CompletableFuture<Thread>();
+            imapFuture.setDoneCallback(r -> callbackThread.complete(Thread.currentThread()));
+            final CompletableFuture<Thread> stageThread = imapFuture.toCompletionStage().thenApply(r -> Thread.currentThread())
+                    .toCompletableFuture();
+
+            imapFuture.done(imapAsyncResp);
+            Assert.assertSame(callbackThread.get(TIME_OUT_MILLIS, TimeUnit.MILLISECONDS), executorThread, "Thread mismatched");
+            Assert.assertSame(stageThread.get(TIME_OUT_MILLIS, TimeUnit.MILLISECONDS), executorThread, "Thread mismatched");
+
+            final ImapFuture<ImapAsyncResponse> failedFuture = new ImapFuture<ImapAsyncResponse>(executor);
+            final CompletableFuture<Exception> failure = new CompletableFuture<Exception>();
+            failedFuture.setExceptionCallback(e -> failure.complete(e));
+            final Exception cause = new Exception("test");
+            failedFuture.done(cause);
+            Assert.assertSame(failure.get(TIME_OUT_MILLIS, TimeUnit.MILLISECONDS), cause, "Cause mismatched.");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package com.yahoo.imapnio.async.client;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.mockito.Mockito;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.sun.mail.iap.ProtocolException;
+import com.sun.mail.imap.protocol.IMAPResponse;
+import com.yahoo.imapnio.async.exception.ImapAsyncClientException;
+import com.yahoo.imapnio.async.exception.ImapAsyncClientException.FailureType;
+import com.yahoo.imapnio.async.request.ImapRequest;
+import com.yahoo.imapnio.async.response.ImapAsyncResponse;
+
+/**
+ * Unit test for {@link ImapRangedBodyFetcher}.
+ */
+public class ImapRangedBodyFetcherTest {
+
+    /** Content of the message. */
+    private static final String CONTENT = "Hello world, bye!";
+
+    /**
+     * Session recording the commands executed and their futures.
+     */
+    private static final class RecordingSession {
+
+        /** The mocked session. */
+        private final ImapAsyncSession session = Mockito.mock(ImapAsyncSession.class);
+
+        /** Command lines executed. */
+        private final List<String> commands = new ArrayList<String>();
+
+        /** Futures of the commands executed. */
+        private final List<ImapFuture<ImapAsyncResponse>> futures = new ArrayList<ImapFuture<ImapAsyncResponse>>();
+
+        /**
+         * Initializes a {@link RecordingSession}.
+         *
+         * @throws ImapAsyncClientException will not throw
+         */
+        RecordingSession() throws ImapAsyncClientException {
+            Mockito.when(session.execute(Mockito.any(ImapRequest.class))).thenAnswer(invocation -> {
+                commands.add(((ImapRequest) invocation.getArguments()[0]).getCommandLine());
+                final ImapFuture<ImapAsyncResponse> future = new ImapFuture<ImapAsyncResponse>();
+                futures.add(future);
+                return future;
+            });
+        }
+
+        /**
+         * Completes the last command with the content at the given offset.
+         *
+         * @param offset offset of the chunk
+         * @param len chunk size
+         * @throws IOException will not throw
+         * @throws ProtocolException will not throw
+         */
+        void reply(final int offset, final int len) throws IOException, ProtocolException {
+            final String data = CONTENT.substring(Math.min(offset, CONTENT.length()), Math.min(offset + len, CONTENT.length()));
+            final List<IMAPResponse> lines = new ArrayList<IMAPResponse>();
+            lines.add(new IMAPResponse("* 1 FETCH (UID 9 BODY[]<" + offset + "> {" + data.length() + "}\r\n" + data + ")"));
+            lines.add(new IMAPResponse("a1 OK FETCH completed"));
+            futures.get(futures.size() - 1).done(new ImapAsyncResponse(null, 0, 0, lines, 0));
+        }
+    }
+
+    /**
+     * Tests chunks fetched in parallel, completed out of order, and written to the sink in order.
+     *
+     * @throws Exception will not throw
+     */
+    @Test
+    public void testFetchInParallel() throws Exception {
+        final RecordingSession s1 = new RecordingSession();
+        final RecordingSession s2 = new RecordingSession();
+        final ByteArrayOutputStream sink = new ByteArrayOutputStream();
+        final ImapRangedBodyFetcher fetcher = new ImapRangedBodyFetcher(Arrays.asList(s1.session, s2.session), 9, "", 4, sink);
+        final ImapFuture<Long> future = fetcher.fetch(0);
+        Assert.assertEquals(s1.commands, Collections.singletonList("UID FETCH 9 (BODY.PEEK[]<0.4>)\r\n"), "Result mismatched.");
+        Assert.assertEquals(s2.commands, Collections.singletonList("UID FETCH 9 (BODY.PEEK[]<4.4>)\r\n"), "Result mismatched.");
+
+        // second chunk first, held till the first one arrives
+        s2.reply(4, 4);
+        Assert.assertEquals(sink.size(), 0, "Result mismatched.");
+        Assert.assertEquals(s2.commands.get(1), "UID FETCH 9 (BODY.PEEK[]<8.4>)\r\n", "Result mismatched.");
+        s2.reply(8, 4);
+        s2.reply(12, 4);
+        Assert.assertEquals(s2.commands.size(), 3, "Session should wait for the sink to catch up.");
+
+        s1.reply(0, 4);
+        Assert.assertEquals(sink.toString("US-ASCII"), CONTENT.substring(0, 16), "Result mismatched.");
+        Assert.assertEquals(fetcher.getCommittedOffset(), 16, "Result mismatched.");
+        Assert.assertEquals(s1.commands.get(1), "UID FETCH 9 (BODY.PEEK[]<20.4>)\r\n", "Result mismatched.");
+        Assert.assertEquals(s2.commands.get(3), "UID FETCH 9 (BODY.PEEK[]<16.4>)\r\n", "Idle session should resume.");
+
+        s1.reply(20, 4); // past the end
+        Assert.assertFalse(future.isDone(), "Future should not be done.");
+        s2.reply(16, 4);
+        Assert.assertEquals(future.get(), Long.valueOf(CONTENT.length()), "Result mismatched.");
+        Assert.assertEquals(sink.toString("US-ASCII"), CONTENT, "Result mismatched.");
+        Assert.assertEquals(s1.commands.size(), 2, "No more chunks after the end.");
+    }
+
+    /**
+     * Tests the sink being written without holding the lock of the fetcher when writing on the thread the chunk arrives on.
+     *
+     * @throws Exception will not throw
+     */
+    @Test
+    public void testInlineWriteWithoutLock() throws Exception {
+        final RecordingSession s1 = new RecordingSession();
+        final List<ImapRangedBodyFetcher> fetchers = new ArrayList<ImapRangedBodyFetcher>();
+        final List<Boolean> locksHeld = new ArrayList<Boolean>();
+        final ByteArrayOutputStream sink = new ByteArrayOutputStream() {
+            @Override
+            public synchronized void write(final byte[] b, final int off, final int len) {
+                locksHeld.add(Thread.holdsLock(fetchers.get(0)));
+                super.write(b, off, len);
+            }
+        };
+        fetchers.add(new ImapRangedBodyFetcher(Collections.singletonList(s1.session), 9, "", 16, sink));
+        final ImapFuture<Long> future = fetchers.get(0).fetch(0);
+        s1.reply(0, 16);
+        s1.reply(16, 16);
+        Assert.assertEquals(future.get(), Long.valueOf(CONTENT.length()), "Result mismatched.");
+        Assert.assertEquals(locksHeld, Arrays.asList(Boolean.FALSE, Boolean.FALSE), "Sink should be written without holding the lock.");
+    }
+
+    /**
+     * Tests the sink being written on the given executor, not on the thread the chunk arrives on.
+     *
+     * @throws Exception will not throw
+     */
+    @Test
+    public void testFetchWithSinkExecutor() throws Exception {
+        final List<Runnable> tasks = new ArrayList<Runnable>();
+        final RecordingSession s1 = new RecordingSession();
+        final ByteArrayOutputStream sink = new ByteArrayOutputStream();
+        final ImapRangedBodyFetcher fetcher = new ImapRangedBodyFetcher(Collections.singletonList(s1.session), 9, "", 8, sink, tasks::add);
+        final ImapFuture<Long> future = fetcher.fetch(0);
+        s1.reply(0, 8);
+        s1.reply(8, 8);
+        Assert.assertEquals(tasks.size(), 1, "One write task expected while the first one is pending.");
+        Assert.assertEquals(sink.size(), 0, "Sink should not be written on the session thread.");
+        Assert.assertEquals(s1.commands.size(), 2, "Session should wait for the sink to catch up.");
+
+        tasks.remove(0).run();
+        Assert.assertEquals(sink.toString("US-ASCII"), CONTENT.substring(0, 16), "Result mismatched.");
+        Assert.assertEquals(fetcher.getCommittedOffset(), 16, "Result mismatched.");
+        Assert.assertEquals(s1.commands.get(2), "UID FETCH 9 (BODY.PEEK[]<16.8>)\r\n", "Session should resume once the sink catches up.");
+        Assert.assertFalse(future.isDone(), "Future should not be done.");
+
+        s1.reply(16, 8);
+        Assert.assertEquals(tasks.size(), 1, "Write task expected.");
+        Assert.assertFalse(future.isDone(), "Future should not be done before the last chunk is written.");
+        tasks.remove(0).run();
+        Assert.assertEquals(future.get(), Long.valueOf(CONTENT.length()), "Result mismatched.");
+        Assert.assertEquals(sink.toString("US-ASCII"), CONTENT, "Result mismatched.");
+
+        // executor rejecting the write
+        final RecordingSession s2 = new RecordingSession();
+        final ImapFuture<Long> rejected = new ImapRangedBodyFetcher(Collections.singletonList(s2.session), 9, "", 8, sink, task -> {
+            throw new RejectedExecutionException("shut down");
+        }).fetch(0);
+        s2.reply(0, 8);
+        ExecutionException ex = null;
+        try {
+            rejected.get();
+        } catch (final ExecutionException e) {
+            ex = e;
+        }
+        Assert.assertNotNull(ex, "Exception should occur.");
+        Assert.assertTrue(ex.getCause() instanceof RejectedExecutionException, "Result mismatched.");
+    }
+
+    /**
+     * Tests resuming from the committed offset of a failed download.
+     *
+     * @throws Exception will not throw
+     */
+    @Test
+    public void testResumeAfterFailure() throws Exception {
+        final ByteArrayOutputStream sink = new ByteArrayOutputStream();
+        final RecordingSession s1 = new RecordingSession();
+        final ImapRangedBodyFetcher fetcher = new ImapRangedBodyFetcher(Collections.singletonList(s1.session), 9, "", 8, sink);
+        final ImapFuture<Long> future = fetcher.fetch(0);
+        s1.reply(0, 8);
+        s1.futures.get(1).done(new ImapAsyncClientException(FailureType.CHANNEL_DISCONNECTED));
+        ExecutionException ex = null;
+        try {
+            future.get();
+        } catch (final ExecutionException e) {
+            ex = e;
+        }
+        Assert.assertNotNull(ex, "Exception should occur.");
+        Assert.assertEquals(((ImapAsyncClientException) ex.getCause()).getFailureType(), FailureType.CHANNEL_DISCONNECTED, "Result mismatched.");
+        Assert.assertEquals(fetcher.getCommittedOffset(), 8, "Result mismatched.");
+
+        final RecordingSession s2 = new RecordingSession();
+        final ImapRangedBodyFetcher resumed = new ImapRangedBodyFetcher(Collections.singletonList(s2.session), 9, "", 8, sink);
+        final ImapFuture<Long> resumedFuture = resumed.fetch(fetcher.getCommittedOffset());
+        Assert.assertEquals(s2.commands.get(0), "UID FETCH 9 (BODY.PEEK[]<8.8>)\r\n", "Result mismatched.");
+        s2.reply(8, 8);
+        s2.reply(16, 8);
+        Assert.assertEquals(resumedFuture.get(), Long.valueOf(CONTENT.length()), "Result mismatched.");
+        Assert.assertEquals(sink.toString("US-ASCII"), CONTENT, "Result mismatched.");
+    }
+
+    /**
+     * Asserts the given future failed with the given failure type.
+     *
+     * @param future the future
+     * @param failureType the expected failure type
+     * @throws InterruptedException will not throw
+     */
+    private void assertFailure(final ImapFuture<Long> future, final FailureType failureType) throws InterruptedException {
+        ExecutionException ex = null;
+        try {
+            future.get();
+        } catch (final ExecutionException e) {
+            ex = e;
+        }
+        Assert.assertNotNull(ex, "Exception should occur.");
+        Assert.assertEquals(((ImapAsyncClientException) ex.getCause()).getFailureType(), failureType, "Result mismatched.");
+    }
+
+    /**
+     * Tests failures from server responses.
+     *
+     * @throws Exception will not throw
+     */
+    @Test
+    public void testInvalidResponses() throws Exception {
+        final List<List<IMAPResponse>> responses = new ArrayList<List<IMAPResponse>>();
+        final List<FailureType> failureTypes = new ArrayList<FailureType>();
+        responses.add(Collections.<IMAPResponse> emptyList());
+        failureTypes.add(FailureType.INVALID_INPUT);
+        responses.add(Collections.singletonList(new IMAPResponse("a1 NO [NONEXISTENT] message is gone")));
+        failureTypes.add(FailureType.COMMAND_REJECTED_BY_SERVER);
+        responses.add(Collections.singletonList(new IMAPResponse("a1 BAD invalid section")));
+        failureTypes.add(FailureType.COMMAND_REJECTED_BY_SERVER);
+        responses.add(Arrays.asList(new IMAPResponse("* 1 EXISTS"), new IMAPResponse("a1 OK FETCH completed")));
+        failureTypes.add(FailureType.MESSAGE_NOT_FOUND);
+        responses.add(Arrays.asList(new IMAPResponse("* 1 FETCH (UID 9)"), new IMAPResponse("a1 OK FETCH completed")));
+        failureTypes.add(FailureType.MESSAGE_NOT_FOUND);
+        responses.add(Arrays.asList(new IMAPResponse("* 1 FETCH (UID 9 BODY[ 4)"), new IMAPResponse("a1 OK FETCH completed")));
+        failureTypes.add(FailureType.INVALID_INPUT);
+        for (int i = 0; i < responses.size(); i++) {
+            final RecordingSession s1 = new RecordingSession();
+            final ImapFuture<Long> future = new ImapRangedBodyFetcher(Collections.singletonList(s1.session), 9, "1", 8, new ByteArrayOutputStream())
+                    .fetch(0);
+            Assert.assertEquals(s1.commands.get(0), "UID FETCH 9 (BODY.PEEK[1]<0.8>)\r\n", "Result mismatched.");
+            s1.futures.get(0).done(new ImapAsyncResponse(null, 0, 0, responses.get(i), 0));
+            assertFailure(future, failureTypes.get(i));
+        }
+    }
+
+    /**
+     * Tests failures from sessions and sink, and chunks arriving after the failure.
+     *
+     * @throws Exception will not throw
+     */
+    @Test
+    public void testSessionAndSinkFailures() throws Exception {
+        // no session
+        assertFailure(new ImapRangedBodyFetcher(Collections.<ImapAsyncSession> emptyList(), 9, "", 8, new ByteArrayOutputStream()).fetch(0),
+                FailureType.INVALID_INPUT);
+
+        // session closed
+        final ImapAsyncSession closed = Mockito.mock(ImapAsyncSession.class);
+        Mockito.when(closed.execute(Mockito.any(ImapRequest.class)))
+                .thenThrow(new ImapAsyncClientException(FailureType.OPERATION_PROHIBITED_ON_CLOSED_CHANNEL));
+        assertFailure(new ImapRangedBodyFetcher(Collections.singletonList(closed), 9, "", 8, new ByteArrayOutputStream()).fetch(0),
+                FailureType.OPERATION_PROHIBITED_ON_CLOSED_CHANNEL);
+
+        // sink fails, the other chunk arrives afterwards
+        final OutputStream sink = Mockito.mock(OutputStream.class);
+        Mockito.doThrow(new IOException("disk full")).when(sink).write(Mockito.any(byte[].class), Mockito.anyInt(), Mockito.anyInt());
+        final RecordingSession s1 = new RecordingSession();
+        final RecordingSession s2 = new RecordingSession();
+        final ImapFuture<Long> future = new ImapRangedBodyFetcher(Arrays.asList(s1.session, s2.session), 9, "", 4, sink).fetch(0);
+        s1.reply(0, 4);
+        ExecutionException ex = null;
+        try {
+            future.get();
+        } catch (final ExecutionException e) {
+            ex = e;
+        }
+        Assert.assertNotNull(ex, "Exception should occur.");
+        Assert.assertEquals(ex.getCause().getMessage(), "disk full", "Result mismatched.");
+        s2.reply(4, 4);
+        Assert.assertEquals(s2.commands.size(), 1, "No more chunks after failure.");
+    }
+}
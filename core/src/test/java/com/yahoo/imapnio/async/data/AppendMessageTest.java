@@ -0,0 +1,30 @@
+package com.yahoo.imapnio.async.data;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import javax.mail.Flags;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for {@link AppendMessage}.
+ */
+public class AppendMessageTest {
+
+    /**
+     * Tests AppendMessage constructor and getters.
+     */
+    @Test
+    public void testAppendMessage() {
+        final Flags flags = new Flags(Flags.Flag.SEEN);
+        final Date date = new Date(1552413335000L);
+        final byte[] data = "Hello".getBytes(StandardCharsets.US_ASCII);
+
+        final AppendMessage msg = new AppendMessage(flags, date, data);
+        Assert.assertSame(msg.getFlags(), flags, "Result mismatched.");
+        Assert.assertSame(msg.getDate(), date, "Result mismatched.");
+        Assert.assertSame(msg.getData(), data, "Result mismatched.");
+    }
+}
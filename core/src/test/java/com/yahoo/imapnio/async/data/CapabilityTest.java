@@ -33,5 +33,7 @@ public class CapabilityTest {
         Assert.assertEquals(values.get(0), "PLAIN", "Result mismatched.");
         Assert.assertEquals(values.get(1), "XOAUTH2", "Result mismatched.");
         Assert.assertEquals(values.get(2), "OAUTHBEARER", "Result mismatched.");
+        Assert.assertFalse(capa.isEmpty(), "Result mismatched.");
+        Assert.assertTrue(new Capability(new HashMap<String, List<String>>()).isEmpty(), "Result mismatched.");
     }
 }
@@ -0,0 +1,47 @@
+package com.yahoo.imapnio.async.data;
+
+import java.io.IOException;
+
+import javax.mail.Flags;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.sun.mail.iap.ProtocolException;
+import com.sun.mail.imap.protocol.IMAPResponse;
+import com.sun.mail.imap.protocol.ListInfo;
+import com.sun.mail.imap.protocol.Status;
+import com.yahoo.imapnio.async.data.MailboxEvent.EventType;
+
+/**
+ * Unit test for {@link MailboxEvent}.
+ */
+public class MailboxEventTest {
+
+    /**
+     * Tests MailboxEvent constructor and getters.
+     *
+     * @throws IOException will not throw
+     * @throws ProtocolException will not throw
+     */
+    @Test
+    public void testMailboxEvent() throws IOException, ProtocolException {
+        final Flags flags = new Flags(Flags.Flag.SEEN);
+        final MailboxEvent flagsEvent = new MailboxEvent(EventType.FLAGS, 3, 30, flags, null, null);
+        Assert.assertSame(flagsEvent.getType(), EventType.FLAGS, "Result mismatched.");
+        Assert.assertEquals(flagsEvent.getMessageNumber(), 3, "Result mismatched.");
+        Assert.assertEquals(flagsEvent.getUid(), 30, "Result mismatched.");
+        Assert.assertSame(flagsEvent.getFlags(), flags, "Result mismatched.");
+        Assert.assertNull(flagsEvent.getStatus(), "Result mismatched.");
+        Assert.assertNull(flagsEvent.getListInfo(), "Result mismatched.");
+        Assert.assertNull(flagsEvent.getMailboxName(), "Result mismatched.");
+
+        final Status status = new Status(new IMAPResponse("* STATUS Drafts (MESSAGES 2)"));
+        Assert.assertEquals(new MailboxEvent(EventType.STATUS, -1, -1, null, status, null).getMailboxName(), "Drafts", "Result mismatched.");
+
+        final ListInfo listInfo = new ListInfo(new IMAPResponse("* LIST (\\NonExistent) \"/\" Trash"));
+        final MailboxEvent nameEvent = new MailboxEvent(EventType.MAILBOX_NAME, -1, -1, null, null, listInfo);
+        Assert.assertSame(nameEvent.getListInfo(), listInfo, "Result mismatched.");
+        Assert.assertEquals(nameEvent.getMailboxName(), "Trash", "Result mismatched.");
+    }
+}
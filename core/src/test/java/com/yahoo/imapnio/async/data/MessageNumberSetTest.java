@@ -54,6 +54,42 @@ public class MessageNumberSetTest {
         Assert.assertEquals(MessageNumberSet.buildString(new MessageNumberSet[] { msgSet }), "*", "Result mismatched.");
     }
 
+    /**
+     * Tests the saved search result and converting it to string, alone or with duplicates of itself.
+     *
+     * @throws ImapAsyncClientException will not throw
+     */
+    @Test
+    public void testSavedResult() throws ImapAsyncClientException {
+        final MessageNumberSet msgSet = MessageNumberSet.savedResult();
+        Assert.assertEquals(MessageNumberSet.buildString(new MessageNumberSet[] { msgSet }), "$", "Result mismatched.");
+        Assert.assertEquals(MessageNumberSet.buildString(new MessageNumberSet[] { msgSet, MessageNumberSet.savedResult() }), "$",
+                "Result mismatched.");
+        Assert.assertEquals(msgSet, MessageNumberSet.savedResult(), "Result mismatched.");
+        Assert.assertEquals(msgSet.hashCode(), MessageNumberSet.savedResult().hashCode(), "Result mismatched.");
+        Assert.assertNotEquals(msgSet, new MessageNumberSet(LastMessage.LAST_MESSAGE), "Result mismatched.");
+    }
+
+    /**
+     * Tests the saved search result combined with other message numbers.
+     *
+     * @throws ImapAsyncClientException will not throw
+     */
+    @Test
+    public void testSavedResultCombined() throws ImapAsyncClientException {
+        final MessageNumberSet[][] combined = { { MessageNumberSet.savedResult(), new MessageNumberSet(1, 3) },
+                { new MessageNumberSet(5, LastMessage.LAST_MESSAGE), MessageNumberSet.savedResult() } };
+        for (final MessageNumberSet[] msgsets : combined) {
+            IllegalArgumentException actual = null;
+            try {
+                MessageNumberSet.buildString(msgsets);
+            } catch (final IllegalArgumentException e) {
+                actual = e;
+            }
+            Assert.assertNotNull(actual, "Exception should be thrown");
+        }
+    }
+
     /**
      * Tests createMessageNumberSets(int[]) method.
      *
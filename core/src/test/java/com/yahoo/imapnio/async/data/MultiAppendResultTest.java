@@ -0,0 +1,52 @@
+package com.yahoo.imapnio.async.data;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for {@link MultiAppendResult}.
+ */
+public class MultiAppendResultTest {
+
+    /**
+     * Tests MultiAppendResult constructor and getters.
+     */
+    @Test
+    public void testMultiAppendResult() {
+        final MultiAppendResult result = new MultiAppendResult(1459808247L, new long[] { 101, 103, 105, 105, 9, 8 });
+
+        Assert.assertEquals(result.getUidValidity(), 1459808247L, "Result mismatched.");
+        Assert.assertEquals(result.getMessageCount(), 6, "Result mismatched.");
+        Assert.assertEquals(result.getUid(0), 101, "Result mismatched.");
+        Assert.assertEquals(result.getUid(2), 103, "Result mismatched.");
+        Assert.assertEquals(result.getUid(3), 105, "Result mismatched.");
+        Assert.assertEquals(result.getUid(5), 8, "Result mismatched.");
+        Assert.assertEquals(result.getUids(), new long[] { 101, 102, 103, 105, 9, 8 }, "Result mismatched.");
+    }
+
+    /**
+     * Tests getUid with index out of range.
+     */
+    @Test
+    public void testGetUidOutOfRange() {
+        final MultiAppendResult result = new MultiAppendResult(1L, new long[] { 101, 103 });
+        final int[] indexes = { -1, 3 };
+        for (final int index : indexes) {
+            IndexOutOfBoundsException actual = null;
+            try {
+                result.getUid(index);
+            } catch (final IndexOutOfBoundsException e) {
+                actual = e;
+            }
+            Assert.assertNotNull(actual, "Should encounter exception");
+        }
+    }
+
+    /**
+     * Tests constructor with ranges holding more UIDs than an int can count.
+     */
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testTooManyUids() {
+        new MultiAppendResult(1L, new long[] { 1, 4294967295L });
+    }
+}
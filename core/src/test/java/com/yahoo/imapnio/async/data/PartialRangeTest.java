@@ -0,0 +1,21 @@
+package com.yahoo.imapnio.async.data;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for {@link PartialRange}.
+ */
+public class PartialRangeTest {
+
+    /**
+     * Tests PartialRange constructor, getters and toString.
+     */
+    @Test
+    public void testPartialRange() {
+        final PartialRange range = new PartialRange(51, 100);
+        Assert.assertEquals(range.getFirst(), 51, "Result mismatched.");
+        Assert.assertEquals(range.getLast(), 100, "Result mismatched.");
+        Assert.assertEquals(range.toString(), "51:100", "Result mismatched.");
+    }
+}
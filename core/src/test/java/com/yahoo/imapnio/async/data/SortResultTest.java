@@ -0,0 +1,24 @@
+package com.yahoo.imapnio.async.data;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for {@link SortResult}.
+ */
+public class SortResultTest {
+
+    /**
+     * Tests SortResult constructor and getters.
+     */
+    @Test
+    public void testSortResult() {
+        final long[] msgNumbers = { 9, 2, Long.MAX_VALUE - 1 };
+        final PartialRange range = new PartialRange(1, 3);
+        final SortResult result = new SortResult(msgNumbers, range);
+        Assert.assertSame(result.getMessageNumbers(), msgNumbers, "Result mismatched.");
+        Assert.assertSame(result.getPartialRange(), range, "Result mismatched.");
+
+        Assert.assertNull(new SortResult(msgNumbers, null).getPartialRange(), "Result mismatched.");
+    }
+}
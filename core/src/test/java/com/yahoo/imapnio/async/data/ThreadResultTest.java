@@ -0,0 +1,23 @@
+package com.yahoo.imapnio.async.data;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for {@link ThreadResult}.
+ */
+public class ThreadResultTest {
+
+    /**
+     * Tests ThreadResult constructor and getters.
+     */
+    @Test
+    public void testThreadResult() {
+        final long[] msgNumbers = { 2, ThreadResult.DUMMY_MESSAGE_NUMBER, 3, 5 };
+        final int[] parentIndexes = { ThreadResult.NO_PARENT, ThreadResult.NO_PARENT, 1, 1 };
+        final ThreadResult result = new ThreadResult(msgNumbers, parentIndexes);
+        Assert.assertSame(result.getMessageNumbers(), msgNumbers, "Result mismatched.");
+        Assert.assertSame(result.getParentIndexes(), parentIndexes, "Result mismatched.");
+        Assert.assertEquals(result.getThreadCount(), 2, "Result mismatched.");
+    }
+}
@@ -0,0 +1,255 @@
+package com.yahoo.imapnio.async.internal;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.util.concurrent.ExecutionException;
+
+import org.mockito.Mockito;
+import org.slf4j.Logger;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.sun.mail.imap.protocol.IMAPResponse;
+import com.yahoo.imapnio.async.client.ImapAsyncClientConfig;
+import com.yahoo.imapnio.async.client.ImapAsyncSession.DebugMode;
+import com.yahoo.imapnio.async.client.ImapAsyncSessionConfig;
+import com.yahoo.imapnio.async.client.ImapAsyncSessionConfig.AutoCompressPolicy;
+import com.yahoo.imapnio.async.client.ImapFuture;
+import com.yahoo.imapnio.async.data.Capability;
+import com.yahoo.imapnio.async.exception.ImapAsyncClientException;
+import com.yahoo.imapnio.async.exception.ImapAsyncClientException.FailureType;
+import com.yahoo.imapnio.async.request.ImapRFCSupportedCommandType;
+import com.yahoo.imapnio.async.request.LoginCommand;
+import com.yahoo.imapnio.async.request.NoopCommand;
+import com.yahoo.imapnio.async.response.ImapAsyncResponse;
+import com.yahoo.imapnio.async.response.ImapResponseMapper;
+import com.yahoo.imapnio.client.ImapClientRespReader;
+import com.yahoo.imapnio.command.ImapClientRespDecoder;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.string.StringDecoder;
+import io.netty.handler.codec.string.StringEncoder;
+import io.netty.util.concurrent.EventExecutor;
+
+/**
+ * Unit test for {@link ImapAsyncSessionImpl} starting compression after authentication.
+ */
+public class ImapAsyncSessionImplAutoCompressTest {
+
+    /** Dummy session id. */
+    private static final Long SESSION_ID = Long.valueOf(123456);
+
+    /** Dummy user id. */
+    private static final String USER_ID = "Argentinosaurus@long.enough";
+
+    /** Login command line. */
+    private static final String LOGIN = "a1 LOGIN orange juicy\r\n";
+
+    /** Login response advertising compression. */
+    private static final String LOGIN_OK_COMPRESS = "a1 OK [CAPABILITY IMAP4rev1 COMPRESS=DEFLATE] LOGIN completed\r\n";
+
+    /**
+     * Creates a session on an embedded channel with the same decoders as the client.
+     *
+     * @param channel the embedded channel
+     * @param policy the auto compress policy
+     * @param lagMonitor the event loop lag monitor, null if not monitoring
+     * @return the session
+     */
+    private ImapAsyncSessionImpl createSession(final EmbeddedChannel channel, final AutoCompressPolicy policy,
+            final ImapEventLoopLagMonitor lagMonitor) {
+        channel.pipeline().addLast(new ImapClientRespReader(Integer.MAX_VALUE));
+        channel.pipeline().addLast(new StringDecoder(StandardCharsets.US_ASCII));
+        channel.pipeline().addLast(new StringEncoder(StandardCharsets.US_ASCII));
+        channel.pipeline().addLast(new ImapClientRespDecoder());
+        final ImapAsyncSessionConfig config = new ImapAsyncSessionConfig();
+        config.setAutoCompressPolicy(policy);
+        return new ImapAsyncSessionImpl(Mockito.mock(Clock.class), channel, Mockito.mock(Logger.class), DebugMode.DEBUG_OFF, SESSION_ID,
+                channel.pipeline(), USER_ID, config, new ImapAsyncClientConfig(), lagMonitor);
+    }
+
+    /**
+     * Writes the given response to the channel as if it were sent by server.
+     *
+     * @param channel the embedded channel
+     * @param response the response
+     */
+    private void writeInbound(final EmbeddedChannel channel, final String response) {
+        channel.writeInbound(Unpooled.copiedBuffer(response, StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Reads all bytes written by the session.
+     *
+     * @param channel the embedded channel
+     * @return the bytes written
+     */
+    private String readOutbound(final EmbeddedChannel channel) {
+        final StringBuilder sb = new StringBuilder();
+        ByteBuf buf;
+        while ((buf = channel.readOutbound()) != null) {
+            sb.append(buf.toString(StandardCharsets.US_ASCII));
+            buf.release();
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Tests compression started right after login when server advertises it, and the login future completing once compression is active.
+     *
+     * @throws Exception will not throw
+     */
+    @Test
+    public void testCompressWhenAdvertised() throws Exception {
+        final EmbeddedChannel channel = new EmbeddedChannel();
+        final ImapAsyncSessionImpl aSession = createSession(channel, AutoCompressPolicy.WHEN_SUPPORTED_AND_REMOTE, null);
+        final ImapFuture<ImapAsyncResponse> future = aSession.execute(new LoginCommand("orange", "juicy"));
+        writeInbound(channel, LOGIN_OK_COMPRESS);
+        Assert.assertEquals(readOutbound(channel), LOGIN + "a2 COMPRESS DEFLATE\r\n", "COMPRESS should be sent right after login.");
+        Assert.assertFalse(future.isDone(), "Login future should wait for compression.");
+
+        writeInbound(channel, "a2 OK DEFLATE active\r\n");
+        Assert.assertTrue(future.isDone(), "Login future should be done.");
+        Assert.assertNotNull(channel.pipeline().get("INFLATER"), "Compression should be active.");
+        final ImapAsyncResponse resp = future.get();
+        Assert.assertSame(resp.getCommandType(), ImapRFCSupportedCommandType.LOGIN, "Result mismatched.");
+        final Capability capa = new ImapResponseMapper().readValue(resp.getResponseLines().toArray(new IMAPResponse[0]), Capability.class);
+        Assert.assertTrue(capa.hasCapability("COMPRESS"), "Responses should be readable by the caller.");
+    }
+
+    /**
+     * Tests CAPABILITY sent right after login when the login responses carry no capability, and compression started only if server advertises it.
+     *
+     * @throws Exception will not throw
+     */
+    @Test
+    public void testCompressAfterCapability() throws Exception {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        ImapAsyncSessionImpl aSession = createSession(channel, AutoCompressPolicy.WHEN_SUPPORTED_AND_REMOTE, null);
+        ImapFuture<ImapAsyncResponse> future = aSession.execute(new LoginCommand("orange", "juicy"));
+        writeInbound(channel, "a1 OK LOGIN completed\r\n");
+        Assert.assertEquals(readOutbound(channel), LOGIN + "a2 CAPABILITY\r\n", "CAPABILITY should be sent right after login.");
+        Assert.assertFalse(future.isDone(), "Login future should wait for capability.");
+
+        writeInbound(channel, "* CAPABILITY IMAP4rev1 COMPRESS=DEFLATE\r\na2 OK CAPABILITY completed\r\n");
+        Assert.assertEquals(readOutbound(channel), "a3 COMPRESS DEFLATE\r\n", "COMPRESS should be sent right after capability.");
+        Assert.assertFalse(future.isDone(), "Login future should wait for compression.");
+
+        writeInbound(channel, "a3 OK DEFLATE active\r\n");
+        Assert.assertTrue(future.isDone(), "Login future should be done.");
+        Assert.assertNotNull(channel.pipeline().get("INFLATER"), "Compression should be active.");
+        Assert.assertSame(future.get().getCommandType(), ImapRFCSupportedCommandType.LOGIN, "Result mismatched.");
+
+        // not advertised
+        channel = new EmbeddedChannel();
+        aSession = createSession(channel, AutoCompressPolicy.WHEN_SUPPORTED_AND_REMOTE, null);
+        future = aSession.execute(new LoginCommand("orange", "juicy"));
+        writeInbound(channel, "a1 OK LOGIN completed\r\n");
+        writeInbound(channel, "* CAPABILITY IMAP4rev1\r\na2 OK CAPABILITY completed\r\n");
+        Assert.assertTrue(future.isDone(), "Login future should be done.");
+        Assert.assertEquals(readOutbound(channel), LOGIN + "a2 CAPABILITY\r\n", "Result mismatched.");
+        Assert.assertNull(channel.pipeline().get("INFLATER"), "Compression should not be active.");
+        Assert.assertSame(future.get().getCommandType(), ImapRFCSupportedCommandType.LOGIN, "Result mismatched.");
+    }
+
+    /**
+     * Tests compression not started when server does not advertise it, when server is on loopback, when the policy is NEVER, or when the command
+     * is not a successful authentication.
+     *
+     * @throws Exception will not throw
+     */
+    @Test
+    public void testNoCompression() throws Exception {
+        // not advertised
+        EmbeddedChannel channel = new EmbeddedChannel();
+        ImapAsyncSessionImpl aSession = createSession(channel, AutoCompressPolicy.WHEN_SUPPORTED_AND_REMOTE, null);
+        ImapFuture<ImapAsyncResponse> future = aSession.execute(new LoginCommand("orange", "juicy"));
+        writeInbound(channel, "* CAPABILITY IMAP4rev1 COMPRESS=LZMA\r\na1 OK LOGIN completed\r\n");
+        Assert.assertTrue(future.isDone(), "Login future should be done.");
+        Assert.assertEquals(readOutbound(channel), LOGIN, "Result mismatched.");
+
+        // loopback
+        channel = new EmbeddedChannel() {
+            @Override
+            public SocketAddress remoteAddress() {
+                return new InetSocketAddress("127.0.0.1", 993);
+            }
+        };
+        aSession = createSession(channel, AutoCompressPolicy.WHEN_SUPPORTED_AND_REMOTE, null);
+        future = aSession.execute(new LoginCommand("orange", "juicy"));
+        writeInbound(channel, LOGIN_OK_COMPRESS);
+        Assert.assertTrue(future.isDone(), "Login future should be done.");
+        Assert.assertEquals(readOutbound(channel), LOGIN, "Result mismatched.");
+
+        // never
+        channel = new EmbeddedChannel();
+        aSession = createSession(channel, AutoCompressPolicy.NEVER, null);
+        future = aSession.execute(new LoginCommand("orange", "juicy"));
+        writeInbound(channel, LOGIN_OK_COMPRESS);
+        Assert.assertTrue(future.isDone(), "Login future should be done.");
+        Assert.assertEquals(readOutbound(channel), LOGIN, "Result mismatched.");
+
+        // not authentication, failed authentication
+        channel = new EmbeddedChannel();
+        aSession = createSession(channel, AutoCompressPolicy.ALWAYS, null);
+        future = aSession.execute(new NoopCommand());
+        writeInbound(channel, "a1 OK NOOP completed\r\n");
+        Assert.assertTrue(future.isDone(), "Noop future should be done.");
+        future = aSession.execute(new LoginCommand("orange", "juicy"));
+        writeInbound(channel, "a2 NO [AUTHENTICATIONFAILED] LOGIN failed\r\n");
+        Assert.assertTrue(future.isDone(), "Login future should be done.");
+        Assert.assertEquals(readOutbound(channel), "a1 NOOP\r\na2 LOGIN orange juicy\r\n", "Result mismatched.");
+    }
+
+    /**
+     * Tests compression always started, the login future completing even if server refuses it, and failing if the session fails meanwhile.
+     *
+     * @throws Exception will not throw
+     */
+    @Test
+    public void testCompressAlways() throws Exception {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        ImapAsyncSessionImpl aSession = createSession(channel, AutoCompressPolicy.ALWAYS, null);
+        ImapFuture<ImapAsyncResponse> future = aSession.execute(new LoginCommand("orange", "juicy"));
+        writeInbound(channel, "a1 OK LOGIN completed\r\n");
+        Assert.assertEquals(readOutbound(channel), LOGIN + "a2 COMPRESS DEFLATE\r\n", "COMPRESS should be sent right after login.");
+        writeInbound(channel, "a2 NO compression not supported\r\n");
+        Assert.assertTrue(future.get().getResponseLines().iterator().next().isOK(), "Login should succeed.");
+        Assert.assertNull(channel.pipeline().get("INFLATER"), "Compression should not be active.");
+
+        channel = new EmbeddedChannel();
+        aSession = createSession(channel, AutoCompressPolicy.ALWAYS, null);
+        future = aSession.execute(new LoginCommand("orange", "juicy"));
+        writeInbound(channel, "a1 OK LOGIN completed\r\n");
+        channel.close();
+        ExecutionException ex = null;
+        try {
+            future.get();
+        } catch (final ExecutionException e) {
+            ex = e;
+        }
+        Assert.assertNotNull(ex, "Exception should occur.");
+        Assert.assertEquals(((ImapAsyncClientException) ex.getCause()).getFailureType(), FailureType.CHANNEL_DISCONNECTED, "Result mismatched.");
+    }
+
+    /**
+     * Tests the login future completing without compression when COMPRESS cannot be executed.
+     *
+     * @throws Exception will not throw
+     */
+    @Test
+    public void testCompressNotExecuted() throws Exception {
+        final ImapEventLoopLagMonitor lagMonitor = Mockito.mock(ImapEventLoopLagMonitor.class);
+        Mockito.when(lagMonitor.isOverloaded(Mockito.any(EventExecutor.class))).thenReturn(false, true);
+        final EmbeddedChannel channel = new EmbeddedChannel();
+        final ImapAsyncSessionImpl aSession = createSession(channel, AutoCompressPolicy.ALWAYS, lagMonitor);
+        final ImapFuture<ImapAsyncResponse> future = aSession.execute(new LoginCommand("orange", "juicy"));
+        writeInbound(channel, "a1 OK LOGIN completed\r\n");
+        Assert.assertTrue(future.isDone(), "Login future should be done.");
+        Assert.assertEquals(readOutbound(channel), LOGIN, "Result mismatched.");
+    }
+}
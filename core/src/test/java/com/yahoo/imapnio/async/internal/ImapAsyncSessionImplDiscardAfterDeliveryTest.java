@@ -0,0 +1,135 @@
+package com.yahoo.imapnio.async.internal;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.mockito.Mockito;
+import org.slf4j.Logger;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.sun.mail.imap.protocol.IMAPResponse;
+import com.yahoo.imapnio.async.client.ImapAsyncSession.DebugMode;
+import com.yahoo.imapnio.async.client.ImapAsyncSessionConfig;
+import com.yahoo.imapnio.async.client.ImapFuture;
+import com.yahoo.imapnio.async.request.UidFetchCommand;
+import com.yahoo.imapnio.async.response.ImapAsyncResponse;
+import com.yahoo.imapnio.async.response.ImapStreamingResponseQueue;
+import com.yahoo.imapnio.client.ImapClientRespReader;
+import com.yahoo.imapnio.command.ImapClientRespDecoder;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.string.StringDecoder;
+import io.netty.handler.codec.string.StringEncoder;
+
+/**
+ * Unit test for {@link ImapAsyncSessionImpl} running commands discarding untagged responses after delivery.
+ */
+public class ImapAsyncSessionImplDiscardAfterDeliveryTest {
+
+    /** Dummy session id. */
+    private static final Long SESSION_ID = Long.valueOf(123456);
+
+    /** Dummy user id. */
+    private static final String USER_ID = "Argentinosaurus@long.enough";
+
+    /**
+     * Creates a session on an embedded channel with the same decoders as the client.
+     *
+     * @param channel the embedded channel
+     * @param budget memory budget shared by sessions, null if unlimited
+     * @return the session
+     */
+    private ImapAsyncSessionImpl createSession(final EmbeddedChannel channel, final ImapMemoryBudget budget) {
+        channel.pipeline().addLast(new ImapClientRespReader(Integer.MAX_VALUE, false, budget));
+        channel.pipeline().addLast(new StringDecoder(StandardCharsets.US_ASCII));
+        channel.pipeline().addLast(new StringEncoder(StandardCharsets.US_ASCII));
+        channel.pipeline().addLast(new ImapClientRespDecoder());
+        return new ImapAsyncSessionImpl(Mockito.mock(Clock.class), channel, Mockito.mock(Logger.class), DebugMode.DEBUG_OFF, SESSION_ID,
+                channel.pipeline(), USER_ID, new ImapAsyncSessionConfig());
+    }
+
+    /**
+     * Writes the given response to the channel as if it were sent by server.
+     *
+     * @param channel the embedded channel
+     * @param response the response
+     */
+    private void writeInbound(final EmbeddedChannel channel, final String response) {
+        channel.writeInbound(Unpooled.copiedBuffer(response, StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Creates a fetch command discarding untagged responses after delivery.
+     *
+     * @param queue the streaming responses queue, null to drop untagged responses
+     * @return the command
+     */
+    private UidFetchCommand createCommand(final ConcurrentLinkedQueue<IMAPResponse> queue) {
+        return new UidFetchCommand("1:*", "FLAGS") {
+            @Override
+            public ConcurrentLinkedQueue<IMAPResponse> getStreamingResponsesQueue() {
+                return queue;
+            }
+
+            @Override
+            public boolean isDiscardingResponsesAfterDelivery() {
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Tests untagged responses only delivered to the streaming responses queue, and the final response carrying the tagged response and counters.
+     *
+     * @throws Exception will not throw
+     */
+    @Test
+    public void testDeliveredToQueueOnly() throws Exception {
+        final EmbeddedChannel channel = new EmbeddedChannel();
+        final ImapMemoryBudget budget = new ImapMemoryBudget(1024);
+        final ImapAsyncSessionImpl aSession = createSession(channel, budget);
+        final ImapStreamingResponseQueue queue = new ImapStreamingResponseQueue();
+        final ImapFuture<ImapAsyncResponse> future = aSession.execute(createCommand(queue));
+
+        writeInbound(channel, "* 1 FETCH (UID 4 FLAGS ())\r\n* 2 FETCH (UID 5 FLAGS (\\Seen))\r\n");
+        Assert.assertEquals(queue.size(), 2, "Result mismatched.");
+        queue.clear();
+        writeInbound(channel, "a1 OK FETCH completed\r\n");
+
+        Assert.assertTrue(future.isDone(), "Future should be done.");
+        final ImapAsyncResponse asyncResp = future.get();
+        Assert.assertEquals(queue.size(), 0, "Tagged response should not be delivered to the consumer.");
+        final Collection<IMAPResponse> lines = asyncResp.getResponseLines();
+        Assert.assertEquals(lines.size(), 1, "Result mismatched.");
+        Assert.assertTrue(lines.iterator().next().isOK(), "Tagged response should be OK.");
+        Assert.assertEquals(asyncResp.getUntaggedResponseCount(), 2, "Result mismatched.");
+        Assert.assertEquals(asyncResp.getResponseTotalBytes(), 84, "Result mismatched.");
+        Assert.assertEquals(budget.getReservedBytes(), 0, "Result mismatched.");
+    }
+
+    /**
+     * Tests untagged responses dropped when there is no streaming responses queue.
+     *
+     * @throws Exception will not throw
+     */
+    @Test
+    public void testDroppedWithoutQueue() throws Exception {
+        final EmbeddedChannel channel = new EmbeddedChannel();
+        final ImapMemoryBudget budget = new ImapMemoryBudget(1024);
+        final ImapAsyncSessionImpl aSession = createSession(channel, budget);
+        final ImapFuture<ImapAsyncResponse> future = aSession.execute(createCommand(null));
+
+        writeInbound(channel, "* 1 FETCH (UID 4 FLAGS ())\r\n");
+        Assert.assertEquals(budget.getReservedBytes(), 0, "Dropped responses should not be reserved.");
+        Assert.assertEquals(aSession.getStats().getBufferedResponseBytes(), 0, "Result mismatched.");
+        writeInbound(channel, "a1 OK FETCH completed\r\n");
+
+        final ImapAsyncResponse asyncResp = future.get();
+        Assert.assertEquals(asyncResp.getResponseLines().size(), 1, "Result mismatched.");
+        Assert.assertEquals(asyncResp.getUntaggedResponseCount(), 1, "Result mismatched.");
+    }
+}
@@ -0,0 +1,390 @@
+package com.yahoo.imapnio.async.internal;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.mockito.Mockito;
+import org.slf4j.Logger;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.sun.mail.iap.ProtocolException;
+import com.sun.mail.imap.protocol.IMAPResponse;
+import com.yahoo.imapnio.async.client.ImapAsyncClientConfig;
+import com.yahoo.imapnio.async.client.ImapAsyncSession.DebugMode;
+import com.yahoo.imapnio.async.client.ImapAsyncSessionConfig;
+import com.yahoo.imapnio.async.client.ImapAsyncSessionConfig.WriteBackpressurePolicy;
+import com.yahoo.imapnio.async.client.ImapFuture;
+import com.yahoo.imapnio.async.exception.ImapAsyncClientException;
+import com.yahoo.imapnio.async.exception.ImapAsyncClientException.FailureType;
+import com.yahoo.imapnio.async.request.AppendCommand;
+import com.yahoo.imapnio.async.request.CapaCommand;
+import com.yahoo.imapnio.async.request.IdleCommand;
+import com.yahoo.imapnio.async.request.ImapRequest;
+import com.yahoo.imapnio.async.response.ImapAsyncResponse;
+import com.yahoo.imapnio.async.response.ImapStreamingResponseQueue;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelConfig;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.EventLoop;
+
+/**
+ * Unit test for flow control, aka, back pressure on writes and reads, of {@link ImapAsyncSessionImpl}.
+ */
+public class ImapAsyncSessionImplFlowControlTest {
+
+    /** Dummy session id. */
+    private static final Long SESSION_ID = Long.valueOf(123456);
+
+    /** Dummy user id. */
+    private static final String USER_ID = "Argentinosaurus@long.enough";
+
+    /** Timeout in milliseconds for making get on future. */
+    private static final long FUTURE_GET_TIMEOUT_MILLIS = 5L;
+
+    /** Clock instance. */
+    private Clock clock;
+
+    /**
+     * Sets up instance before each test method.
+     */
+    @BeforeMethod
+    public void beforeMethod() {
+        clock = Mockito.mock(Clock.class);
+        Mockito.when(clock.millis()).thenReturn(1L, 2L, 3L, 4L, 5L);
+    }
+
+    /**
+     * Tests execute method when channel is not writable and policy is to reject.
+     *
+     * @throws ImapAsyncClientException will not throw
+     */
+    @Test
+    public void testExecuteRejectedWhenChannelNotWritable() throws ImapAsyncClientException {
+        final Channel channel = Mockito.mock(Channel.class);
+        final ChannelPipeline pipeline = Mockito.mock(ChannelPipeline.class);
+        Mockito.when(channel.pipeline()).thenReturn(pipeline);
+        Mockito.when(channel.isActive()).thenReturn(true);
+        Mockito.when(channel.isWritable()).thenReturn(false);
+        final ChannelPromise writePromise = Mockito.mock(ChannelPromise.class);
+        Mockito.when(channel.newPromise()).thenReturn(writePromise);
+
+        final Logger logger = Mockito.mock(Logger.class);
+        Mockito.when(logger.isDebugEnabled()).thenReturn(false);
+
+        final ImapAsyncSessionConfig config = new ImapAsyncSessionConfig();
+        config.setWriteBackpressurePolicy(WriteBackpressurePolicy.REJECT);
+        final ImapAsyncSessionImpl aSession = new ImapAsyncSessionImpl(clock, channel, logger, DebugMode.DEBUG_OFF, SESSION_ID, pipeline, USER_ID,
+                config);
+        Assert.assertFalse(aSession.isChannelWritable(), "isChannelWritable() mismatched.");
+
+        ImapAsyncClientException ex = null;
+        try {
+            aSession.execute(new CapaCommand());
+        } catch (final ImapAsyncClientException asyncEx) {
+            ex = asyncEx;
+        }
+        Assert.assertNotNull(ex, "Exception should occur.");
+        Assert.assertEquals(ex.getFailureType(), FailureType.CHANNEL_NOT_WRITABLE, "Failure type mismatched.");
+        Mockito.verify(channel, Mockito.times(0)).writeAndFlush(Mockito.anyString(), Mockito.isA(ChannelPromise.class));
+
+        // channel is writable again, command should go through
+        Mockito.when(channel.isWritable()).thenReturn(true);
+        Assert.assertTrue(aSession.isChannelWritable(), "isChannelWritable() mismatched.");
+        final ImapFuture<ImapAsyncResponse> future = aSession.execute(new CapaCommand());
+        Assert.assertNotNull(future, "Future should not be null.");
+        Mockito.verify(channel, Mockito.times(1)).writeAndFlush(Mockito.anyString(), Mockito.isA(ChannelPromise.class));
+    }
+
+    /**
+     * Tests execute method when channel is not writable and policy is to defer, including the continuation data of an append command.
+     *
+     * @throws ImapAsyncClientException will not throw
+     * @throws ProtocolException will not throw
+     * @throws IOException will not throw
+     * @throws TimeoutException will not throw
+     * @throws ExecutionException will not throw
+     * @throws InterruptedException will not throw
+     */
+    @Test
+    public void testExecuteAppendDeferredWhenChannelNotWritable()
+            throws ImapAsyncClientException, IOException, ProtocolException, InterruptedException, ExecutionException, TimeoutException {
+        final Channel channel = Mockito.mock(Channel.class);
+        final ChannelPipeline pipeline = Mockito.mock(ChannelPipeline.class);
+        Mockito.when(channel.pipeline()).thenReturn(pipeline);
+        Mockito.when(channel.isActive()).thenReturn(true);
+        Mockito.when(channel.isWritable()).thenReturn(false);
+        final ChannelPromise writePromise = Mockito.mock(ChannelPromise.class);
+        Mockito.when(writePromise.isSuccess()).thenReturn(true);
+        Mockito.when(channel.newPromise()).thenReturn(writePromise);
+
+        final Logger logger = Mockito.mock(Logger.class);
+        Mockito.when(logger.isDebugEnabled()).thenReturn(false);
+
+        final ImapAsyncSessionConfig config = new ImapAsyncSessionConfig();
+        config.setWriteBackpressurePolicy(WriteBackpressurePolicy.DEFER);
+        final ImapAsyncSessionImpl aSession = new ImapAsyncSessionImpl(clock, channel, logger, DebugMode.DEBUG_OFF, SESSION_ID, pipeline, USER_ID,
+                config);
+
+        final byte[] data = "Date: Mon, 7 Feb 1994 21:52:25 -0800 (PST)\r\n\r\nHello Joe, do you think we can meet at 3:30 tomorrow?\r\n"
+                .getBytes(StandardCharsets.US_ASCII);
+        final ImapFuture<ImapAsyncResponse> future = aSession.execute(new AppendCommand("INBOX", null, null, data));
+        Mockito.verify(channel, Mockito.times(0)).writeAndFlush(Mockito.anyString(), Mockito.isA(ChannelPromise.class));
+
+        // writability changed but still not writable
+        aSession.handleChannelWritabilityChanged();
+        Mockito.verify(channel, Mockito.times(0)).writeAndFlush(Mockito.anyString(), Mockito.isA(ChannelPromise.class));
+
+        // channel becomes writable, command line is flushed
+        Mockito.when(channel.isWritable()).thenReturn(true);
+        aSession.handleChannelWritabilityChanged();
+        Mockito.verify(channel, Mockito.times(1)).writeAndFlush(Mockito.anyString(), Mockito.isA(ChannelPromise.class));
+        aSession.operationComplete(writePromise);
+
+        // server asks for literal while channel is not writable, literal should be held
+        Mockito.when(channel.isWritable()).thenReturn(false);
+        aSession.handleChannelResponse(new IMAPResponse("+ Ready for literal data"));
+        Mockito.verify(channel, Mockito.times(1)).writeAndFlush(Mockito.anyString(), Mockito.isA(ChannelPromise.class));
+
+        // channel becomes writable again, literal is flushed
+        Mockito.when(channel.isWritable()).thenReturn(true);
+        aSession.handleChannelWritabilityChanged();
+        Mockito.verify(channel, Mockito.times(2)).writeAndFlush(Mockito.anyString(), Mockito.isA(ChannelPromise.class));
+        aSession.operationComplete(writePromise);
+
+        aSession.handleChannelResponse(new IMAPResponse("a1 OK [APPENDUID 38505 3955] APPEND completed"));
+        Assert.assertTrue(future.isDone(), "Future should be done.");
+        final ImapAsyncResponse resp = future.get(FUTURE_GET_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        Assert.assertEquals(resp.getResponseLines().size(), 2, "Responses count mismatched.");
+    }
+
+    /**
+     * Tests execute method when channel becomes writable right after the request is held back.
+     *
+     * @throws ImapAsyncClientException will not throw
+     */
+    @Test
+    public void testExecuteDeferredChannelWritableRightAfter() throws ImapAsyncClientException {
+        final Channel channel = Mockito.mock(Channel.class);
+        final ChannelPipeline pipeline = Mockito.mock(ChannelPipeline.class);
+        Mockito.when(channel.pipeline()).thenReturn(pipeline);
+        Mockito.when(channel.isActive()).thenReturn(true);
+        Mockito.when(channel.isWritable()).thenReturn(false, true);
+        final ChannelPromise writePromise = Mockito.mock(ChannelPromise.class);
+        Mockito.when(channel.newPromise()).thenReturn(writePromise);
+
+        final Logger logger = Mockito.mock(Logger.class);
+        Mockito.when(logger.isDebugEnabled()).thenReturn(false);
+
+        final ImapAsyncSessionConfig config = new ImapAsyncSessionConfig();
+        config.setWriteBackpressurePolicy(WriteBackpressurePolicy.DEFER);
+        final ImapAsyncSessionImpl aSession = new ImapAsyncSessionImpl(clock, channel, logger, DebugMode.DEBUG_OFF, SESSION_ID, pipeline, USER_ID,
+                config);
+        aSession.execute(new CapaCommand());
+        Mockito.verify(channel, Mockito.times(1)).writeAndFlush(Mockito.anyString(), Mockito.isA(ChannelPromise.class));
+    }
+
+    /**
+     * Tests held back requests are released when channel is closed, and writability change after close is ignored.
+     *
+     * @throws ImapAsyncClientException will not throw
+     * @throws InterruptedException will not throw
+     * @throws TimeoutException will not throw
+     */
+    @Test
+    public void testDeferredRequestChannelClosed() throws ImapAsyncClientException, InterruptedException, TimeoutException {
+        final Channel channel = Mockito.mock(Channel.class);
+        final ChannelPipeline pipeline = Mockito.mock(ChannelPipeline.class);
+        Mockito.when(channel.pipeline()).thenReturn(pipeline);
+        Mockito.when(channel.isActive()).thenReturn(true);
+        Mockito.when(channel.isWritable()).thenReturn(false);
+        final ChannelPromise writePromise = Mockito.mock(ChannelPromise.class);
+        Mockito.when(channel.newPromise()).thenReturn(writePromise);
+
+        final Logger logger = Mockito.mock(Logger.class);
+        Mockito.when(logger.isDebugEnabled()).thenReturn(false);
+
+        final ImapAsyncSessionConfig config = new ImapAsyncSessionConfig();
+        config.setWriteBackpressurePolicy(WriteBackpressurePolicy.DEFER);
+        final ImapAsyncSessionImpl aSession = new ImapAsyncSessionImpl(clock, channel, logger, DebugMode.DEBUG_OFF, SESSION_ID, pipeline, USER_ID,
+                config);
+        final ImapFuture<ImapAsyncResponse> future = aSession.execute(new CapaCommand());
+
+        Mockito.when(channel.isActive()).thenReturn(false);
+        aSession.handleChannelClosed();
+        Assert.assertTrue(future.isDone(), "Future should be done.");
+        ExecutionException ex = null;
+        try {
+            future.get(FUTURE_GET_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (final ExecutionException ee) {
+            ex = ee;
+        }
+        Assert.assertNotNull(ex, "Exception should occur.");
+        final ImapAsyncClientException cause = (ImapAsyncClientException) ex.getCause();
+        Assert.assertEquals(cause.getFailureType(), FailureType.CHANNEL_DISCONNECTED, "Failure type mismatched.");
+
+        Mockito.when(channel.isWritable()).thenReturn(true);
+        aSession.handleChannelWritabilityChanged();
+        Mockito.verify(channel, Mockito.times(0)).writeAndFlush(Mockito.anyString(), Mockito.isA(ChannelPromise.class));
+    }
+
+    /**
+     * Tests reading from server is paused when the consumer of streaming responses lags behind, and resumed as it drains.
+     *
+     * @throws ImapAsyncClientException will not throw
+     * @throws ProtocolException will not throw
+     * @throws IOException will not throw
+     * @throws TimeoutException will not throw
+     * @throws ExecutionException will not throw
+     * @throws InterruptedException will not throw
+     */
+    @Test
+    public void testExecuteIdleReadPausedAndResumed()
+            throws ImapAsyncClientException, IOException, ProtocolException, InterruptedException, ExecutionException, TimeoutException {
+        final Channel channel = Mockito.mock(Channel.class);
+        final ChannelPipeline pipeline = Mockito.mock(ChannelPipeline.class);
+        Mockito.when(channel.pipeline()).thenReturn(pipeline);
+        Mockito.when(channel.isActive()).thenReturn(true);
+        final ChannelConfig channelConfig = Mockito.mock(ChannelConfig.class);
+        Mockito.when(channel.config()).thenReturn(channelConfig);
+        final ChannelPromise writePromise = Mockito.mock(ChannelPromise.class);
+        Mockito.when(writePromise.isSuccess()).thenReturn(true);
+        Mockito.when(channel.newPromise()).thenReturn(writePromise);
+
+        final Logger logger = Mockito.mock(Logger.class);
+        Mockito.when(logger.isDebugEnabled()).thenReturn(true);
+
+        final ImapAsyncSessionConfig config = new ImapAsyncSessionConfig();
+        config.setMaxBufferedResponseBytes(25);
+        final ImapAsyncSessionImpl aSession = new ImapAsyncSessionImpl(clock, channel, logger, DebugMode.DEBUG_ON, SESSION_ID, pipeline, USER_ID,
+                config);
+
+        final ImapStreamingResponseQueue serverResponseQ = new ImapStreamingResponseQueue();
+        final IdleCommand cmd = new IdleCommand(serverResponseQ);
+        ImapFuture<ImapAsyncResponse> future = aSession.execute(cmd);
+        aSession.operationComplete(writePromise);
+
+        aSession.handleChannelResponse(new IMAPResponse("+ idling")); // 8 bytes
+        aSession.handleChannelResponse(new IMAPResponse("* 2 EXPUNGE")); // 11 bytes
+        Mockito.verify(channelConfig, Mockito.times(0)).setAutoRead(Mockito.anyBoolean());
+        aSession.handleChannelResponse(new IMAPResponse("* 3 EXISTS")); // 10 bytes, reaching the limit
+        Mockito.verify(channelConfig, Mockito.times(1)).setAutoRead(false);
+        aSession.handleChannelResponse(new IMAPResponse("* 4 EXISTS")); // already paused
+        Mockito.verify(channelConfig, Mockito.times(1)).setAutoRead(false);
+        Mockito.verify(logger, Mockito.times(1)).debug(Mockito.anyString(), Mockito.eq(SESSION_ID), Mockito.eq(USER_ID),
+                Mockito.eq("Pausing read, buffered response bytes:29"));
+
+        // consumer drains, but not enough
+        serverResponseQ.poll();
+        serverResponseQ.poll();
+        Mockito.verify(channelConfig, Mockito.times(0)).setAutoRead(true);
+        // drained to half
+        serverResponseQ.poll();
+        Mockito.verify(channelConfig, Mockito.times(1)).setAutoRead(true);
+
+        // pause again, then command is done, read should resume
+        aSession.handleChannelResponse(new IMAPResponse("* 5 EXISTS"));
+        aSession.handleChannelResponse(new IMAPResponse("* 6 EXISTS"));
+        Mockito.verify(channelConfig, Mockito.times(2)).setAutoRead(false);
+        future = aSession.terminateCommand(cmd);
+        aSession.handleChannelResponse(new IMAPResponse("a1 OK IDLE terminated"));
+        Assert.assertTrue(future.isDone(), "Future should be done.");
+        Mockito.verify(channelConfig, Mockito.times(2)).setAutoRead(true);
+
+        // consumer is not tracked anymore after command is done
+        serverResponseQ.clear();
+        Mockito.verify(channelConfig, Mockito.times(2)).setAutoRead(true);
+    }
+
+    /**
+     * Tests idle event is ignored when reading from server is paused on purpose.
+     *
+     * @throws ImapAsyncClientException will not throw
+     * @throws ProtocolException will not throw
+     * @throws IOException will not throw
+     */
+    @Test
+    public void testHandleIdleEventWhenReadPaused() throws ImapAsyncClientException, IOException, ProtocolException {
+        final Channel channel = Mockito.mock(Channel.class);
+        final ChannelPipeline pipeline = Mockito.mock(ChannelPipeline.class);
+        Mockito.when(channel.pipeline()).thenReturn(pipeline);
+        Mockito.when(channel.isActive()).thenReturn(true);
+        final ChannelConfig channelConfig = Mockito.mock(ChannelConfig.class);
+        Mockito.when(channel.config()).thenReturn(channelConfig);
+        final ChannelPromise writePromise = Mockito.mock(ChannelPromise.class);
+        Mockito.when(writePromise.isSuccess()).thenReturn(true);
+        Mockito.when(channel.newPromise()).thenReturn(writePromise);
+
+        final Logger logger = Mockito.mock(Logger.class);
+        Mockito.when(logger.isDebugEnabled()).thenReturn(false);
+
+        final ImapAsyncSessionConfig config = new ImapAsyncSessionConfig();
+        config.setMaxBufferedResponseBytes(10);
+        final ImapAsyncSessionImpl aSession = new ImapAsyncSessionImpl(clock, channel, logger, DebugMode.DEBUG_OFF, SESSION_ID, pipeline, USER_ID,
+                config);
+
+        final ImapStreamingResponseQueue serverResponseQ = new ImapStreamingResponseQueue();
+        final ImapRequest cmd = Mockito.mock(ImapRequest.class);
+        Mockito.when(cmd.getStreamingResponsesQueue()).thenReturn(serverResponseQ);
+        Mockito.when(cmd.getCommandLineBytes()).thenReturn(Unpooled.buffer().writeBytes("FETCH 1:* (UID)\r\n".getBytes(StandardCharsets.US_ASCII)));
+        final ImapFuture<ImapAsyncResponse> future = aSession.execute(cmd);
+        aSession.operationComplete(writePromise);
+
+        aSession.handleChannelResponse(new IMAPResponse("* 1 FETCH (UID 4)"));
+        Mockito.verify(channelConfig, Mockito.times(1)).setAutoRead(false);
+
+        aSession.handleIdleEvent(null);
+        Assert.assertFalse(future.isDone(), "Future should not be done.");
+
+        // consumer drained, server is to blame now
+        serverResponseQ.clear();
+        Mockito.verify(channelConfig, Mockito.times(1)).setAutoRead(true);
+        aSession.handleIdleEvent(null);
+        Assert.assertTrue(future.isDone(), "Future should be done.");
+    }
+
+    /**
+     * Tests execute method when the event loop of the session is overloaded.
+     *
+     * @throws ImapAsyncClientException will not throw
+     */
+    @Test
+    public void testExecuteRejectedWhenEventLoopOverloaded() throws ImapAsyncClientException {
+        final Channel channel = Mockito.mock(Channel.class);
+        final ChannelPipeline pipeline = Mockito.mock(ChannelPipeline.class);
+        Mockito.when(channel.pipeline()).thenReturn(pipeline);
+        Mockito.when(channel.isActive()).thenReturn(true);
+        Mockito.when(channel.isWritable()).thenReturn(true);
+        final EventLoop eventLoop = Mockito.mock(EventLoop.class);
+        Mockito.when(channel.eventLoop()).thenReturn(eventLoop);
+        Mockito.when(channel.newPromise()).thenReturn(Mockito.mock(ChannelPromise.class));
+        final ImapEventLoopLagMonitor lagMonitor = Mockito.mock(ImapEventLoopLagMonitor.class);
+        Mockito.when(lagMonitor.isOverloaded(eventLoop)).thenReturn(true);
+
+        final ImapAsyncSessionImpl aSession = new ImapAsyncSessionImpl(clock, channel, Mockito.mock(Logger.class), DebugMode.DEBUG_OFF, SESSION_ID,
+                pipeline, USER_ID, new ImapAsyncSessionConfig(), new ImapAsyncClientConfig(), lagMonitor);
+
+        ImapAsyncClientException ex = null;
+        try {
+            aSession.execute(new CapaCommand());
+        } catch (final ImapAsyncClientException asyncEx) {
+            ex = asyncEx;
+        }
+        Assert.assertNotNull(ex, "Exception should occur.");
+        Assert.assertEquals(ex.getFailureType(), FailureType.EVENT_LOOP_OVERLOADED, "Failure type mismatched.");
+        Mockito.verify(channel, Mockito.times(0)).writeAndFlush(Mockito.anyString(), Mockito.isA(ChannelPromise.class));
+
+        // lag is back to normal, command should go through
+        Mockito.when(lagMonitor.isOverloaded(eventLoop)).thenReturn(false);
+        Assert.assertNotNull(aSession.execute(new CapaCommand()), "Future should not be null.");
+        Mockito.verify(channel, Mockito.times(1)).writeAndFlush(Mockito.anyString(), Mockito.isA(ChannelPromise.class));
+    }
+}
@@ -0,0 +1,196 @@
+package com.yahoo.imapnio.async.internal;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+
+import org.mockito.Mockito;
+import org.slf4j.Logger;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.sun.mail.imap.protocol.IMAPResponse;
+import com.yahoo.imapnio.async.client.ImapAsyncSession.DebugMode;
+import com.yahoo.imapnio.async.client.ImapAsyncSessionConfig;
+import com.yahoo.imapnio.async.client.ImapFuture;
+import com.yahoo.imapnio.async.exception.ImapAsyncClientException;
+import com.yahoo.imapnio.async.exception.ImapAsyncClientException.FailureType;
+import com.yahoo.imapnio.async.request.NoopCommand;
+import com.yahoo.imapnio.async.request.UidFetchCommand;
+import com.yahoo.imapnio.async.response.ImapAsyncResponse;
+import com.yahoo.imapnio.async.response.ImapStreamingResponseQueue;
+import com.yahoo.imapnio.client.ImapClientRespReader;
+import com.yahoo.imapnio.command.ImapClientRespDecoder;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.string.StringDecoder;
+import io.netty.handler.codec.string.StringEncoder;
+
+/**
+ * Unit test for the memory budget shared by sessions of {@link ImapAsyncSessionImpl}.
+ */
+public class ImapAsyncSessionImplMemoryBudgetTest {
+
+    /** Dummy session id. */
+    private static final Long SESSION_ID = Long.valueOf(123456);
+
+    /** Dummy user id. */
+    private static final String USER_ID = "Argentinosaurus@long.enough";
+
+    /** A response of 33 bytes, as a string of IMAPResponse. */
+    private static final String RESPONSE_33_BYTES = "* 1 FETCH (UID 4 FLAGS (\\Seen))\r\n";
+
+    /**
+     * Creates a session on an embedded channel with the same decoders as the client, sharing the given budget.
+     *
+     * @param channel the embedded channel
+     * @param budget the memory budget
+     * @return the session
+     */
+    private ImapAsyncSessionImpl createSession(final EmbeddedChannel channel, final ImapMemoryBudget budget) {
+        channel.pipeline().addLast(new ImapClientRespReader(Integer.MAX_VALUE, false, budget));
+        channel.pipeline().addLast(new StringDecoder(StandardCharsets.US_ASCII));
+        channel.pipeline().addLast(new StringEncoder(StandardCharsets.US_ASCII));
+        channel.pipeline().addLast(new ImapClientRespDecoder());
+        return new ImapAsyncSessionImpl(Mockito.mock(Clock.class), channel, Mockito.mock(Logger.class), DebugMode.DEBUG_OFF, SESSION_ID,
+                channel.pipeline(), USER_ID, new ImapAsyncSessionConfig());
+    }
+
+    /**
+     * Writes the given response to the channel as if it were sent by server, embedded channel delivers it even if auto read is off.
+     *
+     * @param channel the embedded channel
+     * @param response the response
+     */
+    private void writeInbound(final EmbeddedChannel channel, final String response) {
+        channel.writeInbound(Unpooled.copiedBuffer(response, StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Tests a session pausing reads when the shared budget is exceeded, and resuming once another session releases its responses.
+     *
+     * @throws ImapAsyncClientException will not throw
+     */
+    @Test
+    public void testPauseAndResumeAcrossSessions() throws ImapAsyncClientException {
+        final ImapMemoryBudget budget = new ImapMemoryBudget(50);
+        final EmbeddedChannel channel1 = new EmbeddedChannel();
+        final ImapAsyncSessionImpl session1 = createSession(channel1, budget);
+        final EmbeddedChannel channel2 = new EmbeddedChannel();
+        final ImapAsyncSessionImpl session2 = createSession(channel2, budget);
+
+        final ImapFuture<ImapAsyncResponse> future1 = session1.execute(new NoopCommand());
+        writeInbound(channel1, RESPONSE_33_BYTES);
+        Assert.assertEquals(budget.getReservedBytes(), 33, "Result mismatched.");
+        Assert.assertTrue(channel1.config().isAutoRead(), "Read should not be paused.");
+
+        session2.execute(new NoopCommand());
+        writeInbound(channel2, RESPONSE_33_BYTES);
+        Assert.assertEquals(budget.getReservedBytes(), 66, "Result mismatched.");
+        Assert.assertFalse(channel2.config().isAutoRead(), "Read should be paused.");
+
+        // session1 hands over its responses, session2 resumes
+        writeInbound(channel1, "a1 OK NOOP completed\r\n");
+        Assert.assertTrue(future1.isDone(), "Future should be done.");
+        Assert.assertEquals(budget.getReservedBytes(), 33, "Result mismatched.");
+        Assert.assertTrue(channel2.config().isAutoRead(), "Read should be resumed.");
+
+        writeInbound(channel2, "a1 OK NOOP completed\r\n");
+        Assert.assertEquals(budget.getReservedBytes(), 0, "Result mismatched.");
+    }
+
+    /**
+     * Tests a session keeping reads paused by the reader when a literal exceeds the shared budget, and resuming once another session releases its
+     * responses.
+     *
+     * @throws ImapAsyncClientException will not throw
+     */
+    @Test
+    public void testLiteralExceedingBudget() throws ImapAsyncClientException {
+        final ImapMemoryBudget budget = new ImapMemoryBudget(50);
+        final EmbeddedChannel channel1 = new EmbeddedChannel();
+        final ImapAsyncSessionImpl session1 = createSession(channel1, budget);
+        final EmbeddedChannel channel2 = new EmbeddedChannel();
+        final ImapAsyncSessionImpl session2 = createSession(channel2, budget);
+
+        session1.execute(new NoopCommand());
+        writeInbound(channel1, RESPONSE_33_BYTES);
+        Assert.assertTrue(channel1.config().isAutoRead(), "Read should not be paused.");
+
+        // header line is 24 bytes with CRLF, literal is 10 bytes
+        final ImapFuture<ImapAsyncResponse> future2 = session2.execute(new NoopCommand());
+        writeInbound(channel2, "* 1 FETCH (BODY[] {10}\r\n01234");
+        Assert.assertEquals(budget.getReservedBytes(), 67, "Result mismatched.");
+        Assert.assertFalse(channel2.config().isAutoRead(), "Read should be paused.");
+
+        // session1 hands over its responses, session2 resumes
+        writeInbound(channel1, "a1 OK NOOP completed\r\n");
+        Assert.assertEquals(budget.getReservedBytes(), 34, "Result mismatched.");
+        Assert.assertTrue(channel2.config().isAutoRead(), "Read should be resumed.");
+
+        writeInbound(channel2, "56789)\r\na1 OK NOOP completed\r\n");
+        Assert.assertTrue(future2.isDone(), "Future should be done.");
+        Assert.assertEquals(budget.getReservedBytes(), 0, "Result mismatched.");
+    }
+
+    /**
+     * Tests streaming responses being released from the budget once consumed.
+     *
+     * @throws ImapAsyncClientException will not throw
+     */
+    @Test
+    public void testStreamingResponsesReleasedOnConsumption() throws ImapAsyncClientException {
+        final ImapMemoryBudget budget = new ImapMemoryBudget(50);
+        final EmbeddedChannel channel = new EmbeddedChannel();
+        final ImapAsyncSessionImpl aSession = createSession(channel, budget);
+        final ImapStreamingResponseQueue queue = new ImapStreamingResponseQueue();
+        final UidFetchCommand cmd = new UidFetchCommand("1:*", "FLAGS") {
+            @Override
+            public ConcurrentLinkedQueue<IMAPResponse> getStreamingResponsesQueue() {
+                return queue;
+            }
+        };
+        aSession.execute(cmd);
+        writeInbound(channel, RESPONSE_33_BYTES);
+        writeInbound(channel, RESPONSE_33_BYTES);
+        Assert.assertEquals(budget.getReservedBytes(), 66, "Result mismatched.");
+        Assert.assertFalse(channel.config().isAutoRead(), "Read should be paused.");
+
+        queue.poll();
+        Assert.assertEquals(budget.getReservedBytes(), 33, "Result mismatched.");
+        Assert.assertTrue(channel.config().isAutoRead(), "Read should be resumed.");
+        queue.poll();
+        Assert.assertEquals(budget.getReservedBytes(), 0, "Result mismatched.");
+        writeInbound(channel, "a1 OK FETCH completed\r\n");
+        Assert.assertEquals(budget.getReservedBytes(), 0, "Result mismatched.");
+    }
+
+    /**
+     * Tests idle event failing the command with MEMORY_BUDGET_EXCEEDED when reading is paused for the budget.
+     *
+     * @throws Exception will not throw
+     */
+    @Test
+    public void testIdleEventWhenWaitingForBudget() throws Exception {
+        final ImapMemoryBudget budget = new ImapMemoryBudget(10);
+        final EmbeddedChannel channel = new EmbeddedChannel();
+        final ImapAsyncSessionImpl aSession = createSession(channel, budget);
+        final ImapFuture<ImapAsyncResponse> future = aSession.execute(new NoopCommand());
+        writeInbound(channel, RESPONSE_33_BYTES);
+        Assert.assertFalse(channel.config().isAutoRead(), "Read should be paused.");
+
+        aSession.handleIdleEvent(null);
+        Assert.assertTrue(future.isDone(), "Future should be done.");
+        ExecutionException ex = null;
+        try {
+            future.get();
+        } catch (final ExecutionException e) {
+            ex = e;
+        }
+        Assert.assertNotNull(ex, "Exception should occur.");
+        Assert.assertEquals(((ImapAsyncClientException) ex.getCause()).getFailureType(), FailureType.MEMORY_BUDGET_EXCEEDED, "Result mismatched.");
+        Assert.assertEquals(budget.getReservedBytes(), 0, "Result mismatched.");
+    }
+}
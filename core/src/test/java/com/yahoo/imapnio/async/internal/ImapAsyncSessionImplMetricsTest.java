@@ -0,0 +1,142 @@
+package com.yahoo.imapnio.async.internal;
+
+import java.io.IOException;
+import java.time.Clock;
+
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+import org.slf4j.Logger;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.sun.mail.iap.ProtocolException;
+import com.sun.mail.imap.protocol.IMAPResponse;
+import com.yahoo.imapnio.async.client.ImapAsyncClientConfig;
+import com.yahoo.imapnio.async.client.ImapAsyncSession.DebugMode;
+import com.yahoo.imapnio.async.client.ImapAsyncSessionConfig;
+import com.yahoo.imapnio.async.client.ImapFuture;
+import com.yahoo.imapnio.async.exception.ImapAsyncClientException;
+import com.yahoo.imapnio.async.exception.ImapAsyncClientException.FailureType;
+import com.yahoo.imapnio.async.metrics.ImapClientMetrics;
+import com.yahoo.imapnio.async.metrics.ImapCommandTraceListener;
+import com.yahoo.imapnio.async.metrics.ImapCommandTraceListener.Stage;
+import com.yahoo.imapnio.async.request.CapaCommand;
+import com.yahoo.imapnio.async.request.ImapRFCSupportedCommandType;
+import com.yahoo.imapnio.async.request.NoopCommand;
+import com.yahoo.imapnio.async.response.ImapAsyncResponse;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.ChannelPromise;
+
+/**
+ * Unit test for metrics and trace events reported by {@link ImapAsyncSessionImpl}.
+ */
+public class ImapAsyncSessionImplMetricsTest {
+
+    /** Dummy session id. */
+    private static final Long SESSION_ID = Long.valueOf(123456);
+
+    /** Dummy user id. */
+    private static final String USER_ID = "Argentinosaurus@long.enough";
+
+    /**
+     * Tests command events reported when a command completes and when a command fails.
+     *
+     * @throws ImapAsyncClientException will not throw
+     * @throws ProtocolException will not throw
+     * @throws IOException will not throw
+     */
+    @Test
+    public void testCommandCompletedAndFailed() throws ImapAsyncClientException, IOException, ProtocolException {
+        final Channel channel = Mockito.mock(Channel.class);
+        final ChannelPipeline pipeline = Mockito.mock(ChannelPipeline.class);
+        Mockito.when(channel.pipeline()).thenReturn(pipeline);
+        Mockito.when(channel.isActive()).thenReturn(true);
+        Mockito.when(channel.newPromise()).thenReturn(Mockito.mock(ChannelPromise.class));
+        final Clock clock = Mockito.mock(Clock.class);
+        final Logger logger = Mockito.mock(Logger.class);
+
+        final ImapClientMetrics metrics = Mockito.mock(ImapClientMetrics.class);
+        final ImapAsyncClientConfig clientConfig = new ImapAsyncClientConfig();
+        clientConfig.setMetrics(metrics);
+        final ImapAsyncSessionImpl aSession = new ImapAsyncSessionImpl(clock, channel, logger, DebugMode.DEBUG_OFF, SESSION_ID, pipeline, USER_ID,
+                new ImapAsyncSessionConfig(), clientConfig);
+
+        final ImapFuture<ImapAsyncResponse> future = aSession.execute(new CapaCommand());
+        Mockito.verify(metrics, Mockito.times(1)).onCommandStarted(ImapRFCSupportedCommandType.CAPABILITY);
+
+        aSession.handleChannelResponse(new IMAPResponse("* CAPABILITY IMAP4rev1 SASL-IR")); // 30 bytes
+        aSession.handleChannelResponse(new IMAPResponse("* OK more"));
+        Mockito.verify(metrics, Mockito.times(1)).onFirstResponse(Mockito.eq(ImapRFCSupportedCommandType.CAPABILITY), Mockito.anyLong());
+        Mockito.verify(metrics, Mockito.times(0)).onCommandCompleted(Mockito.eq(ImapRFCSupportedCommandType.CAPABILITY), Mockito.anyLong(),
+                Mockito.anyInt(), Mockito.anyInt());
+
+        aSession.handleChannelResponse(new IMAPResponse("a1 OK CAPABILITY completed"));
+        Assert.assertTrue(future.isDone(), "Future should be done.");
+        Mockito.verify(metrics, Mockito.times(1)).onCommandCompleted(Mockito.eq(ImapRFCSupportedCommandType.CAPABILITY), Mockito.anyLong(),
+                Mockito.eq(15), Mockito.eq(65));
+
+        // command failed since channel is closed
+        final ImapFuture<ImapAsyncResponse> noopFuture = aSession.execute(new NoopCommand());
+        Mockito.verify(metrics, Mockito.times(1)).onCommandStarted(ImapRFCSupportedCommandType.NOOP);
+        aSession.handleChannelClosed();
+        Assert.assertTrue(noopFuture.isDone(), "Future should be done.");
+        Mockito.verify(metrics, Mockito.times(1)).onCommandFailed(Mockito.eq(ImapRFCSupportedCommandType.NOOP), Mockito.anyLong(),
+                Mockito.eq(FailureType.CHANNEL_DISCONNECTED));
+        Mockito.verify(metrics, Mockito.times(1)).onFirstResponse(Mockito.any(ImapRFCSupportedCommandType.class), Mockito.anyLong());
+    }
+
+    /**
+     * Tests life cycle stages reported to the trace listener.
+     *
+     * @throws ImapAsyncClientException will not throw
+     * @throws ProtocolException will not throw
+     * @throws IOException will not throw
+     */
+    @Test
+    public void testCommandTraceStages() throws ImapAsyncClientException, IOException, ProtocolException {
+        final Channel channel = Mockito.mock(Channel.class);
+        final ChannelPipeline pipeline = Mockito.mock(ChannelPipeline.class);
+        Mockito.when(channel.pipeline()).thenReturn(pipeline);
+        Mockito.when(channel.isActive()).thenReturn(true);
+        final ChannelPromise writePromise = Mockito.mock(ChannelPromise.class);
+        Mockito.when(writePromise.isSuccess()).thenReturn(true);
+        Mockito.when(channel.newPromise()).thenReturn(writePromise);
+        final Clock clock = Mockito.mock(Clock.class);
+        final Logger logger = Mockito.mock(Logger.class);
+
+        final ImapCommandTraceListener listener = Mockito.mock(ImapCommandTraceListener.class);
+        final ImapAsyncClientConfig clientConfig = new ImapAsyncClientConfig();
+        clientConfig.setCommandTraceListener(listener);
+        final ImapAsyncSessionImpl aSession = new ImapAsyncSessionImpl(clock, channel, logger, DebugMode.DEBUG_OFF, SESSION_ID, pipeline, USER_ID,
+                new ImapAsyncSessionConfig(), clientConfig);
+
+        final ImapFuture<ImapAsyncResponse> future = aSession.execute(new CapaCommand());
+        aSession.operationComplete(writePromise);
+        aSession.handleChannelResponse(new IMAPResponse("* CAPABILITY IMAP4rev1 SASL-IR"));
+        aSession.handleChannelResponse(new IMAPResponse("* OK more"));
+        aSession.handleChannelResponse(new IMAPResponse("a1 OK CAPABILITY completed"));
+        Assert.assertTrue(future.isDone(), "Future should be done.");
+
+        final InOrder inOrder = Mockito.inOrder(listener);
+        for (final Stage stage : new Stage[] { Stage.ENQUEUED, Stage.WRITE_COMPLETED, Stage.FIRST_UNTAGGED_RESPONSE, Stage.TAGGED_RESPONSE,
+                Stage.CALLBACK_COMPLETED }) {
+            inOrder.verify(listener, Mockito.times(1)).onCommandStage(Mockito.eq(stage), Mockito.eq(SESSION_ID.longValue()), Mockito.eq(USER_ID),
+                    Mockito.eq("a1"), Mockito.eq(ImapRFCSupportedCommandType.CAPABILITY), Mockito.anyLong());
+        }
+        Mockito.verify(listener, Mockito.times(5)).onCommandStage(Mockito.any(Stage.class), Mockito.anyLong(), Mockito.anyObject(),
+                Mockito.anyString(), Mockito.any(ImapRFCSupportedCommandType.class), Mockito.anyLong());
+
+        // write failed, command failed
+        Mockito.when(writePromise.isSuccess()).thenReturn(false);
+        aSession.execute(new NoopCommand());
+        aSession.operationComplete(writePromise);
+        for (final Stage stage : new Stage[] { Stage.ENQUEUED, Stage.FAILED, Stage.CALLBACK_COMPLETED }) {
+            inOrder.verify(listener, Mockito.times(1)).onCommandStage(Mockito.eq(stage), Mockito.eq(SESSION_ID.longValue()), Mockito.eq(USER_ID),
+                    Mockito.eq("a2"), Mockito.eq(ImapRFCSupportedCommandType.NOOP), Mockito.anyLong());
+        }
+        Mockito.verify(listener, Mockito.times(1)).onCommandStage(Mockito.eq(Stage.WRITE_COMPLETED), Mockito.anyLong(), Mockito.anyObject(),
+                Mockito.anyString(), Mockito.any(ImapRFCSupportedCommandType.class), Mockito.anyLong());
+    }
+}
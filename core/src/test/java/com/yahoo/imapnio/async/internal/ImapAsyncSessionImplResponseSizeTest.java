@@ -0,0 +1,113 @@
+package com.yahoo.imapnio.async.internal;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.util.concurrent.ExecutionException;
+
+import org.mockito.Mockito;
+import org.slf4j.Logger;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.yahoo.imapnio.async.client.ImapAsyncSession.DebugMode;
+import com.yahoo.imapnio.async.client.ImapAsyncSessionConfig;
+import com.yahoo.imapnio.async.client.ImapFuture;
+import com.yahoo.imapnio.async.exception.ImapAsyncClientException;
+import com.yahoo.imapnio.async.exception.ImapAsyncClientException.FailureType;
+import com.yahoo.imapnio.async.request.NoopCommand;
+import com.yahoo.imapnio.async.response.ImapAsyncResponse;
+import com.yahoo.imapnio.client.ImapClientRespReader;
+import com.yahoo.imapnio.command.ImapClientRespDecoder;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.string.StringDecoder;
+import io.netty.handler.codec.string.StringEncoder;
+
+/**
+ * Unit test for {@link ImapAsyncSessionImpl} receiving responses exceeding the maximum line length or literal size.
+ */
+public class ImapAsyncSessionImplResponseSizeTest {
+
+    /** Dummy session id. */
+    private static final Long SESSION_ID = Long.valueOf(123456);
+
+    /** Dummy user id. */
+    private static final String USER_ID = "Argentinosaurus@long.enough";
+
+    /** Maximum response line length used in tests. */
+    private static final int MAX_LINE_LENGTH = 64;
+
+    /** Maximum literal size used in tests. */
+    private static final int MAX_LITERAL_SIZE = 16;
+
+    /**
+     * Creates a session on an embedded channel with the same decoders as the client, limiting the line length and literal size.
+     *
+     * @param channel the embedded channel
+     * @return the session
+     */
+    private ImapAsyncSessionImpl createSession(final EmbeddedChannel channel) {
+        channel.pipeline().addLast(new ImapClientRespReader(MAX_LINE_LENGTH, MAX_LITERAL_SIZE, false, null));
+        channel.pipeline().addLast(new StringDecoder(StandardCharsets.US_ASCII));
+        channel.pipeline().addLast(new StringEncoder(StandardCharsets.US_ASCII));
+        channel.pipeline().addLast(new ImapClientRespDecoder());
+        return new ImapAsyncSessionImpl(Mockito.mock(Clock.class), channel, Mockito.mock(Logger.class), DebugMode.DEBUG_OFF, SESSION_ID,
+                channel.pipeline(), USER_ID, new ImapAsyncSessionConfig());
+    }
+
+    /**
+     * Asserts the given future failed with the given failure type.
+     *
+     * @param future the future
+     * @param failureType the expected failure type
+     * @throws InterruptedException will not throw
+     */
+    private void assertFailure(final ImapFuture<ImapAsyncResponse> future, final FailureType failureType) throws InterruptedException {
+        Assert.assertTrue(future.isDone(), "Future should be done.");
+        ExecutionException ex = null;
+        try {
+            future.get();
+        } catch (final ExecutionException e) {
+            ex = e;
+        }
+        Assert.assertNotNull(ex, "Exception should occur.");
+        Assert.assertEquals(((ImapAsyncClientException) ex.getCause()).getFailureType(), failureType, "Result mismatched.");
+    }
+
+    /**
+     * Tests a response with a literal larger than the maximum literal size failing the command.
+     *
+     * @throws Exception will not throw
+     */
+    @Test
+    public void testOversizedLiteral() throws Exception {
+        final EmbeddedChannel channel = new EmbeddedChannel();
+        final ImapAsyncSessionImpl aSession = createSession(channel);
+        final ImapFuture<ImapAsyncResponse> future = aSession.execute(new NoopCommand());
+
+        channel.writeInbound(Unpooled.copiedBuffer("* 1 FETCH (UID 4 BODY[] {17}\r\n", StandardCharsets.US_ASCII));
+        assertFailure(future, FailureType.RESPONSE_TOO_LARGE);
+        Assert.assertFalse(channel.isOpen(), "Channel should be closed.");
+        Assert.assertEquals(aSession.getStats().getFailures(FailureType.RESPONSE_TOO_LARGE), 1, "Result mismatched.");
+    }
+
+    /**
+     * Tests a response line longer than the maximum line length failing the command.
+     *
+     * @throws Exception will not throw
+     */
+    @Test
+    public void testOversizedLine() throws Exception {
+        final EmbeddedChannel channel = new EmbeddedChannel();
+        final ImapAsyncSessionImpl aSession = createSession(channel);
+        final ImapFuture<ImapAsyncResponse> future = aSession.execute(new NoopCommand());
+
+        final StringBuilder line = new StringBuilder("* OK ");
+        while (line.length() <= MAX_LINE_LENGTH) {
+            line.append("hello ");
+        }
+        channel.writeInbound(Unpooled.copiedBuffer(line, StandardCharsets.US_ASCII));
+        assertFailure(future, FailureType.RESPONSE_TOO_LARGE);
+    }
+}
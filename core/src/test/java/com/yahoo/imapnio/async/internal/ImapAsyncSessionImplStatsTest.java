@@ -0,0 +1,217 @@
+package com.yahoo.imapnio.async.internal;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.mockito.Mockito;
+import org.slf4j.Logger;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.sun.mail.imap.protocol.IMAPResponse;
+import com.yahoo.imapnio.async.client.ImapAsyncSession.DebugMode;
+import com.yahoo.imapnio.async.client.ImapAsyncSessionConfig;
+import com.yahoo.imapnio.async.client.ImapAsyncSessionStats;
+import com.yahoo.imapnio.async.client.ImapFuture;
+import com.yahoo.imapnio.async.exception.ImapAsyncClientException;
+import com.yahoo.imapnio.async.exception.ImapAsyncClientException.FailureType;
+import com.yahoo.imapnio.async.request.CompressCommand;
+import com.yahoo.imapnio.async.request.NoopCommand;
+import com.yahoo.imapnio.async.request.UidFetchCommand;
+import com.yahoo.imapnio.async.response.ImapAsyncResponse;
+import com.yahoo.imapnio.async.response.ImapStreamingResponseQueue;
+import com.yahoo.imapnio.client.ImapClientRespReader;
+import com.yahoo.imapnio.command.ImapClientRespDecoder;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.string.StringDecoder;
+import io.netty.handler.codec.string.StringEncoder;
+
+/**
+ * Unit test for statistics of {@link ImapAsyncSessionImpl}.
+ */
+public class ImapAsyncSessionImplStatsTest {
+
+    /** Dummy session id. */
+    private static final Long SESSION_ID = Long.valueOf(123456);
+
+    /** Dummy user id. */
+    private static final String USER_ID = "Argentinosaurus@long.enough";
+
+    /**
+     * Creates a session on an embedded channel with the same decoders as the client.
+     *
+     * @param channel the embedded channel
+     * @param config the session configuration
+     * @return the session
+     */
+    private ImapAsyncSessionImpl createSession(final EmbeddedChannel channel, final ImapAsyncSessionConfig config) {
+        channel.pipeline().addLast(new ImapClientRespReader(Integer.MAX_VALUE));
+        channel.pipeline().addLast(new StringDecoder(StandardCharsets.US_ASCII));
+        channel.pipeline().addLast(new StringEncoder(StandardCharsets.US_ASCII));
+        channel.pipeline().addLast(new ImapClientRespDecoder());
+        return new ImapAsyncSessionImpl(Mockito.mock(Clock.class), channel, Mockito.mock(Logger.class), DebugMode.DEBUG_OFF, SESSION_ID,
+                channel.pipeline(), USER_ID, config);
+    }
+
+    /**
+     * Writes the given response to the channel as if it were sent by server.
+     *
+     * @param channel the embedded channel
+     * @param response the response
+     */
+    private void writeInbound(final EmbeddedChannel channel, final String response) {
+        channel.writeInbound(Unpooled.copiedBuffer(response, StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Tests counters of commands executed, bytes, literals and failures.
+     *
+     * @throws Exception will not throw
+     */
+    @Test
+    public void testGetStats() throws Exception {
+        final EmbeddedChannel channel = new EmbeddedChannel();
+        final ImapAsyncSessionImpl aSession = createSession(channel, new ImapAsyncSessionConfig());
+
+        ImapAsyncSessionStats stats = aSession.getStats();
+        Assert.assertEquals(stats.getCommandsExecuted(), 0, "Result mismatched.");
+        Assert.assertEquals(stats.getFailures().size(), 0, "Result mismatched.");
+        Assert.assertEquals(stats.getBufferedResponseBytes(), 0, "Result mismatched.");
+
+        final ImapFuture<ImapAsyncResponse> future = aSession.execute(new NoopCommand());
+        writeInbound(channel, "* 1 FETCH (UID 4 BODY[] {5}\r\nhello)\r\n");
+        stats = aSession.getStats();
+        Assert.assertEquals(stats.getBufferedResponseBytes(), 37, "Result mismatched.");
+        writeInbound(channel, "a1 OK NOOP completed\r\n");
+        Assert.assertTrue(future.isDone(), "Future should be done.");
+
+        stats = aSession.getStats();
+        Assert.assertEquals(stats.getCommandsExecuted(), 1, "Result mismatched.");
+        Assert.assertEquals(stats.getImapBytesWritten(), 9, "Result mismatched.");
+        Assert.assertEquals(stats.getNetworkBytesWritten(), 9, "Result mismatched.");
+        Assert.assertEquals(stats.getImapBytesRead(), 59, "Result mismatched.");
+        Assert.assertEquals(stats.getNetworkBytesRead(), 59, "Result mismatched.");
+        Assert.assertEquals(stats.getLiteralBytesRead(), 5, "Result mismatched.");
+        Assert.assertEquals(stats.getLargestResponseBytes(), 37, "Result mismatched.");
+        Assert.assertEquals(stats.getBufferedResponseBytes(), 0, "Result mismatched.");
+        Assert.assertTrue(stats.getTimeSinceLastActivityMillis() >= 0, "Time since last activity should not be negative.");
+
+        aSession.execute(new NoopCommand());
+        channel.close();
+        stats = aSession.getStats();
+        Assert.assertEquals(stats.getFailures(FailureType.CHANNEL_DISCONNECTED), 1, "Result mismatched.");
+        Assert.assertEquals(stats.getFailures(FailureType.CHANNEL_TIMEOUT), 0, "Result mismatched.");
+        Assert.assertEquals(stats.getFailures().size(), 1, "Result mismatched.");
+    }
+
+    /**
+     * Tests buffered response bytes of a streaming command.
+     *
+     * @throws ImapAsyncClientException will not throw
+     */
+    @Test
+    public void testGetStatsStreaming() throws ImapAsyncClientException {
+        final EmbeddedChannel channel = new EmbeddedChannel();
+        final ImapAsyncSessionImpl aSession = createSession(channel, new ImapAsyncSessionConfig());
+        final ImapStreamingResponseQueue queue = new ImapStreamingResponseQueue();
+        final UidFetchCommand cmd = new UidFetchCommand("1:*", "FLAGS") {
+            @Override
+            public ConcurrentLinkedQueue<IMAPResponse> getStreamingResponsesQueue() {
+                return queue;
+            }
+        };
+        aSession.execute(cmd);
+        writeInbound(channel, "* 1 FETCH (UID 4 FLAGS ())\r\n");
+        Assert.assertEquals(aSession.getStats().getBufferedResponseBytes(), queue.getBufferedBytes(), "Result mismatched.");
+        queue.poll();
+        Assert.assertEquals(aSession.getStats().getBufferedResponseBytes(), 0, "Result mismatched.");
+    }
+
+    /**
+     * Tests compression handlers being inserted between the network and IMAP byte counters when there is no SSL handler.
+     *
+     * @throws ImapAsyncClientException will not throw
+     */
+    @Test
+    public void testCompressionBetweenCounters() throws ImapAsyncClientException {
+        final EmbeddedChannel channel = new EmbeddedChannel();
+        final ImapAsyncSessionImpl aSession = createSession(channel, new ImapAsyncSessionConfig());
+        aSession.execute(new CompressCommand());
+        writeInbound(channel, "a1 OK DEFLATE active\r\n");
+
+        final String names = channel.pipeline().names().toString();
+        final String expected = "[networkByteCounter, compressedByteCounter, INFLATER, DEFLATER, uncompressedByteCounter, imapByteCounter,";
+        Assert.assertTrue(names.startsWith(expected), "Unexpected pipeline:" + names);
+        final ByteBuf written = channel.readOutbound();
+        Assert.assertEquals(written.toString(StandardCharsets.US_ASCII), "a1 COMPRESS DEFLATE\r\n", "Result mismatched.");
+        written.release();
+    }
+
+    /**
+     * Tests compressed and uncompressed byte counters, with the configured compression level, strategy and flush policy.
+     *
+     * @throws ImapAsyncClientException will not throw
+     * @throws DataFormatException will not throw
+     */
+    @Test
+    public void testCompressionCounters() throws ImapAsyncClientException, DataFormatException {
+        final EmbeddedChannel channel = new EmbeddedChannel();
+        final ImapAsyncSessionConfig config = new ImapAsyncSessionConfig();
+        config.setCompressionLevel(Deflater.BEST_COMPRESSION);
+        config.setCompressionStrategy(Deflater.FILTERED);
+        config.setDeflateFlushPolicy(ImapAsyncSessionConfig.DeflateFlushPolicy.CHANNEL_FLUSH);
+        final ImapAsyncSessionImpl aSession = createSession(channel, config);
+        aSession.execute(new CompressCommand());
+        writeInbound(channel, "a1 OK DEFLATE active\r\n");
+        ((ByteBuf) channel.readOutbound()).release();
+        ImapAsyncSessionStats stats = aSession.getStats();
+        Assert.assertEquals(stats.getCompressedBytesWritten(), 0, "Nothing should be counted before compression.");
+        Assert.assertEquals(stats.getUncompressedBytesRead(), 0, "Nothing should be counted before compression.");
+
+        final ImapFuture<ImapAsyncResponse> future = aSession.execute(new UidFetchCommand("1:*", "BODY.PEEK[HEADER.FIELDS (FROM TO CC SUBJECT)]"));
+        final Inflater inflater = new Inflater(true);
+        final byte[] plain = new byte[1024];
+        final StringBuilder sent = new StringBuilder();
+        ByteBuf compressed;
+        while ((compressed = channel.readOutbound()) != null) {
+            final byte[] bytes = new byte[compressed.readableBytes()];
+            compressed.readBytes(bytes);
+            compressed.release();
+            inflater.setInput(bytes);
+            final int len = inflater.inflate(plain);
+            sent.append(new String(plain, 0, len, StandardCharsets.US_ASCII));
+        }
+        Assert.assertEquals(sent.toString(), "a2 UID FETCH 1:* (BODY.PEEK[HEADER.FIELDS (FROM TO CC SUBJECT)])\r\n", "Result mismatched.");
+        inflater.end();
+
+        final StringBuilder resp = new StringBuilder();
+        for (int i = 1; i <= 20; i++) {
+            resp.append("* ").append(i).append(" FETCH (UID ").append(i).append(" BODY[HEADER.FIELDS (FROM TO CC SUBJECT)] \"\")\r\n");
+        }
+        resp.append("a2 OK FETCH completed\r\n");
+        final byte[] respBytes = resp.toString().getBytes(StandardCharsets.US_ASCII);
+        final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        deflater.setInput(respBytes);
+        final byte[] deflated = new byte[respBytes.length];
+        final int deflatedLen = deflater.deflate(deflated, 0, deflated.length, Deflater.SYNC_FLUSH);
+        deflater.end();
+        channel.writeInbound(Unpooled.wrappedBuffer(deflated, 0, deflatedLen));
+        Assert.assertTrue(future.isDone(), "Future should be done.");
+
+        stats = aSession.getStats();
+        Assert.assertEquals(stats.getUncompressedBytesWritten(), sent.length(), "Result mismatched.");
+        Assert.assertTrue(stats.getCompressedBytesWritten() > 0, "Compressed bytes should be counted.");
+        Assert.assertEquals(stats.getUncompressedBytesRead(), respBytes.length, "Result mismatched.");
+        Assert.assertEquals(stats.getCompressedBytesRead(), deflatedLen, "Result mismatched.");
+        Assert.assertTrue(stats.getCompressedBytesRead() * 4 < stats.getUncompressedBytesRead(), "Compression should save bytes.");
+        Assert.assertEquals(stats.getNetworkBytesRead() - stats.getCompressedBytesRead(), stats.getImapBytesRead() - stats.getUncompressedBytesRead(),
+                "Bytes before compression should be counted by network and IMAP counters alike.");
+    }
+}
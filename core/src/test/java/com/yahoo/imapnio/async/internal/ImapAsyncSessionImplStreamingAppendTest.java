@@ -0,0 +1,181 @@
+package com.yahoo.imapnio.async.internal;
+
+import java.io.ByteArrayInputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.util.concurrent.ExecutionException;
+
+import org.mockito.Mockito;
+import org.slf4j.Logger;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.yahoo.imapnio.async.client.ImapAsyncClient;
+import com.yahoo.imapnio.async.client.ImapAsyncSession.DebugMode;
+import com.yahoo.imapnio.async.client.ImapAsyncSessionConfig;
+import com.yahoo.imapnio.async.client.ImapFuture;
+import com.yahoo.imapnio.async.exception.ImapAsyncClientException;
+import com.yahoo.imapnio.async.exception.ImapAsyncClientException.FailureType;
+import com.yahoo.imapnio.async.request.AppendCommand;
+import com.yahoo.imapnio.async.request.ImapLiteralSource;
+import com.yahoo.imapnio.async.request.LiteralSupport;
+import com.yahoo.imapnio.async.response.ImapAsyncResponse;
+import com.yahoo.imapnio.client.ImapClientRespReader;
+import com.yahoo.imapnio.command.ImapClientRespDecoder;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.FileRegion;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.string.StringDecoder;
+import io.netty.handler.codec.string.StringEncoder;
+
+/**
+ * Unit test for {@link ImapAsyncSessionImpl} streaming APPEND literals from their sources.
+ */
+public class ImapAsyncSessionImplStreamingAppendTest {
+
+    /** Dummy session id. */
+    private static final Long SESSION_ID = Long.valueOf(123456);
+
+    /** Dummy user id. */
+    private static final String USER_ID = "Argentinosaurus@long.enough";
+
+    /** Message appended in tests. */
+    private static final String MSG = "Subject: hi\r\n\r\nHello Joe\r\n";
+
+    /**
+     * Creates a session on an embedded channel with the same decoders as the client.
+     *
+     * @param channel the embedded channel
+     * @return the session
+     */
+    private ImapAsyncSessionImpl createSession(final EmbeddedChannel channel) {
+        channel.pipeline().addLast(new ImapClientRespReader(Integer.MAX_VALUE));
+        channel.pipeline().addLast(new StringDecoder(StandardCharsets.US_ASCII));
+        channel.pipeline().addLast(new StringEncoder(StandardCharsets.US_ASCII));
+        channel.pipeline().addLast(new ImapClientRespDecoder());
+        return new ImapAsyncSessionImpl(Mockito.mock(Clock.class), channel, Mockito.mock(Logger.class), DebugMode.DEBUG_OFF, SESSION_ID,
+                channel.pipeline(), USER_ID, new ImapAsyncSessionConfig());
+    }
+
+    /**
+     * Writes the given response to the channel as if it were sent by server.
+     *
+     * @param channel the embedded channel
+     * @param response the response
+     */
+    private void writeInbound(final EmbeddedChannel channel, final String response) {
+        channel.writeInbound(Unpooled.copiedBuffer(response, StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Reads all buffers written to the channel so far.
+     *
+     * @param channel the embedded channel
+     * @return the bytes written in string
+     */
+    private String readOutbound(final EmbeddedChannel channel) {
+        final StringBuilder sb = new StringBuilder();
+        ByteBuf buf;
+        while ((buf = channel.readOutbound()) != null) {
+            sb.append(buf.toString(StandardCharsets.US_ASCII));
+            buf.release();
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Creates a temporary file holding the test message.
+     *
+     * @return the path of the file
+     * @throws Exception will not throw
+     */
+    private Path createFile() throws Exception {
+        final Path path = Files.createTempFile("append", ".eml");
+        path.toFile().deleteOnExit();
+        Files.write(path, MSG.getBytes(StandardCharsets.US_ASCII));
+        return path;
+    }
+
+    /**
+     * Tests LITERAL+ append streamed from an input stream in chunks right after the command line.
+     *
+     * @throws Exception will not throw
+     */
+    @Test
+    public void testLiteralPlusFromInputStream() throws Exception {
+        final EmbeddedChannel channel = new EmbeddedChannel();
+        final ImapAsyncSessionImpl aSession = createSession(channel);
+        final ImapLiteralSource source = ImapLiteralSource.fromInputStream(new ByteArrayInputStream(MSG.getBytes(StandardCharsets.US_ASCII)),
+                MSG.length());
+        final ImapFuture<ImapAsyncResponse> future = aSession.execute(new AppendCommand("Inbox", null, null, source,
+                LiteralSupport.ENABLE_LITERAL_PLUS));
+
+        Assert.assertEquals(readOutbound(channel), "a1 APPEND Inbox {26+}\r\n" + MSG + "\r\n", "Result mismatched.");
+        writeInbound(channel, "a1 OK [APPENDUID 1 2] APPEND completed\r\n");
+        final ImapAsyncResponse asyncResp = future.get();
+        Assert.assertEquals(asyncResp.getRequestTotalBytes(), 51, "Result mismatched.");
+        Assert.assertEquals(aSession.getStats().getImapBytesWritten(), 51, "Result mismatched.");
+    }
+
+    /**
+     * Tests append waiting for server continuation and streaming a file as a file region since neither TLS nor compression is in use.
+     *
+     * @throws Exception will not throw
+     */
+    @Test
+    public void testContinuationFromFileZeroCopy() throws Exception {
+        final EmbeddedChannel channel = new EmbeddedChannel();
+        final ImapAsyncSessionImpl aSession = createSession(channel);
+        final ImapFuture<ImapAsyncResponse> future = aSession.execute(new AppendCommand("Inbox", null, null,
+                ImapLiteralSource.fromPath(createFile()), LiteralSupport.DISABLE));
+        Assert.assertEquals(readOutbound(channel), "a1 APPEND Inbox {26}\r\n", "Result mismatched.");
+
+        writeInbound(channel, "+ Ready for literal data\r\n");
+        final ByteBuf empty = channel.readOutbound();
+        Assert.assertEquals(empty.readableBytes(), 0, "Nothing copied after continuation.");
+        final Object region = channel.readOutbound();
+        Assert.assertTrue(region instanceof FileRegion, "File should be written as a file region.");
+        Assert.assertEquals(((FileRegion) region).count(), MSG.length(), "Result mismatched.");
+        ((FileRegion) region).release();
+        Assert.assertEquals(readOutbound(channel), "\r\n", "Result mismatched.");
+        Assert.assertEquals(aSession.getStats().getNetworkBytesWritten(), 50, "File region should be counted.");
+
+        writeInbound(channel, "a1 OK APPEND completed\r\n");
+        Assert.assertEquals(future.get().getResponseLines().size(), 2, "Continuation and tagged response expected.");
+    }
+
+    /**
+     * Tests append failing when the file cannot be read in chunks under TLS.
+     *
+     * @throws Exception will not throw
+     */
+    @Test
+    public void testFileChunkedFailure() throws Exception {
+        final EmbeddedChannel channel = new EmbeddedChannel();
+        channel.pipeline().addLast(ImapAsyncClient.SSL_HANDLER, new ChannelDuplexHandler());
+        final ImapAsyncSessionImpl aSession = createSession(channel);
+        final FileChannel fileChannel = FileChannel.open(createFile(), StandardOpenOption.READ);
+        fileChannel.close();
+        final ImapFuture<ImapAsyncResponse> future = aSession.execute(new AppendCommand("Inbox", null, null,
+                ImapLiteralSource.fromFile(fileChannel, 0, MSG.length()), LiteralSupport.ENABLE_LITERAL_PLUS));
+        ExecutionException ex = null;
+        try {
+            future.get();
+        } catch (final ExecutionException e) {
+            ex = e;
+        }
+        Assert.assertNotNull(ex, "Exception should occur.");
+        final ImapAsyncClientException asyncEx = (ImapAsyncClientException) ex.getCause();
+        Assert.assertEquals(asyncEx.getFailureType(), FailureType.CHANNEL_EXCEPTION, "Result mismatched.");
+        final ImapAsyncClientException writeEx = (ImapAsyncClientException) asyncEx.getCause();
+        Assert.assertEquals(writeEx.getFailureType(), FailureType.WRITE_TO_SERVER_FAILED, "Result mismatched.");
+        Assert.assertFalse(channel.isOpen(), "Channel should be closed.");
+    }
+}
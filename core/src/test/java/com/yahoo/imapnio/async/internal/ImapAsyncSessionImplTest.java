@@ -37,6 +37,7 @@ import com.yahoo.imapnio.async.data.Capability;
 import com.yahoo.imapnio.async.exception.ImapAsyncClientException;
 import com.yahoo.imapnio.async.exception.ImapAsyncClientException.FailureType;
 import com.yahoo.imapnio.async.internal.ImapAsyncSessionImpl.ImapChannelClosedListener;
+import com.yahoo.imapnio.async.netty.ImapDeflateEncoder;
 import com.yahoo.imapnio.async.request.AuthPlainCommand;
 import com.yahoo.imapnio.async.request.AuthXoauth2Command;
 import com.yahoo.imapnio.async.request.CapaCommand;
@@ -51,7 +52,6 @@ import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelPipeline;
 import io.netty.channel.ChannelPromise;
 import io.netty.handler.codec.compression.JdkZlibDecoder;
-import io.netty.handler.codec.compression.JdkZlibEncoder;
 import io.netty.handler.ssl.SslHandler;
 import io.netty.handler.timeout.IdleStateEvent;
 
@@ -688,7 +688,7 @@ public class ImapAsyncSessionImplTest {
             aSession.handleChannelResponse(serverResp1);
 
             Mockito.verify(pipeline, Mockito.times(1)).addFirst(Matchers.eq("DEFLATER"), Matchers.isA(JdkZlibDecoder.class));
-            Mockito.verify(pipeline, Mockito.times(1)).addFirst(Matchers.eq("INFLATER"), Matchers.isA(JdkZlibEncoder.class));
+            Mockito.verify(pipeline, Mockito.times(1)).addFirst(Matchers.eq("INFLATER"), Matchers.isA(ImapDeflateEncoder.class));
             // verify that future should be done now
             Assert.assertTrue(future.isDone(), "isDone() should be true now");
             final ImapAsyncResponse asyncResp = future.get(FUTURE_GET_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
@@ -858,7 +858,7 @@ public class ImapAsyncSessionImplTest {
             Mockito.verify(pipeline, Mockito.times(1)).addAfter(Matchers.eq(ImapAsyncClient.SSL_HANDLER), Matchers.eq("DEFLATER"),
                     Matchers.isA(JdkZlibDecoder.class));
             Mockito.verify(pipeline, Mockito.times(1)).addAfter(Matchers.eq(ImapAsyncClient.SSL_HANDLER), Matchers.eq("INFLATER"),
-                    Matchers.isA(JdkZlibEncoder.class));
+                    Matchers.isA(ImapDeflateEncoder.class));
             // verify that future should be done now
             Assert.assertTrue(future.isDone(), "isDone() should be true now");
             final ImapAsyncResponse asyncResp = future.get(FUTURE_GET_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
@@ -1025,7 +1025,7 @@ public class ImapAsyncSessionImplTest {
             aSession.handleChannelResponse(serverResp1);
 
             Mockito.verify(pipeline, Mockito.times(0)).addFirst(Matchers.eq("DEFLATER"), Matchers.isA(JdkZlibDecoder.class));
-            Mockito.verify(pipeline, Mockito.times(0)).addFirst(Matchers.eq("INFLATER"), Matchers.isA(JdkZlibEncoder.class));
+            Mockito.verify(pipeline, Mockito.times(0)).addFirst(Matchers.eq("INFLATER"), Matchers.isA(ImapDeflateEncoder.class));
             // verify that future should be done now
             Assert.assertTrue(future.isDone(), "isDone() should be true now");
             final ImapAsyncResponse asyncResp = future.get(FUTURE_GET_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
@@ -1936,7 +1936,7 @@ public class ImapAsyncSessionImplTest {
 
             // verify deflater and inflater handlers are not added
             Mockito.verify(pipeline, Mockito.times(0)).addFirst(Matchers.eq("DEFLATER"), Matchers.isA(JdkZlibDecoder.class));
-            Mockito.verify(pipeline, Mockito.times(0)).addFirst(Matchers.eq("INFLATER"), Matchers.isA(JdkZlibEncoder.class));
+            Mockito.verify(pipeline, Mockito.times(0)).addFirst(Matchers.eq("INFLATER"), Matchers.isA(ImapDeflateEncoder.class));
             // verify that future should be done now
             Assert.assertTrue(future.isDone(), "isDone() should be true now");
             ExecutionException ex = null;
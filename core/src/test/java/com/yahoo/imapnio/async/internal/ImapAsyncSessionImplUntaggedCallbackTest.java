@@ -0,0 +1,207 @@
+package com.yahoo.imapnio.async.internal;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import javax.annotation.Nonnull;
+
+import org.mockito.Mockito;
+import org.slf4j.Logger;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.sun.mail.imap.protocol.IMAPResponse;
+import com.yahoo.imapnio.async.client.ImapAsyncSession.DebugMode;
+import com.yahoo.imapnio.async.client.ImapAsyncSessionConfig;
+import com.yahoo.imapnio.async.client.ImapFuture;
+import com.yahoo.imapnio.async.data.MailboxEvent;
+import com.yahoo.imapnio.async.data.MailboxEvent.EventType;
+import com.yahoo.imapnio.async.exception.ImapAsyncClientException;
+import com.yahoo.imapnio.async.exception.ImapAsyncClientException.FailureType;
+import com.yahoo.imapnio.async.request.ImapRequest.UntaggedResponseDecision;
+import com.yahoo.imapnio.async.request.NoopCommand;
+import com.yahoo.imapnio.async.request.UidFetchCommand;
+import com.yahoo.imapnio.async.response.ImapAsyncResponse;
+import com.yahoo.imapnio.client.ImapClientRespReader;
+import com.yahoo.imapnio.command.ImapClientRespDecoder;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.string.StringDecoder;
+import io.netty.handler.codec.string.StringEncoder;
+
+/**
+ * Unit test for {@link ImapAsyncSessionImpl} pushing untagged responses to the request.
+ */
+public class ImapAsyncSessionImplUntaggedCallbackTest {
+
+    /** Dummy session id. */
+    private static final Long SESSION_ID = Long.valueOf(123456);
+
+    /** Dummy user id. */
+    private static final String USER_ID = "Argentinosaurus@long.enough";
+
+    /**
+     * Creates a session on an embedded channel with the same decoders as the client.
+     *
+     * @param channel the embedded channel
+     * @return the session
+     */
+    private ImapAsyncSessionImpl createSession(final EmbeddedChannel channel) {
+        channel.pipeline().addLast(new ImapClientRespReader(Integer.MAX_VALUE));
+        channel.pipeline().addLast(new StringDecoder(StandardCharsets.US_ASCII));
+        channel.pipeline().addLast(new StringEncoder(StandardCharsets.US_ASCII));
+        channel.pipeline().addLast(new ImapClientRespDecoder());
+        return new ImapAsyncSessionImpl(Mockito.mock(Clock.class), channel, Mockito.mock(Logger.class), DebugMode.DEBUG_OFF, SESSION_ID,
+                channel.pipeline(), USER_ID, new ImapAsyncSessionConfig());
+    }
+
+    /**
+     * Writes the given response to the channel as if it were sent by server.
+     *
+     * @param channel the embedded channel
+     * @param response the response
+     */
+    private void writeInbound(final EmbeddedChannel channel, final String response) {
+        channel.writeInbound(Unpooled.copiedBuffer(response, StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Fetch command recording the untagged responses pushed to it and returning the given decisions in turn.
+     */
+    private static final class PushFetchCommand extends UidFetchCommand {
+
+        /** Responses pushed to this command. */
+        private final List<IMAPResponse> pushed = new ArrayList<IMAPResponse>();
+
+        /** Decisions to return, the last one is repeated. */
+        private final UntaggedResponseDecision[] decisions;
+
+        /**
+         * Initializes a {@link PushFetchCommand}.
+         *
+         * @param decisions decisions to return in turn
+         */
+        PushFetchCommand(final UntaggedResponseDecision... decisions) {
+            super("1:*", "FLAGS");
+            this.decisions = decisions;
+        }
+
+        @Override
+        public UntaggedResponseDecision onUntaggedResponse(@Nonnull final IMAPResponse serverResponse) {
+            pushed.add(serverResponse);
+            return decisions[Math.min(pushed.size(), decisions.length) - 1];
+        }
+    }
+
+    /**
+     * Tests untagged responses pushed to the request, and kept or dropped per its decisions.
+     *
+     * @throws Exception will not throw
+     */
+    @Test
+    public void testKeepAndDrop() throws Exception {
+        final EmbeddedChannel channel = new EmbeddedChannel();
+        final ImapAsyncSessionImpl aSession = createSession(channel);
+        final PushFetchCommand cmd = new PushFetchCommand(UntaggedResponseDecision.KEEP, UntaggedResponseDecision.DROP);
+        final ImapFuture<ImapAsyncResponse> future = aSession.execute(cmd);
+
+        writeInbound(channel, "* 1 FETCH (UID 4 FLAGS ())\r\n* 2 FETCH (UID 5 FLAGS ())\r\n* 3 FETCH (UID 6 FLAGS ())\r\na1 OK FETCH completed\r\n");
+        Assert.assertEquals(cmd.pushed.size(), 3, "Tagged response should not be pushed.");
+        final ImapAsyncResponse asyncResp = future.get();
+        Assert.assertEquals(asyncResp.getResponseLines().size(), 2, "Result mismatched.");
+        Assert.assertEquals(asyncResp.getResponseLines().iterator().next().getNumber(), 1, "Result mismatched.");
+        Assert.assertEquals(asyncResp.getUntaggedResponseCount(), 3, "Result mismatched.");
+    }
+
+    /**
+     * Tests reading paused by the request until it resumes reading or the command is done.
+     *
+     * @throws Exception will not throw
+     */
+    @Test
+    public void testStopReading() throws Exception {
+        final EmbeddedChannel channel = new EmbeddedChannel();
+        final ImapAsyncSessionImpl aSession = createSession(channel);
+        final PushFetchCommand cmd = new PushFetchCommand(UntaggedResponseDecision.STOP_READING);
+        final ImapFuture<ImapAsyncResponse> future = aSession.execute(cmd);
+
+        writeInbound(channel, "* 1 FETCH (UID 4 FLAGS ())\r\n");
+        Assert.assertFalse(channel.config().isAutoRead(), "Read should be paused.");
+        aSession.handleIdleEvent(null);
+        Assert.assertFalse(future.isDone(), "Paused on purpose, should not time out.");
+
+        aSession.resumeReading();
+        Assert.assertTrue(channel.config().isAutoRead(), "Read should be resumed.");
+        aSession.resumeReading();
+        Assert.assertTrue(channel.config().isAutoRead(), "Read should be resumed.");
+
+        writeInbound(channel, "* 2 FETCH (UID 5 FLAGS ())\r\n");
+        Assert.assertFalse(channel.config().isAutoRead(), "Read should be paused.");
+        writeInbound(channel, "a1 OK FETCH completed\r\n");
+        Assert.assertTrue(channel.config().isAutoRead(), "Read should be resumed once command is done.");
+        Assert.assertEquals(future.get().getResponseLines().size(), 1, "Result mismatched.");
+    }
+
+    /**
+     * Tests the command failing when the request throws on a pushed response.
+     *
+     * @throws Exception will not throw
+     */
+    @Test
+    public void testCallbackThrows() throws Exception {
+        final EmbeddedChannel channel = new EmbeddedChannel();
+        final ImapAsyncSessionImpl aSession = createSession(channel);
+        final ImapFuture<ImapAsyncResponse> future = aSession.execute(new UidFetchCommand("1:*", "FLAGS") {
+            @Override
+            public UntaggedResponseDecision onUntaggedResponse(@Nonnull final IMAPResponse serverResponse) {
+                throw new IllegalStateException("cannot process");
+            }
+        });
+
+        writeInbound(channel, "* 1 FETCH (UID 4 FLAGS ())\r\n");
+        ExecutionException ex = null;
+        try {
+            future.get();
+        } catch (final ExecutionException e) {
+            ex = e;
+        }
+        Assert.assertNotNull(ex, "Exception should occur.");
+        final ImapAsyncClientException asyncEx = (ImapAsyncClientException) ex.getCause();
+        Assert.assertEquals(asyncEx.getFailureType(), FailureType.CHANNEL_EXCEPTION, "Result mismatched.");
+        Assert.assertEquals(asyncEx.getCause().getClass(), IllegalStateException.class, "Result mismatched.");
+    }
+
+    /**
+     * Tests mailbox events arriving while no command is running, delivered to the listener of the session.
+     *
+     * @throws Exception will not throw
+     */
+    @Test
+    public void testMailboxEventsBetweenCommands() throws Exception {
+        final EmbeddedChannel channel = new EmbeddedChannel();
+        final ImapAsyncSessionImpl aSession = createSession(channel);
+        writeInbound(channel, "* 4 EXISTS\r\n"); // no listener, dropped
+
+        final List<MailboxEvent> events = new ArrayList<MailboxEvent>();
+        aSession.setMailboxEventListener(events::add);
+        final ImapFuture<ImapAsyncResponse> future = aSession.execute(new NoopCommand());
+        writeInbound(channel, "* 3 EXPUNGE\r\na1 OK NOOP completed\r\n");
+        Assert.assertEquals(future.get().getResponseLines().size(), 2, "Response during the command should be left to the command.");
+        Assert.assertTrue(events.isEmpty(), "No event expected while the command runs.");
+
+        writeInbound(channel, "* 5 EXISTS\r\n* OK still here\r\n* 1 FETCH (UID 7 FLAGS (\\Seen))\r\n");
+        Assert.assertEquals(events.size(), 2, "Result mismatched.");
+        Assert.assertEquals(events.get(0).getType(), EventType.EXISTS, "Result mismatched.");
+        Assert.assertEquals(events.get(0).getMessageNumber(), 5, "Result mismatched.");
+        Assert.assertEquals(events.get(1).getType(), EventType.FLAGS, "Result mismatched.");
+        Assert.assertEquals(events.get(1).getUid(), 7, "Result mismatched.");
+
+        aSession.setMailboxEventListener(null);
+        writeInbound(channel, "* 6 EXISTS\r\n");
+        Assert.assertEquals(events.size(), 2, "No event expected once the listener is removed.");
+    }
+}
@@ -0,0 +1,130 @@
+package com.yahoo.imapnio.async.internal;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.mockito.Mockito;
+import org.slf4j.Logger;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.sun.mail.iap.ProtocolException;
+import com.sun.mail.imap.protocol.IMAPResponse;
+import com.yahoo.imapnio.async.client.ImapAsyncSession.DebugMode;
+import com.yahoo.imapnio.async.client.ImapAsyncSessionConfig;
+import com.yahoo.imapnio.async.exception.ImapAsyncClientException;
+import com.yahoo.imapnio.async.exception.ImapAsyncClientException.FailureType;
+import com.yahoo.imapnio.async.request.CapaCommand;
+import com.yahoo.imapnio.async.request.IdleCommand;
+import com.yahoo.imapnio.async.request.LoginCommand;
+import com.yahoo.imapnio.async.request.NoopCommand;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.ChannelPromise;
+
+/**
+ * Unit test for wire capture of {@link ImapAsyncSessionImpl}.
+ */
+public class ImapAsyncSessionImplWireCaptureTest {
+
+    /** Dummy session id. */
+    private static final Long SESSION_ID = Long.valueOf(123456);
+
+    /** Dummy user id. */
+    private static final String USER_ID = "Argentinosaurus@long.enough";
+
+    /**
+     * Creates a session on a mocked active channel.
+     *
+     * @param logger the logger
+     * @param config the session configuration
+     * @return the session
+     */
+    private ImapAsyncSessionImpl createSession(final Logger logger, final ImapAsyncSessionConfig config) {
+        final Channel channel = Mockito.mock(Channel.class);
+        final ChannelPipeline pipeline = Mockito.mock(ChannelPipeline.class);
+        Mockito.when(channel.pipeline()).thenReturn(pipeline);
+        Mockito.when(channel.isActive()).thenReturn(true);
+        Mockito.when(channel.newPromise()).thenReturn(Mockito.mock(ChannelPromise.class));
+        return new ImapAsyncSessionImpl(Mockito.mock(Clock.class), channel, logger, DebugMode.DEBUG_OFF, SESSION_ID, pipeline, USER_ID, config);
+    }
+
+    /**
+     * Tests traffic being captured with sensitive data redacted, and dumped when a command fails.
+     *
+     * @throws ImapAsyncClientException will not throw
+     * @throws ProtocolException will not throw
+     * @throws IOException will not throw
+     */
+    @Test
+    public void testCaptureAndDumpOnFailure() throws ImapAsyncClientException, IOException, ProtocolException {
+        final Logger logger = Mockito.mock(Logger.class);
+        Mockito.when(logger.isWarnEnabled()).thenReturn(true);
+        final ImapAsyncSessionImpl aSession = createSession(logger, new ImapAsyncSessionConfig());
+
+        aSession.handleChannelResponse(new IMAPResponse("* 1 EXISTS")); // no command running, still captured
+        aSession.execute(new LoginCommand("joe", "secret"));
+        aSession.handleChannelResponse(new IMAPResponse("a1 OK LOGIN completed"));
+        aSession.execute(new CapaCommand());
+        aSession.handleChannelResponse(new IMAPResponse("* CAPABILITY IMAP4rev1"));
+        aSession.handleChannelResponse(new IMAPResponse("* 1 FETCH (BODY[] {6}\r\nsecret)"));
+
+        final String expected = "S: * 1 EXISTS\r\nC: LOGIN FOR USER:joe\r\nS: a1 OK LOGIN completed\r\nC: a2 CAPABILITY\r\n"
+                + "S: * CAPABILITY IMAP4rev1\r\nS: * 1 FETCH (BODY[] <literal of 6 bytes>)\r\n";
+        Assert.assertEquals(new String(aSession.dumpWireCapture(), StandardCharsets.US_ASCII), expected, "Result mismatched.");
+
+        aSession.handleChannelClosed();
+        Mockito.verify(logger, Mockito.times(1)).warn(Mockito.eq("[{},{}] Command failed:{}, latest wire traffic:\r\n{}"), Mockito.eq(SESSION_ID),
+                Mockito.eq(USER_ID), Mockito.eq(FailureType.CHANNEL_DISCONNECTED), Mockito.eq(expected));
+    }
+
+    /**
+     * Tests no dump on failure of idle, and no dump when warn is disabled.
+     *
+     * @throws ImapAsyncClientException will not throw
+     */
+    @Test
+    public void testNoDumpOnFailure() throws ImapAsyncClientException {
+        final Logger logger = Mockito.mock(Logger.class);
+        Mockito.when(logger.isWarnEnabled()).thenReturn(true);
+        final ImapAsyncSessionImpl aSession = createSession(logger, new ImapAsyncSessionConfig());
+        aSession.execute(new IdleCommand(new ConcurrentLinkedQueue<IMAPResponse>()));
+        aSession.handleChannelClosed();
+
+        final Logger warnDisabledLogger = Mockito.mock(Logger.class);
+        final ImapAsyncSessionImpl warnDisabledSession = createSession(warnDisabledLogger, new ImapAsyncSessionConfig());
+        warnDisabledSession.execute(new NoopCommand());
+        warnDisabledSession.handleChannelClosed();
+
+        Mockito.verify(logger, Mockito.times(0)).warn(Mockito.anyString(), Mockito.anyObject(), Mockito.anyObject(), Mockito.anyObject(),
+                Mockito.anyObject());
+        Mockito.verify(warnDisabledLogger, Mockito.times(0)).warn(Mockito.anyString(), Mockito.anyObject(), Mockito.anyObject(), Mockito.anyObject(),
+                Mockito.anyObject());
+    }
+
+    /**
+     * Tests capturing being disabled.
+     *
+     * @throws ImapAsyncClientException will not throw
+     * @throws ProtocolException will not throw
+     * @throws IOException will not throw
+     */
+    @Test
+    public void testCaptureDisabled() throws ImapAsyncClientException, IOException, ProtocolException {
+        final Logger logger = Mockito.mock(Logger.class);
+        Mockito.when(logger.isWarnEnabled()).thenReturn(true);
+        final ImapAsyncSessionConfig config = new ImapAsyncSessionConfig();
+        config.setWireCaptureBufferSize(0);
+        final ImapAsyncSessionImpl aSession = createSession(logger, config);
+
+        aSession.execute(new NoopCommand());
+        aSession.handleChannelResponse(new IMAPResponse("* 1 EXISTS"));
+        Assert.assertEquals(aSession.dumpWireCapture().length, 0, "Result mismatched.");
+        aSession.handleChannelClosed();
+        Mockito.verify(logger, Mockito.times(0)).warn(Mockito.anyString(), Mockito.anyObject(), Mockito.anyObject(), Mockito.anyObject(),
+                Mockito.anyObject());
+    }
+}
@@ -0,0 +1,106 @@
+package com.yahoo.imapnio.async.internal;
+
+import java.time.Clock;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import io.netty.channel.EventLoop;
+import io.netty.channel.EventLoopGroup;
+import io.netty.util.concurrent.EventExecutor;
+
+/**
+ * Unit test for {@link ImapEventLoopLagMonitor}.
+ */
+public class ImapEventLoopLagMonitorTest {
+
+    /**
+     * Tests probes recording the latest and maximum lag, and rescheduling until stopped.
+     */
+    @Test
+    public void testStartProbeStop() {
+        final Clock clock = Mockito.mock(Clock.class);
+        final EventLoopGroup group = Mockito.mock(EventLoopGroup.class);
+        final EventExecutor executor = Mockito.mock(EventExecutor.class);
+        final EventExecutor shuttingDownExecutor = Mockito.mock(EventExecutor.class);
+        Mockito.when(shuttingDownExecutor.isShuttingDown()).thenReturn(true);
+        Mockito.when(group.iterator()).thenReturn(Arrays.asList(executor, shuttingDownExecutor).iterator());
+
+        final ImapEventLoopLagMonitor monitor = new ImapEventLoopLagMonitor(clock, group, 50);
+        Assert.assertEquals(monitor.getLagMillis(), 0, "Result mismatched.");
+        Assert.assertEquals(monitor.getMaxLagMillis(), 0, "Result mismatched.");
+
+        // first probe expected at 1050, run at 1080
+        Mockito.when(clock.millis()).thenReturn(1000L, 1080L, 1080L, 1120L);
+        monitor.start();
+        monitor.start(); // second start is no-op
+        Mockito.verify(group, Mockito.times(1)).iterator();
+        Mockito.verify(shuttingDownExecutor, Mockito.times(0)).schedule(Mockito.any(Runnable.class), Mockito.anyLong(),
+                Mockito.any(TimeUnit.class));
+        final ArgumentCaptor<Runnable> probeCaptor = ArgumentCaptor.forClass(Runnable.class);
+        Mockito.verify(executor, Mockito.times(1)).schedule(probeCaptor.capture(), Mockito.eq(50L), Mockito.eq(TimeUnit.MILLISECONDS));
+        probeCaptor.getValue().run();
+        Assert.assertEquals(monitor.getLagMillis(), 30, "Result mismatched.");
+        Assert.assertEquals(monitor.getMaxLagMillis(), 30, "Result mismatched.");
+
+        // second probe expected at 1130, run at 1120, earlier than expected
+        Mockito.verify(executor, Mockito.times(2)).schedule(probeCaptor.capture(), Mockito.eq(50L), Mockito.eq(TimeUnit.MILLISECONDS));
+        Mockito.when(clock.millis()).thenReturn(1120L);
+        monitor.stop();
+        probeCaptor.getValue().run();
+        Assert.assertEquals(monitor.getLagMillis(), 0, "Result mismatched.");
+        Assert.assertEquals(monitor.getMaxLagMillis(), 30, "Result mismatched.");
+        Mockito.verify(executor, Mockito.times(2)).schedule(Mockito.any(Runnable.class), Mockito.anyLong(), Mockito.any(TimeUnit.class));
+    }
+
+    /**
+     * Tests lag per event loop, overload detection and event loop selection.
+     */
+    @Test
+    public void testOverloadAndSelectEventLoop() {
+        final Clock clock = Mockito.mock(Clock.class);
+        final EventLoopGroup group = Mockito.mock(EventLoopGroup.class);
+        final EventLoop loop1 = Mockito.mock(EventLoop.class);
+        final EventLoop loop2 = Mockito.mock(EventLoop.class);
+        Mockito.when(group.iterator()).thenReturn(Arrays.<EventExecutor> asList(loop1, loop2).iterator());
+        Mockito.when(group.next()).thenReturn(loop1);
+
+        final ImapEventLoopLagMonitor monitor = new ImapEventLoopLagMonitor(clock, group, 50, 100);
+        Mockito.when(clock.millis()).thenReturn(1000L);
+        monitor.start();
+        final ArgumentCaptor<Runnable> probe1Captor = ArgumentCaptor.forClass(Runnable.class);
+        Mockito.verify(loop1, Mockito.times(1)).schedule(probe1Captor.capture(), Mockito.eq(50L), Mockito.eq(TimeUnit.MILLISECONDS));
+        final ArgumentCaptor<Runnable> probe2Captor = ArgumentCaptor.forClass(Runnable.class);
+        Mockito.verify(loop2, Mockito.times(1)).schedule(probe2Captor.capture(), Mockito.eq(50L), Mockito.eq(TimeUnit.MILLISECONDS));
+        monitor.stop(); // no reschedule
+
+        // loop1 lags 150ms, loop2 lags 50ms
+        Mockito.when(clock.millis()).thenReturn(1200L);
+        probe1Captor.getValue().run();
+        Mockito.when(clock.millis()).thenReturn(1100L);
+        probe2Captor.getValue().run();
+        Assert.assertEquals(monitor.getLagMillis(loop1), 150, "Result mismatched.");
+        Assert.assertEquals(monitor.getLagMillis(loop2), 50, "Result mismatched.");
+        Assert.assertEquals(monitor.getLagMillis(Mockito.mock(EventExecutor.class)), 0, "Result mismatched.");
+        Assert.assertEquals(monitor.getLagMillis(null), 0, "Result mismatched.");
+        Assert.assertTrue(monitor.isOverloaded(loop1), "Loop should be overloaded.");
+        Assert.assertFalse(monitor.isOverloaded(loop2), "Loop should not be overloaded.");
+        Assert.assertSame(monitor.selectEventLoop(), loop2, "Result mismatched.");
+
+        Mockito.when(group.next()).thenReturn(loop2);
+        Assert.assertSame(monitor.selectEventLoop(), loop2, "Result mismatched.");
+
+        // all overloaded
+        Mockito.when(clock.millis()).thenReturn(1300L);
+        probe2Captor.getValue().run();
+        Assert.assertNull(monitor.selectEventLoop(), "No event loop should be selected.");
+
+        // no threshold, never overloaded
+        final ImapEventLoopLagMonitor noThresholdMonitor = new ImapEventLoopLagMonitor(clock, group, 50);
+        Assert.assertFalse(noThresholdMonitor.isOverloaded(loop1), "Loop should not be overloaded.");
+    }
+}
@@ -0,0 +1,57 @@
+package com.yahoo.imapnio.async.internal;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for {@link ImapMemoryBudget}.
+ */
+public class ImapMemoryBudgetTest {
+
+    /**
+     * Tests reserving and releasing bytes, and running waiters once the budget becomes available.
+     */
+    @Test
+    public void testReserveReleaseAndWaiters() {
+        final ImapMemoryBudget budget = new ImapMemoryBudget(100);
+        Assert.assertEquals(budget.getMaxBytes(), 100, "Result mismatched.");
+        Assert.assertTrue(budget.reserve(60), "Reservation should be within budget.");
+        Assert.assertTrue(budget.reserve(40), "Reservation should be within budget.");
+        Assert.assertFalse(budget.isExhausted(), "Budget should not be exhausted.");
+        Assert.assertFalse(budget.reserve(30), "Reservation should exceed budget.");
+        Assert.assertTrue(budget.isExhausted(), "Budget should be exhausted.");
+        Assert.assertEquals(budget.getReservedBytes(), 130, "Result mismatched.");
+
+        final AtomicInteger runCount = new AtomicInteger(0);
+        final Runnable waiter = new Runnable() {
+            @Override
+            public void run() {
+                runCount.incrementAndGet();
+            }
+        };
+        budget.runWhenAvailable(waiter);
+        Assert.assertEquals(runCount.get(), 0, "Waiter should not run.");
+        budget.release(0); // no-op
+        budget.release(20);
+        Assert.assertEquals(runCount.get(), 0, "Waiter should not run.");
+        budget.release(20);
+        Assert.assertEquals(runCount.get(), 1, "Waiter should run once.");
+        budget.release(10);
+        Assert.assertEquals(runCount.get(), 1, "Waiter should run once.");
+        Assert.assertEquals(budget.getReservedBytes(), 80, "Result mismatched.");
+
+        // available already, run straight away
+        budget.runWhenAvailable(waiter);
+        Assert.assertEquals(runCount.get(), 2, "Waiter should run straight away.");
+    }
+
+    /**
+     * Tests constructor with invalid budget.
+     */
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidMaxBytes() {
+        new ImapMemoryBudget(0);
+    }
+}
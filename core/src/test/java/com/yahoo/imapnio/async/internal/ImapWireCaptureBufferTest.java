@@ -0,0 +1,78 @@
+package com.yahoo.imapnio.async.internal;
+
+import java.nio.charset.StandardCharsets;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+/**
+ * Unit test for {@link ImapWireCaptureBuffer}.
+ */
+public class ImapWireCaptureBufferTest {
+
+    /**
+     * Tests recording requests and responses before the ring is full.
+     */
+    @Test
+    public void testRecordNotWrapped() {
+        final ImapWireCaptureBuffer capture = new ImapWireCaptureBuffer(1024);
+        Assert.assertEquals(capture.dump().length, 0, "Result mismatched.");
+
+        final ByteBuf request = Unpooled.copiedBuffer("a1 CAPABILITY\r\n", StandardCharsets.US_ASCII);
+        capture.recordRequest(request);
+        Assert.assertEquals(request.readableBytes(), 15, "Request should not be consumed.");
+        capture.recordResponse("* CAPABILITY IMAP4rev1".getBytes(StandardCharsets.US_ASCII));
+        capture.recordRedactedRequest("LOGIN FOR USER:joe");
+        Assert.assertEquals(new String(capture.dump(), StandardCharsets.US_ASCII),
+                "C: a1 CAPABILITY\r\nS: * CAPABILITY IMAP4rev1\r\nC: LOGIN FOR USER:joe\r\n", "Result mismatched.");
+    }
+
+    /**
+     * Tests oldest bytes being overwritten once the ring is full, including data larger than the ring.
+     */
+    @Test
+    public void testRecordWrapped() {
+        final ImapWireCaptureBuffer capture = new ImapWireCaptureBuffer(16);
+        capture.recordResponse("* 1 EXISTS".getBytes(StandardCharsets.US_ASCII)); // 15 bytes
+        capture.recordResponse("* 2 EXISTS".getBytes(StandardCharsets.US_ASCII));
+        Assert.assertEquals(new String(capture.dump(), StandardCharsets.US_ASCII), "\nS: * 2 EXISTS\r\n", "Result mismatched.");
+
+        final ByteBuf request = Unpooled.copiedBuffer("a2 APPEND INBOX {3}\r\n", StandardCharsets.US_ASCII);
+        request.readerIndex(3);
+        capture.recordRequest(request);
+        Assert.assertEquals(new String(capture.dump(), StandardCharsets.US_ASCII), "PEND INBOX {3}\r\n", "Result mismatched.");
+        capture.recordRequest(Unpooled.copiedBuffer("abc\r\n", StandardCharsets.US_ASCII));
+        Assert.assertEquals(new String(capture.dump(), StandardCharsets.US_ASCII), "OX {3}\r\nC: abc\r\n", "Result mismatched.");
+
+        capture.recordResponse("* OK this response is longer than the ring".getBytes(StandardCharsets.US_ASCII));
+        Assert.assertEquals(new String(capture.dump(), StandardCharsets.US_ASCII), " than the ring\r\n", "Result mismatched.");
+    }
+
+    /**
+     * Tests literals in responses being replaced by their length, and literal-like data that is not a literal being kept.
+     */
+    @Test
+    public void testRecordResponseLiterals() {
+        final ImapWireCaptureBuffer capture = new ImapWireCaptureBuffer(1024);
+        capture.recordResponse("* 1 FETCH (BODY[HEADER] {5}\r\n{2}\r\n BODY[TEXT] {0}\r\n)".getBytes(StandardCharsets.US_ASCII));
+        capture.recordResponse("* OK [ALERT] {not literal} {} {1}".getBytes(StandardCharsets.US_ASCII));
+        capture.recordResponse("* 2 FETCH (BODY[] {100}\r\ntruncated".getBytes(StandardCharsets.US_ASCII));
+        capture.recordResponse("* 3 FETCH (BODY[] {12345678901}\r\nx)".getBytes(StandardCharsets.US_ASCII));
+        Assert.assertEquals(new String(capture.dump(), StandardCharsets.US_ASCII),
+                "S: * 1 FETCH (BODY[HEADER] <literal of 5 bytes> BODY[TEXT] <literal of 0 bytes>)\r\n"
+                        + "S: * OK [ALERT] {not literal} {} {1}\r\nS: * 2 FETCH (BODY[] <literal of 100 bytes>\r\n"
+                        + "S: * 3 FETCH (BODY[] {12345678901}\r\nx)\r\n",
+                "Result mismatched.");
+    }
+
+    /**
+     * Tests invalid capacity.
+     */
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidCapacity() {
+        new ImapWireCaptureBuffer(0);
+    }
+}
@@ -0,0 +1,213 @@
+package com.yahoo.imapnio.async.jfr;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.mockito.Mockito;
+import org.slf4j.Logger;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.sun.mail.iap.ProtocolException;
+import com.sun.mail.imap.protocol.IMAPResponse;
+import com.yahoo.imapnio.async.client.ImapAsyncClientConfig;
+import com.yahoo.imapnio.async.client.ImapAsyncCreateSessionResponse;
+import com.yahoo.imapnio.async.client.ImapAsyncSession.DebugMode;
+import com.yahoo.imapnio.async.client.ImapAsyncSessionConfig;
+import com.yahoo.imapnio.async.client.ImapFuture;
+import com.yahoo.imapnio.async.exception.ImapAsyncClientException;
+import com.yahoo.imapnio.async.internal.ImapAsyncSessionImpl;
+import com.yahoo.imapnio.async.netty.ImapClientConnectHandler;
+import com.yahoo.imapnio.async.request.CapaCommand;
+import com.yahoo.imapnio.async.request.NoopCommand;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.ChannelPromise;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Unit test for the flight recorder events emitted by the client when enabled.
+ */
+public class ImapFlightRecorderEventsTest {
+
+    /** Dummy session id. */
+    private static final long SESSION_ID = 123456L;
+
+    /** Dummy user id. */
+    private static final String USER_ID = "Argentinosaurus@long.enough";
+
+    /**
+     * Starts a recording with all events of this library enabled.
+     *
+     * @return the recording
+     */
+    private Recording startRecording() {
+        final Recording recording = new Recording();
+        for (final String name : Arrays.asList("Connect", "Greeting", "SessionClose", "Command", "LiteralRead")) {
+            recording.enable("com.yahoo.imapnio." + name);
+        }
+        recording.start();
+        return recording;
+    }
+
+    /**
+     * Stops the recording and reads back the events.
+     *
+     * @param recording the recording
+     * @param name the event name to filter
+     * @return the events with the given name
+     * @throws IOException on failure to dump the recording
+     */
+    private List<RecordedEvent> stopRecording(final Recording recording, final String name) throws IOException {
+        recording.stop();
+        final Path file = Files.createTempFile("imapnio", ".jfr");
+        try {
+            recording.dump(file);
+            final List<RecordedEvent> events = new ArrayList<RecordedEvent>();
+            for (final RecordedEvent event : RecordingFile.readAllEvents(file)) {
+                if (event.getEventType().getName().equals("com.yahoo.imapnio." + name)) {
+                    events.add(event);
+                }
+            }
+            return events;
+        } finally {
+            recording.close();
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Tests command and session close events emitted by the session.
+     *
+     * @throws ImapAsyncClientException will not throw
+     * @throws ProtocolException will not throw
+     * @throws IOException will not throw
+     */
+    @Test
+    public void testCommandAndSessionCloseEvents() throws ImapAsyncClientException, IOException, ProtocolException {
+        final Channel channel = Mockito.mock(Channel.class);
+        final ChannelPipeline pipeline = Mockito.mock(ChannelPipeline.class);
+        Mockito.when(channel.pipeline()).thenReturn(pipeline);
+        Mockito.when(channel.isActive()).thenReturn(true);
+        Mockito.when(channel.newPromise()).thenReturn(Mockito.mock(ChannelPromise.class));
+        final ImapAsyncClientConfig clientConfig = new ImapAsyncClientConfig();
+        clientConfig.setFlightRecorderEventsEnabled(true);
+        final ImapAsyncSessionImpl aSession = new ImapAsyncSessionImpl(Mockito.mock(Clock.class), channel, Mockito.mock(Logger.class),
+                DebugMode.DEBUG_OFF, SESSION_ID, pipeline, USER_ID, new ImapAsyncSessionConfig(), clientConfig);
+
+        final Recording recording = startRecording();
+        aSession.execute(new CapaCommand());
+        aSession.handleChannelResponse(new IMAPResponse("* CAPABILITY IMAP4rev1 SASL-IR"));
+        aSession.handleChannelResponse(new IMAPResponse("a1 OK CAPABILITY completed"));
+        aSession.execute(new NoopCommand());
+        aSession.handleChannelClosed();
+        final List<RecordedEvent> commandEvents = stopRecording(recording, "Command");
+
+        Assert.assertEquals(commandEvents.size(), 2, "Number of events mismatched.");
+        final RecordedEvent capa = commandEvents.get(0);
+        Assert.assertEquals(capa.getLong("sessionId"), SESSION_ID, "Result mismatched.");
+        Assert.assertEquals(capa.getString("tag"), "a1", "Result mismatched.");
+        Assert.assertEquals(capa.getString("commandType"), "CAPABILITY", "Result mismatched.");
+        Assert.assertEquals(capa.getLong("requestBytes"), 15, "Result mismatched.");
+        Assert.assertEquals(capa.getLong("responseBytes"), 56, "Result mismatched.");
+        Assert.assertNull(capa.getString("failureType"), "Result mismatched.");
+        final RecordedEvent noop = commandEvents.get(1);
+        Assert.assertEquals(noop.getString("commandType"), "NOOP", "Result mismatched.");
+        Assert.assertEquals(noop.getString("failureType"), "CHANNEL_DISCONNECTED", "Result mismatched.");
+    }
+
+    /**
+     * Tests session close event emitted by the session.
+     *
+     * @throws IOException will not throw
+     */
+    @Test
+    public void testSessionCloseEvent() throws IOException {
+        final Channel channel = Mockito.mock(Channel.class);
+        final ChannelPipeline pipeline = Mockito.mock(ChannelPipeline.class);
+        final ImapAsyncClientConfig clientConfig = new ImapAsyncClientConfig();
+        clientConfig.setFlightRecorderEventsEnabled(true);
+        final ImapAsyncSessionImpl aSession = new ImapAsyncSessionImpl(Mockito.mock(Clock.class), channel, Mockito.mock(Logger.class),
+                DebugMode.DEBUG_OFF, SESSION_ID, pipeline, USER_ID, new ImapAsyncSessionConfig(), clientConfig);
+
+        final Recording recording = startRecording();
+        aSession.handleChannelClosed();
+        final List<RecordedEvent> events = stopRecording(recording, "SessionClose");
+        Assert.assertEquals(events.size(), 1, "Number of events mismatched.");
+        Assert.assertEquals(events.get(0).getLong("sessionId"), SESSION_ID, "Result mismatched.");
+    }
+
+    /**
+     * Tests greeting event emitted by the connect handler.
+     *
+     * @throws IOException will not throw
+     * @throws ProtocolException will not throw
+     */
+    @Test
+    public void testGreetingEvent() throws IOException, ProtocolException {
+        final ImapAsyncClientConfig clientConfig = new ImapAsyncClientConfig();
+        clientConfig.setFlightRecorderEventsEnabled(true);
+        final Recording recording = startRecording();
+        final ImapClientConnectHandler handler = new ImapClientConnectHandler(Mockito.mock(Clock.class),
+                new ImapFuture<ImapAsyncCreateSessionResponse>(), Mockito.mock(Logger.class), DebugMode.DEBUG_OFF, SESSION_ID, USER_ID,
+                new ImapAsyncSessionConfig(), clientConfig);
+        final ChannelHandlerContext ctx = Mockito.mock(ChannelHandlerContext.class);
+        Mockito.when(ctx.pipeline()).thenReturn(Mockito.mock(ChannelPipeline.class));
+        Mockito.when(ctx.channel()).thenReturn(Mockito.mock(Channel.class));
+        handler.decode(ctx, new IMAPResponse("* BYE not today"), new ArrayList<Object>());
+
+        final List<RecordedEvent> events = stopRecording(recording, "Greeting");
+        Assert.assertEquals(events.size(), 1, "Number of events mismatched.");
+        Assert.assertEquals(events.get(0).getLong("sessionId"), SESSION_ID, "Result mismatched.");
+        Assert.assertFalse(events.get(0).getBoolean("ok"), "Result mismatched.");
+    }
+
+    /**
+     * Tests event getters and setters.
+     */
+    @Test
+    public void testGettersSetters() {
+        final ImapConnectEvent connectEvent = new ImapConnectEvent();
+        connectEvent.setServerUri("imaps://one.two.three.com:993");
+        connectEvent.setSuccess(true);
+        Assert.assertEquals(connectEvent.getServerUri(), "imaps://one.two.three.com:993", "Result mismatched.");
+        Assert.assertTrue(connectEvent.isSuccess(), "Result mismatched.");
+
+        final ImapGreetingEvent greetingEvent = new ImapGreetingEvent();
+        greetingEvent.setSessionId(SESSION_ID);
+        greetingEvent.setOk(true);
+        Assert.assertEquals(greetingEvent.getSessionId(), SESSION_ID, "Result mismatched.");
+        Assert.assertTrue(greetingEvent.isOk(), "Result mismatched.");
+
+        final ImapSessionCloseEvent closeEvent = new ImapSessionCloseEvent();
+        closeEvent.setSessionId(SESSION_ID);
+        Assert.assertEquals(closeEvent.getSessionId(), SESSION_ID, "Result mismatched.");
+
+        final ImapCommandEvent commandEvent = new ImapCommandEvent();
+        commandEvent.setSessionId(SESSION_ID);
+        commandEvent.setTag("a1");
+        commandEvent.setCommandType("NOOP");
+        commandEvent.setRequestBytes(9);
+        commandEvent.setResponseBytes(20);
+        commandEvent.setFailureType("CHANNEL_TIMEOUT");
+        Assert.assertEquals(commandEvent.getSessionId(), SESSION_ID, "Result mismatched.");
+        Assert.assertEquals(commandEvent.getTag(), "a1", "Result mismatched.");
+        Assert.assertEquals(commandEvent.getCommandType(), "NOOP", "Result mismatched.");
+        Assert.assertEquals(commandEvent.getRequestBytes(), 9, "Result mismatched.");
+        Assert.assertEquals(commandEvent.getResponseBytes(), 20, "Result mismatched.");
+        Assert.assertEquals(commandEvent.getFailureType(), "CHANNEL_TIMEOUT", "Result mismatched.");
+
+        final ImapLiteralReadEvent literalEvent = new ImapLiteralReadEvent();
+        literalEvent.setLiteralSize(100);
+        Assert.assertEquals(literalEvent.getLiteralSize(), 100, "Result mismatched.");
+    }
+}
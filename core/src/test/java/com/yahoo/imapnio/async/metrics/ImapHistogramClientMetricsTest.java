@@ -0,0 +1,49 @@
+package com.yahoo.imapnio.async.metrics;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.yahoo.imapnio.async.exception.ImapAsyncClientException.FailureType;
+import com.yahoo.imapnio.async.request.ImapRFCSupportedCommandType;
+
+/**
+ * Unit test for {@link ImapHistogramClientMetrics}.
+ */
+public class ImapHistogramClientMetricsTest {
+
+    /**
+     * Tests events being recorded in histograms.
+     */
+    @Test
+    public void testRecordEvents() {
+        final ImapHistogramClientMetrics metrics = new ImapHistogramClientMetrics();
+        Assert.assertNull(metrics.getLatency(ImapRFCSupportedCommandType.FETCH), "Result mismatched.");
+        Assert.assertNull(metrics.getTimeToFirstResponse(ImapRFCSupportedCommandType.FETCH), "Result mismatched.");
+        Assert.assertNull(metrics.getInFlightDepth(ImapRFCSupportedCommandType.FETCH), "Result mismatched.");
+        Assert.assertNull(metrics.getFailures(FailureType.CHANNEL_DISCONNECTED), "Result mismatched.");
+
+        metrics.onConnected(10);
+        metrics.onSessionCreated(20);
+        Assert.assertEquals(metrics.getConnectTime().getMax(), 10, "Result mismatched.");
+        Assert.assertEquals(metrics.getHandshakeTime().getMax(), 20, "Result mismatched.");
+
+        metrics.onCommandStarted(ImapRFCSupportedCommandType.FETCH);
+        metrics.onCommandStarted(ImapRFCSupportedCommandType.FETCH);
+        metrics.onCommandStarted(ImapRFCSupportedCommandType.NOOP);
+        Assert.assertEquals(metrics.getInFlight(), 3, "Result mismatched.");
+        Assert.assertEquals(metrics.getInFlightDepth(ImapRFCSupportedCommandType.FETCH).getCount(), 2, "Result mismatched.");
+        Assert.assertEquals(metrics.getInFlightDepth(ImapRFCSupportedCommandType.FETCH).getMax(), 2, "Result mismatched.");
+        Assert.assertEquals(metrics.getInFlightDepth(ImapRFCSupportedCommandType.NOOP).getMax(), 3, "Result mismatched.");
+
+        metrics.onFirstResponse(ImapRFCSupportedCommandType.FETCH, 30);
+        metrics.onCommandCompleted(ImapRFCSupportedCommandType.FETCH, 40, 100, 2000);
+        metrics.onCommandCompleted(ImapRFCSupportedCommandType.FETCH, 50, 100, 2000);
+        metrics.onCommandFailed(ImapRFCSupportedCommandType.NOOP, 60, FailureType.CHANNEL_DISCONNECTED);
+        Assert.assertEquals(metrics.getInFlight(), 0, "Result mismatched.");
+        Assert.assertEquals(metrics.getTimeToFirstResponse(ImapRFCSupportedCommandType.FETCH).getMax(), 30, "Result mismatched.");
+        Assert.assertEquals(metrics.getLatency(ImapRFCSupportedCommandType.FETCH).getCount(), 2, "Result mismatched.");
+        Assert.assertEquals(metrics.getLatency(ImapRFCSupportedCommandType.FETCH).getMean(), 45.0, "Result mismatched.");
+        Assert.assertNull(metrics.getLatency(ImapRFCSupportedCommandType.NOOP), "Result mismatched.");
+        Assert.assertEquals(metrics.getFailures(FailureType.CHANNEL_DISCONNECTED).getMax(), 60, "Result mismatched.");
+    }
+}
@@ -0,0 +1,88 @@
+package com.yahoo.imapnio.async.metrics;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for {@link ImapLatencyHistogram}.
+ */
+public class ImapLatencyHistogramTest {
+
+    /**
+     * Tests an empty histogram.
+     */
+    @Test
+    public void testEmpty() {
+        final ImapLatencyHistogram histogram = new ImapLatencyHistogram();
+        Assert.assertEquals(histogram.getCount(), 0, "Result mismatched.");
+        Assert.assertEquals(histogram.getMax(), 0, "Result mismatched.");
+        Assert.assertEquals(histogram.getMean(), 0.0, "Result mismatched.");
+        Assert.assertEquals(histogram.getValueAtPercentile(99), 0, "Result mismatched.");
+    }
+
+    /**
+     * Tests small values being counted exactly.
+     */
+    @Test
+    public void testExactValues() {
+        final ImapLatencyHistogram histogram = new ImapLatencyHistogram();
+        for (int i = 1; i <= 50; i++) {
+            histogram.record(i);
+        }
+        histogram.record(-5); // counted as 0
+        Assert.assertEquals(histogram.getCount(), 51, "Result mismatched.");
+        Assert.assertEquals(histogram.getMax(), 50, "Result mismatched.");
+        Assert.assertEquals(histogram.getMean(), 25.0, "Result mismatched.");
+        Assert.assertEquals(histogram.getValueAtPercentile(0), 0, "Result mismatched.");
+        Assert.assertEquals(histogram.getValueAtPercentile(50), 25, "Result mismatched.");
+        Assert.assertEquals(histogram.getValueAtPercentile(100), 50, "Result mismatched.");
+        Assert.assertEquals(histogram.getValueAtPercentile(200), 50, "Result mismatched.");
+    }
+
+    /**
+     * Tests large values being counted within the relative error.
+     */
+    @Test
+    public void testLargeValues() {
+        final ImapLatencyHistogram histogram = new ImapLatencyHistogram();
+        final long[] values = { 1_000L, 1_000_000L, 123_456_789L, 5_000_000_000L };
+        for (final long value : values) {
+            histogram.record(value);
+        }
+        Assert.assertEquals(histogram.getMax(), 5_000_000_000L, "Result mismatched.");
+        for (int i = 0; i < values.length; i++) {
+            final long reported = histogram.getValueAtPercentile(100.0 * (i + 1) / values.length);
+            Assert.assertTrue(reported >= values[i], "Reported value should not be lower than recorded value.");
+            Assert.assertTrue(reported - values[i] <= values[i] / 32, "Reported value should be within relative error.");
+        }
+
+        histogram.record(Long.MAX_VALUE);
+        Assert.assertEquals(histogram.getValueAtPercentile(100), Long.MAX_VALUE, "Result mismatched.");
+    }
+
+    /**
+     * Tests invalid number of significant bits.
+     */
+    @Test
+    public void testInvalidSignificantBits() {
+        IllegalArgumentException ex = null;
+        try {
+            new ImapLatencyHistogram(0);
+        } catch (final IllegalArgumentException e) {
+            ex = e;
+        }
+        Assert.assertNotNull(ex, "Exception should occur.");
+
+        ex = null;
+        try {
+            new ImapLatencyHistogram(17);
+        } catch (final IllegalArgumentException e) {
+            ex = e;
+        }
+        Assert.assertNotNull(ex, "Exception should occur.");
+
+        final ImapLatencyHistogram histogram = new ImapLatencyHistogram(1);
+        histogram.record(7);
+        Assert.assertEquals(histogram.getValueAtPercentile(50), 7, "Result mismatched.");
+    }
+}
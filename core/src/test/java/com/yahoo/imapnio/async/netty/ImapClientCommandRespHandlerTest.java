@@ -16,6 +16,7 @@ import org.testng.annotations.Test;
 
 import com.sun.mail.iap.ProtocolException;
 import com.sun.mail.imap.protocol.IMAPResponse;
+import com.yahoo.imapnio.client.ImapClientRespReader.MemoryBudgetEvent;
 
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.timeout.IdleState;
@@ -129,6 +130,41 @@ public class ImapClientCommandRespHandlerTest {
         final String otherEvent = "king is coming!!!";
         handler.userEventTriggered(ctx, otherEvent);
         Mockito.verify(processor, Mockito.times(0)).handleIdleEvent(Mockito.any(IdleStateEvent.class));
+        Mockito.verify(processor, Mockito.times(0)).handleMemoryBudgetExceeded();
+    }
+
+    /**
+     * Tests userEventTriggered method and the event is MemoryBudgetEvent.
+     */
+    @Test
+    public void testUserEventTriggeredMemoryBudgetEvent() {
+        final ImapCommandChannelEventProcessor processor = Mockito.mock(ImapCommandChannelEventProcessor.class);
+        final ImapClientCommandRespHandler handler = new ImapClientCommandRespHandler(processor);
+
+        handler.userEventTriggered(Mockito.mock(ChannelHandlerContext.class), MemoryBudgetEvent.EXCEEDED);
+        Mockito.verify(processor, Mockito.times(1)).handleMemoryBudgetExceeded();
+    }
+
+    /**
+     * Tests channelWritabilityChanged method.
+     *
+     * @throws IllegalArgumentException will not throw
+     */
+    @Test
+    public void testChannelWritabilityChanged() throws IllegalArgumentException {
+        final ImapCommandChannelEventProcessor processor = Mockito.mock(ImapCommandChannelEventProcessor.class);
+        final ImapClientCommandRespHandler handler = new ImapClientCommandRespHandler(processor);
+
+        final ChannelHandlerContext ctx = Mockito.mock(ChannelHandlerContext.class);
+        handler.channelWritabilityChanged(ctx);
+        Mockito.verify(processor, Mockito.times(1)).handleChannelWritabilityChanged();
+        Mockito.verify(ctx, Mockito.times(1)).fireChannelWritabilityChanged();
+
+        // after channel is closed, processor should not be called
+        handler.channelInactive(ctx);
+        handler.channelWritabilityChanged(ctx);
+        Mockito.verify(processor, Mockito.times(1)).handleChannelWritabilityChanged();
+        Mockito.verify(ctx, Mockito.times(2)).fireChannelWritabilityChanged();
     }
 
     /**
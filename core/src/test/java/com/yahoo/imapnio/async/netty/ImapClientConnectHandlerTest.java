@@ -22,15 +22,22 @@ import org.testng.annotations.Test;
 
 import com.sun.mail.iap.ProtocolException;
 import com.sun.mail.imap.protocol.IMAPResponse;
+import com.yahoo.imapnio.async.client.ImapAsyncClientConfig;
 import com.yahoo.imapnio.async.client.ImapAsyncCreateSessionResponse;
 import com.yahoo.imapnio.async.client.ImapAsyncSession.DebugMode;
+import com.yahoo.imapnio.async.client.ImapAsyncSessionConfig;
+import com.yahoo.imapnio.async.client.ImapAsyncSessionConfig.WriteBackpressurePolicy;
 import com.yahoo.imapnio.async.client.ImapFuture;
 import com.yahoo.imapnio.async.exception.ImapAsyncClientException;
 import com.yahoo.imapnio.async.exception.ImapAsyncClientException.FailureType;
+import com.yahoo.imapnio.async.metrics.ImapClientMetrics;
+import com.yahoo.imapnio.async.request.CapaCommand;
+import com.yahoo.imapnio.async.request.ImapRFCSupportedCommandType;
 
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPipeline;
+import io.netty.channel.ChannelPromise;
 import io.netty.channel.ConnectTimeoutException;
 import io.netty.handler.timeout.IdleState;
 import io.netty.handler.timeout.IdleStateEvent;
@@ -97,11 +104,18 @@ public class ImapClientConnectHandlerTest {
         final Logger logger = Mockito.mock(Logger.class);
 
         final String sessCtx = "Titanosauria@long.neck";
-        final ImapClientConnectHandler handler = new ImapClientConnectHandler(clock, imapFuture, logger, DebugMode.DEBUG_ON, SESSION_ID, sessCtx);
+        final ImapAsyncSessionConfig config = new ImapAsyncSessionConfig();
+        config.setWriteBackpressurePolicy(WriteBackpressurePolicy.REJECT);
+        final ImapClientConnectHandler handler = new ImapClientConnectHandler(clock, imapFuture, logger, DebugMode.DEBUG_ON, SESSION_ID, sessCtx,
+                config);
 
         final ChannelHandlerContext ctx = Mockito.mock(ChannelHandlerContext.class);
         final ChannelPipeline pipeline = Mockito.mock(ChannelPipeline.class);
         Mockito.when(ctx.pipeline()).thenReturn(pipeline);
+        final Channel channel = Mockito.mock(Channel.class);
+        Mockito.when(channel.isActive()).thenReturn(true);
+        Mockito.when(channel.isWritable()).thenReturn(false);
+        Mockito.when(ctx.channel()).thenReturn(channel);
 
         final IMAPResponse resp = new IMAPResponse("* OK [CAPABILITY IMAP4rev1 SASL-IR AUTH=PLAIN] IMAP4rev1 Hello");
         final List<Object> out = new ArrayList<Object>();
@@ -111,6 +125,60 @@ public class ImapClientConnectHandlerTest {
         Assert.assertTrue(imapFuture.isDone(), "Future should be done");
         final ImapAsyncCreateSessionResponse asyncSession = imapFuture.get(5, TimeUnit.MILLISECONDS);
         Assert.assertNotNull(asyncSession, "Expect ImapAsyncSession not to be null");
+
+        // the configured policy should be honored by the created session
+        ImapAsyncClientException ex = null;
+        try {
+            asyncSession.getSession().execute(new CapaCommand());
+        } catch (final ImapAsyncClientException e) {
+            ex = e;
+        }
+        Assert.assertNotNull(ex, "Expect exception to be thrown.");
+        Assert.assertEquals(ex.getFailureType(), FailureType.CHANNEL_NOT_WRITABLE, "Failure type mismatched.");
+    }
+
+    /**
+     * Tests decode method when successful and metrics are reported.
+     *
+     * @throws IllegalArgumentException will not throw
+     * @throws ProtocolException will not throw
+     * @throws IOException will not throw
+     * @throws ExecutionException will not throw
+     * @throws InterruptedException will not throw
+     * @throws TimeoutException will not throw
+     * @throws ImapAsyncClientException will not throw
+     */
+    @Test
+    public void testDecodeConnectSuccessWithMetrics() throws IllegalArgumentException, IOException, ProtocolException, InterruptedException,
+            ExecutionException, TimeoutException, ImapAsyncClientException {
+        final ImapFuture<ImapAsyncCreateSessionResponse> imapFuture = new ImapFuture<ImapAsyncCreateSessionResponse>();
+        final Logger logger = Mockito.mock(Logger.class);
+
+        final String sessCtx = "Titanosauria@long.neck";
+        final ImapClientMetrics metrics = Mockito.mock(ImapClientMetrics.class);
+        final ImapAsyncClientConfig clientConfig = new ImapAsyncClientConfig();
+        clientConfig.setMetrics(metrics);
+        final ImapClientConnectHandler handler = new ImapClientConnectHandler(clock, imapFuture, logger, DebugMode.DEBUG_OFF, SESSION_ID, sessCtx,
+                new ImapAsyncSessionConfig(), clientConfig);
+
+        final ChannelHandlerContext ctx = Mockito.mock(ChannelHandlerContext.class);
+        final ChannelPipeline pipeline = Mockito.mock(ChannelPipeline.class);
+        Mockito.when(ctx.pipeline()).thenReturn(pipeline);
+        final Channel channel = Mockito.mock(Channel.class);
+        Mockito.when(channel.isActive()).thenReturn(true);
+        Mockito.when(channel.newPromise()).thenReturn(Mockito.mock(ChannelPromise.class));
+        Mockito.when(ctx.channel()).thenReturn(channel);
+
+        final IMAPResponse resp = new IMAPResponse("* OK [CAPABILITY IMAP4rev1 SASL-IR AUTH=PLAIN] IMAP4rev1 Hello");
+        handler.decode(ctx, resp, new ArrayList<Object>());
+
+        Mockito.verify(metrics, Mockito.times(1)).onSessionCreated(Mockito.anyLong());
+        final ImapAsyncCreateSessionResponse asyncSession = imapFuture.get(5, TimeUnit.MILLISECONDS);
+        Assert.assertNotNull(asyncSession, "Expect ImapAsyncSession not to be null");
+
+        // created session should report to the same metrics
+        asyncSession.getSession().execute(new CapaCommand());
+        Mockito.verify(metrics, Mockito.times(1)).onCommandStarted(ImapRFCSupportedCommandType.CAPABILITY);
     }
 
     /**
@@ -0,0 +1,107 @@
+package com.yahoo.imapnio.async.netty;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+/**
+ * Unit test for {@link ImapDeflateEncoder}.
+ */
+public class ImapDeflateEncoderTest {
+
+    /**
+     * Reads all outbound buffers of the channel and inflates them.
+     *
+     * @param channel the embedded channel
+     * @param inflater the inflater keeping the decompression state
+     * @return the inflated bytes
+     * @throws DataFormatException will not throw
+     */
+    private byte[] inflateOutbound(final EmbeddedChannel channel, final Inflater inflater) throws DataFormatException {
+        final ByteArrayOutputStream result = new ByteArrayOutputStream();
+        final byte[] plain = new byte[4096];
+        ByteBuf compressed;
+        while ((compressed = channel.readOutbound()) != null) {
+            final byte[] bytes = new byte[compressed.readableBytes()];
+            compressed.readBytes(bytes);
+            compressed.release();
+            inflater.setInput(bytes);
+            int len;
+            while ((len = inflater.inflate(plain)) > 0) {
+                result.write(plain, 0, len);
+            }
+        }
+        return result.toByteArray();
+    }
+
+    /**
+     * Tests every write being sync flushed, for heap and direct buffers, and incompressible data larger than the initial output buffer.
+     *
+     * @throws DataFormatException will not throw
+     */
+    @Test
+    public void testSyncFlushPerWrite() throws DataFormatException {
+        final EmbeddedChannel channel = new EmbeddedChannel(new ImapDeflateEncoder(Deflater.BEST_SPEED, Deflater.DEFAULT_STRATEGY, true));
+        final Inflater inflater = new Inflater(true);
+
+        final byte[] line = "a1 NOOP\r\n".getBytes(StandardCharsets.US_ASCII);
+        channel.writeAndFlush(Unpooled.wrappedBuffer(line));
+        Assert.assertEquals(inflateOutbound(channel, inflater), line, "Result mismatched.");
+
+        final byte[] random = new byte[20000];
+        new Random(7).nextBytes(random);
+        final ByteBuf direct = Unpooled.directBuffer(random.length);
+        direct.writeBytes(random);
+        channel.writeAndFlush(direct);
+        Assert.assertEquals(inflateOutbound(channel, inflater), random, "Result mismatched.");
+        Assert.assertEquals(direct.refCnt(), 0, "Input should be released.");
+
+        inflater.end();
+        Assert.assertFalse(channel.finish(), "No more outbound message expected.");
+    }
+
+    /**
+     * Tests writes being sync flushed together upon channel flush.
+     *
+     * @throws DataFormatException will not throw
+     */
+    @Test
+    public void testSyncFlushUponChannelFlush() throws DataFormatException {
+        final EmbeddedChannel channel = new EmbeddedChannel(new ImapDeflateEncoder(Deflater.BEST_COMPRESSION, Deflater.FILTERED, false));
+        final Inflater inflater = new Inflater(true);
+
+        channel.write(Unpooled.copiedBuffer("a1 NOOP\r\n", StandardCharsets.US_ASCII));
+        channel.write(Unpooled.copiedBuffer("a2 NOOP\r\n", StandardCharsets.US_ASCII));
+        channel.flush();
+        Assert.assertEquals(new String(inflateOutbound(channel, inflater), StandardCharsets.US_ASCII), "a1 NOOP\r\na2 NOOP\r\n",
+                "Result mismatched.");
+
+        // nothing pending
+        channel.flush();
+        Assert.assertNull(channel.readOutbound(), "No outbound message expected.");
+        inflater.end();
+    }
+
+    /**
+     * Tests empty buffers and other messages passing through as is.
+     */
+    @Test
+    public void testPassThrough() {
+        final EmbeddedChannel channel = new EmbeddedChannel(new ImapDeflateEncoder(Deflater.DEFAULT_COMPRESSION, Deflater.DEFAULT_STRATEGY, true));
+        channel.writeOutbound(Unpooled.EMPTY_BUFFER, "a1 NOOP\r\n");
+        Assert.assertSame(channel.readOutbound(), Unpooled.EMPTY_BUFFER, "Result mismatched.");
+        Assert.assertEquals(channel.readOutbound(), "a1 NOOP\r\n", "Result mismatched.");
+        channel.pipeline().removeFirst();
+        Assert.assertNull(channel.pipeline().first(), "Handler should be removed.");
+    }
+}
@@ -1,5 +1,6 @@
 package com.yahoo.imapnio.async.request;
 
+import java.io.ByteArrayInputStream;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.nio.charset.StandardCharsets;
@@ -10,6 +11,7 @@ import java.util.Set;
 import javax.annotation.Nonnull;
 import javax.mail.Flags;
 
+import org.mockito.Mockito;
 import org.testng.Assert;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
@@ -17,8 +19,10 @@ import org.testng.annotations.Test;
 import com.sun.mail.imap.protocol.IMAPResponse;
 import com.yahoo.imapnio.async.exception.ImapAsyncClientException;
 import com.yahoo.imapnio.async.exception.ImapAsyncClientException.FailureType;
+import com.yahoo.imapnio.async.request.ImapRequest.UntaggedResponseDecision;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 
 /**
  * Unit test for {@link AppendCommand}.
@@ -200,6 +204,91 @@ public class AppendCommandTest {
         }
     }
 
+    /**
+     * Tests streaming the message data with LITERAL+.
+     *
+     * @throws IllegalAccessException will not throw
+     * @throws IllegalArgumentException will not throw
+     * @throws ImapAsyncClientException will not throw
+     */
+    @Test
+    public void testStreamingLiteralPlus() throws IllegalArgumentException, IllegalAccessException, ImapAsyncClientException {
+        final ByteBuf data = Unpooled.wrappedBuffer(TEST_MSG_BYTE);
+        final AppendCommand cmd = new AppendCommand("Inbox", null, null, ImapLiteralSource.fromByteBuf(data), LiteralSupport.ENABLE_LITERAL_PLUS);
+        Assert.assertNull(cmd.nextStreamingLiteral(), "No literal is due before the command line.");
+        Assert.assertEquals(cmd.getCommandLine(), "APPEND Inbox {300+}\r\n", "Data should not be copied into the command line.");
+
+        final ImapLiteralSource literal = cmd.nextStreamingLiteral();
+        Assert.assertNotNull(literal, "Literal should follow the command line.");
+        Assert.assertEquals(literal.getLength(), TEST_MSG_BYTE.length, "Result mismatched.");
+        Assert.assertNull(cmd.nextStreamingLiteral(), "Literal should be streamed once.");
+
+        cmd.cleanup();
+        Assert.assertEquals(data.refCnt(), 0, "Buffer should be released.");
+        for (final Field field : fieldsToCheck) {
+            Assert.assertNull(field.get(cmd), "Cleanup should set " + field.getName() + " as null");
+        }
+    }
+
+    /**
+     * Tests streaming the message data after server continuation, and LITERAL- falling back to continuation for large data.
+     *
+     * @throws ImapAsyncClientException will not throw
+     */
+    @Test
+    public void testStreamingLiteralAfterContinuation() throws ImapAsyncClientException {
+        final ImapLiteralSource source = ImapLiteralSource.fromInputStream(new ByteArrayInputStream(new byte[0]), 5000);
+        final AppendCommand cmd = new AppendCommand("Inbox", null, null, source, LiteralSupport.ENABLE_LITERAL_MINUS);
+        Assert.assertEquals(cmd.getCommandLine(), "APPEND Inbox {5000}\r\n", "Too large for LITERAL-.");
+        Assert.assertNull(cmd.nextStreamingLiteral(), "Literal should wait for server continuation.");
+
+        final ByteBuf line = cmd.getNextCommandLineAfterContinuation(null);
+        Assert.assertEquals(line.readableBytes(), 0, "Data should not be copied.");
+        Assert.assertSame(cmd.nextStreamingLiteral(), source, "Literal should follow the continuation.");
+        cmd.cleanup();
+    }
+
+    /**
+     * Tests LITERAL- with a custom maximum length of data sent without waiting for server continuation.
+     *
+     * @throws ImapAsyncClientException will not throw
+     */
+    @Test
+    public void testLiteralMinusWithMaxLength() throws ImapAsyncClientException {
+        final AppendCommand cmd = new AppendCommand("Inbox", null, null, TEST_MSG_BYTE, LiteralSupport.ENABLE_LITERAL_MINUS, false, 299);
+        Assert.assertEquals(cmd.getCommandLine(), "APPEND Inbox {300}\r\n", "Too large for LITERAL-.");
+        Assert.assertEquals(cmd.getNextCommandLineAfterContinuation(null).toString(StandardCharsets.UTF_8), TEST_MSG_STR + "\r\n",
+                "Expected result mismatched.");
+
+        final ImapLiteralSource source = ImapLiteralSource.fromInputStream(new ByteArrayInputStream(new byte[0]), 5000);
+        final AppendCommand streamingCmd = new AppendCommand("Inbox", null, null, source, LiteralSupport.ENABLE_LITERAL_MINUS, false, 8192);
+        Assert.assertEquals(streamingCmd.getCommandLine(), "APPEND Inbox {5000-}\r\n", "Expected result mismatched.");
+        Assert.assertSame(streamingCmd.nextStreamingLiteral(), source, "Literal should follow the command line.");
+        streamingCmd.cleanup();
+    }
+
+    /**
+     * Tests sending the message data as literal8.
+     *
+     * @throws ImapAsyncClientException will not throw
+     */
+    @Test
+    public void testBinaryLiteral() throws ImapAsyncClientException {
+        final byte[] binary = { 'a', 0, (byte) 0xff };
+        final AppendCommand cmd = new AppendCommand("Inbox", null, null, binary, LiteralSupport.ENABLE_LITERAL_PLUS, true);
+        final ByteBuf buf = cmd.getCommandLineBytes();
+        final byte[] actual = new byte[buf.readableBytes()];
+        buf.readBytes(actual);
+        final byte[] expected = { 'A', 'P', 'P', 'E', 'N', 'D', ' ', 'I', 'n', 'b', 'o', 'x', ' ', '~', '{', '3', '+', '}', '\r', '\n', 'a', 0,
+            (byte) 0xff, '\r', '\n' };
+        Assert.assertEquals(actual, expected, "Expected result mismatched.");
+
+        final AppendCommand streamingCmd = new AppendCommand("Inbox", null, null, ImapLiteralSource.fromByteBuf(Unpooled.wrappedBuffer(binary)),
+                LiteralSupport.DISABLE, true);
+        Assert.assertEquals(streamingCmd.getCommandLine(), "APPEND Inbox ~{3}\r\n", "Expected result mismatched.");
+        streamingCmd.cleanup();
+    }
+
     /**
      * Tests getCommandLine method.
      *
@@ -230,6 +319,8 @@ public class AppendCommandTest {
 
         final ImapRequest cmd = new AppendCommand("Inbox", expectedFlags, internalDate, expectedMsg);
         Assert.assertNull(cmd.getStreamingResponsesQueue(), "Expected result mismatched.");
+        Assert.assertFalse(cmd.isDiscardingResponsesAfterDelivery(), "Expected result mismatched.");
+        Assert.assertEquals(cmd.onUntaggedResponse(Mockito.mock(IMAPResponse.class)), UntaggedResponseDecision.KEEP, "Expected result mismatched.");
     }
 
     /**
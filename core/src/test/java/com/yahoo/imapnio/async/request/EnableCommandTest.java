@@ -5,12 +5,14 @@ import java.lang.reflect.Modifier;
 import java.util.HashSet;
 import java.util.Set;
 
+import org.mockito.Mockito;
 import org.testng.Assert;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
 import com.sun.mail.imap.protocol.IMAPResponse;
 import com.yahoo.imapnio.async.exception.ImapAsyncClientException;
+import com.yahoo.imapnio.async.request.ImapRequest.UntaggedResponseDecision;
 
 /**
  * Unit test for {@link EnableCommand}.
@@ -66,6 +68,8 @@ public class EnableCommandTest {
     public void testGetStreamingResponsesQueue() {
         final ImapRequest cmd = new EnableCommand(CAPABILITIES);
         Assert.assertNull(cmd.getStreamingResponsesQueue(), "Expected result mismatched.");
+        Assert.assertFalse(cmd.isDiscardingResponsesAfterDelivery(), "Expected result mismatched.");
+        Assert.assertEquals(cmd.onUntaggedResponse(Mockito.mock(IMAPResponse.class)), UntaggedResponseDecision.KEEP, "Expected result mismatched.");
     }
 
     /**
@@ -1,9 +1,12 @@
 package com.yahoo.imapnio.async.request;
 
+import java.io.IOException;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
@@ -11,8 +14,12 @@ import org.testng.Assert;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
+import com.sun.mail.iap.ProtocolException;
 import com.sun.mail.imap.protocol.IMAPResponse;
+import com.yahoo.imapnio.async.data.MailboxEvent;
+import com.yahoo.imapnio.async.data.MailboxEvent.EventType;
 import com.yahoo.imapnio.async.exception.ImapAsyncClientException;
+import com.yahoo.imapnio.async.request.ImapRequest.UntaggedResponseDecision;
 
 import io.netty.buffer.ByteBuf;
 
@@ -115,4 +122,30 @@ public class IdleCommandTest {
         final ImapRequest cmd = new IdleCommand(serverStreamingResponses);
         Assert.assertSame(cmd.getCommandType(), ImapRFCSupportedCommandType.IDLE);
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests onUntaggedResponse method pushing mailbox events to the listener.
+     *
+     * @throws IOException will not throw
+     * @throws ProtocolException will not throw
+     * @throws IllegalAccessException will not throw
+     */
+    @Test
+    public void testOnUntaggedResponseWithListener() throws IOException, ProtocolException, IllegalAccessException {
+        final List<MailboxEvent> events = new ArrayList<MailboxEvent>();
+        final ImapRequest cmd = new IdleCommand(events::add);
+        Assert.assertNull(cmd.getStreamingResponsesQueue(), "Result mismatched.");
+        Assert.assertEquals(cmd.onUntaggedResponse(new IMAPResponse("* 2 EXISTS")), UntaggedResponseDecision.DROP, "Result mismatched.");
+        Assert.assertEquals(cmd.onUntaggedResponse(new IMAPResponse("* OK Still here")), UntaggedResponseDecision.DROP, "Result mismatched.");
+        Assert.assertEquals(events.size(), 1, "Result mismatched.");
+        Assert.assertEquals(events.get(0).getType(), EventType.EXISTS, "Result mismatched.");
+
+        final ImapRequest queueCmd = new IdleCommand(new ConcurrentLinkedQueue<IMAPResponse>());
+        Assert.assertEquals(queueCmd.onUntaggedResponse(new IMAPResponse("* 2 EXISTS")), UntaggedResponseDecision.KEEP, "Result mismatched.");
+
+        cmd.cleanup();
+        for (final Field field : fieldsToCheck) {
+            Assert.assertNull(field.get(cmd), "Cleanup should set " + field.getName() + " as null");
+        }
+    }
+}
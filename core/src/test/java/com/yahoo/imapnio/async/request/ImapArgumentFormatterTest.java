@@ -1,13 +1,22 @@
 package com.yahoo.imapnio.async.request;
 
 import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import javax.mail.Flags;
 
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import com.yahoo.imapnio.async.data.Capability;
 import com.yahoo.imapnio.async.exception.ImapAsyncClientException;
+import com.yahoo.imapnio.async.exception.ImapAsyncClientException.FailureType;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 
 /**
  * Unit test for {@link ImapArgumentFormatter}.
@@ -215,4 +224,79 @@ public class ImapArgumentFormatterTest {
         Assert.assertNotNull(s, "buildFlagString() should not return null.");
         Assert.assertEquals(s, "(userflag1 userflag2)", "result mismatched.");
     }
+
+    /**
+     * Tests strings that cannot be quoted sent as non-synchronizing literals.
+     *
+     * @throws ImapAsyncClientException will not throw
+     */
+    @Test
+    public void testNonSyncLiteral() throws ImapAsyncClientException {
+        // LITERAL+, any length
+        ByteBuf out = Unpooled.buffer();
+        new ImapArgumentFormatter(LiteralSupport.ENABLE_LITERAL_PLUS, 1).formatArgument("pässword", out, false);
+        Assert.assertEquals(out.toString(StandardCharsets.UTF_8), "{9+}\r\npässword", "Encoded result mismatched.");
+
+        // LITERAL-, shorter than the maximum
+        out = Unpooled.buffer();
+        new ImapArgumentFormatter(LiteralSupport.ENABLE_LITERAL_MINUS, 10).formatArgument("a\r\nb", out, false);
+        Assert.assertEquals(out.toString(StandardCharsets.US_ASCII), "{4-}\r\na\r\nb", "Encoded result mismatched.");
+
+        // LITERAL-, exactly the maximum
+        out = Unpooled.buffer();
+        new ImapArgumentFormatter(LiteralSupport.ENABLE_LITERAL_MINUS, 4).formatArgument("a\r\nb", out, false);
+        Assert.assertEquals(out.toString(StandardCharsets.US_ASCII), "{4-}\r\na\r\nb", "Encoded result mismatched.");
+
+        // LITERAL-, too long, written as it is
+        out = Unpooled.buffer();
+        new ImapArgumentFormatter(LiteralSupport.ENABLE_LITERAL_MINUS, 3).formatArgument("a\r\nb", out, false);
+        Assert.assertEquals(out.toString(StandardCharsets.US_ASCII), "a\r\nb", "Encoded result mismatched.");
+
+        // LITERAL-, too long, cannot be sent
+        ImapAsyncClientException actual = null;
+        try {
+            new ImapArgumentFormatter(LiteralSupport.ENABLE_LITERAL_MINUS, 4).formatArgument("pässword", Unpooled.buffer(), false);
+        } catch (final ImapAsyncClientException e) {
+            actual = e;
+        }
+        Assert.assertNotNull(actual, "Should encounter exception");
+        Assert.assertEquals(actual.getFailureType(), FailureType.INVALID_INPUT, "Should fail with this type");
+
+        // quoted string is still preferred
+        out = Unpooled.buffer();
+        new ImapArgumentFormatter(LiteralSupport.ENABLE_LITERAL_PLUS, 1).formatArgument("a b", out, false);
+        Assert.assertEquals(out.toString(StandardCharsets.US_ASCII), "\"a b\"", "Encoded result mismatched.");
+    }
+
+    /**
+     * Tests writeLiteralLength method.
+     */
+    @Test
+    public void testWriteLiteralLength() {
+        final ByteBuf out = Unpooled.buffer();
+        final ImapArgumentFormatter minus = new ImapArgumentFormatter(LiteralSupport.ENABLE_LITERAL_MINUS, 100);
+        final ImapArgumentFormatter plus = new ImapArgumentFormatter(LiteralSupport.ENABLE_LITERAL_PLUS, 1);
+        Assert.assertTrue(plus.writeLiteralLength(5000, out), "Result mismatched.");
+        Assert.assertTrue(minus.writeLiteralLength(99, out), "Result mismatched.");
+        Assert.assertTrue(minus.writeLiteralLength(100, out), "Result mismatched.");
+        Assert.assertFalse(minus.writeLiteralLength(101, out), "Result mismatched.");
+        Assert.assertFalse(new ImapArgumentFormatter().writeLiteralLength(1, out), "Result mismatched.");
+        Assert.assertEquals(out.toString(StandardCharsets.US_ASCII), "{5000+}\r\n{99-}\r\n{100-}\r\n{101}\r\n{1}\r\n", "Result mismatched.");
+    }
+
+    /**
+     * Tests getLiteralSupport method.
+     */
+    @Test
+    public void testGetLiteralSupport() {
+        Assert.assertEquals(ImapArgumentFormatter.getLiteralSupport(null), LiteralSupport.DISABLE, "Result mismatched.");
+        final Map<String, List<String>> capas = new HashMap<String, List<String>>();
+        Assert.assertEquals(ImapArgumentFormatter.getLiteralSupport(new Capability(capas)), LiteralSupport.DISABLE, "Result mismatched.");
+        capas.put(ImapClientConstants.LITERAL_MINUS, Collections.singletonList(ImapClientConstants.LITERAL_MINUS));
+        Assert.assertEquals(ImapArgumentFormatter.getLiteralSupport(new Capability(capas)), LiteralSupport.ENABLE_LITERAL_MINUS,
+                "Result mismatched.");
+        capas.put(ImapClientConstants.LITERAL_PLUS, Collections.singletonList(ImapClientConstants.LITERAL_PLUS));
+        Assert.assertEquals(ImapArgumentFormatter.getLiteralSupport(new Capability(capas)), LiteralSupport.ENABLE_LITERAL_PLUS,
+                "Result mismatched.");
+    }
 }
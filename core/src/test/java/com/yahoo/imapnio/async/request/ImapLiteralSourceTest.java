@@ -0,0 +1,168 @@
+package com.yahoo.imapnio.async.request;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.mockito.Mockito;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.FileRegion;
+import io.netty.handler.stream.ChunkedInput;
+
+/**
+ * Unit test for {@link ImapLiteralSource}.
+ */
+public class ImapLiteralSourceTest {
+
+    /** Allocator for reading chunks. */
+    private static final ByteBufAllocator ALLOC = UnpooledByteBufAllocator.DEFAULT;
+
+    /**
+     * Creates a temporary file with the given content.
+     *
+     * @param content the content
+     * @return the path of the file
+     * @throws IOException will not throw
+     */
+    private Path createFile(final String content) throws IOException {
+        final Path path = Files.createTempFile("literal", ".eml");
+        path.toFile().deleteOnExit();
+        Files.write(path, content.getBytes(StandardCharsets.US_ASCII));
+        return path;
+    }
+
+    /**
+     * Tests a file sent as a file region when zero-copy is allowed.
+     *
+     * @throws IOException will not throw
+     */
+    @Test
+    public void testFileZeroCopy() throws IOException {
+        final ImapLiteralSource source = ImapLiteralSource.fromPath(createFile("Hello world"));
+        Assert.assertEquals(source.getLength(), 11, "Result mismatched.");
+        final Object message = source.toMessage(true);
+        Assert.assertTrue(message instanceof FileRegion, "Result mismatched.");
+        Assert.assertEquals(((FileRegion) message).count(), 11, "Result mismatched.");
+        ((FileRegion) message).release();
+        source.release(); // owned by the message already
+    }
+
+    /**
+     * Tests a file region sent in chunks when zero-copy is not allowed.
+     *
+     * @throws Exception will not throw
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testFileChunked() throws Exception {
+        final FileChannel fileChannel = FileChannel.open(createFile("Hello world"), StandardOpenOption.READ);
+        final ImapLiteralSource source = ImapLiteralSource.fromFile(fileChannel, 6, 5);
+        final ChunkedInput<ByteBuf> input = (ChunkedInput<ByteBuf>) source.toMessage(false);
+        final ByteBuf chunk = input.readChunk(ALLOC);
+        Assert.assertEquals(chunk.toString(StandardCharsets.US_ASCII), "world", "Result mismatched.");
+        chunk.release();
+        Assert.assertTrue(input.isEndOfInput(), "Result mismatched.");
+        input.close();
+        Assert.assertFalse(fileChannel.isOpen(), "File should be closed.");
+    }
+
+    /**
+     * Tests a buffer written as is.
+     *
+     * @throws IOException will not throw
+     */
+    @Test
+    public void testByteBuf() throws IOException {
+        final ByteBuf buf = Unpooled.copiedBuffer("Hello", StandardCharsets.US_ASCII);
+        final ImapLiteralSource source = ImapLiteralSource.fromByteBuf(buf);
+        Assert.assertEquals(source.getLength(), 5, "Result mismatched.");
+        Assert.assertSame(source.toMessage(false), buf, "Result mismatched.");
+        source.release();
+        Assert.assertEquals(buf.refCnt(), 1, "Buffer is owned by the message, should not be released.");
+        buf.release();
+    }
+
+    /**
+     * Tests an input stream read in chunks of exactly the literal length.
+     *
+     * @throws Exception will not throw
+     */
+    @Test
+    @SuppressWarnings({ "unchecked", "deprecation" })
+    public void testInputStream() throws Exception {
+        final byte[] bytes = new byte[10000];
+        final ImapLiteralSource source = ImapLiteralSource.fromInputStream(new ByteArrayInputStream(bytes), 9000);
+        final ChunkedInput<ByteBuf> input = (ChunkedInput<ByteBuf>) source.toMessage(true);
+        Assert.assertEquals(input.length(), 9000, "Result mismatched.");
+
+        final ByteBuf first = input.readChunk(ALLOC);
+        Assert.assertEquals(first.readableBytes(), 8192, "Result mismatched.");
+        Assert.assertEquals(input.progress(), 8192, "Result mismatched.");
+        first.release();
+
+        final ChannelHandlerContext ctx = Mockito.mock(ChannelHandlerContext.class);
+        Mockito.when(ctx.alloc()).thenReturn(ALLOC);
+        final ByteBuf second = input.readChunk(ctx);
+        Assert.assertEquals(second.readableBytes(), 808, "Result mismatched.");
+        second.release();
+        Assert.assertTrue(input.isEndOfInput(), "Result mismatched.");
+        Assert.assertNull(input.readChunk(ALLOC), "No more chunks.");
+        input.close();
+    }
+
+    /**
+     * Tests an input stream ending before the literal length.
+     *
+     * @throws Exception will not throw
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testInputStreamPrematureEnd() throws Exception {
+        final ImapLiteralSource source = ImapLiteralSource.fromInputStream(new ByteArrayInputStream(new byte[0]), 10);
+        final ChunkedInput<ByteBuf> input = (ChunkedInput<ByteBuf>) source.toMessage(true);
+        EOFException actual = null;
+        try {
+            input.readChunk(ALLOC);
+        } catch (final EOFException e) {
+            actual = e;
+        }
+        Assert.assertNotNull(actual, "Should encounter exception");
+        Assert.assertEquals(actual.getMessage(), "Input stream ended 10 bytes before the end of the literal", "Result mismatched.");
+    }
+
+    /**
+     * Tests releasing sources never sent.
+     *
+     * @throws IOException will not throw
+     */
+    @Test
+    public void testRelease() throws IOException {
+        final ByteBuf buf = Unpooled.copiedBuffer("Hello", StandardCharsets.US_ASCII);
+        ImapLiteralSource.fromByteBuf(buf).release();
+        Assert.assertEquals(buf.refCnt(), 0, "Buffer should be released.");
+
+        final FileChannel fileChannel = FileChannel.open(createFile("Hello"), StandardOpenOption.READ);
+        ImapLiteralSource.fromFile(fileChannel, 0, 5).release();
+        Assert.assertFalse(fileChannel.isOpen(), "File should be closed.");
+
+        final InputStream in = Mockito.mock(InputStream.class);
+        Mockito.doThrow(new IOException("closed already")).when(in).close();
+        final ImapLiteralSource source = ImapLiteralSource.fromInputStream(in, 5);
+        source.release();
+        source.release();
+        Mockito.verify(in, Mockito.times(1)).close();
+    }
+}
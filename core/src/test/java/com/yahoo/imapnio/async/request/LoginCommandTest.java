@@ -2,7 +2,12 @@ package com.yahoo.imapnio.async.request;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.testng.Assert;
@@ -10,7 +15,9 @@ import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
 import com.sun.mail.imap.protocol.IMAPResponse;
+import com.yahoo.imapnio.async.data.Capability;
 import com.yahoo.imapnio.async.exception.ImapAsyncClientException;
+import com.yahoo.imapnio.async.exception.ImapAsyncClientException.FailureType;
 
 /**
  * Unit test for {@link LoginCommand}.
@@ -137,4 +144,35 @@ public class LoginCommandTest {
         final ImapRequest cmd = new LoginCommand("neighbor", "hood");
         Assert.assertSame(cmd.getCommandType(), ImapRFCSupportedCommandType.LOGIN);
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests getCommandLine method with user name and pass word sent as non-synchronizing literals.
+     *
+     * @throws ImapAsyncClientException will not throw
+     * @throws IllegalAccessException will not throw
+     */
+    @Test
+    public void testGetCommandLineWithLiteral() throws ImapAsyncClientException, IllegalAccessException {
+        final Map<String, List<String>> capas = new HashMap<String, List<String>>();
+        capas.put(ImapClientConstants.LITERAL_PLUS, Collections.singletonList(ImapClientConstants.LITERAL_PLUS));
+        final ImapRequest cmd = new LoginCommand("jürgen", "se cret", new Capability(capas));
+        Assert.assertEquals(cmd.getCommandLineBytes().toString(StandardCharsets.UTF_8), "LOGIN {7+}\r\njürgen \"se cret\"\r\n",
+                "Expected result mismatched.");
+
+        cmd.cleanup();
+        // Verify if cleanup happened correctly.
+        for (final Field field : fieldsToCheck) {
+            Assert.assertNull(field.get(cmd), "Cleanup should set " + field.getName() + " as null");
+        }
+
+        // no literal support, fails
+        ImapAsyncClientException actual = null;
+        try {
+            new LoginCommand("jürgen", "secret", new Capability(new HashMap<String, List<String>>())).getCommandLine();
+        } catch (final ImapAsyncClientException e) {
+            actual = e;
+        }
+        Assert.assertNotNull(actual, "Should encounter exception");
+        Assert.assertEquals(actual.getFailureType(), FailureType.INVALID_INPUT, "Should fail with this type");
+    }
+}
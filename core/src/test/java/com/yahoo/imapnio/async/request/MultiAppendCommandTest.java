@@ -0,0 +1,211 @@
+package com.yahoo.imapnio.async.request;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TimeZone;
+
+import javax.mail.Flags;
+
+import org.mockito.Mockito;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.sun.mail.imap.protocol.IMAPResponse;
+import com.yahoo.imapnio.async.data.AppendMessage;
+import com.yahoo.imapnio.async.exception.ImapAsyncClientException;
+import com.yahoo.imapnio.async.exception.ImapAsyncClientException.FailureType;
+import com.yahoo.imapnio.async.request.ImapRequest.UntaggedResponseDecision;
+
+/**
+ * Unit test for {@link MultiAppendCommand}.
+ */
+public class MultiAppendCommandTest {
+
+    /** Small testing message. */
+    private static final byte[] SMALL_MSG = "Subject: hi\r\n\r\nHello Joe\r\n".getBytes(StandardCharsets.US_ASCII);
+
+    /** Testing message too large for LITERAL-. */
+    private static final byte[] LARGE_MSG = new byte[5000];
+
+    /** Fields to check for cleanup. */
+    private Set<Field> fieldsToCheck;
+
+    /**
+     * Setup reflection.
+     */
+    @BeforeClass
+    public void setUp() {
+        // Use reflection to get all declared non-primitive non-static fields (We do not care about inherited fields)
+        final Class<?> classUnderTest = MultiAppendCommand.class;
+        fieldsToCheck = new HashSet<>();
+        for (Class<?> c = classUnderTest; c != null; c = c.getSuperclass()) {
+            for (final Field declaredField : c.getDeclaredFields()) {
+                if (!declaredField.getType().isPrimitive() && !Modifier.isStatic(declaredField.getModifiers())) {
+                    declaredField.setAccessible(true);
+                    fieldsToCheck.add(declaredField);
+                }
+            }
+        }
+        Arrays.fill(LARGE_MSG, (byte) 'a');
+    }
+
+    /**
+     * Tests all messages sent in one command line with LITERAL+.
+     *
+     * @throws IllegalAccessException will not throw
+     * @throws IllegalArgumentException will not throw
+     * @throws ImapAsyncClientException will not throw
+     */
+    @Test
+    public void testLiteralPlus() throws IllegalArgumentException, IllegalAccessException, ImapAsyncClientException {
+        final TimeZone defaultTz = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("GMT"));
+        final List<AppendMessage> messages = new ArrayList<AppendMessage>();
+        messages.add(new AppendMessage(new Flags(Flags.Flag.SEEN), new Date(1552413335000L), SMALL_MSG));
+        messages.add(new AppendMessage(null, null, SMALL_MSG));
+        final MultiAppendCommand cmd = new MultiAppendCommand("Inbox", messages, LiteralSupport.ENABLE_LITERAL_PLUS);
+        final String msg = new String(SMALL_MSG, StandardCharsets.US_ASCII);
+        try {
+            final String expected = "APPEND Inbox (\\Seen) \"12-Mar-2019 17:55:35 +0000\" {26+}\r\n" + msg + " {26+}\r\n" + msg + "\r\n";
+            Assert.assertEquals(cmd.getCommandLine(), expected, "Expected result mismatched.");
+        } finally {
+            TimeZone.setDefault(defaultTz);
+        }
+        Assert.assertFalse(cmd.isCommandLineDataSensitive(), "Expected result mismatched.");
+        Assert.assertNull(cmd.getDebugData(), "Expected result mismatched.");
+
+        ImapAsyncClientException actual = null;
+        try {
+            cmd.getNextCommandLineAfterContinuation(Mockito.mock(IMAPResponse.class));
+        } catch (final ImapAsyncClientException e) {
+            actual = e;
+        }
+        Assert.assertNotNull(actual, "Should encounter exception");
+        Assert.assertEquals(actual.getFailureType(), FailureType.OPERATION_NOT_SUPPORTED_FOR_COMMAND, "Should fail with this type");
+
+        cmd.cleanup();
+        // Verify if cleanup happened correctly.
+        for (final Field field : fieldsToCheck) {
+            Assert.assertNull(field.get(cmd), "Cleanup should set " + field.getName() + " as null");
+        }
+    }
+
+    /**
+     * Tests each message waiting for server continuation when literal is not supported.
+     *
+     * @throws ImapAsyncClientException will not throw
+     */
+    @Test
+    public void testContinuations() throws ImapAsyncClientException {
+        final List<AppendMessage> messages = new ArrayList<AppendMessage>();
+        messages.add(new AppendMessage(null, null, SMALL_MSG));
+        messages.add(new AppendMessage(new Flags(Flags.Flag.DRAFT), null, SMALL_MSG));
+        final MultiAppendCommand cmd = new MultiAppendCommand("Inbox", messages, LiteralSupport.DISABLE);
+        final String msg = new String(SMALL_MSG, StandardCharsets.US_ASCII);
+        Assert.assertEquals(cmd.getCommandLine(), "APPEND Inbox {26}\r\n", "Expected result mismatched.");
+        Assert.assertEquals(cmd.getCommandLineBytes().toString(StandardCharsets.US_ASCII), "APPEND Inbox {26}\r\n", "Expected result mismatched.");
+        // logging the command line again does not change the message sent after continuation
+        Assert.assertEquals(cmd.getCommandLine(), "APPEND Inbox {26}\r\n", "Expected result mismatched.");
+
+        final IMAPResponse serverResponse = Mockito.mock(IMAPResponse.class);
+        Assert.assertEquals(cmd.getNextCommandLineAfterContinuation(serverResponse).toString(StandardCharsets.US_ASCII),
+                msg + " (\\Draft) {26}\r\n", "Expected result mismatched.");
+        Assert.assertEquals(cmd.getNextCommandLineAfterContinuation(serverResponse).toString(StandardCharsets.US_ASCII), msg + "\r\n",
+                "Expected result mismatched.");
+    }
+
+    /**
+     * Tests small messages sent with LITERAL-, and large ones waiting for server continuation.
+     *
+     * @throws ImapAsyncClientException will not throw
+     */
+    @Test
+    public void testLiteralMinus() throws ImapAsyncClientException {
+        final List<AppendMessage> messages = new ArrayList<AppendMessage>();
+        messages.add(new AppendMessage(null, null, SMALL_MSG));
+        messages.add(new AppendMessage(null, null, LARGE_MSG));
+        messages.add(new AppendMessage(null, null, SMALL_MSG));
+        final MultiAppendCommand cmd = new MultiAppendCommand("Inbox", messages, LiteralSupport.ENABLE_LITERAL_MINUS);
+        final String msg = new String(SMALL_MSG, StandardCharsets.US_ASCII);
+        Assert.assertEquals(cmd.getCommandLineBytes().toString(StandardCharsets.US_ASCII), "APPEND Inbox {26-}\r\n" + msg + " {5000}\r\n",
+                "Expected result mismatched.");
+        Assert.assertEquals(cmd.getNextCommandLineAfterContinuation(Mockito.mock(IMAPResponse.class)).toString(StandardCharsets.US_ASCII),
+                new String(LARGE_MSG, StandardCharsets.US_ASCII) + " {26-}\r\n" + msg + "\r\n", "Expected result mismatched.");
+    }
+
+    /**
+     * Tests LITERAL- with a custom maximum length of data sent without waiting for server continuation.
+     *
+     * @throws ImapAsyncClientException will not throw
+     */
+    @Test
+    public void testLiteralMinusWithMaxLength() throws ImapAsyncClientException {
+        final List<AppendMessage> messages = new ArrayList<AppendMessage>();
+        messages.add(new AppendMessage(null, null, SMALL_MSG));
+        messages.add(new AppendMessage(null, null, LARGE_MSG));
+        final MultiAppendCommand cmd = new MultiAppendCommand("Inbox", messages, LiteralSupport.ENABLE_LITERAL_MINUS, 8192);
+        final String msg = new String(SMALL_MSG, StandardCharsets.US_ASCII);
+        final String large = new String(LARGE_MSG, StandardCharsets.US_ASCII);
+        Assert.assertEquals(cmd.getCommandLine(), "APPEND Inbox {26-}\r\n" + msg + " {5000-}\r\n" + large + "\r\n", "Expected result mismatched.");
+    }
+
+    /**
+     * Tests getCommandLine method with no message.
+     */
+    @Test
+    public void testNoMessage() {
+        final MultiAppendCommand cmd = new MultiAppendCommand("Inbox", new ArrayList<AppendMessage>(), LiteralSupport.ENABLE_LITERAL_PLUS);
+        ImapAsyncClientException actual = null;
+        try {
+            cmd.getCommandLine();
+        } catch (final ImapAsyncClientException e) {
+            actual = e;
+        }
+        Assert.assertNotNull(actual, "Should encounter exception");
+        Assert.assertEquals(actual.getFailureType(), FailureType.INVALID_INPUT, "Should fail with this type");
+    }
+
+    /**
+     * Tests getStreamingResponsesQueue, isDiscardingResponsesAfterDelivery and onUntaggedResponse methods.
+     */
+    @Test
+    public void testResponseHandling() {
+        final MultiAppendCommand cmd = new MultiAppendCommand("Inbox", new ArrayList<AppendMessage>(), LiteralSupport.DISABLE);
+        Assert.assertNull(cmd.getStreamingResponsesQueue(), "Expected result mismatched.");
+        Assert.assertFalse(cmd.isDiscardingResponsesAfterDelivery(), "Expected result mismatched.");
+        Assert.assertEquals(cmd.onUntaggedResponse(Mockito.mock(IMAPResponse.class)), UntaggedResponseDecision.KEEP, "Expected result mismatched.");
+    }
+
+    /**
+     * Tests getTerminateCommandLine method.
+     */
+    @Test
+    public void testGetTerminateCommandLine() {
+        final MultiAppendCommand cmd = new MultiAppendCommand("Inbox", new ArrayList<AppendMessage>(), LiteralSupport.DISABLE);
+        ImapAsyncClientException actual = null;
+        try {
+            cmd.getTerminateCommandLine();
+        } catch (final ImapAsyncClientException e) {
+            actual = e;
+        }
+        Assert.assertNotNull(actual, "Should encounter exception");
+        Assert.assertEquals(actual.getFailureType(), FailureType.OPERATION_NOT_SUPPORTED_FOR_COMMAND, "Should fail with this type");
+    }
+
+    /**
+     * Tests getCommandType method.
+     */
+    @Test
+    public void testGetCommandType() {
+        final MultiAppendCommand cmd = new MultiAppendCommand("Inbox", new ArrayList<AppendMessage>(), LiteralSupport.DISABLE);
+        Assert.assertSame(cmd.getCommandType(), ImapRFCSupportedCommandType.APPEND_MESSAGE);
+    }
+}
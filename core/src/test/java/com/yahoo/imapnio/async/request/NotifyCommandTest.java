@@ -0,0 +1,169 @@
+package com.yahoo.imapnio.async.request;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.mail.Flags;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.sun.mail.iap.ProtocolException;
+import com.sun.mail.imap.protocol.IMAPResponse;
+import com.yahoo.imapnio.async.data.MailboxEvent;
+import com.yahoo.imapnio.async.data.MailboxEvent.EventType;
+import com.yahoo.imapnio.async.exception.ImapAsyncClientException;
+import com.yahoo.imapnio.async.exception.ImapAsyncClientException.FailureType;
+import com.yahoo.imapnio.async.request.ImapRequest.UntaggedResponseDecision;
+import com.yahoo.imapnio.async.request.NotifyFilter.MailboxFilter;
+import com.yahoo.imapnio.async.request.NotifyFilter.NotifyEvent;
+
+/**
+ * Unit test for {@link NotifyCommand}.
+ */
+public class NotifyCommandTest {
+
+    /** Fields to check for cleanup. */
+    private Set<Field> fieldsToCheck;
+
+    /**
+     * Setup reflection.
+     */
+    @BeforeClass
+    public void setUp() {
+        // Use reflection to get all declared non-primitive non-static fields
+        final Class<?> classUnderTest = NotifyCommand.class;
+        fieldsToCheck = new HashSet<>();
+        for (Class<?> c = classUnderTest; c != null; c = c.getSuperclass()) {
+            for (final Field declaredField : c.getDeclaredFields()) {
+                if (!declaredField.getType().isPrimitive() && !Modifier.isStatic(declaredField.getModifiers())) {
+                    declaredField.setAccessible(true);
+                    fieldsToCheck.add(declaredField);
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests getCommandLine method for NOTIFY SET with several event groups and NOTIFY NONE.
+     *
+     * @throws ImapAsyncClientException will not throw
+     * @throws IllegalAccessException will not throw
+     */
+    @Test
+    public void testGetCommandLine() throws ImapAsyncClientException, IllegalAccessException {
+        final Set<NotifyEvent> messageEvents = EnumSet.of(NotifyEvent.FLAG_CHANGE, NotifyEvent.MESSAGE_EXPUNGE, NotifyEvent.MESSAGE_NEW);
+        final NotifyFilter[] filters = { new NotifyFilter(MailboxFilter.SELECTED, null, messageEvents, "UID FLAGS"),
+                new NotifyFilter(MailboxFilter.SUBTREE, new String[] { "INBOX", "Entwürfe" }, messageEvents, null),
+                new NotifyFilter(MailboxFilter.MAILBOXES, new String[] { "My Folder" }, EnumSet.of(NotifyEvent.MAILBOX_NAME), null),
+                new NotifyFilter(MailboxFilter.PERSONAL, new String[] { "ignored" }, EnumSet.noneOf(NotifyEvent.class), null) };
+        ImapRequest cmd = new NotifyCommand(filters, true, event -> { });
+        final String expected = "NOTIFY SET STATUS (selected (MessageNew (UID FLAGS) MessageExpunge FlagChange)) "
+                + "(subtree (INBOX Entw&APw-rfe) (MessageNew MessageExpunge FlagChange)) (mailboxes (\"My Folder\") (MailboxName)) "
+                + "(personal NONE)\r\n";
+        Assert.assertEquals(cmd.getCommandLine(), expected, "Expected result mismatched.");
+        Assert.assertSame(cmd.getCommandType(), ImapRFCSupportedCommandType.NOTIFY, "Command type mismatched.");
+        cmd.cleanup();
+        for (final Field field : fieldsToCheck) {
+            Assert.assertNull(field.get(cmd), "Cleanup should set " + field.getName() + " as null");
+        }
+
+        cmd = new NotifyCommand(new NotifyFilter[] { filters[2] }, false, event -> { });
+        Assert.assertEquals(cmd.getCommandLine(), "NOTIFY SET (mailboxes (\"My Folder\") (MailboxName))\r\n", "Expected result mismatched.");
+
+        cmd = new NotifyCommand();
+        Assert.assertEquals(cmd.getCommandLine(), "NOTIFY NONE\r\n", "Expected result mismatched.");
+    }
+
+    /**
+     * Asserts the given filter is rejected.
+     *
+     * @param filter the mailbox filter
+     * @param names the mailbox names
+     * @param events the events
+     */
+    private void assertInvalidFilter(final MailboxFilter filter, final String[] names, final Set<NotifyEvent> events) {
+        ImapAsyncClientException actualEx = null;
+        try {
+            new NotifyFilter(filter, names, events, null);
+        } catch (final ImapAsyncClientException ex) {
+            actualEx = ex;
+        }
+        Assert.assertNotNull(actualEx, "Expecting exception to be thrown");
+        Assert.assertEquals(actualEx.getFailureType(), FailureType.INVALID_INPUT, "Incorrect failure type.");
+    }
+
+    /**
+     * Tests constructors with invalid input.
+     */
+    @Test
+    public void testInvalidInput() {
+        ImapAsyncClientException actualEx = null;
+        try {
+            new NotifyCommand(new NotifyFilter[0], false, event -> { });
+        } catch (final ImapAsyncClientException ex) {
+            actualEx = ex;
+        }
+        Assert.assertNotNull(actualEx, "Expecting exception to be thrown");
+        Assert.assertEquals(actualEx.getFailureType(), FailureType.INVALID_INPUT, "Incorrect failure type.");
+
+        assertInvalidFilter(MailboxFilter.SUBTREE, null, EnumSet.of(NotifyEvent.MAILBOX_NAME));
+        assertInvalidFilter(MailboxFilter.MAILBOXES, new String[0], EnumSet.of(NotifyEvent.MAILBOX_NAME));
+        assertInvalidFilter(MailboxFilter.INBOXES, null, EnumSet.of(NotifyEvent.MESSAGE_NEW));
+        assertInvalidFilter(MailboxFilter.INBOXES, null, EnumSet.of(NotifyEvent.MESSAGE_EXPUNGE));
+        assertInvalidFilter(MailboxFilter.INBOXES, null, EnumSet.of(NotifyEvent.FLAG_CHANGE));
+    }
+
+    /**
+     * Tests mailbox events delivered to the listener, and other responses kept.
+     *
+     * @throws IOException will not throw
+     * @throws ProtocolException will not throw
+     * @throws ImapAsyncClientException will not throw
+     */
+    @Test
+    public void testOnUntaggedResponse() throws IOException, ProtocolException, ImapAsyncClientException {
+        final List<MailboxEvent> events = new ArrayList<>();
+        final NotifyFilter[] filters = { new NotifyFilter(MailboxFilter.INBOXES, null, EnumSet.noneOf(NotifyEvent.class), null) };
+        final ImapRequest cmd = new NotifyCommand(filters, true, events::add);
+
+        final String[] delivered = { "* 5 EXISTS", "* 3 EXPUNGE", "* 4 FETCH (UID 40 FLAGS (\\Seen))", "* 6 FETCH (FLAGS (\\Flagged))",
+            "* STATUS Sent (MESSAGES 3 UIDNEXT 9)", "* LIST () \"/\" \"Old\"" };
+        for (final String line : delivered) {
+            Assert.assertEquals(cmd.onUntaggedResponse(new IMAPResponse(line)), UntaggedResponseDecision.DROP, "Result mismatched for " + line);
+        }
+        final String[] kept = { "* OK [NOTIFICATIONOVERFLOW] too many", "* 4 FETCH (UID 40)", "* STATUS Sent MESSAGES 3" };
+        for (final String line : kept) {
+            final IMAPResponse response = new IMAPResponse(line);
+            Assert.assertEquals(cmd.onUntaggedResponse(response), UntaggedResponseDecision.KEEP, "Result mismatched for " + line);
+        }
+
+        Assert.assertEquals(events.size(), delivered.length, "Result mismatched.");
+        Assert.assertEquals(events.get(0).getType(), EventType.EXISTS, "Result mismatched.");
+        Assert.assertEquals(events.get(0).getMessageNumber(), 5, "Result mismatched.");
+        Assert.assertNull(events.get(0).getMailboxName(), "Result mismatched.");
+        Assert.assertEquals(events.get(1).getType(), EventType.EXPUNGE, "Result mismatched.");
+        Assert.assertEquals(events.get(1).getMessageNumber(), 3, "Result mismatched.");
+        Assert.assertEquals(events.get(2).getType(), EventType.FLAGS, "Result mismatched.");
+        Assert.assertEquals(events.get(2).getMessageNumber(), 4, "Result mismatched.");
+        Assert.assertEquals(events.get(2).getUid(), 40, "Result mismatched.");
+        Assert.assertTrue(events.get(2).getFlags().contains(Flags.Flag.SEEN), "Result mismatched.");
+        Assert.assertEquals(events.get(3).getUid(), -1, "Result mismatched.");
+        Assert.assertEquals(events.get(4).getType(), EventType.STATUS, "Result mismatched.");
+        Assert.assertEquals(events.get(4).getMailboxName(), "Sent", "Result mismatched.");
+        Assert.assertEquals(events.get(4).getStatus().uidnext, 9, "Result mismatched.");
+        Assert.assertEquals(events.get(5).getType(), EventType.MAILBOX_NAME, "Result mismatched.");
+        Assert.assertEquals(events.get(5).getMailboxName(), "Old", "Result mismatched.");
+
+        // NOTIFY NONE keeps all
+        Assert.assertEquals(new NotifyCommand().onUntaggedResponse(new IMAPResponse("* 5 EXISTS")), UntaggedResponseDecision.KEEP,
+                "Result mismatched.");
+    }
+}
@@ -0,0 +1,159 @@
+package com.yahoo.imapnio.async.request;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.mail.Flags;
+import javax.mail.search.FlagTerm;
+import javax.mail.search.SearchException;
+import javax.mail.search.SubjectTerm;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.sun.mail.iap.Argument;
+import com.yahoo.imapnio.async.data.Capability;
+import com.yahoo.imapnio.async.data.MessageNumberSet;
+import com.yahoo.imapnio.async.data.PartialRange;
+import com.yahoo.imapnio.async.exception.ImapAsyncClientException;
+import com.yahoo.imapnio.async.exception.ImapAsyncClientException.FailureType;
+import com.yahoo.imapnio.async.request.SortCriterion.SortKey;
+
+/**
+ * Unit test for {@link SortCommand}.
+ */
+public class SortCommandTest {
+
+    /** Fields to check for cleanup. */
+    private Set<Field> fieldsToCheck;
+
+    /**
+     * Setup reflection.
+     */
+    @BeforeClass
+    public void setUp() {
+        // Use reflection to get all declared non-primitive non-static fields
+        final Class<?> classUnderTest = SortCommand.class;
+        fieldsToCheck = new HashSet<>();
+        for (Class<?> c = classUnderTest; c != null; c = c.getSuperclass()) {
+            for (final Field declaredField : c.getDeclaredFields()) {
+                if (!declaredField.getType().isPrimitive() && !Modifier.isStatic(declaredField.getModifiers())) {
+                    declaredField.setAccessible(true);
+                    fieldsToCheck.add(declaredField);
+                }
+            }
+        }
+    }
+
+    /**
+     * Verifies all the fields are cleared after cleanup.
+     *
+     * @param cmd the command
+     * @throws IllegalAccessException will not throw
+     */
+    private void assertCleanup(final ImapRequest cmd) throws IllegalAccessException {
+        cmd.cleanup();
+        for (final Field field : fieldsToCheck) {
+            Assert.assertNull(field.get(cmd), "Cleanup should set " + field.getName() + " as null");
+        }
+    }
+
+    /**
+     * Tests getCommandLine method with MessageNumberSet array, SearchTerm and partial range.
+     *
+     * @throws IOException will not throw
+     * @throws IllegalAccessException will not throw
+     * @throws ImapAsyncClientException will not throw
+     * @throws SearchException will not throw
+     */
+    @Test
+    public void testGetCommandLineWithPartial() throws IOException, IllegalAccessException, SearchException, ImapAsyncClientException {
+        final MessageNumberSet[] msgsets = MessageNumberSet.createMessageNumberSets(new int[] { 1, 2, 3 });
+        final FlagTerm term = new FlagTerm(new Flags(Flags.Flag.SEEN), false);
+        final SortCriterion[] criteria = { new SortCriterion(SortKey.DATE, true), new SortCriterion(SortKey.SUBJECT) };
+        final ImapRequest cmd = new SortCommand(criteria, msgsets, term, null, new PartialRange(1, 50));
+        final String expected = "SORT RETURN (PARTIAL 1:50) (REVERSE DATE SUBJECT) US-ASCII 1:3 UNSEEN\r\n";
+        Assert.assertEquals(cmd.getCommandLine(), expected, "Expected result mismatched.");
+        Assert.assertSame(cmd.getCommandType(), ImapRFCSupportedCommandType.SORT, "Command type mismatched.");
+        assertCleanup(cmd);
+    }
+
+    /**
+     * Tests getCommandLine method with string form of message sequence and none ascii SearchTerm, without partial range.
+     *
+     * @throws IOException will not throw
+     * @throws IllegalAccessException will not throw
+     * @throws ImapAsyncClientException will not throw
+     * @throws SearchException will not throw
+     */
+    @Test
+    public void testGetCommandLineWithNoneAscii() throws IOException, IllegalAccessException, SearchException, ImapAsyncClientException {
+        final Map<String, List<String>> capas = new HashMap<String, List<String>>();
+        capas.put(ImapClientConstants.LITERAL_PLUS, Collections.singletonList(ImapClientConstants.LITERAL_PLUS));
+        final SortCriterion[] criteria = { new SortCriterion(SortKey.DISPLAYFROM) };
+        final ImapRequest cmd = new SortCommand(criteria, "1:*", new SubjectTerm("ΩΩ"), new Capability(capas), null);
+        final String expected = "SORT (DISPLAYFROM) UTF-8 1:* SUBJECT {4+}\r\nΩΩ\r\n";
+        Assert.assertEquals(cmd.getCommandLineBytes().toString(StandardCharsets.UTF_8), expected, "Expected result mismatched.");
+        assertCleanup(cmd);
+    }
+
+    /**
+     * Tests getCommandLine method with Argument, with and without character set.
+     *
+     * @throws IllegalAccessException will not throw
+     * @throws ImapAsyncClientException will not throw
+     */
+    @Test
+    public void testGetCommandLineWithArgument() throws IllegalAccessException, ImapAsyncClientException {
+        final Argument args = new Argument();
+        args.writeAtom("ALL");
+        final SortCriterion[] criteria = { new SortCriterion(SortKey.ARRIVAL), new SortCriterion(SortKey.SIZE, true) };
+        ImapRequest cmd = new SortCommand(criteria, null, null, args, null, new PartialRange(51, 100));
+        String expected = "SORT RETURN (PARTIAL 51:100) (ARRIVAL REVERSE SIZE) US-ASCII ALL\r\n";
+        Assert.assertEquals(cmd.getCommandLine(), expected, "Expected result mismatched.");
+        assertCleanup(cmd);
+
+        cmd = new SortCommand(criteria, "1:10", "UTF-8", args, null, null);
+        expected = "SORT (ARRIVAL REVERSE SIZE) UTF-8 1:10 ALL\r\n";
+        Assert.assertEquals(cmd.getCommandLine(), expected, "Expected result mismatched.");
+        assertCleanup(cmd);
+    }
+
+    /**
+     * Tests constructors with empty sort criteria.
+     *
+     * @throws IOException will not throw
+     * @throws SearchException will not throw
+     */
+    @Test
+    public void testEmptyCriteria() throws IOException, SearchException {
+        final SortCriterion[] criteria = {};
+        final MessageNumberSet[] msgsets = MessageNumberSet.createMessageNumberSets(new int[] { 1 });
+        ImapAsyncClientException actualEx = null;
+        try {
+            new SortCommand(criteria, msgsets, null, null, null);
+        } catch (final ImapAsyncClientException ex) {
+            actualEx = ex;
+        }
+        Assert.assertNotNull(actualEx, "Expecting exception to be thrown");
+        Assert.assertEquals(actualEx.getFailureType(), FailureType.INVALID_INPUT, "Incorrect failure type.");
+
+        actualEx = null;
+        try {
+            new SortCommand(criteria, "1", null, new Argument(), null, null);
+        } catch (final ImapAsyncClientException ex) {
+            actualEx = ex;
+        }
+        Assert.assertNotNull(actualEx, "Expecting exception to be thrown");
+        Assert.assertEquals(actualEx.getFailureType(), FailureType.INVALID_INPUT, "Incorrect failure type.");
+    }
+}
@@ -0,0 +1,28 @@
+package com.yahoo.imapnio.async.request;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.yahoo.imapnio.async.request.SortCriterion.SortKey;
+
+/**
+ * Unit test for {@link SortCriterion}.
+ */
+public class SortCriterionTest {
+
+    /**
+     * Tests SortCriterion constructors, getters and toString.
+     */
+    @Test
+    public void testSortCriterion() {
+        final SortCriterion date = new SortCriterion(SortKey.DATE);
+        Assert.assertSame(date.getKey(), SortKey.DATE, "Result mismatched.");
+        Assert.assertFalse(date.isReverse(), "Result mismatched.");
+        Assert.assertEquals(date.toString(), "DATE", "Result mismatched.");
+
+        final SortCriterion reverse = new SortCriterion(SortKey.DISPLAYTO, true);
+        Assert.assertTrue(reverse.isReverse(), "Result mismatched.");
+        Assert.assertEquals(reverse.toString(), "REVERSE DISPLAYTO", "Result mismatched.");
+        Assert.assertEquals(SortKey.values().length, 9, "Number of enums mismatched.");
+    }
+}
@@ -0,0 +1,115 @@
+package com.yahoo.imapnio.async.request;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.mail.Flags;
+import javax.mail.search.FlagTerm;
+import javax.mail.search.SearchException;
+import javax.mail.search.SubjectTerm;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.sun.mail.iap.Argument;
+import com.yahoo.imapnio.async.data.MessageNumberSet;
+import com.yahoo.imapnio.async.exception.ImapAsyncClientException;
+import com.yahoo.imapnio.async.request.AbstractThreadCommand.ThreadAlgorithm;
+
+/**
+ * Unit test for {@link ThreadCommand}.
+ */
+public class ThreadCommandTest {
+
+    /** Fields to check for cleanup. */
+    private Set<Field> fieldsToCheck;
+
+    /**
+     * Setup reflection.
+     */
+    @BeforeClass
+    public void setUp() {
+        // Use reflection to get all declared non-primitive non-static fields
+        final Class<?> classUnderTest = ThreadCommand.class;
+        fieldsToCheck = new HashSet<>();
+        for (Class<?> c = classUnderTest; c != null; c = c.getSuperclass()) {
+            for (final Field declaredField : c.getDeclaredFields()) {
+                if (!declaredField.getType().isPrimitive() && !Modifier.isStatic(declaredField.getModifiers())) {
+                    declaredField.setAccessible(true);
+                    fieldsToCheck.add(declaredField);
+                }
+            }
+        }
+    }
+
+    /**
+     * Verifies all the fields are cleared after cleanup.
+     *
+     * @param cmd the command
+     * @throws IllegalAccessException will not throw
+     */
+    private void assertCleanup(final ImapRequest cmd) throws IllegalAccessException {
+        cmd.cleanup();
+        for (final Field field : fieldsToCheck) {
+            Assert.assertNull(field.get(cmd), "Cleanup should set " + field.getName() + " as null");
+        }
+    }
+
+    /**
+     * Tests getCommandLine method with MessageNumberSet array and SearchTerm.
+     *
+     * @throws IOException will not throw
+     * @throws IllegalAccessException will not throw
+     * @throws ImapAsyncClientException will not throw
+     * @throws SearchException will not throw
+     */
+    @Test
+    public void testGetCommandLineWithMessageNumberSets() throws IOException, IllegalAccessException, SearchException, ImapAsyncClientException {
+        final MessageNumberSet[] msgsets = MessageNumberSet.createMessageNumberSets(new int[] { 1, 2, 3 });
+        final FlagTerm term = new FlagTerm(new Flags(Flags.Flag.DELETED), false);
+        final ImapRequest cmd = new ThreadCommand(ThreadAlgorithm.REFERENCES, msgsets, term, null);
+        Assert.assertEquals(cmd.getCommandLine(), "THREAD REFERENCES US-ASCII 1:3 UNDELETED\r\n", "Expected result mismatched.");
+        Assert.assertSame(cmd.getCommandType(), ImapRFCSupportedCommandType.THREAD, "Command type mismatched.");
+        assertCleanup(cmd);
+    }
+
+    /**
+     * Tests getCommandLine method with string form of message sequence and none ascii SearchTerm.
+     *
+     * @throws IOException will not throw
+     * @throws IllegalAccessException will not throw
+     * @throws ImapAsyncClientException will not throw
+     * @throws SearchException will not throw
+     */
+    @Test
+    public void testGetCommandLineWithNoneAscii() throws IOException, IllegalAccessException, SearchException, ImapAsyncClientException {
+        final ImapRequest cmd = new ThreadCommand(ThreadAlgorithm.ORDEREDSUBJECT, "1:*", new SubjectTerm("ΩΩ"), null);
+        final String expected = "THREAD ORDEREDSUBJECT UTF-8 1:* SUBJECT {4}\r\nΩΩ\r\n";
+        Assert.assertEquals(cmd.getCommandLineBytes().toString(StandardCharsets.UTF_8), expected, "Expected result mismatched.");
+        assertCleanup(cmd);
+    }
+
+    /**
+     * Tests getCommandLine method with Argument, with and without character set.
+     *
+     * @throws IllegalAccessException will not throw
+     * @throws ImapAsyncClientException will not throw
+     */
+    @Test
+    public void testGetCommandLineWithArgument() throws IllegalAccessException, ImapAsyncClientException {
+        final Argument args = new Argument();
+        args.writeAtom("ALL");
+        ImapRequest cmd = new ThreadCommand(ThreadAlgorithm.REFERENCES, null, null, args, null);
+        Assert.assertEquals(cmd.getCommandLine(), "THREAD REFERENCES US-ASCII ALL\r\n", "Expected result mismatched.");
+        assertCleanup(cmd);
+
+        cmd = new ThreadCommand(ThreadAlgorithm.REFERENCES, "5:9", "UTF-8", args, null);
+        Assert.assertEquals(cmd.getCommandLine(), "THREAD REFERENCES UTF-8 5:9 ALL\r\n", "Expected result mismatched.");
+        assertCleanup(cmd);
+    }
+}
@@ -136,4 +136,24 @@ public class UidExpungeCommandTest {
         final ImapRequest cmd = new UidExpungeCommand("43:44,99");
         Assert.assertSame(cmd.getCommandType(), ImapRFCSupportedCommandType.UID_EXPUNGE);
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests getCommandLine method using the saved search result.
+     *
+     * @throws ImapAsyncClientException will not throw
+     * @throws IllegalAccessException will not throw
+     * @throws IllegalArgumentException will not throw
+     */
+    @Test
+    public void testGetCommandLineWithSavedResult() throws ImapAsyncClientException, IllegalArgumentException, IllegalAccessException {
+        final MessageNumberSet[] msgsets = { MessageNumberSet.savedResult() };
+        final ImapRequest cmd = new UidExpungeCommand(msgsets);
+        Assert.assertEquals(cmd.getCommandLine(), "UID EXPUNGE $\r\n", "Expected result mismatched.");
+
+        cmd.cleanup();
+        // Verify if cleanup happened correctly.
+        for (final Field field : fieldsToCheck) {
+            Assert.assertNull(field.get(cmd), "Cleanup should set " + field.getName() + " as null");
+        }
+    }
+}
@@ -270,4 +270,24 @@ public class UidFetchCommandTest {
         final FetchMacro stateFull = FetchMacro.valueOf("FULL");
         Assert.assertSame(stateFull, FetchMacro.FULL, "Enum does not match.");
     }
+
+    /**
+     * Tests getCommandLine method using the saved search result.
+     *
+     * @throws ImapAsyncClientException will not throw
+     * @throws IllegalAccessException will not throw
+     * @throws IllegalArgumentException will not throw
+     */
+    @Test
+    public void testGetCommandLineWithSavedResult() throws ImapAsyncClientException, IllegalArgumentException, IllegalAccessException {
+        final MessageNumberSet[] msgsets = { MessageNumberSet.savedResult() };
+        final ImapRequest cmd = new UidFetchCommand(msgsets, "FLAGS");
+        Assert.assertEquals(cmd.getCommandLine(), "UID FETCH $ (FLAGS)\r\n", "Expected result mismatched.");
+
+        cmd.cleanup();
+        // Verify if cleanup happened correctly.
+        for (final Field field : fieldsToCheck) {
+            Assert.assertNull(field.get(cmd), "Cleanup should set " + field.getName() + " as null");
+        }
+    }
 }
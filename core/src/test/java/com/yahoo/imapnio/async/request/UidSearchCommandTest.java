@@ -381,6 +381,35 @@ public class UidSearchCommandTest {
         }
     }
 
+    /**
+     * Tests getCommandLine method asking server to save the result.
+     *
+     * @throws IOException will not throw
+     * @throws IllegalAccessException will not throw
+     * @throws IllegalArgumentException will not throw
+     * @throws ImapAsyncClientException will not throw
+     * @throws SearchException will not throw
+     */
+    @Test
+    public void testGetCommandLineWithSaveResult()
+            throws IOException, IllegalArgumentException, IllegalAccessException, SearchException, ImapAsyncClientException {
+        final MessageNumberSet[] msgsets = MessageNumberSet.createMessageNumberSets(new int[] { 1, 2, 3 });
+        ImapRequest cmd = new UidSearchCommand(msgsets, new SubjectTerm("ΩΩ"), null, true);
+        final String expected = "UID SEARCH RETURN (SAVE) CHARSET UTF-8 1:3 SUBJECT {4}\r\nΩΩ\r\n";
+        Assert.assertEquals(cmd.getCommandLineBytes().toString(StandardCharsets.UTF_8), expected, "Expected result mismatched.");
+        cmd.cleanup();
+        for (final Field field : fieldsToCheck) {
+            Assert.assertNull(field.get(cmd), "Cleanup should set " + field.getName() + " as null");
+        }
+
+        final Argument args = new Argument();
+        args.writeAtom("UNSEEN");
+        cmd = new UidSearchCommand(null, null, args, null, true);
+        Assert.assertEquals(cmd.getCommandLine(), "UID SEARCH RETURN (SAVE) UNSEEN\r\n", "Expected result mismatched.");
+        cmd = new UidSearchCommand(null, null, args, null, false);
+        Assert.assertEquals(cmd.getCommandLine(), "UID SEARCH UNSEEN\r\n", "Expected result mismatched.");
+    }
+
     /**
      * Literal implementation.
      */
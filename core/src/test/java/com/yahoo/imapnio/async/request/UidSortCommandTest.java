@@ -0,0 +1,46 @@
+package com.yahoo.imapnio.async.request;
+
+import java.io.IOException;
+
+import javax.mail.Flags;
+import javax.mail.search.FlagTerm;
+import javax.mail.search.SearchException;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.sun.mail.iap.Argument;
+import com.yahoo.imapnio.async.data.MessageNumberSet;
+import com.yahoo.imapnio.async.data.PartialRange;
+import com.yahoo.imapnio.async.exception.ImapAsyncClientException;
+import com.yahoo.imapnio.async.request.SortCriterion.SortKey;
+
+/**
+ * Unit test for {@link UidSortCommand}, only UID specifics are covered here, {@link SortCommandTest} covers the rest of {@link AbstractSortCommand}.
+ */
+public class UidSortCommandTest {
+
+    /**
+     * Tests getCommandLine and getCommandType methods with SearchTerm and with Argument.
+     *
+     * @throws IOException will not throw
+     * @throws ImapAsyncClientException will not throw
+     * @throws SearchException will not throw
+     */
+    @Test
+    public void testGetCommandLineAndType() throws IOException, SearchException, ImapAsyncClientException {
+        final MessageNumberSet[] msgsets = MessageNumberSet.createMessageNumberSets(new int[] { 1, 2, 3 });
+        final FlagTerm term = new FlagTerm(new Flags(Flags.Flag.SEEN), false);
+        final SortCriterion[] criteria = { new SortCriterion(SortKey.DATE, true), new SortCriterion(SortKey.SUBJECT) };
+        ImapRequest cmd = new UidSortCommand(criteria, msgsets, term, null, new PartialRange(1, 50));
+        Assert.assertEquals(cmd.getCommandLine(), "UID SORT RETURN (PARTIAL 1:50) (REVERSE DATE SUBJECT) US-ASCII 1:3 UNSEEN\r\n",
+                "Expected result mismatched.");
+        Assert.assertSame(cmd.getCommandType(), ImapRFCSupportedCommandType.UID_SORT, "Command type mismatched.");
+
+        final Argument args = new Argument();
+        args.writeAtom("ALL");
+        cmd = new UidSortCommand(criteria, "1:10", "UTF-8", args, null, null);
+        Assert.assertEquals(cmd.getCommandLine(), "UID SORT (REVERSE DATE SUBJECT) UTF-8 1:10 ALL\r\n", "Expected result mismatched.");
+        Assert.assertSame(cmd.getCommandType(), ImapRFCSupportedCommandType.UID_SORT, "Command type mismatched.");
+    }
+}
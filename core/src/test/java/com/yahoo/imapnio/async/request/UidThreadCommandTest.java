@@ -0,0 +1,44 @@
+package com.yahoo.imapnio.async.request;
+
+import java.io.IOException;
+
+import javax.mail.Flags;
+import javax.mail.search.FlagTerm;
+import javax.mail.search.SearchException;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.sun.mail.iap.Argument;
+import com.yahoo.imapnio.async.data.MessageNumberSet;
+import com.yahoo.imapnio.async.exception.ImapAsyncClientException;
+import com.yahoo.imapnio.async.request.AbstractThreadCommand.ThreadAlgorithm;
+
+/**
+ * Unit test for {@link UidThreadCommand}, only UID specifics are covered here, {@link ThreadCommandTest} covers the rest of
+ * {@link AbstractThreadCommand}.
+ */
+public class UidThreadCommandTest {
+
+    /**
+     * Tests getCommandLine and getCommandType methods with SearchTerm and with Argument.
+     *
+     * @throws IOException will not throw
+     * @throws ImapAsyncClientException will not throw
+     * @throws SearchException will not throw
+     */
+    @Test
+    public void testGetCommandLineAndType() throws IOException, SearchException, ImapAsyncClientException {
+        final MessageNumberSet[] msgsets = MessageNumberSet.createMessageNumberSets(new int[] { 1, 2, 3 });
+        final FlagTerm term = new FlagTerm(new Flags(Flags.Flag.DELETED), false);
+        ImapRequest cmd = new UidThreadCommand(ThreadAlgorithm.REFERENCES, msgsets, term, null);
+        Assert.assertEquals(cmd.getCommandLine(), "UID THREAD REFERENCES US-ASCII 1:3 UNDELETED\r\n", "Expected result mismatched.");
+        Assert.assertSame(cmd.getCommandType(), ImapRFCSupportedCommandType.UID_THREAD, "Command type mismatched.");
+
+        final Argument args = new Argument();
+        args.writeAtom("ALL");
+        cmd = new UidThreadCommand(ThreadAlgorithm.ORDEREDSUBJECT, "5:9", "UTF-8", args, null);
+        Assert.assertEquals(cmd.getCommandLine(), "UID THREAD ORDEREDSUBJECT UTF-8 5:9 ALL\r\n", "Expected result mismatched.");
+        Assert.assertSame(cmd.getCommandType(), ImapRFCSupportedCommandType.UID_THREAD, "Command type mismatched.");
+    }
+}
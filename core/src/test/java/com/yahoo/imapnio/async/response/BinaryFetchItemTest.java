@@ -0,0 +1,127 @@
+package com.yahoo.imapnio.async.response;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Random;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.sun.mail.iap.ByteArray;
+import com.sun.mail.iap.ParsingException;
+import com.sun.mail.iap.ProtocolException;
+import com.sun.mail.imap.protocol.BODY;
+import com.sun.mail.imap.protocol.FetchResponse;
+import com.sun.mail.imap.protocol.IMAPResponse;
+import com.yahoo.imapnio.async.data.BinarySection;
+
+/**
+ * Unit test for {@link BinaryFetchItem}.
+ */
+public class BinaryFetchItemTest {
+
+    /**
+     * Builds a response string as decoded by the client, aka, each byte mapped to one char.
+     *
+     * @param prefix the text before the content
+     * @param content the content
+     * @param suffix the text after the content
+     * @return the response string
+     */
+    private String buildResponse(final String prefix, final byte[] content, final String suffix) {
+        return prefix + new String(content, StandardCharsets.ISO_8859_1) + suffix;
+    }
+
+    /**
+     * Tests parsing BINARY and BINARY.SIZE items.
+     *
+     * @throws IOException will not throw
+     * @throws ProtocolException will not throw
+     */
+    @Test
+    public void testParseBinaryAndSize() throws IOException, ProtocolException {
+        final byte[] binary = { 'a', 0, '\r', '\n', (byte) 0xff };
+        final IMAPResponse r = new IMAPResponse(buildResponse("* 1 FETCH (UID 5 BINARY[1.2]<100> ~{5}\r\n", binary, " BINARY.SIZE[1.2] 1234)"));
+        final FetchResponse fr = new FetchResponse(r, BinaryFetchItem.getFetchItems());
+
+        final BinarySection content = (BinarySection) fr.getExtensionItems().get(BinaryFetchItem.BINARY.getName());
+        Assert.assertEquals(content.getSection(), "1.2", "Result mismatched.");
+        Assert.assertEquals(content.getOrigin(), 100, "Result mismatched.");
+        Assert.assertEquals(content.getSize(), 5, "Result mismatched.");
+        final ByteArray data = content.getData();
+        Assert.assertEquals(Arrays.copyOfRange(data.getBytes(), data.getStart(), data.getStart() + data.getCount()), binary, "Result mismatched.");
+
+        final BinarySection size = (BinarySection) fr.getExtensionItems().get(BinaryFetchItem.BINARY_SIZE.getName());
+        Assert.assertEquals(size.getSection(), "1.2", "Result mismatched.");
+        Assert.assertEquals(size.getOrigin(), BinarySection.NO_ORIGIN, "Result mismatched.");
+        Assert.assertNull(size.getData(), "Result mismatched.");
+        Assert.assertEquals(size.getSize(), 1234, "Result mismatched.");
+    }
+
+    /**
+     * Tests parsing BINARY item of the whole message, with NIL content, and in quoted string form.
+     *
+     * @throws IOException will not throw
+     * @throws ProtocolException will not throw
+     */
+    @Test
+    public void testParseNilAndQuoted() throws IOException, ProtocolException {
+        FetchResponse fr = new FetchResponse(new IMAPResponse("* 1 FETCH (BINARY[] NIL)"), BinaryFetchItem.getFetchItems());
+        BinarySection content = (BinarySection) fr.getExtensionItems().get(BinaryFetchItem.BINARY.getName());
+        Assert.assertEquals(content.getSection(), "", "Result mismatched.");
+        Assert.assertNull(content.getData(), "Result mismatched.");
+        Assert.assertEquals(content.getSize(), 0, "Result mismatched.");
+
+        fr = new FetchResponse(new IMAPResponse("* 1 FETCH (BINARY[2] \"abc\")"), BinaryFetchItem.getFetchItems());
+        content = (BinarySection) fr.getExtensionItems().get(BinaryFetchItem.BINARY.getName());
+        Assert.assertEquals(content.getSize(), 3, "Result mismatched.");
+    }
+
+    /**
+     * Tests parsing BINARY item with unterminated section.
+     *
+     * @throws IOException will not throw
+     */
+    @Test
+    public void testParseUnterminatedSection() throws IOException {
+        final String[] responses = { "* 1 FETCH (BINARY[1", "* 1 FETCH (BINARY[" };
+        for (final String response : responses) {
+            ProtocolException actual = null;
+            try {
+                new FetchResponse(new IMAPResponse(response), BinaryFetchItem.getFetchItems());
+            } catch (final ProtocolException e) {
+                actual = e;
+            }
+            Assert.assertTrue(actual instanceof ParsingException, "Should encounter ParsingException");
+        }
+    }
+
+    /**
+     * Compares the bytes on the wire and the work left to client for an attachment fetched as BINARY versus as its base64 encoded BODY section.
+     *
+     * @throws IOException will not throw
+     * @throws ProtocolException will not throw
+     */
+    @Test
+    public void testBinaryVersusBase64() throws IOException, ProtocolException {
+        final byte[] attachment = new byte[64 * 1024];
+        new Random(7).nextBytes(attachment);
+        final byte[] base64 = Base64.getMimeEncoder().encode(attachment); // 76 chars per line as sent by server
+
+        final String binaryResp = buildResponse("* 1 FETCH (BINARY[2] ~{" + attachment.length + "}\r\n", attachment, ")");
+        final String base64Resp = buildResponse("* 1 FETCH (BODY[2] {" + base64.length + "}\r\n", base64, ")");
+        Assert.assertTrue(binaryResp.length() * 4L < base64Resp.length() * 3L, "BINARY should save about a quarter of the bytes.");
+
+        final FetchResponse binaryFr = new FetchResponse(new IMAPResponse(binaryResp), BinaryFetchItem.getFetchItems());
+        final ByteArray binaryData = ((BinarySection) binaryFr.getExtensionItems().get(BinaryFetchItem.BINARY.getName())).getData();
+        Assert.assertEquals(binaryData.getCount(), attachment.length, "Content should be usable as is.");
+
+        final FetchResponse base64Fr = new FetchResponse(new IMAPResponse(base64Resp));
+        final ByteArray base64Data = base64Fr.getItem(BODY.class).getByteArray();
+        final byte[] decoded = Base64.getMimeDecoder()
+                .decode(Arrays.copyOfRange(base64Data.getBytes(), base64Data.getStart(), base64Data.getStart() + base64Data.getCount()));
+        Assert.assertEquals(decoded, attachment, "Base64 content needs an extra copy and decoding pass.");
+    }
+}
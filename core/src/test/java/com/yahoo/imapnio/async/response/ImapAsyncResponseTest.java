@@ -45,5 +45,15 @@ public class ImapAsyncResponseTest {
         Assert.assertEquals(actual, imapResponses, "result mismatched.");
         Assert.assertEquals(actual.iterator().next(), oneImapResponse, "result mismatched.");
         Assert.assertEquals(resp.getTotalTimeElapsed(), elapsedTime);
+        Assert.assertEquals(resp.getUntaggedResponseCount(), 0, "result mismatched.");
+
+        imapResponses.add(new IMAPResponse("* CAPABILITY IMAP4rev1"));
+        Assert.assertEquals(new ImapAsyncResponse(imapRequest.getCommandType(), requestTotalBytes, responseTotalBytes, imapResponses, elapsedTime)
+                .getUntaggedResponseCount(), 1, "result mismatched.");
+        Assert.assertEquals(new ImapAsyncResponse(imapRequest.getCommandType(), requestTotalBytes, responseTotalBytes, null, elapsedTime)
+                .getUntaggedResponseCount(), 0, "result mismatched.");
+        final ImapAsyncResponse discardingResp = new ImapAsyncResponse(imapRequest.getCommandType(), requestTotalBytes, responseTotalBytes,
+                imapResponses, elapsedTime, 1000);
+        Assert.assertEquals(discardingResp.getUntaggedResponseCount(), 1000, "result mismatched.");
     }
 }
@@ -12,6 +12,7 @@ import javax.mail.Folder;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import com.sun.mail.iap.ParsingException;
 import com.sun.mail.iap.ProtocolException;
 import com.sun.mail.imap.AppendUID;
 import com.sun.mail.imap.CopyUID;
@@ -27,7 +28,10 @@ import com.yahoo.imapnio.async.data.ExtensionMailboxInfo;
 import com.yahoo.imapnio.async.data.IdResult;
 import com.yahoo.imapnio.async.data.ListInfoList;
 import com.yahoo.imapnio.async.data.ListStatusResult;
+import com.yahoo.imapnio.async.data.MultiAppendResult;
 import com.yahoo.imapnio.async.data.SearchResult;
+import com.yahoo.imapnio.async.data.SortResult;
+import com.yahoo.imapnio.async.data.ThreadResult;
 import com.yahoo.imapnio.async.exception.ImapAsyncClientException;
 import com.yahoo.imapnio.async.exception.ImapAsyncClientException.FailureType;
 
@@ -315,6 +319,54 @@ public class ImapResponseMapperTest {
 
     }
 
+    /**
+     * Tests parseToMultiAppendResult successfully.
+     *
+     * @throws IOException will not throw
+     * @throws ProtocolException will not throw
+     * @throws ImapAsyncClientException will not throw
+     */
+    @Test
+    public void testParseMultiAppendResultSuccess() throws IOException, ProtocolException, ImapAsyncClientException {
+        final ImapResponseMapper mapper = new ImapResponseMapper();
+        final IMAPResponse[] content = new IMAPResponse[2];
+        content[0] = new IMAPResponse("+ Ready for literal data");
+        content[1] = new IMAPResponse("a5 OK [APPENDUID 1459808247 101:103,105,9:8] APPEND completed");
+        final MultiAppendResult result = mapper.readMultiAppendResult(content, 6);
+
+        // verify the result
+        Assert.assertEquals(result.getUidValidity(), 1459808247, "result mismatched.");
+        Assert.assertEquals(result.getMessageCount(), 6, "result mismatched.");
+        Assert.assertEquals(result.getUids(), new long[] { 101, 102, 103, 105, 9, 8 }, "result mismatched.");
+    }
+
+    /**
+     * Tests parseToMultiAppendResult with invalid responses.
+     *
+     * @throws IOException will not throw
+     * @throws ProtocolException will not throw
+     */
+    @Test
+    public void testParseMultiAppendResultInvalid() throws IOException, ProtocolException {
+        final ImapResponseMapper mapper = new ImapResponseMapper();
+        final IMAPResponse[][] contents = { {}, { new IMAPResponse("a5 NO [TRYCREATE] no such folder") }, { new IMAPResponse("a5 OK done") },
+                { new IMAPResponse("a5 OK [READ-WRITE] done") }, { new IMAPResponse("a5 OK [APPENDUID 1459808247] done") },
+                { new IMAPResponse("a5 OK [APPENDUID 1459808247 3:x] done") }, { new IMAPResponse("a5 OK [APPENDUID 1459808247 0:2] done") },
+                { new IMAPResponse("a5 OK [APPENDUID 1459808247 1:4294967295] done") }, { new IMAPResponse("a5 OK [APPENDUID 1459808247 5] done") },
+                { new IMAPResponse("a5 OK [APPENDUID 1459808247 1,2,3,4] done") } };
+        for (final IMAPResponse[] content : contents) {
+            ImapAsyncClientException cause = null;
+            try {
+                mapper.readMultiAppendResult(content, 3);
+            } catch (final ImapAsyncClientException e) {
+                cause = e;
+            }
+            // verify the result
+            Assert.assertNotNull(cause, "cause mismatched.");
+            Assert.assertEquals(cause.getFailureType(), FailureType.INVALID_INPUT, "Failure type mismatched.");
+        }
+    }
+
     /**
      * Tests parseMailboxInfo method successfully.
      *
@@ -1438,4 +1490,138 @@ public class ImapResponseMapperTest {
         Assert.assertNotNull(cause, "cause mismatched.");
         Assert.assertEquals(cause.getFailureType(), FailureType.INVALID_INPUT, "Failure type mismatched.");
     }
+
+    /**
+     * Tests parseToSortResult method with SORT response and ESEARCH response.
+     *
+     * @throws IOException will not throw
+     * @throws ProtocolException will not throw
+     * @throws ImapAsyncClientException will not throw
+     */
+    @Test
+    public void testParseToSortResult() throws IOException, ProtocolException, ImapAsyncClientException {
+        final ImapResponseMapper mapper = new ImapResponseMapper();
+        SortResult result = mapper.readValue(new IMAPResponse[] { new IMAPResponse("* 7 EXISTS\r\n"), new IMAPResponse("* SORT 5 3 4 1 2\r\n"),
+                new IMAPResponse("a1 OK SORT completed\r\n") }, SortResult.class);
+        Assert.assertEquals(result.getMessageNumbers(), new long[] { 5, 3, 4, 1, 2 }, "Result mismatched.");
+        Assert.assertNull(result.getPartialRange(), "Result mismatched.");
+
+        result = mapper.readValue(new IMAPResponse[] { new IMAPResponse("* ESEARCH (TAG \"a1\") UID PARTIAL (1:5 30,12:10,44) COUNT 100\r\n"),
+                new IMAPResponse("a1 OK SORT completed\r\n") }, SortResult.class);
+        Assert.assertEquals(result.getMessageNumbers(), new long[] { 30, 12, 11, 10, 44 }, "Result mismatched.");
+        Assert.assertEquals(result.getPartialRange().getFirst(), 1, "Result mismatched.");
+        Assert.assertEquals(result.getPartialRange().getLast(), 5, "Result mismatched.");
+
+        result = mapper.readValue(new IMAPResponse[] { new IMAPResponse("* ESEARCH (TAG \"a1\") PARTIAL (51:100 NIL)\r\n"),
+                new IMAPResponse("a1 OK SORT completed\r\n") }, SortResult.class);
+        Assert.assertEquals(result.getMessageNumbers().length, 0, "Result mismatched.");
+        Assert.assertEquals(result.getPartialRange().toString(), "51:100", "Result mismatched.");
+
+        result = mapper.readValue(new IMAPResponse[] { new IMAPResponse("* ESEARCH UID ALL 20:1\r\n"), new IMAPResponse("a1 OK SORT completed\r\n") },
+                SortResult.class);
+        Assert.assertEquals(result.getMessageNumbers().length, 20, "Result mismatched.");
+        Assert.assertEquals(result.getMessageNumbers()[0], 20, "Result mismatched.");
+        Assert.assertEquals(result.getMessageNumbers()[19], 1, "Result mismatched.");
+        Assert.assertNull(result.getPartialRange(), "Result mismatched.");
+
+        final IMAPResponse[] noMatch = { new IMAPResponse("* ESEARCH (TAG \"a1\") UID\r\n"), new IMAPResponse("a1 OK SORT completed\r\n") };
+        result = mapper.readValue(noMatch, SortResult.class);
+        Assert.assertEquals(result.getMessageNumbers().length, 0, "Result mismatched.");
+    }
+
+    /**
+     * Tests parseToSortResult method with tagged response not OK, no response and malformed ESEARCH responses.
+     *
+     * @throws IOException will not throw
+     * @throws ProtocolException will not throw
+     */
+    @Test
+    public void testParseToSortResultInvalid() throws IOException, ProtocolException {
+        final ImapResponseMapper mapper = new ImapResponseMapper();
+        final IMAPResponse[][] notOk = { {}, { new IMAPResponse("* SORT 2\r\n"), new IMAPResponse("a1 NO [BADCHARSET] SORT failed\r\n") } };
+        for (final IMAPResponse[] content : notOk) {
+            ImapAsyncClientException cause = null;
+            try {
+                mapper.readValue(content, SortResult.class);
+            } catch (final ImapAsyncClientException e) {
+                cause = e;
+            }
+            Assert.assertNotNull(cause, "cause mismatched.");
+            Assert.assertEquals(cause.getFailureType(), FailureType.INVALID_INPUT, "Failure type mismatched.");
+        }
+
+        final String[] malformed = { "PARTIAL 1:5 3", "PARTIAL (1:5 3", "PARTIAL (15 3)", "PARTIAL (1:x 3)", "PARTIAL (1:5", "ALL 3,x", "ALL",
+                "PARTIAL (1:5 1:6)", "PARTIAL (1:5 1,3,7:10)", "ALL 1:4294967295", "ALL 0:5", "ALL 3,-1" };
+        for (final String data : malformed) {
+            ParsingException cause = null;
+            try {
+                mapper.readValue(new IMAPResponse[] { new IMAPResponse("* ESEARCH " + data + "\r\n"), new IMAPResponse("a1 OK SORT completed\r\n") },
+                        SortResult.class);
+            } catch (final ParsingException e) {
+                cause = e;
+            } catch (final ImapAsyncClientException e) {
+                Assert.fail("Should not throw ImapAsyncClientException for " + data);
+            }
+            Assert.assertNotNull(cause, "cause mismatched for " + data);
+        }
+    }
+
+    /**
+     * Tests parseToThreadResult method.
+     *
+     * @throws IOException will not throw
+     * @throws ProtocolException will not throw
+     * @throws ImapAsyncClientException will not throw
+     */
+    @Test
+    public void testParseToThreadResult() throws IOException, ProtocolException, ImapAsyncClientException {
+        final ImapResponseMapper mapper = new ImapResponseMapper();
+        final IMAPResponse[] content = { new IMAPResponse("* THREAD (2)(3 6 (4 23)(44 7 96)) ((5)(8 9))\r\n"),
+                new IMAPResponse("a1 OK THREAD completed\r\n") };
+        ThreadResult result = mapper.readValue(content, ThreadResult.class);
+        Assert.assertEquals(result.getMessageNumbers(), new long[] { 2, 3, 6, 4, 23, 44, 7, 96, 0, 5, 8, 9 }, "Result mismatched.");
+        Assert.assertEquals(result.getParentIndexes(), new int[] { -1, -1, 1, 2, 3, 2, 5, 6, -1, 8, 8, 10 }, "Result mismatched.");
+        Assert.assertEquals(result.getThreadCount(), 3, "Result mismatched.");
+
+        result = mapper.readValue(new IMAPResponse[] { new IMAPResponse("* THREAD\r\n"), new IMAPResponse("a1 OK THREAD completed\r\n") },
+                ThreadResult.class);
+        Assert.assertEquals(result.getMessageNumbers().length, 0, "Result mismatched.");
+        Assert.assertEquals(result.getParentIndexes().length, 0, "Result mismatched.");
+    }
+
+    /**
+     * Tests parseToThreadResult method with tagged response not OK, no response and malformed THREAD responses.
+     *
+     * @throws IOException will not throw
+     * @throws ProtocolException will not throw
+     */
+    @Test
+    public void testParseToThreadResultInvalid() throws IOException, ProtocolException {
+        final ImapResponseMapper mapper = new ImapResponseMapper();
+        final IMAPResponse[][] notOk = { {}, { new IMAPResponse("* THREAD (2)\r\n"), new IMAPResponse("a1 BAD THREAD failed\r\n") } };
+        for (final IMAPResponse[] content : notOk) {
+            ImapAsyncClientException cause = null;
+            try {
+                mapper.readValue(content, ThreadResult.class);
+            } catch (final ImapAsyncClientException e) {
+                cause = e;
+            }
+            Assert.assertNotNull(cause, "cause mismatched.");
+            Assert.assertEquals(cause.getFailureType(), FailureType.INVALID_INPUT, "Failure type mismatched.");
+        }
+
+        final String[] malformed = { "(2 x)", "(3 (4)" };
+        for (final String data : malformed) {
+            ParsingException cause = null;
+            try {
+                mapper.readValue(new IMAPResponse[] { new IMAPResponse("* THREAD " + data + "\r\n"), new IMAPResponse("a1 OK THREAD completed\r\n") },
+                        ThreadResult.class);
+            } catch (final ParsingException e) {
+                cause = e;
+            } catch (final ImapAsyncClientException e) {
+                Assert.fail("Should not throw ImapAsyncClientException for " + data);
+            }
+            Assert.assertNotNull(cause, "cause mismatched for " + data);
+        }
+    }
 }
@@ -0,0 +1,130 @@
+package com.yahoo.imapnio.async.response;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+
+import org.mockito.Mockito;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.sun.mail.iap.ProtocolException;
+import com.sun.mail.imap.protocol.IMAPResponse;
+import com.yahoo.imapnio.async.response.ImapStreamingResponseQueue.ConsumptionListener;
+
+/**
+ * Unit test for {@link ImapStreamingResponseQueue}.
+ */
+public class ImapStreamingResponseQueueTest {
+
+    /**
+     * Tests offer, addAll, poll and remove, and the listener being notified.
+     *
+     * @throws IOException will not throw
+     * @throws ProtocolException will not throw
+     */
+    @Test
+    public void testOfferPollRemove() throws IOException, ProtocolException {
+        final ImapStreamingResponseQueue queue = new ImapStreamingResponseQueue();
+        final ConsumptionListener listener = Mockito.mock(ConsumptionListener.class);
+        queue.setConsumptionListener(listener);
+
+        final IMAPResponse exists = new IMAPResponse("* 3 EXISTS"); // 10 bytes
+        final IMAPResponse recent = new IMAPResponse("* 2 RECENT"); // 10 bytes
+        final IMAPResponse expunge = new IMAPResponse("* 1 EXPUNGE"); // 11 bytes
+        Assert.assertTrue(queue.add(exists), "Result mismatched.");
+        Assert.assertTrue(queue.addAll(Arrays.asList(recent, expunge)), "Result mismatched.");
+        Assert.assertFalse(queue.addAll(Collections.<IMAPResponse> emptyList()), "Result mismatched.");
+        Assert.assertEquals(queue.getBufferedBytes(), 31, "Buffered bytes mismatched.");
+
+        Assert.assertSame(queue.poll(), exists, "Result mismatched.");
+        Assert.assertEquals(queue.getBufferedBytes(), 21, "Buffered bytes mismatched.");
+        Mockito.verify(listener, Mockito.times(1)).onConsumed(21);
+
+        Assert.assertTrue(queue.remove(expunge), "Result mismatched.");
+        Assert.assertFalse(queue.remove(expunge), "Result mismatched.");
+        Assert.assertEquals(queue.getBufferedBytes(), 10, "Buffered bytes mismatched.");
+        Mockito.verify(listener, Mockito.times(1)).onConsumed(10);
+
+        Assert.assertSame(queue.poll(), recent, "Result mismatched.");
+        Assert.assertNull(queue.poll(), "Result mismatched.");
+        Assert.assertEquals(queue.getBufferedBytes(), 0, "Buffered bytes mismatched.");
+        Mockito.verify(listener, Mockito.times(3)).onConsumed(Mockito.anyLong());
+
+        // no more notification once listener is removed
+        queue.setConsumptionListener(null);
+        queue.add(exists);
+        queue.poll();
+        Mockito.verify(listener, Mockito.times(3)).onConsumed(Mockito.anyLong());
+    }
+
+    /**
+     * Tests offering responses with the number of bytes known by the caller.
+     *
+     * @throws IOException will not throw
+     * @throws ProtocolException will not throw
+     */
+    @Test
+    public void testOfferWithKnownSize() throws IOException, ProtocolException {
+        final ImapStreamingResponseQueue queue = new ImapStreamingResponseQueue();
+        final ConsumptionListener listener = Mockito.mock(ConsumptionListener.class);
+        queue.setConsumptionListener(listener);
+
+        // size given by session is used instead of computing it from the response
+        final IMAPResponse fetch = new IMAPResponse("* 1 FETCH (UID 3)");
+        final IMAPResponse exists = new IMAPResponse("* 3 EXISTS");
+        Assert.assertTrue(queue.offer(fetch, 1000), "Result mismatched.");
+        Assert.assertTrue(queue.offer(exists, 10), "Result mismatched.");
+        Assert.assertEquals(queue.getBufferedBytes(), 1010, "Buffered bytes mismatched.");
+
+        Assert.assertSame(queue.poll(), fetch, "Result mismatched.");
+        Mockito.verify(listener).onConsumed(10);
+        Assert.assertTrue(queue.remove(exists), "Result mismatched.");
+        Mockito.verify(listener).onConsumed(0);
+    }
+
+    /**
+     * Tests adding the queue to itself.
+     */
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testAddAllItself() {
+        final ImapStreamingResponseQueue queue = new ImapStreamingResponseQueue();
+        queue.addAll(queue);
+    }
+
+    /**
+     * Tests clear, removeIf, removeAll, retainAll and iterator remove.
+     *
+     * @throws IOException will not throw
+     * @throws ProtocolException will not throw
+     */
+    @Test
+    public void testBulkRemove() throws IOException, ProtocolException {
+        final ImapStreamingResponseQueue queue = new ImapStreamingResponseQueue();
+        final IMAPResponse exists = new IMAPResponse("* 3 EXISTS");
+        final IMAPResponse recent = new IMAPResponse("* 2 RECENT");
+        final IMAPResponse expunge = new IMAPResponse("* 1 EXPUNGE");
+        queue.addAll(Arrays.asList(exists, recent, expunge));
+
+        Assert.assertTrue(queue.removeAll(Collections.singletonList(recent)), "Result mismatched.");
+        Assert.assertFalse(queue.removeAll(Collections.singletonList(recent)), "Result mismatched.");
+        Assert.assertEquals(queue.getBufferedBytes(), 21, "Buffered bytes mismatched.");
+
+        Assert.assertTrue(queue.retainAll(Collections.singletonList(exists)), "Result mismatched.");
+        Assert.assertEquals(queue.size(), 1, "Result mismatched.");
+        Assert.assertEquals(queue.getBufferedBytes(), 10, "Buffered bytes mismatched.");
+
+        queue.add(expunge);
+        final Iterator<IMAPResponse> it = queue.iterator();
+        Assert.assertTrue(it.hasNext(), "Result mismatched.");
+        Assert.assertSame(it.next(), exists, "Result mismatched.");
+        it.remove();
+        Assert.assertEquals(queue.getBufferedBytes(), 11, "Buffered bytes mismatched.");
+
+        queue.add(recent);
+        queue.clear();
+        Assert.assertTrue(queue.isEmpty(), "Result mismatched.");
+        Assert.assertEquals(queue.getBufferedBytes(), 0, "Buffered bytes mismatched.");
+    }
+}
@@ -1,12 +1,26 @@
 package com.yahoo.imapnio.client;
 
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import com.yahoo.imapnio.async.internal.ImapMemoryBudget;
+
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.TooLongFrameException;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 
 /**
  * Unit test for {@link ImapClientRespReader}.
@@ -328,4 +342,211 @@ public class ImapClientRespReaderTest {
         Assert.assertEquals(result2, ", and here u go with CRLF!\r\n", "decode() result mismatched.");
 
     }
+
+    /**
+     * Tests flight recorder event emitted for reading a large literal, and no event for small literals.
+     *
+     * @throws Exception not for this test
+     */
+    @Test
+    public void testDecodeLargeLiteralFlightRecorderEvent() throws Exception {
+        final int literalSize = 64 * 1024;
+        final byte[] literal = new byte[literalSize];
+        Arrays.fill(literal, (byte) 'a');
+        final ImapClientRespReader respReader = new ImapClientRespReader(Integer.MAX_VALUE, true);
+
+        final Recording recording = new Recording();
+        recording.enable("com.yahoo.imapnio.LiteralRead");
+        recording.start();
+        final ByteBuf smallBuf = Unpooled.copiedBuffer("* 1 FETCH (BODY[] {3}\r\nabc)\r\n", StandardCharsets.US_ASCII);
+        Assert.assertNotNull(respReader.decode(null, smallBuf), "Result mismatched.");
+        final ByteBuf headerBuf = Unpooled.copiedBuffer("* 2 FETCH (BODY[] {" + literalSize + "}\r\n", StandardCharsets.US_ASCII);
+        Assert.assertNull(respReader.decode(null, headerBuf), "Result mismatched.");
+        Assert.assertNull(respReader.decode(null, Unpooled.wrappedBuffer(literal, 0, literalSize / 2)), "Result mismatched.");
+        Assert.assertNull(respReader.decode(null, Unpooled.wrappedBuffer(literal, 0, literalSize / 2)), "Result mismatched.");
+        final ByteBuf resultBuf = (ByteBuf) respReader.decode(null, Unpooled.copiedBuffer(")\r\n", StandardCharsets.US_ASCII));
+        Assert.assertNotNull(resultBuf, "Result mismatched.");
+        recording.stop();
+
+        final Path file = Files.createTempFile("imapnio", ".jfr");
+        try {
+            recording.dump(file);
+            final List<RecordedEvent> events = new ArrayList<RecordedEvent>();
+            for (final RecordedEvent event : RecordingFile.readAllEvents(file)) {
+                if (event.getEventType().getName().equals("com.yahoo.imapnio.LiteralRead")) {
+                    events.add(event);
+                }
+            }
+            Assert.assertEquals(events.size(), 1, "Number of events mismatched.");
+            Assert.assertEquals(events.get(0).getLong("literalSize"), literalSize, "Result mismatched.");
+        } finally {
+            recording.close();
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Tests literal buffers being reserved from the memory budget, released once the response is complete or the reader is removed.
+     *
+     * @throws Exception not for this test
+     */
+    @Test
+    public void testDecodeLiteralWithMemoryBudget() throws Exception {
+        final ImapMemoryBudget budget = new ImapMemoryBudget(1000);
+        final ImapClientRespReader respReader = new ImapClientRespReader(Integer.MAX_VALUE, false, budget);
+        Assert.assertSame(respReader.getMemoryBudget(), budget, "Result mismatched.");
+
+        // header line is 24 bytes with CRLF, literal is 10 bytes
+        Assert.assertNull(respReader.decode(null, Unpooled.copiedBuffer("* 1 FETCH (BODY[] {10}\r\n", StandardCharsets.US_ASCII)),
+                "Result mismatched.");
+        Assert.assertEquals(budget.getReservedBytes(), 34, "Result mismatched.");
+        final ByteBuf resultBuf = (ByteBuf) respReader.decode(null, Unpooled.copiedBuffer("0123456789)\r\n", StandardCharsets.US_ASCII));
+        Assert.assertNotNull(resultBuf, "Result mismatched.");
+        resultBuf.release();
+        Assert.assertEquals(budget.getReservedBytes(), 0, "Result mismatched.");
+        Assert.assertEquals(respReader.getLiteralBytesRead(), 10, "Result mismatched.");
+
+        // channel closed in the middle of a literal
+        Assert.assertNull(respReader.decode(null, Unpooled.copiedBuffer("* 2 FETCH (BODY[] {10}\r\n01234", StandardCharsets.US_ASCII)),
+                "Result mismatched.");
+        Assert.assertEquals(budget.getReservedBytes(), 34, "Result mismatched.");
+        respReader.handlerRemoved0(null);
+        Assert.assertEquals(budget.getReservedBytes(), 0, "Result mismatched.");
+        respReader.handlerRemoved0(null);
+        Assert.assertEquals(budget.getReservedBytes(), 0, "Result mismatched.");
+
+        // no budget
+        final ImapClientRespReader unlimitedReader = new ImapClientRespReader(Integer.MAX_VALUE, false);
+        Assert.assertNull(unlimitedReader.getMemoryBudget(), "Result mismatched.");
+        Assert.assertNull(unlimitedReader.decode(null, Unpooled.copiedBuffer("* 2 FETCH (BODY[] {10}\r\n01234", StandardCharsets.US_ASCII)),
+                "Result mismatched.");
+        unlimitedReader.handlerRemoved0(null);
+    }
+
+    /**
+     * Tests reading being paused by the reader when a literal exceeds the memory budget, and the literal still being read when data has arrived.
+     */
+    @Test
+    public void testDecodeLiteralExceedingMemoryBudget() {
+        final ImapMemoryBudget budget = new ImapMemoryBudget(100);
+        final List<Object> events = new ArrayList<>();
+        final EmbeddedChannel channel = new EmbeddedChannel(new ImapClientRespReader(Integer.MAX_VALUE, false, budget),
+                new ChannelInboundHandlerAdapter() {
+                    @Override
+                    public void userEventTriggered(final ChannelHandlerContext ctx, final Object evt) {
+                        events.add(evt);
+                    }
+                });
+
+        // header line is 24 bytes with CRLF, within the budget
+        channel.writeInbound(Unpooled.copiedBuffer("* 1 FETCH (BODY[] {10}\r\n0123456789)\r\n", StandardCharsets.US_ASCII));
+        ((ByteBuf) channel.readInbound()).release();
+        Assert.assertTrue(channel.config().isAutoRead(), "Read should not be paused.");
+        Assert.assertTrue(events.isEmpty(), "Result mismatched.");
+
+        // literal is 90 bytes, exceeding the budget along with its header line
+        channel.writeInbound(Unpooled.copiedBuffer("* 2 FETCH (BODY[] {90}\r\n0123456789", StandardCharsets.US_ASCII));
+        Assert.assertFalse(channel.config().isAutoRead(), "Read should be paused.");
+        Assert.assertEquals(events, Arrays.asList(ImapClientRespReader.MemoryBudgetEvent.EXCEEDED), "Result mismatched.");
+        Assert.assertEquals(budget.getReservedBytes(), 114, "Result mismatched.");
+
+        // data sent by server already is still read, buffer grows as it arrives
+        final byte[] rest = new byte[80];
+        Arrays.fill(rest, (byte) 'a');
+        channel.writeInbound(Unpooled.wrappedBuffer(rest), Unpooled.copiedBuffer(")\r\n", StandardCharsets.US_ASCII));
+        final ByteBuf resultBuf = channel.readInbound();
+        Assert.assertEquals(resultBuf.readableBytes(), 117, "Result mismatched.");
+        resultBuf.release();
+        Assert.assertEquals(budget.getReservedBytes(), 0, "Result mismatched.");
+        channel.finishAndReleaseAll();
+    }
+
+    /**
+     * Tests the maximum literal size being capped to the memory budget.
+     *
+     * @throws Exception will not throw
+     */
+    @Test
+    public void testMaxLiteralSizeCappedToMemoryBudget() throws Exception {
+        final ImapMemoryBudget budget = new ImapMemoryBudget(1000);
+        final ImapClientRespReader respReader = new ImapClientRespReader(Integer.MAX_VALUE, false, budget);
+        TooLongFrameException tooLong = null;
+        try {
+            respReader.decode(null, Unpooled.copiedBuffer("* 1 FETCH (BODY[] {2147483647}\r\n", StandardCharsets.US_ASCII));
+        } catch (final TooLongFrameException e) {
+            tooLong = e;
+        }
+        Assert.assertNotNull(tooLong, "Should throw TooLongFrameException.");
+        Assert.assertEquals(tooLong.getMessage(), "Literal size 2147483647 exceeds 1000", "Result mismatched.");
+        Assert.assertEquals(budget.getReservedBytes(), 0, "Result mismatched.");
+    }
+
+    /**
+     * Tests discarding responses with literals larger than the maximum literal size, including their following lines and literals.
+     *
+     * @throws Exception will not throw
+     */
+    @Test
+    public void testDecodeOversizedLiteral() throws Exception {
+        final ImapMemoryBudget budget = new ImapMemoryBudget(1000);
+        final ImapClientRespReader respReader = new ImapClientRespReader(Integer.MAX_VALUE, 5, false, budget);
+
+        TooLongFrameException tooLong = null;
+        try {
+            respReader.decode(null, Unpooled.copiedBuffer("* 1 FETCH (BODY[] {10}\r\n", StandardCharsets.US_ASCII));
+        } catch (final TooLongFrameException e) {
+            tooLong = e;
+        }
+        Assert.assertNotNull(tooLong, "Should throw TooLongFrameException.");
+        Assert.assertEquals(tooLong.getMessage(), "Literal size 10 exceeds 5", "Result mismatched.");
+        Assert.assertEquals(budget.getReservedBytes(), 0, "Result mismatched.");
+
+        // rest of the response is skipped, including its following literals
+        Assert.assertNull(respReader.decode(null, Unpooled.copiedBuffer("0123456789 BODY[1] {3}\r\nabc)\r\n", StandardCharsets.US_ASCII)),
+                "Result mismatched.");
+        Assert.assertEquals(respReader.getLiteralBytesRead(), 0, "Result mismatched.");
+
+        // next response is decoded as usual
+        ByteBuf resultBuf = (ByteBuf) respReader.decode(null, Unpooled.copiedBuffer("* 2 FETCH (BODY[] {3}\r\nabc)\r\n", StandardCharsets.US_ASCII));
+        Assert.assertEquals(resultBuf.toString(StandardCharsets.US_ASCII), "* 2 FETCH (BODY[] {3}\r\nabc)\r\n", "Result mismatched.");
+        resultBuf.release();
+
+        // oversized literal following an accepted one in the same response
+        tooLong = null;
+        try {
+            respReader.decode(null, Unpooled.copiedBuffer("* 3 FETCH (BODY[1] {3}\r\nabc BODY[2] {6}\r\n", StandardCharsets.US_ASCII));
+        } catch (final TooLongFrameException e) {
+            tooLong = e;
+        }
+        Assert.assertNotNull(tooLong, "Should throw TooLongFrameException.");
+        Assert.assertEquals(budget.getReservedBytes(), 0, "Result mismatched.");
+        Assert.assertNull(respReader.decode(null, Unpooled.copiedBuffer("abcdef)\r\n", StandardCharsets.US_ASCII)), "Result mismatched.");
+        resultBuf = (ByteBuf) respReader.decode(null, Unpooled.copiedBuffer("a1 OK FETCH completed\r\n", StandardCharsets.US_ASCII));
+        Assert.assertEquals(resultBuf.toString(StandardCharsets.US_ASCII), "a1 OK FETCH completed\r\n", "Result mismatched.");
+        resultBuf.release();
+    }
+
+    /**
+     * Tests decoding a response with a literal8, whose binary content may contain NUL, CRLF and 8-bit bytes.
+     *
+     * @throws Exception will not throw
+     */
+    @Test
+    public void testDecodeLiteral8Response() throws Exception {
+        final ImapClientRespReader respReader = new ImapClientRespReader(Integer.MAX_VALUE);
+        final byte[] binary = { 'a', 0, '\r', '\n', (byte) 0xff, '{', '2', '}', '\r', '\n' };
+        final ByteBuf input = Unpooled.buffer();
+        input.writeBytes("* 1 FETCH (BINARY[1] ~{10}\r\n".getBytes(StandardCharsets.US_ASCII));
+        input.writeBytes(binary);
+        input.writeBytes(")\r\n".getBytes(StandardCharsets.US_ASCII));
+
+        final ByteBuf resultBuf = (ByteBuf) respReader.decode(null, input);
+        Assert.assertNotNull(resultBuf, "Result mismatched.");
+        final byte[] expected = new byte[resultBuf.readableBytes()];
+        resultBuf.getBytes(0, expected);
+        Assert.assertEquals(new String(expected, StandardCharsets.ISO_8859_1),
+                "* 1 FETCH (BINARY[1] ~{10}\r\n" + new String(binary, StandardCharsets.ISO_8859_1) + ")\r\n", "Result mismatched.");
+        Assert.assertEquals(respReader.getLiteralBytesRead(), 10, "Result mismatched.");
+        resultBuf.release();
+    }
 }